@@ -0,0 +1,73 @@
+package com.github.marschall.procmbean;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares opening the proc files on every read with keeping them open
+ * and re-reading them with positional reads.
+ *
+ * <p>Every read of a reopened file costs {@code openat}, {@code read}
+ * until end of file and {@code close}, a persistent handle costs a single
+ * {@code pread64}. Run with {@code strace -c -f} to see the syscall counts.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PersistentHandleBenchmark {
+
+  @Param({"reopening", "persistent"})
+  public String handles;
+
+  private Proc proc;
+
+  @Setup
+  public void setUp() {
+    if (this.handles.equals("persistent")) {
+      this.proc = Proc.withPersistentHandles();
+    } else {
+      this.proc = new Proc();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    this.proc.close();
+  }
+
+  @Benchmark
+  public ProcessStat getStat() {
+    return this.proc.getStat();
+  }
+
+  @Benchmark
+  public ProcessStatus getStatus() {
+    return this.proc.getStatus();
+  }
+
+  @Benchmark
+  public MemoryUsageStatistics getMemoryUsageStatistics() {
+    return this.proc.getMemoryUsageStatistics();
+  }
+
+  @Benchmark
+  public IoStatistics getIoStatistics() {
+    return this.proc.getIoStatistics();
+  }
+
+  @Benchmark
+  public int getOomScore() {
+    return this.proc.getOomScore();
+  }
+
+}
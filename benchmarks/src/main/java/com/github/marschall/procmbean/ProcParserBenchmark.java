@@ -0,0 +1,137 @@
+package com.github.marschall.procmbean;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures throughput and allocation rate of every proc file parser.
+ *
+ * <p>{@code sample} reads the sample files checked in under
+ * {@code src/test/resources}, the benchmarks have to be run from the
+ * {@code benchmarks} directory. {@code live} reads the files of the
+ * benchmark process in {@code /proc/self}.</p>
+ *
+ * <p>Run {@link #main(String[])} or pass {@code -prof gc} to the
+ * benchmarks JAR to get the allocation rate.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcParserBenchmark {
+
+  @Param({"sample", "live"})
+  public String source;
+
+  private Path stat;
+  private Path statm;
+  private Path status;
+  private Path io;
+  private Path oomScore;
+  private Path maps;
+  private Path smaps;
+  private Path smapsRollup;
+
+  @Setup
+  public void setUp() {
+    if (this.source.equals("live")) {
+      Path procSelf = Paths.get("/proc/self");
+      this.stat = procSelf.resolve("stat");
+      this.statm = procSelf.resolve("statm");
+      this.status = procSelf.resolve("status");
+      this.io = procSelf.resolve("io");
+      this.oomScore = procSelf.resolve("oom_score");
+      this.maps = procSelf.resolve("maps");
+      this.smaps = procSelf.resolve("smaps");
+      this.smapsRollup = procSelf.resolve("smaps_rollup");
+    } else {
+      this.stat = getSampleFile("stat-sample-input.txt");
+      this.statm = getSampleFile("statm-sample-input.txt");
+      this.status = getSampleFile("status-sample-input.txt");
+      this.io = getSampleFile("io-sample-input.txt");
+      this.oomScore = getSampleFile("oom_score-sample-input.txt");
+      this.maps = getSampleFile("maps-sample-input.txt");
+      this.smaps = getSampleFile("smaps-sample-input.txt");
+      this.smapsRollup = getSampleFile("smaps_rollup-sample-input.txt");
+    }
+  }
+
+  private static Path getSampleFile(String fileName) {
+    return Paths.get("..", "src", "test", "resources", fileName);
+  }
+
+  @Benchmark
+  public ProcessStat getStat() {
+    return Proc.getStat(this.stat);
+  }
+
+  @Benchmark
+  public ProcessStatus getStatus() {
+    return Proc.getStatus(this.status);
+  }
+
+  @Benchmark
+  public MemoryUsageStatistics getMemoryUsageStatistics() {
+    return Proc.getMemoryUsageStatistics(this.statm);
+  }
+
+  @Benchmark
+  public IoStatistics getIoStatistics() {
+    return Proc.getIoStatistics(this.io);
+  }
+
+  @Benchmark
+  public int getOomScore() {
+    return Proc.getOomScore(this.oomScore);
+  }
+
+  @Benchmark
+  public List<Mapping> getMappings() {
+    return Proc.getMappings(this.maps);
+  }
+
+  @Benchmark
+  public String mappingsString() {
+    return Proc.mappingsString(this.maps, ',');
+  }
+
+  @Benchmark
+  public Smaps getSmaps() {
+    return Proc.getSmaps(this.smaps);
+  }
+
+  @Benchmark
+  public SmapsRollup getSmapsRollup() {
+    return Proc.getSmapsRollup(this.smapsRollup, this.smaps);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+            .include(ProcParserBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .build();
+    new Runner(options).run();
+  }
+
+}
@@ -0,0 +1,154 @@
+package com.github.marschall.procmbean;
+
+/**
+ * Utility methods for parsing ASCII text in a byte array without allocating.
+ */
+final class Ascii {
+
+  private Ascii() {
+    throw new AssertionError("not instantiable");
+  }
+
+  static boolean regionEquals(byte[] buffer, int start, int end, byte[] key) {
+    if ((end - start) != key.length) {
+      return false;
+    }
+    for (int i = 0; i < key.length; i++) {
+      if (buffer[start + i] != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static int hash(byte[] buffer, int start, int end) {
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + buffer[i];
+    }
+    return hash;
+  }
+
+  static boolean isDigit(byte b) {
+    return (b >= '0') && (b <= '9');
+  }
+
+  static int skipBlanks(byte[] buffer, int start, int length) {
+    int position = start;
+    while ((position < length) && ((buffer[position] == ' ') || (buffer[position] == '\t'))) {
+      position += 1;
+    }
+    return position;
+  }
+
+  static int skipLine(byte[] buffer, int start, int length) {
+    int position = start;
+    while ((position < length) && (buffer[position] != '\n')) {
+      position += 1;
+    }
+    // skip the newline
+    return position + 1;
+  }
+
+  /**
+   * Parses a signed decimal number. Numbers that exceed the range of
+   * {@code long} wrap around so that unsigned 64 bit values end up with the
+   * same bits as {@link Long#parseUnsignedLong(String)} would return.
+   *
+   * @param buffer the buffer to parse
+   * @param start the index of the first character of the number
+   * @param length the number of valid bytes in {@code buffer}
+   * @return the parsed number, 0 if there are no digits
+   */
+  static long parseLong(byte[] buffer, int start, int length) {
+    int position = start;
+    boolean negative = (position < length) && (buffer[position] == '-');
+    if (negative) {
+      position += 1;
+    }
+    long value = 0L;
+    while ((position < length) && isDigit(buffer[position])) {
+      value = value * 10L + (buffer[position] - '0');
+      position += 1;
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Parses space separated decimal fields until the end of the line.
+   *
+   * @param buffer the buffer to parse
+   * @param start the index of the first field
+   * @param length the number of valid bytes in {@code buffer}
+   * @param values where to store the values
+   * @param firstIndex the index in {@code values} for the first field
+   * @return the index in {@code values} after the last field parsed
+   */
+  static int parseFields(byte[] buffer, int start, int length, long[] values, int firstIndex) {
+    int position = start;
+    int index = firstIndex;
+    while ((position < length) && (buffer[position] != '\n') && (index < values.length)) {
+      values[index] = parseLong(buffer, position, length);
+      index += 1;
+      while ((position < length) && (buffer[position] != ' ') && (buffer[position] != '\n')) {
+        position += 1;
+      }
+      while ((position < length) && (buffer[position] == ' ')) {
+        position += 1;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Returns the value of a hexadecimal digit.
+   *
+   * @param b the character
+   * @return the value of the digit, -1 if {@code b} is not a hexadecimal digit
+   */
+  static int hexValue(byte b) {
+    if ((b >= '0') && (b <= '9')) {
+      return b - '0';
+    }
+    if ((b >= 'a') && (b <= 'f')) {
+      return b - 'a' + 10;
+    }
+    if ((b >= 'A') && (b <= 'F')) {
+      return b - 'A' + 10;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the first byte after a run of hexadecimal digits.
+   *
+   * @param buffer the buffer to search
+   * @param start the index to start at
+   * @param end the index to stop at
+   * @return the index of the first byte that is not a hexadecimal digit
+   */
+  static int skipHex(byte[] buffer, int start, int end) {
+    int position = start;
+    while ((position < end) && (hexValue(buffer[position]) != -1)) {
+      position += 1;
+    }
+    return position;
+  }
+
+  /**
+   * Parses an unsigned hexadecimal number.
+   *
+   * @param buffer the buffer to parse
+   * @param start the index of the first digit
+   * @param end the index after the last digit
+   * @return the parsed number
+   */
+  static long parseHex(byte[] buffer, int start, int end) {
+    long value = 0L;
+    for (int i = start; i < end; i++) {
+      value = (value << 4) | hexValue(buffer[i]);
+    }
+    return value;
+  }
+
+}
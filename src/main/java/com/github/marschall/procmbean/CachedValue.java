@@ -0,0 +1,133 @@
+package com.github.marschall.procmbean;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A value that is cached for a maximum age and loaded at most once
+ * at a time.
+ *
+ * <p>Callers that find the value expired while another caller is already
+ * loading it wait for that load instead of issuing their own
+ * (single-flight).</p>
+ *
+ * @param <T> the type of the value
+ */
+final class CachedValue<T> {
+
+  private final Supplier<T> loader;
+  private final LongSupplier maxAge;
+  private final Statistics statistics;
+
+  private volatile Entry<T> entry;
+
+  // guarded by this
+  private CompletableFuture<T> inFlight;
+
+  /**
+   * Constructs a new cached value.
+   *
+   * @param loader loads the current value
+   * @param maxAge the maximum age of the value in nanoseconds, evaluated on every access
+   * @param statistics where to count hits, misses and coalesced reads
+   */
+  CachedValue(Supplier<T> loader, LongSupplier maxAge, Statistics statistics) {
+    this.loader = loader;
+    this.maxAge = maxAge;
+    this.statistics = statistics;
+  }
+
+  T get() {
+    Entry<T> current = this.entry;
+    if (this.isFresh(current)) {
+      this.statistics.hits.increment();
+      return current.value;
+    }
+    CompletableFuture<T> future;
+    boolean load;
+    synchronized (this) {
+      current = this.entry;
+      if (this.isFresh(current)) {
+        this.statistics.hits.increment();
+        return current.value;
+      }
+      if (this.inFlight != null) {
+        future = this.inFlight;
+        load = false;
+      } else {
+        future = new CompletableFuture<>();
+        this.inFlight = future;
+        load = true;
+      }
+    }
+    if (load) {
+      this.statistics.misses.increment();
+      return this.load(future);
+    } else {
+      this.statistics.coalesced.increment();
+      return join(future);
+    }
+  }
+
+  private boolean isFresh(Entry<T> current) {
+    return (current != null) && ((System.nanoTime() - current.loaded) < this.maxAge.getAsLong());
+  }
+
+  private T load(CompletableFuture<T> future) {
+    try {
+      T value = this.loader.get();
+      this.entry = new Entry<>(value, System.nanoTime());
+      future.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      synchronized (this) {
+        this.inFlight = null;
+      }
+    }
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  static final class Entry<T> {
+
+    final T value;
+    final long loaded;
+
+    Entry(T value, long loaded) {
+      this.value = value;
+      this.loaded = loaded;
+    }
+
+  }
+
+  /**
+   * Counters shared by all values of a cache.
+   */
+  static final class Statistics {
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder coalesced = new LongAdder();
+
+  }
+
+}
@@ -0,0 +1,214 @@
+package com.github.marschall.procmbean;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.MBeanNotificationInfo;
+import javax.management.Notification;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
+
+/**
+ * Caches the attributes of a {@link ProcMXBean} for a maximum age.
+ *
+ * <p>Useful when several JMX collectors scrape the same bean at about
+ * the same time. Concurrent reads of an expired attribute wait for the
+ * read already in flight instead of reading the proc file again.
+ * {@link #mappingsString(char)} and {@link #diffMappings()} are not cached.</p>
+ *
+ * <p>Notifications of the delegate are forwarded as copies with this bean
+ * as source until {@link #close()} is called.</p>
+ */
+public class CachingProc implements CachingProcMXBean, NotificationEmitter, Closeable {
+
+  private final ProcMXBean delegate;
+  private final CachedValue.Statistics statistics;
+  private volatile long maxAgeNanos;
+
+  private final CachedValue<Smaps> smaps;
+  private final CachedValue<SmapsRollup> smapsRollup;
+  private final CachedValue<ProcessStat> stat;
+  private final CachedValue<MemoryUsageStatistics> memoryUsageStatistics;
+  private final CachedValue<ProcessStatus> status;
+  private final CachedValue<List<Mapping>> mappings;
+  private final CachedValue<Integer> oomScore;
+  private final CachedValue<IoStatistics> ioStatistics;
+
+  private final NotificationBroadcasterSupport notifications;
+  private final NotificationListener forwarder;
+
+  /**
+   * Constructs a new cache.
+   *
+   * @param delegate the bean to cache
+   * @param maxAge the maximum age of a cached attribute in milliseconds
+   */
+  public CachingProc(ProcMXBean delegate, long maxAge) {
+    Objects.requireNonNull(delegate, "delegate");
+    this.delegate = delegate;
+    this.setMaxAge(maxAge);
+    this.statistics = new CachedValue.Statistics();
+    this.smaps = this.cache(delegate::getSmaps);
+    this.smapsRollup = this.cache(delegate::getSmapsRollup);
+    this.stat = this.cache(delegate::getStat);
+    this.memoryUsageStatistics = this.cache(delegate::getMemoryUsageStatistics);
+    this.status = this.cache(delegate::getStatus);
+    // the list is shared between callers
+    this.mappings = this.cache(() -> Collections.unmodifiableList(delegate.getMappings()));
+    this.oomScore = this.cache(delegate::getOomScore);
+    this.ioStatistics = this.cache(delegate::getIoStatistics);
+    if (delegate instanceof NotificationEmitter) {
+      NotificationEmitter emitter = (NotificationEmitter) delegate;
+      this.notifications = new NotificationBroadcasterSupport(emitter.getNotificationInfo());
+      this.forwarder = this::forward;
+      emitter.addNotificationListener(this.forwarder, null, null);
+    } else {
+      this.notifications = new NotificationBroadcasterSupport();
+      this.forwarder = null;
+    }
+  }
+
+  private void forward(Notification notification, Object handback) {
+    // other listeners of the delegate receive the same instance
+    Notification copy = new Notification(notification.getType(), this, notification.getSequenceNumber(),
+            notification.getTimeStamp(), notification.getMessage());
+    copy.setUserData(notification.getUserData());
+    this.notifications.sendNotification(copy);
+  }
+
+  private <T> CachedValue<T> cache(Supplier<T> loader) {
+    return new CachedValue<>(loader, () -> this.maxAgeNanos, this.statistics);
+  }
+
+  @Override
+  public long getMaxAge() {
+    return TimeUnit.NANOSECONDS.toMillis(this.maxAgeNanos);
+  }
+
+  @Override
+  public void setMaxAge(long maxAge) {
+    if (maxAge < 0L) {
+      throw new IllegalArgumentException("max age must not be negative");
+    }
+    this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAge);
+  }
+
+  @Override
+  public long getCacheHits() {
+    return this.statistics.hits.sum();
+  }
+
+  @Override
+  public long getCacheMisses() {
+    return this.statistics.misses.sum();
+  }
+
+  @Override
+  public long getCoalescedReads() {
+    return this.statistics.coalesced.sum();
+  }
+
+  @Override
+  public Smaps getSmaps() {
+    return this.smaps.get();
+  }
+
+  @Override
+  public SmapsRollup getSmapsRollup() {
+    return this.smapsRollup.get();
+  }
+
+  @Override
+  public ProcessStat getStat() {
+    return this.stat.get();
+  }
+
+  @Override
+  public MemoryUsageStatistics getMemoryUsageStatistics() {
+    return this.memoryUsageStatistics.get();
+  }
+
+  @Override
+  public ProcessStatus getStatus() {
+    return this.status.get();
+  }
+
+  @Override
+  public List<Mapping> getMappings() {
+    return this.mappings.get();
+  }
+
+  @Override
+  public int getOomScore() {
+    return this.oomScore.get();
+  }
+
+  @Override
+  public IoStatistics getIoStatistics() {
+    return this.ioStatistics.get();
+  }
+
+  @Override
+  public String mappingsString(char separator) {
+    return this.delegate.mappingsString(separator);
+  }
+
+  @Override
+  public MappingsDiff diffMappings() {
+    return this.delegate.diffMappings();
+  }
+
+  @Override
+  public long getMappingGrowthThreshold() {
+    return this.delegate.getMappingGrowthThreshold();
+  }
+
+  @Override
+  public void setMappingGrowthThreshold(long threshold) {
+    this.delegate.setMappingGrowthThreshold(threshold);
+  }
+
+  @Override
+  public void addNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) {
+    this.notifications.addNotificationListener(listener, filter, handback);
+  }
+
+  @Override
+  public void removeNotificationListener(NotificationListener listener) throws ListenerNotFoundException {
+    this.notifications.removeNotificationListener(listener);
+  }
+
+  @Override
+  public void removeNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback)
+          throws ListenerNotFoundException {
+    this.notifications.removeNotificationListener(listener, filter, handback);
+  }
+
+  @Override
+  public MBeanNotificationInfo[] getNotificationInfo() {
+    return this.notifications.getNotificationInfo();
+  }
+
+  /**
+   * Stops forwarding the notifications of the delegate so that the delegate
+   * no longer references this bean. The delegate is not closed.
+   */
+  @Override
+  public void close() {
+    if (this.forwarder != null) {
+      try {
+        ((NotificationEmitter) this.delegate).removeNotificationListener(this.forwarder, null, null);
+      } catch (ListenerNotFoundException e) {
+        // already closed
+      }
+    }
+  }
+
+}
@@ -0,0 +1,16 @@
+package com.github.marschall.procmbean;
+
+public interface CachingProcMXBean extends ProcMXBean {
+
+  @Units("milliseconds")
+  long getMaxAge();
+
+  void setMaxAge(long maxAge);
+
+  long getCacheHits();
+
+  long getCacheMisses();
+
+  long getCoalescedReads();
+
+}
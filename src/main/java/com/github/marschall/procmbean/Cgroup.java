@@ -0,0 +1,446 @@
+package com.github.marschall.procmbean;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Reads the memory and CPU accounting of the cgroup of the current
+ * process.
+ *
+ * <p>The cgroup is resolved once from {@code /proc/self/cgroup} and
+ * {@code /proc/self/mountinfo}. cgroup v2 is used if the memory controller
+ * is enabled in the unified hierarchy, otherwise the v1 memory, cpu and
+ * cpuacct hierarchies are used. The files are parsed like the proc files
+ * without allocating besides the returned objects.</p>
+ *
+ * <p>The throttling ratios are derived from the CPU counters of the last
+ * two samples of a {@link Sampler} passed to
+ * {@link #trackThrottling(Sampler)}, they are 0 without a sampler.</p>
+ */
+public class Cgroup implements CgroupMXBean, Closeable {
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=Cgroup";
+
+  // v1 reports no limit as Long.MAX_VALUE rounded down to a page
+  private static final long V1_UNLIMITED = 1L << 62;
+
+  private static final int V2_MEMORY_ANON = 0;
+  private static final int V2_MEMORY_FILE = 1;
+  private static final int V2_MEMORY_SLAB = 2;
+  private static final int V2_MEMORY_SOCK = 3;
+
+  private static final KeyValueParser V2_MEMORY_STAT_PARSER = new KeyValueParser((byte) ' ',
+          "anon",
+          "file",
+          "slab",
+          "sock");
+
+  private static final int V1_MEMORY_TOTAL_RSS = 0;
+  private static final int V1_MEMORY_TOTAL_CACHE = 1;
+  private static final int V1_MEMORY_HIERARCHICAL_LIMIT = 2;
+
+  private static final KeyValueParser V1_MEMORY_STAT_PARSER = new KeyValueParser((byte) ' ',
+          "total_rss",
+          "total_cache",
+          "hierarchical_memory_limit");
+
+  private static final int V2_CPU_USAGE = 0;
+  private static final int V2_CPU_PERIODS = 1;
+  private static final int V2_CPU_THROTTLED_PERIODS = 2;
+  private static final int V2_CPU_THROTTLED_TIME = 3;
+
+  private static final KeyValueParser V2_CPU_STAT_PARSER = new KeyValueParser((byte) ' ',
+          "usage_usec",
+          "nr_periods",
+          "nr_throttled",
+          "throttled_usec");
+
+  private static final int V1_CPU_PERIODS = 0;
+  private static final int V1_CPU_THROTTLED_PERIODS = 1;
+  private static final int V1_CPU_THROTTLED_TIME = 2;
+
+  // the usage is in cpuacct.usage, the times are in ns
+  private static final KeyValueParser V1_CPU_STAT_PARSER = new KeyValueParser((byte) ' ',
+          "nr_periods",
+          "nr_throttled",
+          "throttled_time");
+
+  private final Location location;
+
+  private final ProcFile memoryCurrent;
+  private final ProcFile memoryLimit;
+  private final ProcFile memoryStat;
+  private final ProcFile memorySocket;
+  private final ProcFile cpuStat;
+  private final ProcFile cpuUsage;
+
+  private volatile CpuCountersPair cpuSamples;
+
+  private final SampleSubscription throttling;
+
+  /**
+   * Constructs a new {@link Cgroup} for the cgroup of the current process.
+   *
+   * @throws IllegalStateException if the process is not in a cgroup with
+   *                               a memory controller
+   * @throws UncheckedIOException if the cgroup can not be resolved
+   */
+  public Cgroup() {
+    this(locate(Paths.get("/proc/self/cgroup"), Paths.get("/proc/self/mountinfo"), Paths.get("/")));
+  }
+
+  Cgroup(Location location) {
+    this.location = location;
+    this.cpuSamples = new CpuCountersPair(null, null);
+    this.throttling = new SampleSubscription();
+    if (location.version == 2) {
+      this.memoryCurrent = ProcFile.reopening(location.memory.resolve("memory.current"));
+      this.memoryLimit = ProcFile.reopening(location.memory.resolve("memory.max"));
+      this.memoryStat = ProcFile.reopening(location.memory.resolve("memory.stat"));
+      this.memorySocket = null;
+      this.cpuStat = ProcFile.reopening(location.cpu.resolve("cpu.stat"));
+      this.cpuUsage = null;
+    } else {
+      this.memoryCurrent = ProcFile.reopening(location.memory.resolve("memory.usage_in_bytes"));
+      this.memoryLimit = ProcFile.reopening(location.memory.resolve("memory.limit_in_bytes"));
+      this.memoryStat = ProcFile.reopening(location.memory.resolve("memory.stat"));
+      Path socket = location.memory.resolve("memory.kmem.tcp.usage_in_bytes");
+      this.memorySocket = Files.exists(socket) ? ProcFile.reopening(socket) : null;
+      this.cpuStat = location.cpu != null ? ProcFile.reopening(location.cpu.resolve("cpu.stat")) : null;
+      this.cpuUsage = location.cpuacct != null ? ProcFile.reopening(location.cpuacct.resolve("cpuacct.usage")) : null;
+    }
+  }
+
+  Location getLocation() {
+    return this.location;
+  }
+
+  @Override
+  public int getVersion() {
+    return this.location.version;
+  }
+
+  @Override
+  public String getPath() {
+    return this.location.path;
+  }
+
+  @Override
+  public CgroupMemory getMemory() {
+    long current = readValue(this.memoryCurrent);
+    long limit = readLimit(this.memoryLimit);
+    long socket = this.memorySocket != null ? readValue(this.memorySocket) : 0L;
+    ReadBuffer buffer = Proc.read(this.memoryStat);
+    if (this.location.version == 2) {
+      long[] values = buffer.values(V2_MEMORY_STAT_PARSER.size());
+      V2_MEMORY_STAT_PARSER.parse(buffer.array(), buffer.length(), values);
+      return new CgroupMemory(current, limit,
+              values[V2_MEMORY_ANON], values[V2_MEMORY_FILE], values[V2_MEMORY_SLAB], values[V2_MEMORY_SOCK]);
+    } else {
+      long[] values = buffer.values(V1_MEMORY_STAT_PARSER.size());
+      V1_MEMORY_STAT_PARSER.parse(buffer.array(), buffer.length(), values);
+      // the limit of an ancestor may be lower
+      long hierarchicalLimit = values[V1_MEMORY_HIERARCHICAL_LIMIT];
+      if ((hierarchicalLimit > 0L) && (hierarchicalLimit < V1_UNLIMITED)
+              && ((limit == -1L) || (hierarchicalLimit < limit))) {
+        limit = hierarchicalLimit;
+      }
+      return new CgroupMemory(current, limit,
+              values[V1_MEMORY_TOTAL_RSS], values[V1_MEMORY_TOTAL_CACHE], 0L, socket);
+    }
+  }
+
+  @Override
+  public CgroupCpu getCpu() {
+    CpuCounters counters = this.readCpu();
+    CpuCountersPair pair = this.cpuSamples;
+    return new CgroupCpu(counters.usage, counters.periods, counters.throttledPeriods, counters.throttledTime,
+            pair.throttledPeriodRatio(), pair.throttledTimeRatio());
+  }
+
+  /**
+   * Derives the throttling ratios from the samples of a sampler instead
+   * of reporting 0. Replaces a previously tracked sampler.
+   *
+   * @param sampler the sampler triggering the reads
+   */
+  public void trackThrottling(Sampler sampler) {
+    this.throttling.subscribe(sampler, sample -> this.sampleCpu());
+  }
+
+  void sampleCpu() {
+    // only called from the sampler thread
+    this.cpuSamples = new CpuCountersPair(this.cpuSamples.current, this.readCpu());
+  }
+
+  /**
+   * Stops tracking the sampler.
+   */
+  @Override
+  public void close() {
+    this.throttling.cancel();
+  }
+
+  private CpuCounters readCpu() {
+    long usage;
+    long periods;
+    long throttledPeriods;
+    long throttledTime;
+    if (this.location.version == 2) {
+      ReadBuffer buffer = Proc.read(this.cpuStat);
+      long[] values = buffer.values(V2_CPU_STAT_PARSER.size());
+      V2_CPU_STAT_PARSER.parse(buffer.array(), buffer.length(), values);
+      usage = values[V2_CPU_USAGE];
+      periods = values[V2_CPU_PERIODS];
+      throttledPeriods = values[V2_CPU_THROTTLED_PERIODS];
+      throttledTime = values[V2_CPU_THROTTLED_TIME];
+    } else {
+      usage = this.cpuUsage != null ? readValue(this.cpuUsage) / 1000L : 0L;
+      if (this.cpuStat != null) {
+        ReadBuffer buffer = Proc.read(this.cpuStat);
+        long[] values = buffer.values(V1_CPU_STAT_PARSER.size());
+        V1_CPU_STAT_PARSER.parse(buffer.array(), buffer.length(), values);
+        periods = values[V1_CPU_PERIODS];
+        throttledPeriods = values[V1_CPU_THROTTLED_PERIODS];
+        throttledTime = values[V1_CPU_THROTTLED_TIME] / 1000L;
+      } else {
+        periods = 0L;
+        throttledPeriods = 0L;
+        throttledTime = 0L;
+      }
+    }
+    return new CpuCounters(System.nanoTime(), usage, periods, throttledPeriods, throttledTime);
+  }
+
+  private static long readValue(ProcFile file) {
+    ReadBuffer buffer = Proc.read(file);
+    return Ascii.parseLong(buffer.array(), 0, buffer.length());
+  }
+
+  /**
+   * Reads a file containing a limit.
+   *
+   * @return the limit, -1 for {@code max} or the v1 equivalent
+   */
+  private static long readLimit(ProcFile file) {
+    ReadBuffer buffer = Proc.read(file);
+    if ((buffer.length() > 0) && (buffer.array()[0] == 'm')) {
+      return -1L;
+    }
+    long limit = Ascii.parseLong(buffer.array(), 0, buffer.length());
+    if (limit >= V1_UNLIMITED) {
+      return -1L;
+    }
+    return limit;
+  }
+
+  static Location locate(Path cgroup, Path mountinfo, Path root) {
+    List<String> cgroupLines;
+    List<String> mountLines;
+    try {
+      cgroupLines = Files.readAllLines(cgroup, StandardCharsets.UTF_8);
+      mountLines = Files.readAllLines(mountinfo, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    // hierarchy-ID:controller-list:cgroup-path
+    String unifiedPath = null;
+    Map<String, String> paths = new HashMap<>();
+    for (String line : cgroupLines) {
+      int first = line.indexOf(':');
+      int second = line.indexOf(':', first + 1);
+      if ((first == -1) || (second == -1)) {
+        continue;
+      }
+      String controllers = line.substring(first + 1, second);
+      String path = line.substring(second + 1);
+      if (controllers.isEmpty()) {
+        unifiedPath = path;
+      } else {
+        for (String controller : controllers.split(",")) {
+          paths.put(controller, path);
+        }
+      }
+    }
+
+    // id parent major:minor root mount-point options [optional] - type source super-options
+    String[] unifiedMount = null;
+    Map<String, String[]> mounts = new HashMap<>();
+    for (String line : mountLines) {
+      String[] fields = line.split(" ");
+      int separator = -1;
+      for (int i = 6; i < fields.length; i++) {
+        if (fields[i].equals("-")) {
+          separator = i;
+          break;
+        }
+      }
+      if ((separator == -1) || ((separator + 1) >= fields.length)) {
+        continue;
+      }
+      String type = fields[separator + 1];
+      String[] mount = {fields[3], fields[4]};
+      if (type.equals("cgroup2")) {
+        unifiedMount = mount;
+      } else if (type.equals("cgroup") && ((separator + 3) < fields.length)) {
+        for (String option : fields[separator + 3].split(",")) {
+          mounts.put(option, mount);
+        }
+      }
+    }
+
+    Path unified = directory(root, unifiedMount, unifiedPath);
+    if ((unified != null) && Files.exists(unified.resolve("memory.current"))) {
+      return new Location(2, unifiedPath, unified, unified, null, unified);
+    }
+    String memoryPath = paths.get("memory");
+    String[] memoryMount = mounts.get("memory");
+    if ((memoryPath == null) || (memoryMount == null)) {
+      throw new IllegalStateException("no cgroup memory controller found");
+    }
+    return new Location(1, memoryPath,
+            directory(root, memoryMount, memoryPath),
+            directory(root, mounts.get("cpu"), paths.get("cpu")),
+            directory(root, mounts.get("cpuacct"), paths.get("cpuacct")),
+            unified);
+  }
+
+  /**
+   * Resolves the directory of a cgroup relative to the mount point of its
+   * hierarchy.
+   */
+  private static Path directory(Path root, String[] mount, String path) {
+    if ((mount == null) || (path == null)) {
+      return null;
+    }
+    String mountRoot = mount[0];
+    Path mountPoint = root.resolve(mount[1].substring(1));
+    String relative;
+    if (mountRoot.equals("/")) {
+      relative = path;
+    } else if (path.startsWith(mountRoot)) {
+      relative = path.substring(mountRoot.length());
+    } else {
+      // a different cgroup namespace, the mount point is the cgroup
+      relative = "";
+    }
+    if (relative.startsWith("/")) {
+      relative = relative.substring(1);
+    }
+    return relative.isEmpty() ? mountPoint : mountPoint.resolve(relative);
+  }
+
+  public static void install() throws JMException {
+    install(new Cgroup());
+  }
+
+  public static void install(Cgroup mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.registerMBean(mxBean, mxBeanName);
+  }
+
+  public static void uninstall() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.unregisterMBean(mxBeanName);
+  }
+
+  /**
+   * The CPU counters read at one point in time.
+   */
+  static final class CpuCounters {
+
+    final long nanoTime;
+    final long usage;
+    final long periods;
+    final long throttledPeriods;
+    final long throttledTime;
+
+    CpuCounters(long nanoTime, long usage, long periods, long throttledPeriods, long throttledTime) {
+      this.nanoTime = nanoTime;
+      this.usage = usage;
+      this.periods = periods;
+      this.throttledPeriods = throttledPeriods;
+      this.throttledTime = throttledTime;
+    }
+
+  }
+
+  /**
+   * The CPU counters of the last two samples, published together like
+   * {@link RateCalculator.SamplePair}.
+   */
+  static final class CpuCountersPair {
+
+    final CpuCounters previous;
+    final CpuCounters current;
+
+    CpuCountersPair(CpuCounters previous, CpuCounters current) {
+      this.previous = previous;
+      this.current = current;
+    }
+
+    double throttledPeriodRatio() {
+      if (this.previous == null) {
+        return 0.0d;
+      }
+      long periods = RateCalculator.delta(this.current.periods, this.previous.periods);
+      if (periods == 0L) {
+        return 0.0d;
+      }
+      return (double) RateCalculator.delta(this.current.throttledPeriods, this.previous.throttledPeriods) / periods;
+    }
+
+    double throttledTimeRatio() {
+      if (this.previous == null) {
+        return 0.0d;
+      }
+      long elapsedMicros = (this.current.nanoTime - this.previous.nanoTime) / 1000L;
+      if (elapsedMicros <= 0L) {
+        return 0.0d;
+      }
+      return (double) RateCalculator.delta(this.current.throttledTime, this.previous.throttledTime) / elapsedMicros;
+    }
+
+  }
+
+  /**
+   * The directories of the controllers of a cgroup.
+   */
+  static final class Location {
+
+    final int version;
+    final String path;
+    final Path memory;
+    final Path cpu;
+    final Path cpuacct;
+    // the cgroup in the v2 hierarchy, may exist without controllers with v1
+    final Path unified;
+
+    Location(int version, String path, Path memory, Path cpu, Path cpuacct, Path unified) {
+      this.version = version;
+      this.path = path;
+      this.memory = memory;
+      this.cpu = cpu;
+      this.cpuacct = cpuacct;
+      this.unified = unified;
+    }
+
+  }
+
+}
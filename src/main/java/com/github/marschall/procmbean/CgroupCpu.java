@@ -0,0 +1,101 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The CPU accounting of a cgroup, from {@code cpu.stat} with cgroup v2 or
+ * {@code cpu.stat} and {@code cpuacct.usage} with cgroup v1.
+ *
+ * <p>The ratios are computed from the difference to the previous read by
+ * the same {@link Cgroup}.</p>
+ */
+public final class CgroupCpu {
+
+  private final long usage;
+  private final long periods;
+  private final long throttledPeriods;
+  private final long throttledTime;
+  private final double throttledPeriodRatio;
+  private final double throttledTimeRatio;
+
+  CgroupCpu(long usage, long periods, long throttledPeriods, long throttledTime,
+          double throttledPeriodRatio, double throttledTimeRatio) {
+    this.usage = usage;
+    this.periods = periods;
+    this.throttledPeriods = throttledPeriods;
+    this.throttledTime = throttledTime;
+    this.throttledPeriodRatio = throttledPeriodRatio;
+    this.throttledTimeRatio = throttledTimeRatio;
+  }
+
+  public static CgroupCpu from(CompositeData compositeData) {
+    return new CgroupCpu(
+            (Long) compositeData.get("usage"),
+            (Long) compositeData.get("periods"),
+            (Long) compositeData.get("throttledPeriods"),
+            (Long) compositeData.get("throttledTime"),
+            (Double) compositeData.get("throttledPeriodRatio"),
+            (Double) compositeData.get("throttledTimeRatio"));
+  }
+
+  /**
+   * The CPU time used by all tasks in the cgroup.
+   *
+   * @return the CPU time used
+   */
+  @Units("microseconds")
+  public long getUsage() {
+    return this.usage;
+  }
+
+  /**
+   * The number of enforcement periods, {@code nr_periods}.
+   *
+   * @return the number of enforcement periods, 0 without a CPU limit
+   */
+  public long getPeriods() {
+    return this.periods;
+  }
+
+  /**
+   * The number of periods in which the cgroup was throttled,
+   * {@code nr_throttled}.
+   *
+   * @return the number of throttled periods
+   */
+  public long getThrottledPeriods() {
+    return this.throttledPeriods;
+  }
+
+  /**
+   * The total time the cgroup was throttled, {@code throttled_usec} with
+   * cgroup v2 or {@code throttled_time} with cgroup v1.
+   *
+   * @return the total time throttled
+   */
+  @Units("microseconds")
+  public long getThrottledTime() {
+    return this.throttledTime;
+  }
+
+  /**
+   * The fraction of periods between the last two samples in which the
+   * cgroup was throttled.
+   *
+   * @return the fraction of throttled periods between 0 and 1
+   */
+  public double getThrottledPeriodRatio() {
+    return this.throttledPeriodRatio;
+  }
+
+  /**
+   * The time throttled between the last two samples relative to the
+   * elapsed time. Can be larger than 1 when several threads are throttled.
+   *
+   * @return the time throttled per elapsed time
+   */
+  public double getThrottledTimeRatio() {
+    return this.throttledTimeRatio;
+  }
+
+}
@@ -0,0 +1,24 @@
+package com.github.marschall.procmbean;
+
+public interface CgroupMXBean {
+
+  /**
+   * The cgroup version in use for the memory controller.
+   *
+   * @return 1 or 2
+   */
+  int getVersion();
+
+  /**
+   * The path of the cgroup of the process, eg.
+   * {@code /system.slice/docker-[id].scope}.
+   *
+   * @return the cgroup path
+   */
+  String getPath();
+
+  CgroupMemory getMemory();
+
+  CgroupCpu getCpu();
+
+}
@@ -0,0 +1,117 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The memory accounting of a cgroup, from {@code memory.current},
+ * {@code memory.max} and {@code memory.stat} with cgroup v2 or
+ * {@code memory.usage_in_bytes}, {@code memory.limit_in_bytes} and
+ * {@code memory.stat} with cgroup v1.
+ */
+public final class CgroupMemory {
+
+  private final long current;
+  private final long limit;
+  private final long anonymous;
+  private final long file;
+  private final long slab;
+  private final long socket;
+
+  CgroupMemory(long current, long limit, long anonymous, long file, long slab, long socket) {
+    this.current = current;
+    this.limit = limit;
+    this.anonymous = anonymous;
+    this.file = file;
+    this.slab = slab;
+    this.socket = socket;
+  }
+
+  public static CgroupMemory from(CompositeData compositeData) {
+    return new CgroupMemory(
+            (Long) compositeData.get("current"),
+            (Long) compositeData.get("limit"),
+            (Long) compositeData.get("anonymous"),
+            (Long) compositeData.get("file"),
+            (Long) compositeData.get("slab"),
+            (Long) compositeData.get("socket"));
+  }
+
+  /**
+   * The memory charged to the cgroup, this is what the OOM killer
+   * compares to the limit.
+   *
+   * @return the memory charged to the cgroup
+   */
+  @Units("bytes")
+  public long getCurrent() {
+    return this.current;
+  }
+
+  /**
+   * The memory limit of the cgroup, including the limits of its ancestors
+   * with cgroup v1.
+   *
+   * @return the limit, -1 if unlimited
+   */
+  @Units("bytes")
+  public long getLimit() {
+    return this.limit;
+  }
+
+  /**
+   * How much the cgroup can grow until it reaches its limit.
+   *
+   * @return the limit minus the current usage, -1 if unlimited
+   */
+  @Units("bytes")
+  public long getHeadroom() {
+    if (this.limit == -1L) {
+      return -1L;
+    }
+    return Math.max(this.limit - this.current, 0L);
+  }
+
+  /**
+   * Anonymous memory, {@code anon} with cgroup v2, {@code total_rss} with
+   * cgroup v1.
+   *
+   * @return the anonymous memory
+   */
+  @Units("bytes")
+  public long getAnonymous() {
+    return this.anonymous;
+  }
+
+  /**
+   * The page cache including shared memory, {@code file} with cgroup v2,
+   * {@code total_cache} with cgroup v1.
+   *
+   * @return the page cache
+   */
+  @Units("bytes")
+  public long getFile() {
+    return this.file;
+  }
+
+  /**
+   * Kernel slab memory.
+   *
+   * @return the slab memory, 0 with cgroup v1
+   */
+  @Units("bytes")
+  public long getSlab() {
+    return this.slab;
+  }
+
+  /**
+   * Network socket buffers, {@code sock} with cgroup v2,
+   * {@code memory.kmem.tcp.usage_in_bytes} with cgroup v1.
+   *
+   * @return the socket buffers
+   */
+  @Units("bytes")
+  public long getSocket() {
+    return this.socket;
+  }
+
+}
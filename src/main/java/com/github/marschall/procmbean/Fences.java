@@ -0,0 +1,63 @@
+package com.github.marschall.procmbean;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+
+/**
+ * Utility class for memory fences through {@code sun.misc.Unsafe}.
+ *
+ * <p>Needed to order plain accesses to memory mapped files which can not
+ * be declared {@code volatile}.</p>
+ */
+final class Fences {
+
+  private static final MethodHandle LOAD_FENCE;
+  private static final MethodHandle STORE_FENCE;
+
+  static {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field singleoneInstanceField = unsafeClass.getDeclaredField("theUnsafe");
+      if (!singleoneInstanceField.isAccessible()) {
+        singleoneInstanceField.setAccessible(true);
+      }
+      Object unsafe = singleoneInstanceField.get(null);
+
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      LOAD_FENCE = lookup.unreflect(unsafeClass.getDeclaredMethod("loadFence")).bindTo(unsafe);
+      STORE_FENCE = lookup.unreflect(unsafeClass.getDeclaredMethod("storeFence")).bindTo(unsafe);
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException("could not get fences", e);
+    }
+  }
+
+  private Fences() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Loads before the fence are not reordered with loads and stores after
+   * the fence.
+   */
+  static void loadFence() {
+    try {
+      LOAD_FENCE.invokeExact();
+    } catch (Throwable e) {
+      throw new AssertionError("fence failed", e);
+    }
+  }
+
+  /**
+   * Stores before the fence are not reordered with loads and stores after
+   * the fence.
+   */
+  static void storeFence() {
+    try {
+      STORE_FENCE.invokeExact();
+    } catch (Throwable e) {
+      throw new AssertionError("fence failed", e);
+    }
+  }
+
+}
@@ -0,0 +1,140 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The open file descriptors of a process classified by the targets of the
+ * links in {@code /proc/self/fd}.
+ *
+ * <p>With many open file descriptors only a sample of them is inspected,
+ * the counts by type are then extrapolated from the sample and add up to
+ * the number of open file descriptors only approximately.</p>
+ */
+public final class FileDescriptorInventory {
+
+  private final int open;
+  private final int inspected;
+  private final int sockets;
+  private final int pipes;
+  private final int anonymousInodes;
+  private final int files;
+  private final int deletedFiles;
+  private final int other;
+
+  FileDescriptorInventory(
+          int open,
+          int inspected,
+          int sockets,
+          int pipes,
+          int anonymousInodes,
+          int files,
+          int deletedFiles,
+          int other) {
+    this.open = open;
+    this.inspected = inspected;
+    this.sockets = sockets;
+    this.pipes = pipes;
+    this.anonymousInodes = anonymousInodes;
+    this.files = files;
+    this.deletedFiles = deletedFiles;
+    this.other = other;
+  }
+
+  public static FileDescriptorInventory from(CompositeData compositeData) {
+    return new FileDescriptorInventory(
+            (Integer) compositeData.get("open"),
+            (Integer) compositeData.get("inspected"),
+            (Integer) compositeData.get("sockets"),
+            (Integer) compositeData.get("pipes"),
+            (Integer) compositeData.get("anonymousInodes"),
+            (Integer) compositeData.get("files"),
+            (Integer) compositeData.get("deletedFiles"),
+            (Integer) compositeData.get("other"));
+  }
+
+  /**
+   * The number of open file descriptors, including the one used to list
+   * them.
+   *
+   * @return the number of open file descriptors
+   */
+  public int getOpen() {
+    return this.open;
+  }
+
+  /**
+   * The number of file descriptors whose link was read.
+   *
+   * @return the number of inspected file descriptors
+   */
+  public int getInspected() {
+    return this.inspected;
+  }
+
+  /**
+   * Whether the counts by type are extrapolated from a sample.
+   *
+   * @return {@code true} if not all file descriptors were inspected
+   */
+  public boolean isSampled() {
+    return this.inspected < this.open;
+  }
+
+  /**
+   * The number of sockets, {@code socket:[inode]}.
+   *
+   * @return the number of sockets
+   */
+  public int getSockets() {
+    return this.sockets;
+  }
+
+  /**
+   * The number of pipes and FIFOs, {@code pipe:[inode]}.
+   *
+   * @return the number of pipes
+   */
+  public int getPipes() {
+    return this.pipes;
+  }
+
+  /**
+   * The number of file descriptors without a file like eventfd, epoll,
+   * inotify or timerfd, {@code anon_inode:[eventpoll]}.
+   *
+   * @return the number of anonymous inodes
+   */
+  public int getAnonymousInodes() {
+    return this.anonymousInodes;
+  }
+
+  /**
+   * The number of files, directories and devices.
+   *
+   * @return the number of files
+   */
+  public int getFiles() {
+    return this.files;
+  }
+
+  /**
+   * The number of files that have been deleted but are still open, their
+   * disk space is only freed once they are closed.
+   *
+   * @return the number of deleted files
+   */
+  public int getDeletedFiles() {
+    return this.deletedFiles;
+  }
+
+  /**
+   * The number of file descriptors of any other type, eg.
+   * {@code net:[inode]}.
+   *
+   * @return the number of other file descriptors
+   */
+  public int getOther() {
+    return this.other;
+  }
+
+}
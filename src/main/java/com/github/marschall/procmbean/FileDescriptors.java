@@ -0,0 +1,249 @@
+package com.github.marschall.procmbean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Reports the open file descriptors of the current process from
+ * {@code /proc/self/fd} and their limit from {@code /proc/self/limits}.
+ *
+ * <p>{@link #getOpenCount()} only lists the directory and stays cheap with
+ * hundreds of thousands of file descriptors. {@link #getInventory()}
+ * additionally reads the links, with more than {@link #getSampleSize()}
+ * file descriptors only every k-th link where k is derived from a prior
+ * {@link #getOpenCount()}. The directory is streamed without holding on
+ * to the entries that are not read.</p>
+ */
+public class FileDescriptors implements FileDescriptorsMXBean {
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=FileDescriptors";
+
+  static final int DEFAULT_SAMPLE_SIZE = 1024;
+
+  static final int SOCKET = 0;
+  static final int PIPE = 1;
+  static final int ANONYMOUS_INODE = 2;
+  static final int FILE = 3;
+  static final int DELETED_FILE = 4;
+  static final int OTHER = 5;
+
+  private static final byte[] MAX_OPEN_FILES = "Max open files".getBytes(StandardCharsets.US_ASCII);
+
+  private final Path fdDirectory;
+  private final ProcFile limits;
+
+  private volatile int sampleSize;
+
+  /**
+   * Constructs a new {@link FileDescriptors} for the current process.
+   */
+  public FileDescriptors() {
+    this(Paths.get("/proc/self/fd"), Paths.get("/proc/self/limits"));
+  }
+
+  FileDescriptors(Path fdDirectory, Path limits) {
+    this.fdDirectory = fdDirectory;
+    this.limits = ProcFile.reopening(limits);
+    this.sampleSize = DEFAULT_SAMPLE_SIZE;
+  }
+
+  @Override
+  public int getOpenCount() {
+    int count = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.fdDirectory)) {
+      for (Path ignored : stream) {
+        count += 1;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not list: " + this.fdDirectory, e);
+    }
+    return count;
+  }
+
+  @Override
+  public long getSoftLimit() {
+    return this.readLimits()[0];
+  }
+
+  @Override
+  public long getHardLimit() {
+    return this.readLimits()[1];
+  }
+
+  @Override
+  public long getHeadroom() {
+    long softLimit = this.getSoftLimit();
+    if (softLimit == -1L) {
+      return -1L;
+    }
+    return Math.max(0L, softLimit - this.getOpenCount());
+  }
+
+  @Override
+  public FileDescriptorInventory getInventory() {
+    int sampleSize = Math.max(1, this.sampleSize);
+    int stride = stride(this.getOpenCount(), sampleSize);
+    int[] counts = new int[OTHER + 1];
+    int open = 0;
+    int read = 0;
+    int inspected = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.fdDirectory)) {
+      for (Path descriptor : stream) {
+        // file descriptors opened since counting must not exceed the sample size
+        if (((open % stride) == 0) && (read < sampleSize)) {
+          read += 1;
+          int type = readType(descriptor);
+          if (type != -1) {
+            counts[type] += 1;
+            inspected += 1;
+          }
+        }
+        open += 1;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not list: " + this.fdDirectory, e);
+    }
+    if ((inspected > 0) && (inspected < open)) {
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] = (int) Math.round((double) counts[i] * open / inspected);
+      }
+    }
+    return new FileDescriptorInventory(open, inspected,
+            counts[SOCKET], counts[PIPE], counts[ANONYMOUS_INODE],
+            counts[FILE], counts[DELETED_FILE], counts[OTHER]);
+  }
+
+  /**
+   * Computes the distance between the entries to read so that at most
+   * {@code sampleSize} of {@code open} entries are read.
+   *
+   * @param open the number of entries
+   * @param sampleSize the maximum number of entries to read, positive
+   * @return the distance, at least 1
+   */
+  static int stride(int open, int sampleSize) {
+    return Math.max(1, (open + sampleSize - 1) / sampleSize);
+  }
+
+  /**
+   * Reads and classifies a link in {@code /proc/[pid]/fd}.
+   *
+   * @return the type constant, {@code -1} if the file descriptor was closed
+   */
+  private static int readType(Path descriptor) {
+    try {
+      return classify(Files.readSymbolicLink(descriptor).toString());
+    } catch (NoSuchFileException e) {
+      // closed since the directory was listed
+      return -1;
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not read link: " + descriptor, e);
+    }
+  }
+
+  /**
+   * Classifies the target of a link in {@code /proc/[pid]/fd}.
+   *
+   * @param target the target of the link
+   * @return the type constant
+   */
+  static int classify(String target) {
+    if (target.startsWith("/")) {
+      return target.endsWith(" (deleted)") ? DELETED_FILE : FILE;
+    } else if (target.startsWith("socket:")) {
+      return SOCKET;
+    } else if (target.startsWith("pipe:")) {
+      return PIPE;
+    } else if (target.startsWith("anon_inode:")) {
+      return ANONYMOUS_INODE;
+    }
+    return OTHER;
+  }
+
+  /**
+   * Reads the soft and hard limit of open files.
+   */
+  private long[] readLimits() {
+    ReadBuffer buffer = Proc.read(this.limits);
+    long[] values = buffer.values(2);
+    parseOpenFilesLimits(buffer.array(), buffer.length(), values);
+    return values;
+  }
+
+  /**
+   * Parses the {@code Max open files} line of {@code /proc/[pid]/limits}.
+   *
+   * <pre><code>Limit                     Soft Limit           Hard Limit           Units
+   *Max open files            1024                 524288               files</code></pre>
+   *
+   * @param values the array to store the soft and the hard limit in, -1
+   *               for {@code unlimited}
+   */
+  static void parseOpenFilesLimits(byte[] buffer, int length, long[] values) {
+    int lineStart = 0;
+    while (lineStart < length) {
+      int lineEnd = Ascii.skipLine(buffer, lineStart, length);
+      int keyEnd = lineStart + MAX_OPEN_FILES.length;
+      if ((keyEnd <= lineEnd) && Ascii.regionEquals(buffer, lineStart, keyEnd, MAX_OPEN_FILES)) {
+        int position = Ascii.skipBlanks(buffer, keyEnd, lineEnd);
+        values[0] = parseLimit(buffer, position, lineEnd);
+        while ((position < lineEnd) && (buffer[position] != ' ')) {
+          position += 1;
+        }
+        position = Ascii.skipBlanks(buffer, position, lineEnd);
+        values[1] = parseLimit(buffer, position, lineEnd);
+        return;
+      }
+      lineStart = lineEnd;
+    }
+    throw new IllegalStateException("no open files limit found");
+  }
+
+  private static long parseLimit(byte[] buffer, int position, int lineEnd) {
+    if ((position < lineEnd) && (buffer[position] == 'u')) {
+      return -1L;
+    }
+    return Ascii.parseLong(buffer, position, lineEnd);
+  }
+
+  @Override
+  public int getSampleSize() {
+    return this.sampleSize;
+  }
+
+  @Override
+  public void setSampleSize(int sampleSize) {
+    if (sampleSize <= 0) {
+      throw new IllegalArgumentException("sample size must be positive");
+    }
+    this.sampleSize = sampleSize;
+  }
+
+  public static void install() throws JMException {
+    install(new FileDescriptors());
+  }
+
+  public static void install(FileDescriptors mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.registerMBean(mxBean, mxBeanName);
+  }
+
+  public static void uninstall() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.unregisterMBean(mxBeanName);
+  }
+
+}
@@ -0,0 +1,55 @@
+package com.github.marschall.procmbean;
+
+public interface FileDescriptorsMXBean {
+
+  /**
+   * Counts the entries of {@code /proc/self/fd} without reading the links.
+   *
+   * @return the number of open file descriptors, including the one used to
+   *         list them
+   */
+  int getOpenCount();
+
+  /**
+   * The soft limit of open files, {@code RLIMIT_NOFILE}, from
+   * {@code /proc/self/limits}.
+   *
+   * @return the soft limit, -1 if unlimited
+   */
+  long getSoftLimit();
+
+  /**
+   * The hard limit of open files from {@code /proc/self/limits}, the soft
+   * limit can be raised up to the hard limit.
+   *
+   * @return the hard limit, -1 if unlimited
+   */
+  long getHardLimit();
+
+  /**
+   * The number of file descriptors that can still be opened before the
+   * soft limit is reached.
+   *
+   * @return the headroom, -1 if unlimited
+   */
+  long getHeadroom();
+
+  /**
+   * Lists {@code /proc/self/fd} and classifies the file descriptors by the
+   * targets of their links. At most {@link #getSampleSize()} links are
+   * read, evenly spread over all file descriptors.
+   *
+   * @return the classified file descriptors
+   */
+  FileDescriptorInventory getInventory();
+
+  /**
+   * The maximum number of links read by {@link #getInventory()}.
+   *
+   * @return the maximum number of file descriptors inspected
+   */
+  int getSampleSize();
+
+  void setSampleSize(int sampleSize);
+
+}
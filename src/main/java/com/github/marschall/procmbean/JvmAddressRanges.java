@@ -0,0 +1,233 @@
+package com.github.marschall.procmbean;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The address ranges reserved by the JVM for the Java heap, the code
+ * cache and the compressed class space.
+ *
+ * <p>HotSpot does not expose these through a management interface, they
+ * are parsed from the output of the {@code GC.heap_info},
+ * {@code Compiler.codecache} and {@code VM.info} diagnostic commands
+ * available since Java 9. Ranges that can not be determined are empty.</p>
+ */
+final class JvmAddressRanges {
+
+  private static final Pattern ADDRESS = Pattern.compile("0x([0-9a-fA-F]+)");
+
+  private static final Pattern NARROW_KLASS_BASE = Pattern.compile("Narrow klass base: 0x([0-9a-fA-F]+)");
+
+  private static final Pattern CDS_ARCHIVE = Pattern.compile("CDS archive\\(s\\) mapped at: \\[0x[0-9a-fA-F]+-0x[0-9a-fA-F]+-0x([0-9a-fA-F]+)\\)");
+
+  static final JvmAddressRanges EMPTY = new JvmAddressRanges(new long[0], new long[0], new MemoryRegion[0]);
+
+  private static volatile JvmAddressRanges current;
+
+  // sorted by start address
+  private final long[] starts;
+  private final long[] ends;
+  private final MemoryRegion[] regions;
+
+  private JvmAddressRanges(long[] starts, long[] ends, MemoryRegion[] regions) {
+    this.starts = starts;
+    this.ends = ends;
+    this.regions = regions;
+  }
+
+  /**
+   * Looks up the region containing an address.
+   *
+   * @param address the address to look up
+   * @return the region containing the address, {@code null} if none
+   */
+  MemoryRegion lookup(long address) {
+    int index = Arrays.binarySearch(this.starts, address);
+    if (index < 0) {
+      // index of the last range starting before the address
+      index = -index - 2;
+    }
+    if ((index >= 0) && (Long.compareUnsigned(address, this.ends[index]) < 0)) {
+      return this.regions[index];
+    }
+    return null;
+  }
+
+  /**
+   * Returns the ranges of the current JVM, discovering them on the first
+   * call.
+   *
+   * @return the ranges, {@link #EMPTY} if they can not be determined
+   */
+  static JvmAddressRanges current() {
+    JvmAddressRanges ranges = current;
+    if (ranges == null) {
+      // the reservations do not move, discovering them more than once is harmless
+      ranges = discover();
+      current = ranges;
+    }
+    return ranges;
+  }
+
+  /**
+   * Discovers the ranges of the current JVM.
+   *
+   * @return the discovered ranges, {@link #EMPTY} if they can not be
+   *         determined
+   */
+  static JvmAddressRanges discover() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName diagnosticCommand = new ObjectName("com.sun.management:type=DiagnosticCommand");
+      if (!server.isRegistered(diagnosticCommand)) {
+        return EMPTY;
+      }
+      String heapInfo = invokeCommand(server, diagnosticCommand, "gcHeapInfo");
+      String codeCache = invokeCommand(server, diagnosticCommand, "compilerCodecache");
+      String vmInfo = invokeCommand(server, diagnosticCommand, "vmInfo");
+      return parse(heapInfo, codeCache, vmInfo, compressedClassSpaceSize(server));
+    } catch (JMException e) {
+      // not HotSpot or older than Java 9
+      return EMPTY;
+    }
+  }
+
+  private static String invokeCommand(MBeanServer server, ObjectName diagnosticCommand, String operation) {
+    try {
+      return (String) server.invoke(diagnosticCommand, operation, new Object[] {new String[0]},
+              new String[] {String[].class.getName()});
+    } catch (JMException e) {
+      return "";
+    }
+  }
+
+  private static long compressedClassSpaceSize(MBeanServer server) {
+    try {
+      ObjectName hotSpotDiagnostic = new ObjectName("com.sun.management:type=HotSpotDiagnostic");
+      CompositeData option = (CompositeData) server.invoke(hotSpotDiagnostic, "getVMOption",
+              new Object[] {"CompressedClassSpaceSize"}, new String[] {String.class.getName()});
+      return Long.parseLong((String) option.get("value"));
+    } catch (JMException e) {
+      // without the size only the compressed class space is left out
+      return 0L;
+    }
+  }
+
+  static JvmAddressRanges parse(String heapInfo, String codeCache, String vmInfo, long compressedClassSpaceSize) {
+    Builder builder = new Builder();
+
+    // one line per generation or the whole heap, [start, top) or [start, top, end)
+    long heapStart = -1L;
+    long heapEnd = 0L;
+    for (String line : heapInfo.split("\n")) {
+      long[] bounds = bracketBounds(line, '[');
+      if (bounds != null) {
+        heapStart = heapStart == -1L ? bounds[0] : Math.min(heapStart, bounds[0]);
+        heapEnd = Math.max(heapEnd, bounds[1]);
+      }
+    }
+    if (heapStart != -1L) {
+      builder.add(heapStart, heapEnd, MemoryRegion.JAVA_HEAP);
+    }
+
+    // one " bounds [start, top, end]" line per code heap
+    for (String line : codeCache.split("\n")) {
+      if (line.trim().startsWith("bounds")) {
+        long[] bounds = bracketBounds(line, '[');
+        if (bounds != null) {
+          builder.add(bounds[0], bounds[1], MemoryRegion.CODE_CACHE);
+        }
+      }
+    }
+
+    // the class space follows the CDS archive if there is one
+    Matcher klassBase = NARROW_KLASS_BASE.matcher(vmInfo);
+    if (klassBase.find() && (compressedClassSpaceSize > 0L)) {
+      long base = Long.parseUnsignedLong(klassBase.group(1), 16);
+      if (base != 0L) {
+        Matcher cds = CDS_ARCHIVE.matcher(vmInfo);
+        long start = cds.find() ? Math.max(base, Long.parseUnsignedLong(cds.group(1), 16)) : base;
+        builder.add(start, start + compressedClassSpaceSize, MemoryRegion.METASPACE);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Parses the first and the last address after an opening bracket.
+   *
+   * @return the first and the last address, {@code null} if there are none
+   */
+  private static long[] bracketBounds(String line, char open) {
+    int bracket = line.indexOf(open);
+    if (bracket == -1) {
+      return null;
+    }
+    Matcher matcher = ADDRESS.matcher(line);
+    matcher.region(bracket, line.length());
+    long first = -1L;
+    long last = -1L;
+    while (matcher.find()) {
+      long address = Long.parseUnsignedLong(matcher.group(1), 16);
+      if (first == -1L) {
+        first = address;
+      }
+      last = address;
+    }
+    if (first == -1L) {
+      return null;
+    }
+    return new long[] {first, last};
+  }
+
+  static final class Builder {
+
+    private long[] starts = new long[4];
+    private long[] ends = new long[4];
+    private MemoryRegion[] regions = new MemoryRegion[4];
+    private int size;
+
+    Builder add(long start, long end, MemoryRegion region) {
+      if (this.size == this.starts.length) {
+        this.starts = Arrays.copyOf(this.starts, this.size * 2);
+        this.ends = Arrays.copyOf(this.ends, this.size * 2);
+        this.regions = Arrays.copyOf(this.regions, this.size * 2);
+      }
+      this.starts[this.size] = start;
+      this.ends[this.size] = end;
+      this.regions[this.size] = region;
+      this.size += 1;
+      return this;
+    }
+
+    JvmAddressRanges build() {
+      // insertion sort, there are only a handful of ranges
+      for (int i = 1; i < this.size; i++) {
+        for (int j = i; (j > 0) && (this.starts[j - 1] > this.starts[j]); j--) {
+          swap(this.starts, j);
+          swap(this.ends, j);
+          MemoryRegion region = this.regions[j];
+          this.regions[j] = this.regions[j - 1];
+          this.regions[j - 1] = region;
+        }
+      }
+      return new JvmAddressRanges(Arrays.copyOf(this.starts, this.size), Arrays.copyOf(this.ends, this.size),
+              Arrays.copyOf(this.regions, this.size));
+    }
+
+    private static void swap(long[] array, int index) {
+      long value = array[index];
+      array[index] = array[index - 1];
+      array[index - 1] = value;
+    }
+
+  }
+
+}
@@ -0,0 +1,155 @@
+package com.github.marschall.procmbean;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses proc files consisting of {@code key: value} lines like
+ * {@code /proc/self/status} or {@code /proc/self/io} or {@code key value}
+ * lines like {@code memory.stat} of a cgroup without allocating.
+ *
+ * <p>Keys are matched using a precomputed hash table followed by a byte
+ * comparison. Decimal values are parsed in place, a trailing
+ * {@code kB}, {@code mB} or {@code gB} unit is applied. For values that do
+ * not start with a digit the first character is stored instead.</p>
+ *
+ * <p>Instances are immutable and can be shared between threads.</p>
+ */
+final class KeyValueParser {
+
+  private final byte[][] keys;
+  private final int[] table;
+  private final int mask;
+  private final byte separator;
+
+  /**
+   * Constructs a new parser for {@code key: value} lines.
+   *
+   * @param keys the keys to look for, the index of a key is the index
+   *             in the values array its value is stored at
+   */
+  KeyValueParser(String... keys) {
+    this((byte) ':', keys);
+  }
+
+  /**
+   * Constructs a new parser.
+   *
+   * @param separator the character separating the key from the value
+   * @param keys the keys to look for, the index of a key is the index
+   *             in the values array its value is stored at
+   */
+  KeyValueParser(byte separator, String... keys) {
+    this.separator = separator;
+    this.keys = new byte[keys.length][];
+    int tableSize = Integer.highestOneBit(keys.length * 4 - 1) << 1;
+    this.table = new int[tableSize];
+    this.mask = tableSize - 1;
+    for (int i = 0; i < keys.length; i++) {
+      byte[] key = keys[i].getBytes(StandardCharsets.US_ASCII);
+      this.keys[i] = key;
+      int slot = Ascii.hash(key, 0, key.length) & this.mask;
+      while (this.table[slot] != 0) {
+        slot = (slot + 1) & this.mask;
+      }
+      // 0 marks an empty slot
+      this.table[slot] = i + 1;
+    }
+  }
+
+  int size() {
+    return this.keys.length;
+  }
+
+  /**
+   * Parses the given buffer.
+   *
+   * @param buffer the buffer containing the file contents
+   * @param length the number of valid bytes in {@code buffer}
+   * @param values where to store the values, keys that are not present
+   *               leave the value at the corresponding index unchanged
+   */
+  void parse(byte[] buffer, int length, long[] values) {
+    int position = 0;
+    while (position < length) {
+      position = this.parseLine(buffer, position, length, values);
+      position = Ascii.skipLine(buffer, position, length);
+    }
+  }
+
+  /**
+   * Parses a single line.
+   *
+   * @param buffer the buffer containing the line
+   * @param start the index of the first character of the line
+   * @param end the index after the last character of the line or buffer
+   * @param values where to store the value if the key is known
+   * @return the index where parsing stopped, the rest of the line can be skipped
+   */
+  int parseLine(byte[] buffer, int start, int end, long[] values) {
+    int position = start;
+    int hash = 0;
+    while ((position < end) && (buffer[position] != this.separator) && (buffer[position] != '\n')) {
+      hash = 31 * hash + buffer[position];
+      position += 1;
+    }
+    if ((position < end) && (buffer[position] == this.separator)) {
+      int index = this.indexOf(buffer, start, position, hash);
+      position += 1;
+      if (index != -1) {
+        position = parseValue(buffer, position, end, values, index);
+      }
+    }
+    return position;
+  }
+
+  private int indexOf(byte[] buffer, int start, int end, int hash) {
+    int slot = hash & this.mask;
+    int entry = this.table[slot];
+    while (entry != 0) {
+      byte[] key = this.keys[entry - 1];
+      if (Ascii.regionEquals(buffer, start, end, key)) {
+        return entry - 1;
+      }
+      slot = (slot + 1) & this.mask;
+      entry = this.table[slot];
+    }
+    return -1;
+  }
+
+  private static int parseValue(byte[] buffer, int start, int length, long[] values, int index) {
+    int position = Ascii.skipBlanks(buffer, start, length);
+    if (position == length) {
+      return position;
+    }
+    byte first = buffer[position];
+    if (!Ascii.isDigit(first)) {
+      values[index] = first;
+      return position;
+    }
+    long value = 0L;
+    while ((position < length) && Ascii.isDigit(buffer[position])) {
+      value = value * 10L + (buffer[position] - '0');
+      position += 1;
+    }
+    position = Ascii.skipBlanks(buffer, position, length);
+    values[index] = value * multiplier(buffer, position, length);
+    return position;
+  }
+
+  private static long multiplier(byte[] buffer, int position, int length) {
+    if (((position + 1) >= length) || ((buffer[position + 1] | 0x20) != 'b')) {
+      return 1L;
+    }
+    switch (buffer[position] | 0x20) {
+      case 'k':
+        return 1024L;
+      case 'm':
+        return 1024L * 1024L;
+      case 'g':
+        return 1024L * 1024L * 1024L;
+      default:
+        return 1L;
+    }
+  }
+
+}
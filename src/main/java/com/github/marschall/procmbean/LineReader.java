@@ -0,0 +1,109 @@
+package com.github.marschall.procmbean;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reads a file line by line through a fixed size window without creating
+ * a {@link String} per line.
+ *
+ * <p>The current line is the range {@link #lineStart()} (inclusive) to
+ * {@link #lineEnd()} (exclusive) of {@link #buffer()}, the terminating
+ * newline is not included. The contents of the buffer are only valid
+ * until the next call to {@link #nextLine()}. The window only grows
+ * when a single line does not fit.</p>
+ */
+final class LineReader implements Closeable {
+
+  private static final int DEFAULT_SIZE = 8192;
+
+  private final InputStream input;
+  private byte[] buffer;
+  private int position;
+  private int limit;
+  private int lineStart;
+  private int lineEnd;
+  private boolean endOfFile;
+
+  LineReader(InputStream input) {
+    this.input = input;
+    this.buffer = new byte[DEFAULT_SIZE];
+  }
+
+  static LineReader open(Path path) throws IOException {
+    return new LineReader(Files.newInputStream(path));
+  }
+
+  /**
+   * Advances to the next line.
+   *
+   * @return {@code true} if there is a next line, {@code false} if the end
+   *         of the file has been reached
+   * @throws IOException if the file can not be read
+   */
+  boolean nextLine() throws IOException {
+    int searchStart = this.position;
+    while (true) {
+      for (int i = searchStart; i < this.limit; i++) {
+        if (this.buffer[i] == '\n') {
+          this.lineStart = this.position;
+          this.lineEnd = i;
+          this.position = i + 1;
+          return true;
+        }
+      }
+      if (this.endOfFile) {
+        if (this.position < this.limit) {
+          // last line without a newline
+          this.lineStart = this.position;
+          this.lineEnd = this.limit;
+          this.position = this.limit;
+          return true;
+        }
+        return false;
+      }
+      searchStart = this.limit - this.position;
+      this.fill();
+    }
+  }
+
+  private void fill() throws IOException {
+    int remaining = this.limit - this.position;
+    if (this.position > 0) {
+      System.arraycopy(this.buffer, this.position, this.buffer, 0, remaining);
+      this.position = 0;
+      this.limit = remaining;
+    }
+    if (this.limit == this.buffer.length) {
+      this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+    }
+    int read = this.input.read(this.buffer, this.limit, this.buffer.length - this.limit);
+    if (read == -1) {
+      this.endOfFile = true;
+    } else {
+      this.limit += read;
+    }
+  }
+
+  byte[] buffer() {
+    return this.buffer;
+  }
+
+  int lineStart() {
+    return this.lineStart;
+  }
+
+  int lineEnd() {
+    return this.lineEnd;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.input.close();
+  }
+
+}
@@ -0,0 +1,78 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * A glibc malloc arena.
+ */
+public final class MallocArena {
+
+  private final long start;
+  private final boolean main;
+  private final long committed;
+  private final long reserved;
+  private final long residentSet;
+
+  MallocArena(long start, boolean main, long committed, long reserved, long residentSet) {
+    this.start = start;
+    this.main = main;
+    this.committed = committed;
+    this.reserved = reserved;
+    this.residentSet = residentSet;
+  }
+
+  public static MallocArena from(CompositeData compositeData) {
+    return new MallocArena(
+            (Long) compositeData.get("start"),
+            (Boolean) compositeData.get("main"),
+            (Long) compositeData.get("committed"),
+            (Long) compositeData.get("reserved"),
+            (Long) compositeData.get("residentSet"));
+  }
+
+  /**
+   * The start address of the arena.
+   *
+   * @return the start address
+   */
+  public long getStart() {
+    return this.start;
+  }
+
+  /**
+   * Whether this is the main arena growing with {@code brk}, shown as
+   * {@code [heap]}. All other arenas are per thread arenas.
+   *
+   * @return whether this is the main arena
+   */
+  public boolean isMain() {
+    return this.main;
+  }
+
+  /**
+   * The readable and writable part of the arena.
+   *
+   * @return the committed size
+   */
+  @Units("bytes")
+  public long getCommitted() {
+    return this.committed;
+  }
+
+  /**
+   * The address space of the arena including the inaccessible reservation,
+   * 64 MB for per thread arenas on 64 bit.
+   *
+   * @return the reserved size
+   */
+  @Units("bytes")
+  public long getReserved() {
+    return this.reserved;
+  }
+
+  @Units("bytes")
+  public long getResidentSet() {
+    return this.residentSet;
+  }
+
+}
@@ -0,0 +1,257 @@
+package com.github.marschall.procmbean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.AttributeChangeNotification;
+import javax.management.JMException;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanServer;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.ObjectName;
+
+/**
+ * Finds the glibc malloc arenas of the current process.
+ *
+ * <p>Besides the main arena ({@code [heap]}) glibc creates up to
+ * {@code MALLOC_ARENA_MAX} per thread arenas, by default eight per CPU.
+ * Every per thread arena reserves 64 MB of address space aligned to 64 MB
+ * and commits it from the start, it shows up as an anonymous {@code rw-p}
+ * mapping followed by an anonymous {@code ---p} reservation. Mappings in
+ * the ranges reserved by the JVM are ignored.</p>
+ *
+ * <p>An {@link AttributeChangeNotification} is sent when the arena count
+ * or the resident set of all arenas reaches its threshold. Another
+ * notification is only sent after the value dropped below the threshold
+ * again.</p>
+ */
+public class MallocArenas extends NotificationBroadcasterSupport implements MallocArenasMXBean {
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=MallocArenas";
+
+  private static final byte[] MAIN_ARENA = "[heap]".getBytes(StandardCharsets.US_ASCII);
+
+  private final Path smaps;
+  private final AtomicLong sequenceNumber;
+
+  // null for the ranges of the current JVM
+  private final JvmAddressRanges ranges;
+
+  private volatile int arenaCount;
+  private volatile long residentSet;
+
+  private volatile int arenaCountThreshold;
+  private volatile long residentSetThreshold;
+
+  private boolean arenaCountExceeded;
+  private boolean residentSetExceeded;
+
+  /**
+   * Constructs a new {@link MallocArenas} for the current process that
+   * analyzes the arenas when {@link #getArenas()} is called.
+   */
+  public MallocArenas() {
+    this(Paths.get("/proc/self/smaps"), null);
+  }
+
+  /**
+   * Constructs a new {@link MallocArenas} for the current process that
+   * additionally analyzes the arenas after every sample so that the
+   * thresholds are checked periodically.
+   *
+   * <p>Every analysis reads {@code /proc/self/smaps} which is considerably
+   * more expensive than taking a sample.</p>
+   *
+   * @param sampler the sampler triggering the analysis
+   */
+  public MallocArenas(Sampler sampler) {
+    this();
+    Objects.requireNonNull(sampler, "sampler");
+    sampler.addListener(sample -> this.getArenas());
+  }
+
+  MallocArenas(Path smaps, JvmAddressRanges ranges) {
+    super(new MBeanNotificationInfo(
+            new String[] {AttributeChangeNotification.ATTRIBUTE_CHANGE},
+            AttributeChangeNotification.class.getName(),
+            "sent when the arena count or the arena resident set reaches its threshold"));
+    this.smaps = smaps;
+    this.ranges = ranges;
+    this.sequenceNumber = new AtomicLong();
+  }
+
+  @Override
+  public List<MallocArena> getArenas() {
+    List<MallocArena> arenas = findArenas(this.smaps, this.getRanges());
+    long arenasResidentSet = 0L;
+    for (MallocArena arena : arenas) {
+      arenasResidentSet += arena.getResidentSet();
+    }
+    this.update(arenas.size(), arenasResidentSet);
+    return arenas;
+  }
+
+  private synchronized void update(int count, long arenasResidentSet) {
+    int previousCount = this.arenaCount;
+    long previousResidentSet = this.residentSet;
+    this.arenaCount = count;
+    this.residentSet = arenasResidentSet;
+
+    int countThreshold = this.arenaCountThreshold;
+    boolean countExceeded = (countThreshold > 0) && (count >= countThreshold);
+    if (countExceeded && !this.arenaCountExceeded) {
+      this.sendThresholdNotification("arena count " + count + " reached threshold " + countThreshold,
+              "ArenaCount", "int", previousCount, count);
+    }
+    this.arenaCountExceeded = countExceeded;
+
+    long residentSetThreshold = this.residentSetThreshold;
+    boolean residentSetExceeded = (residentSetThreshold > 0L) && (arenasResidentSet >= residentSetThreshold);
+    if (residentSetExceeded && !this.residentSetExceeded) {
+      this.sendThresholdNotification("arena resident set " + arenasResidentSet + " reached threshold " + residentSetThreshold,
+              "ResidentSet", "long", previousResidentSet, arenasResidentSet);
+    }
+    this.residentSetExceeded = residentSetExceeded;
+  }
+
+  private void sendThresholdNotification(String message, String attributeName, String attributeType,
+          Object oldValue, Object newValue) {
+    this.sendNotification(new AttributeChangeNotification(this, this.sequenceNumber.incrementAndGet(),
+            System.currentTimeMillis(), message, attributeName, attributeType, oldValue, newValue));
+  }
+
+  private JvmAddressRanges getRanges() {
+    return this.ranges != null ? this.ranges : JvmAddressRanges.current();
+  }
+
+  static List<MallocArena> findArenas(Path smaps, JvmAddressRanges ranges) {
+    ArenaCollector collector = new ArenaCollector(ranges);
+    try (LineReader reader = LineReader.open(smaps)) {
+      SmapsParser.parse(reader, collector);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    collector.finish();
+    return collector.arenas;
+  }
+
+  @Override
+  public int getArenaCount() {
+    return this.arenaCount;
+  }
+
+  @Override
+  public long getResidentSet() {
+    return this.residentSet;
+  }
+
+  @Override
+  public int getArenaCountThreshold() {
+    return this.arenaCountThreshold;
+  }
+
+  @Override
+  public void setArenaCountThreshold(int threshold) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("threshold must not be negative");
+    }
+    this.arenaCountThreshold = threshold;
+  }
+
+  @Override
+  public long getResidentSetThreshold() {
+    return this.residentSetThreshold;
+  }
+
+  @Override
+  public void setResidentSetThreshold(long threshold) {
+    if (threshold < 0L) {
+      throw new IllegalArgumentException("threshold must not be negative");
+    }
+    this.residentSetThreshold = threshold;
+  }
+
+  public static void install(MallocArenas mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.registerMBean(mxBean, mxBeanName);
+  }
+
+  public static void uninstall() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.unregisterMBean(mxBeanName);
+  }
+
+  /**
+   * Collects the arenas while streaming over smaps, the writable part of
+   * an arena is held back until the following mapping shows whether it is
+   * followed by the rest of the reservation.
+   */
+  static final class ArenaCollector implements SmapsParser.MappingConsumer {
+
+    final List<MallocArena> arenas;
+    private final JvmAddressRanges ranges;
+
+    private boolean pending;
+    private long pendingStart;
+    private long pendingEnd;
+    private long pendingResidentSet;
+
+    ArenaCollector(JvmAddressRanges ranges) {
+      this.ranges = ranges;
+      this.arenas = new ArrayList<>();
+    }
+
+    @Override
+    public void accept(MapsLineParser header, long[] values) {
+      this.accept(header.start, header.end, header.permissions, header.pathname, header.pathnameLength,
+              values[SmapsParser.RSS]);
+    }
+
+    void accept(long start, long end, int permissions, byte[] pathname, int pathnameLength, long residentSet) {
+      boolean anonymous = MappingClassifier.isAnonymous(pathname, pathnameLength);
+      if (this.pending) {
+        if (anonymous && (start == this.pendingEnd) && MappingClassifier.isGuard(permissions)
+                && ((end - this.pendingStart) == MappingClassifier.ARENA_SIZE)) {
+          this.arenas.add(new MallocArena(this.pendingStart, false, this.pendingEnd - this.pendingStart,
+                  MappingClassifier.ARENA_SIZE, this.pendingResidentSet));
+          this.pending = false;
+          return;
+        }
+        this.finish();
+      }
+      if (Ascii.regionEquals(pathname, 0, pathnameLength, MAIN_ARENA)) {
+        this.arenas.add(new MallocArena(start, true, end - start, end - start, residentSet));
+      } else if (anonymous && MappingClassifier.isReadWrite(permissions) && MappingClassifier.isArenaStart(start)
+              && ((end - start) <= MappingClassifier.ARENA_SIZE) && (this.ranges.lookup(start) == null)) {
+        this.pending = true;
+        this.pendingStart = start;
+        this.pendingEnd = end;
+        this.pendingResidentSet = residentSet;
+      }
+    }
+
+    /**
+     * Decides on the held back mapping, only a fully committed arena has
+     * no reservation following it.
+     */
+    void finish() {
+      if (this.pending && ((this.pendingEnd - this.pendingStart) == MappingClassifier.ARENA_SIZE)) {
+        this.arenas.add(new MallocArena(this.pendingStart, false, MappingClassifier.ARENA_SIZE,
+                MappingClassifier.ARENA_SIZE, this.pendingResidentSet));
+      }
+      this.pending = false;
+    }
+
+  }
+
+}
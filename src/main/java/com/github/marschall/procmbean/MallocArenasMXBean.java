@@ -0,0 +1,50 @@
+package com.github.marschall.procmbean;
+
+import java.util.List;
+
+public interface MallocArenasMXBean {
+
+  /**
+   * Reads the mappings of the process and returns all glibc malloc arenas.
+   * Checks the thresholds.
+   *
+   * @return the arenas in address order, the main arena included
+   */
+  List<MallocArena> getArenas();
+
+  /**
+   * The number of arenas including the main arena found by the last analysis.
+   *
+   * @return the number of arenas
+   */
+  int getArenaCount();
+
+  /**
+   * The resident set of all arenas found by the last analysis.
+   *
+   * @return the resident set of all arenas
+   */
+  @Units("bytes")
+  long getResidentSet();
+
+  /**
+   * The number of arenas at which a notification is sent, 0 to disable.
+   *
+   * @return the arena count threshold
+   */
+  int getArenaCountThreshold();
+
+  void setArenaCountThreshold(int threshold);
+
+  /**
+   * The resident set of all arenas at which a notification is sent,
+   * 0 to disable.
+   *
+   * @return the resident set threshold
+   */
+  @Units("bytes")
+  long getResidentSetThreshold();
+
+  void setResidentSetThreshold(long threshold);
+
+}
@@ -0,0 +1,96 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * A mapping that was added, removed, grown or shrunk between two snapshots.
+ */
+public final class MappingChange {
+
+  /**
+   * The mapping is new.
+   */
+  public static final String ADDED = "ADDED";
+
+  /**
+   * The mapping no longer exists.
+   */
+  public static final String REMOVED = "REMOVED";
+
+  /**
+   * The mapping got larger.
+   */
+  public static final String GROWN = "GROWN";
+
+  /**
+   * The mapping got smaller.
+   */
+  public static final String SHRUNK = "SHRUNK";
+
+  private final String kind;
+  private final long start;
+  private final String pathname;
+  private final long previousSize;
+  private final long size;
+
+  MappingChange(String kind, long start, String pathname, long previousSize, long size) {
+    this.kind = kind;
+    this.start = start;
+    this.pathname = pathname;
+    this.previousSize = previousSize;
+    this.size = size;
+  }
+
+  public static MappingChange from(CompositeData compositeData) {
+    return new MappingChange(
+            (String) compositeData.get("kind"),
+            (Long) compositeData.get("start"),
+            (String) compositeData.get("pathname"),
+            (Long) compositeData.get("previousSize"),
+            (Long) compositeData.get("size"));
+  }
+
+  /**
+   * The kind of change, one of {@link #ADDED}, {@link #REMOVED},
+   * {@link #GROWN} or {@link #SHRUNK}.
+   *
+   * @return the kind of change
+   */
+  public String getKind() {
+    return this.kind;
+  }
+
+  public long getStart() {
+    return this.start;
+  }
+
+  /**
+   * The pathname of the mapping.
+   *
+   * @return the pathname, {@code null} for anonymous mappings
+   */
+  public String getPathname() {
+    return this.pathname;
+  }
+
+  /**
+   * The size in the previous snapshot.
+   *
+   * @return the previous size, 0 for added mappings
+   */
+  @Units("bytes")
+  public long getPreviousSize() {
+    return this.previousSize;
+  }
+
+  /**
+   * The size in the current snapshot.
+   *
+   * @return the current size, 0 for removed mappings
+   */
+  @Units("bytes")
+  public long getSize() {
+    return this.size;
+  }
+
+}
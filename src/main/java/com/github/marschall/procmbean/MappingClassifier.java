@@ -0,0 +1,288 @@
+package com.github.marschall.procmbean;
+
+import static com.github.marschall.procmbean.MappingVisitor.EXECUTE;
+import static com.github.marschall.procmbean.MappingVisitor.READ;
+import static com.github.marschall.procmbean.MappingVisitor.SHARED;
+import static com.github.marschall.procmbean.MappingVisitor.WRITE;
+
+/**
+ * Attributes mappings to {@link MemoryRegion}s in a single pass.
+ *
+ * <p>Mappings have to be passed in address order, as they appear in
+ * {@code /proc/[pid]/maps}. A mapping is classified by, in order</p>
+ * <ol>
+ *  <li>its pathname, eg. {@code [heap]}, {@code *.so} or {@code *.jsa}</li>
+ *  <li>the address ranges reserved by the JVM</li>
+ *  <li>the execute permission for anonymous mappings</li>
+ *  <li>patterns of adjacent anonymous mappings; a small inaccessible guard
+ *      followed by a writable mapping is a thread stack, a writable mapping
+ *      starting at a 64 MB boundary that together with the following
+ *      inaccessible reservation spans 64 MB is a glibc arena</li>
+ * </ol>
+ *
+ * <p>The last rule needs to see the following mapping so every mapping is
+ * held back until the next one has been passed. Instances are not thread
+ * safe.</p>
+ *
+ * <p>Besides summing up the regions the classifier can report the region
+ * of every mapping to a {@link RegionListener}.</p>
+ */
+final class MappingClassifier {
+
+  /**
+   * The size and alignment of a glibc arena on 64 bit, {@code HEAP_MAX_SIZE}.
+   */
+  static final long ARENA_SIZE = 64L * 1024L * 1024L;
+
+  /**
+   * The largest inaccessible mapping considered a stack guard.
+   */
+  private static final long MAX_GUARD_SIZE = 1024L * 1024L;
+
+  private static final MemoryRegion[] REGIONS = MemoryRegion.values();
+
+  private final JvmAddressRanges ranges;
+  private final RegionListener listener;
+
+  private final int[] mappings;
+  private final long[] sizes;
+  private final long[] residentSets;
+  private final long[] swapped;
+
+  private boolean pending;
+  private long pendingStart;
+  private long pendingEnd;
+  private int pendingPermissions;
+  private boolean pendingAnonymous;
+  private MemoryRegion pendingRegion;
+  private long pendingResidentSet;
+  private long pendingSwapped;
+  private int pendingId;
+
+  MappingClassifier(JvmAddressRanges ranges) {
+    this(ranges, null);
+  }
+
+  MappingClassifier(JvmAddressRanges ranges, RegionListener listener) {
+    this.ranges = ranges;
+    this.listener = listener;
+    this.mappings = new int[REGIONS.length];
+    this.sizes = new long[REGIONS.length];
+    this.residentSets = new long[REGIONS.length];
+    this.swapped = new long[REGIONS.length];
+  }
+
+  /**
+   * Classifies the next mapping.
+   *
+   * @param start the start address, inclusive
+   * @param end the end address, exclusive
+   * @param permissions the permission bits as defined in {@link MappingVisitor}
+   * @param pathname the buffer containing the pathname
+   * @param pathnameLength the length of the pathname, 0 for anonymous mappings
+   * @param residentSet the resident set in bytes, 0 if unknown
+   * @param swapped the swapped memory in bytes, 0 if unknown
+   */
+  void accept(long start, long end, int permissions, byte[] pathname, int pathnameLength,
+          long residentSet, long swapped) {
+    this.accept(start, end, permissions, pathname, pathnameLength, residentSet, swapped, -1);
+  }
+
+  /**
+   * Classifies the next mapping and reports its region to the listener
+   * once it is known.
+   *
+   * @param id passed to the listener to identify the mapping
+   * @see #accept(long, long, int, byte[], int, long, long)
+   */
+  void accept(long start, long end, int permissions, byte[] pathname, int pathnameLength,
+          long residentSet, long swapped, int id) {
+    boolean anonymous = isAnonymous(pathname, pathnameLength);
+    MemoryRegion region = this.classify(start, permissions, pathname, pathnameLength, anonymous);
+    if (this.pending) {
+      if ((region == null) && (this.pendingRegion == null) && this.pendingAnonymous && (this.pendingEnd == start)) {
+        if (isGuard(this.pendingPermissions) && ((this.pendingEnd - this.pendingStart) <= MAX_GUARD_SIZE)
+                && isReadWrite(permissions)) {
+          this.pendingRegion = MemoryRegion.THREAD_STACK;
+          region = MemoryRegion.THREAD_STACK;
+        } else if (isReadWrite(this.pendingPermissions) && isArenaStart(this.pendingStart)
+                && isGuard(permissions) && ((end - this.pendingStart) == ARENA_SIZE)) {
+          this.pendingRegion = MemoryRegion.MALLOC_ARENA;
+          region = MemoryRegion.MALLOC_ARENA;
+        }
+      }
+      this.flush();
+    }
+    this.pending = true;
+    this.pendingStart = start;
+    this.pendingEnd = end;
+    this.pendingPermissions = permissions;
+    this.pendingAnonymous = anonymous;
+    this.pendingRegion = region;
+    this.pendingResidentSet = residentSet;
+    this.pendingSwapped = swapped;
+    this.pendingId = id;
+  }
+
+  /**
+   * Classifies the last mapping, has to be called after the last mapping
+   * has been passed.
+   */
+  void finish() {
+    if (this.pending) {
+      this.flush();
+    }
+  }
+
+  private void flush() {
+    MemoryRegion region = this.pendingRegion;
+    if (region == null) {
+      // a fully committed arena has no reservation following it
+      if (this.pendingAnonymous && isReadWrite(this.pendingPermissions) && isArenaStart(this.pendingStart)
+              && ((this.pendingEnd - this.pendingStart) == ARENA_SIZE)) {
+        region = MemoryRegion.MALLOC_ARENA;
+      } else {
+        region = MemoryRegion.ANONYMOUS;
+      }
+    }
+    int index = region.ordinal();
+    this.mappings[index] += 1;
+    this.sizes[index] += this.pendingEnd - this.pendingStart;
+    this.residentSets[index] += this.pendingResidentSet;
+    this.swapped[index] += this.pendingSwapped;
+    if (this.listener != null) {
+      this.listener.classified(this.pendingId, region);
+    }
+    this.pending = false;
+  }
+
+  /**
+   * Classifies a mapping without looking at its neighbors.
+   *
+   * @return the region, {@code null} for anonymous mappings that need
+   *         to be classified by their neighbors
+   */
+  private MemoryRegion classify(long start, int permissions, byte[] pathname, int pathnameLength, boolean anonymous) {
+    if (!anonymous) {
+      if (pathname[0] == '[') {
+        if (equals(pathname, pathnameLength, "[heap]")) {
+          return MemoryRegion.MALLOC_ARENA;
+        }
+        if (startsWith(pathname, pathnameLength, "[stack")) {
+          return MemoryRegion.THREAD_STACK;
+        }
+        return MemoryRegion.OTHER;
+      }
+      if (endsWith(pathname, pathnameLength, ".jsa")) {
+        return MemoryRegion.CDS_ARCHIVE;
+      }
+      if (isSharedLibrary(pathname, pathnameLength)) {
+        return MemoryRegion.SHARED_LIBRARY;
+      }
+      return MemoryRegion.MAPPED_FILE;
+    }
+    MemoryRegion region = this.ranges.lookup(start);
+    if (region != null) {
+      return region;
+    }
+    if ((permissions & EXECUTE) != 0) {
+      return MemoryRegion.CODE_CACHE;
+    }
+    return null;
+  }
+
+  /**
+   * Mappings without a pathname and mappings named with
+   * {@code prctl(PR_SET_VMA_ANON_NAME)} are anonymous.
+   */
+  static boolean isAnonymous(byte[] pathname, int pathnameLength) {
+    return (pathnameLength == 0) || startsWith(pathname, pathnameLength, "[anon:");
+  }
+
+  static boolean isGuard(int permissions) {
+    return (permissions & (READ | WRITE | EXECUTE | SHARED)) == 0;
+  }
+
+  static boolean isReadWrite(int permissions) {
+    return (permissions & (READ | WRITE | EXECUTE | SHARED)) == (READ | WRITE);
+  }
+
+  static boolean isArenaStart(long start) {
+    return (start & (ARENA_SIZE - 1L)) == 0L;
+  }
+
+  private static boolean isSharedLibrary(byte[] pathname, int pathnameLength) {
+    if (endsWith(pathname, pathnameLength, ".so")) {
+      return true;
+    }
+    // versioned libraries, eg. libc.so.6
+    for (int i = 0; i + 4 <= pathnameLength; i++) {
+      if ((pathname[i] == '.') && (pathname[i + 1] == 's') && (pathname[i + 2] == 'o') && (pathname[i + 3] == '.')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean equals(byte[] pathname, int pathnameLength, String value) {
+    return (pathnameLength == value.length()) && startsWith(pathname, pathnameLength, value);
+  }
+
+  private static boolean startsWith(byte[] pathname, int pathnameLength, String prefix) {
+    if (pathnameLength < prefix.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (pathname[i] != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean endsWith(byte[] pathname, int pathnameLength, String suffix) {
+    int offset = pathnameLength - suffix.length();
+    if (offset < 0) {
+      return false;
+    }
+    for (int i = 0; i < suffix.length(); i++) {
+      if (pathname[offset + i] != suffix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Callback for the region of every mapping.
+   */
+  @FunctionalInterface
+  interface RegionListener {
+
+    /**
+     * Called once for every mapping in address order.
+     *
+     * @param id the id passed when the mapping was accepted
+     * @param region the region of the mapping
+     */
+    void classified(int id, MemoryRegion region);
+
+  }
+
+  int mappings(MemoryRegion region) {
+    return this.mappings[region.ordinal()];
+  }
+
+  long size(MemoryRegion region) {
+    return this.sizes[region.ordinal()];
+  }
+
+  long residentSet(MemoryRegion region) {
+    return this.residentSets[region.ordinal()];
+  }
+
+  long swapped(MemoryRegion region) {
+    return this.swapped[region.ordinal()];
+  }
+
+}
@@ -0,0 +1,74 @@
+package com.github.marschall.procmbean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compares two snapshots of the mappings of a process.
+ *
+ * <p>Both snapshots are sorted by start address, a mapping is identified by
+ * its start address and pathname. The snapshots are merged in a single pass
+ * in linear time. A mapping that moved is reported as removed and added,
+ * a mapping whose start address stayed and whose end moved as grown or
+ * shrunk.</p>
+ */
+final class MappingDiffer {
+
+  private MappingDiffer() {
+    throw new AssertionError("not instantiable");
+  }
+
+  static MappingsDiff diff(MappingIndex previous, MappingIndex current, long elapsed) {
+    List<MappingChange> changes = new ArrayList<>();
+    long addedBytes = 0L;
+    long removedBytes = 0L;
+    long grownBytes = 0L;
+    long shrunkBytes = 0L;
+    int i = 0;
+    int j = 0;
+    while ((i < previous.size()) || (j < current.size())) {
+      int comparison;
+      if (i == previous.size()) {
+        comparison = 1;
+      } else if (j == current.size()) {
+        comparison = -1;
+      } else {
+        comparison = Long.compareUnsigned(previous.getStart(i), current.getStart(j));
+        if ((comparison == 0) && !Objects.equals(previous.getPathname(i), current.getPathname(j))) {
+          // same address, different mapping, report the removal first
+          comparison = -1;
+        }
+      }
+      if (comparison < 0) {
+        long size = size(previous, i);
+        changes.add(new MappingChange(MappingChange.REMOVED, previous.getStart(i), previous.getPathname(i), size, 0L));
+        removedBytes += size;
+        i += 1;
+      } else if (comparison > 0) {
+        long size = size(current, j);
+        changes.add(new MappingChange(MappingChange.ADDED, current.getStart(j), current.getPathname(j), 0L, size));
+        addedBytes += size;
+        j += 1;
+      } else {
+        long previousSize = size(previous, i);
+        long size = size(current, j);
+        if (size > previousSize) {
+          changes.add(new MappingChange(MappingChange.GROWN, current.getStart(j), current.getPathname(j), previousSize, size));
+          grownBytes += size - previousSize;
+        } else if (size < previousSize) {
+          changes.add(new MappingChange(MappingChange.SHRUNK, current.getStart(j), current.getPathname(j), previousSize, size));
+          shrunkBytes += previousSize - size;
+        }
+        i += 1;
+        j += 1;
+      }
+    }
+    return new MappingsDiff(elapsed, addedBytes, removedBytes, grownBytes, shrunkBytes, changes);
+  }
+
+  private static long size(MappingIndex index, int mapping) {
+    return index.getEnd(mapping) - index.getStart(mapping);
+  }
+
+}
@@ -0,0 +1,337 @@
+package com.github.marschall.procmbean;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Resolves native addresses to the mappings of a process.
+ *
+ * <p>The mappings of a snapshot of {@code /proc/[pid]/maps} are kept in
+ * parallel arrays sorted by start address. Resolving an address is a
+ * binary search over the start addresses and does not allocate, addresses
+ * are compared unsigned. A mapping
+ * is identified by its index, the fields of a mapping are accessed through
+ * the index.</p>
+ *
+ * <p>Instances are immutable and can be shared between threads.
+ * {@link #refresh()} reads the mappings again and returns a new index
+ * only if they changed, the pathnames of unchanged mappings are reused.</p>
+ *
+ * <pre><code>MappingIndex index = proc.getMappingIndex();
+ *int mapping = index.resolve(address);
+ *if (mapping != MappingIndex.NOT_FOUND) {
+ *  String pathname = index.getPathname(mapping);
+ *}</code></pre>
+ */
+public final class MappingIndex {
+
+  /**
+   * Returned by {@link #resolve(long)} for addresses not in any mapping.
+   */
+  public static final int NOT_FOUND = -1;
+
+  private final Path maps;
+  private final int size;
+  private final long[] starts;
+  private final long[] ends;
+  private final int[] permissions;
+  private final long[] offsets;
+  private final long[] inodes;
+  private final String[] pathnames;
+  // the UTF-8 pathnames back to back for comparing on refresh
+  private final byte[] pathnameBytes;
+  private final int[] pathnameOffsets;
+
+  private MappingIndex(Path maps, int size, long[] starts, long[] ends, int[] permissions, long[] offsets,
+          long[] inodes, String[] pathnames, byte[] pathnameBytes, int[] pathnameOffsets) {
+    this.maps = maps;
+    this.size = size;
+    this.starts = starts;
+    this.ends = ends;
+    this.permissions = permissions;
+    this.offsets = offsets;
+    this.inodes = inodes;
+    this.pathnames = pathnames;
+    this.pathnameBytes = pathnameBytes;
+    this.pathnameOffsets = pathnameOffsets;
+  }
+
+  static MappingIndex build(Path maps) {
+    return build(maps, null);
+  }
+
+  private static MappingIndex build(Path maps, MappingIndex previous) {
+    Builder builder = new Builder(maps, previous);
+    Proc.visitMappings(maps, builder);
+    return builder.build();
+  }
+
+  /**
+   * Reads the mappings again.
+   *
+   * @return this index if the mappings did not change, otherwise a new index
+   * @throws java.io.UncheckedIOException if the mappings can not be read
+   */
+  public MappingIndex refresh() {
+    return build(this.maps, this);
+  }
+
+  /**
+   * Finds the mapping containing an address.
+   *
+   * @param address the address to resolve
+   * @return the index of the mapping containing the address,
+   *         {@link #NOT_FOUND} if the address is not mapped
+   */
+  public int resolve(long address) {
+    return this.resolve(address, 0);
+  }
+
+  private int resolve(long address, int fromIndex) {
+    // addresses are unsigned, [vsyscall] is above 2^63
+    int low = fromIndex;
+    int high = this.size - 1;
+    // the last mapping starting at or before the address
+    int index = fromIndex - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (Long.compareUnsigned(this.starts[middle], address) <= 0) {
+        index = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    if ((index >= fromIndex) && (Long.compareUnsigned(address, this.ends[index]) < 0)) {
+      return index;
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Finds the mappings containing several addresses.
+   *
+   * <p>Runs of ascending addresses only search the mappings following the
+   * previous result, sorting the addresses beforehand speeds up resolving
+   * large batches.</p>
+   *
+   * @param addresses the addresses to resolve
+   * @param indices receives the index of the mapping for the address at
+   *                the same position, {@link #NOT_FOUND} if the address is
+   *                not mapped, must be at least as long as {@code addresses}
+   */
+  public void resolve(long[] addresses, int[] indices) {
+    Objects.requireNonNull(addresses, "addresses");
+    Objects.requireNonNull(indices, "indices");
+    if (indices.length < addresses.length) {
+      throw new IllegalArgumentException("indices shorter than addresses");
+    }
+    long previousAddress = 0L;
+    int fromIndex = 0;
+    for (int i = 0; i < addresses.length; i++) {
+      long address = addresses[i];
+      if (Long.compareUnsigned(address, previousAddress) < 0) {
+        fromIndex = 0;
+      }
+      int index = this.resolve(address, fromIndex);
+      indices[i] = index;
+      if (index != NOT_FOUND) {
+        fromIndex = index;
+      }
+      previousAddress = address;
+    }
+  }
+
+  /**
+   * The number of mappings.
+   *
+   * @return the number of mappings
+   */
+  public int size() {
+    return this.size;
+  }
+
+  public long getStart(int index) {
+    this.checkIndex(index);
+    return this.starts[index];
+  }
+
+  public long getEnd(int index) {
+    this.checkIndex(index);
+    return this.ends[index];
+  }
+
+  /**
+   * The permissions of a mapping.
+   *
+   * @param index the index of the mapping
+   * @return the permission bits as defined in {@link MappingVisitor}
+   */
+  public int getPermissions(int index) {
+    this.checkIndex(index);
+    return this.permissions[index];
+  }
+
+  public long getOffset(int index) {
+    this.checkIndex(index);
+    return this.offsets[index];
+  }
+
+  public long getInode(int index) {
+    this.checkIndex(index);
+    return this.inodes[index];
+  }
+
+  /**
+   * The pathname of a mapping.
+   *
+   * @param index the index of the mapping
+   * @return the pathname, {@code null} for anonymous mappings
+   */
+  public String getPathname(int index) {
+    this.checkIndex(index);
+    return this.pathnames[index];
+  }
+
+  private void checkIndex(int index) {
+    if ((index < 0) || (index >= this.size)) {
+      throw new IndexOutOfBoundsException("index: " + index + " size: " + this.size);
+    }
+  }
+
+  private boolean pathnameEquals(int index, byte[] pathname, int pathnameOffset, int pathnameLength) {
+    int start = this.pathnameOffsets[index];
+    int end = this.pathnameOffsets[index + 1];
+    if ((end - start) != pathnameLength) {
+      return false;
+    }
+    for (int i = 0; i < pathnameLength; i++) {
+      if (this.pathnameBytes[start + i] != pathname[pathnameOffset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Collects the mappings and compares them to the previous index in the
+   * same pass, both are sorted by start address.
+   */
+  static final class Builder implements MappingVisitor {
+
+    private final Path maps;
+    private final MappingIndex previous;
+    private int previousIndex;
+    private boolean changed;
+
+    private int size;
+    private long[] starts;
+    private long[] ends;
+    private int[] permissions;
+    private long[] offsets;
+    private long[] inodes;
+    private String[] pathnames;
+    private byte[] pathnameBytes;
+    private int[] pathnameOffsets;
+
+    Builder(Path maps, MappingIndex previous) {
+      this.maps = maps;
+      this.previous = previous;
+      this.changed = previous == null;
+      int capacity = previous != null ? Math.max(previous.size, 16) : 256;
+      this.starts = new long[capacity];
+      this.ends = new long[capacity];
+      this.permissions = new int[capacity];
+      this.offsets = new long[capacity];
+      this.inodes = new long[capacity];
+      this.pathnames = new String[capacity];
+      this.pathnameOffsets = new int[capacity + 1];
+      this.pathnameBytes = new byte[previous != null ? Math.max(previous.pathnameBytes.length, 64) : capacity * 32];
+    }
+
+    @Override
+    public void visitMapping(long start, long end, int permissions, long offset,
+            int deviceMajor, int deviceMinor, long inode,
+            byte[] pathname, int pathnameOffset, int pathnameLength) {
+      if (this.size == this.starts.length) {
+        this.grow();
+      }
+      int index = this.size;
+      this.starts[index] = start;
+      this.ends[index] = end;
+      this.permissions[index] = permissions;
+      this.offsets[index] = offset;
+      this.inodes[index] = inode;
+
+      int bytesStart = this.pathnameOffsets[index];
+      if ((bytesStart + pathnameLength) > this.pathnameBytes.length) {
+        this.pathnameBytes = Arrays.copyOf(this.pathnameBytes, Math.max(this.pathnameBytes.length * 2, bytesStart + pathnameLength));
+      }
+      System.arraycopy(pathname, pathnameOffset, this.pathnameBytes, bytesStart, pathnameLength);
+      this.pathnameOffsets[index + 1] = bytesStart + pathnameLength;
+
+      String reused = this.findPrevious(start, end, permissions, offset, inode, pathname, pathnameOffset, pathnameLength);
+      if (reused != null || (pathnameLength == 0)) {
+        this.pathnames[index] = reused;
+      } else {
+        this.pathnames[index] = new String(pathname, pathnameOffset, pathnameLength, StandardCharsets.UTF_8);
+      }
+      this.size += 1;
+    }
+
+    /**
+     * Advances in the previous index to the mapping with the same start
+     * address and returns its pathname if it is the same.
+     */
+    private String findPrevious(long start, long end, int permissions, long offset, long inode,
+            byte[] pathname, int pathnameOffset, int pathnameLength) {
+      MappingIndex previous = this.previous;
+      if (previous == null) {
+        return null;
+      }
+      while ((this.previousIndex < previous.size)
+              && (Long.compareUnsigned(previous.starts[this.previousIndex], start) < 0)) {
+        this.previousIndex += 1;
+        this.changed = true;
+      }
+      if ((this.previousIndex == previous.size) || (previous.starts[this.previousIndex] != start)) {
+        this.changed = true;
+        return null;
+      }
+      int index = this.previousIndex;
+      this.previousIndex += 1;
+      if (!previous.pathnameEquals(index, pathname, pathnameOffset, pathnameLength)) {
+        this.changed = true;
+        return null;
+      }
+      if ((previous.ends[index] != end) || (previous.permissions[index] != permissions)
+              || (previous.offsets[index] != offset) || (previous.inodes[index] != inode)) {
+        this.changed = true;
+      }
+      return previous.pathnames[index];
+    }
+
+    private void grow() {
+      int capacity = this.starts.length * 2;
+      this.starts = Arrays.copyOf(this.starts, capacity);
+      this.ends = Arrays.copyOf(this.ends, capacity);
+      this.permissions = Arrays.copyOf(this.permissions, capacity);
+      this.offsets = Arrays.copyOf(this.offsets, capacity);
+      this.inodes = Arrays.copyOf(this.inodes, capacity);
+      this.pathnames = Arrays.copyOf(this.pathnames, capacity);
+      this.pathnameOffsets = Arrays.copyOf(this.pathnameOffsets, capacity + 1);
+    }
+
+    MappingIndex build() {
+      if (!this.changed && (this.size == this.previous.size)) {
+        return this.previous;
+      }
+      return new MappingIndex(this.maps, this.size, this.starts, this.ends, this.permissions, this.offsets,
+              this.inodes, this.pathnames, this.pathnameBytes, this.pathnameOffsets);
+    }
+
+  }
+
+}
@@ -0,0 +1,62 @@
+package com.github.marschall.procmbean;
+
+/**
+ * Callback for the entries of {@code /proc/[pid]/maps}.
+ *
+ * <p>The fields are pushed as primitives directly from the parse buffer,
+ * no objects are created per mapping. This allows processes with a large
+ * number of mappings to be scanned without building a list first.</p>
+ *
+ * @see Proc#visitMappings(MappingVisitor)
+ */
+@FunctionalInterface
+public interface MappingVisitor {
+
+  /**
+   * Permission bit for readable mappings.
+   */
+  int READ = 1;
+
+  /**
+   * Permission bit for writable mappings.
+   */
+  int WRITE = 1 << 1;
+
+  /**
+   * Permission bit for executable mappings.
+   */
+  int EXECUTE = 1 << 2;
+
+  /**
+   * Permission bit for shared mappings.
+   */
+  int SHARED = 1 << 3;
+
+  /**
+   * Permission bit for private (copy on write) mappings.
+   */
+  int PRIVATE = 1 << 4;
+
+  /**
+   * Called once for every mapping in the order of the file.
+   *
+   * @param start the start address, inclusive
+   * @param end the end address, exclusive
+   * @param permissions the permission bits, a combination of {@link #READ},
+   *                    {@link #WRITE}, {@link #EXECUTE}, {@link #SHARED}
+   *                    and {@link #PRIVATE}
+   * @param offset the offset into the mapped file
+   * @param deviceMajor the major number of the device of the mapped file
+   * @param deviceMinor the minor number of the device of the mapped file
+   * @param inode the inode of the mapped file, 0 for anonymous mappings
+   * @param pathname the buffer containing the UTF-8 encoded pathname, only
+   *                 valid during the call
+   * @param pathnameOffset the index of the first byte of the pathname
+   * @param pathnameLength the length of the pathname in bytes,
+   *                       0 for anonymous mappings
+   */
+  void visitMapping(long start, long end, int permissions, long offset,
+          int deviceMajor, int deviceMinor, long inode,
+          byte[] pathname, int pathnameOffset, int pathnameLength);
+
+}
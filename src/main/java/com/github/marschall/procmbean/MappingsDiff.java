@@ -0,0 +1,115 @@
+package com.github.marschall.procmbean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The differences between two snapshots of the mappings of a process.
+ */
+public final class MappingsDiff {
+
+  private final long elapsed;
+  private final long addedBytes;
+  private final long removedBytes;
+  private final long grownBytes;
+  private final long shrunkBytes;
+  private final List<MappingChange> changes;
+
+  MappingsDiff(long elapsed, long addedBytes, long removedBytes, long grownBytes, long shrunkBytes,
+          List<MappingChange> changes) {
+    this.elapsed = elapsed;
+    this.addedBytes = addedBytes;
+    this.removedBytes = removedBytes;
+    this.grownBytes = grownBytes;
+    this.shrunkBytes = shrunkBytes;
+    this.changes = changes;
+  }
+
+  public static MappingsDiff from(CompositeData compositeData) {
+    CompositeData[] changesData = (CompositeData[]) compositeData.get("changes");
+    List<MappingChange> changes = new ArrayList<>(changesData.length);
+    for (CompositeData changeData : changesData) {
+      changes.add(MappingChange.from(changeData));
+    }
+    return new MappingsDiff(
+            (Long) compositeData.get("elapsed"),
+            (Long) compositeData.get("addedBytes"),
+            (Long) compositeData.get("removedBytes"),
+            (Long) compositeData.get("grownBytes"),
+            (Long) compositeData.get("shrunkBytes"),
+            changes);
+  }
+
+  /**
+   * The time between the two snapshots.
+   *
+   * @return the time between the two snapshots, 0 for the first snapshot
+   */
+  @Units("milliseconds")
+  public long getElapsed() {
+    return this.elapsed;
+  }
+
+  /**
+   * The size of all added mappings.
+   *
+   * @return the size of all added mappings
+   */
+  @Units("bytes")
+  public long getAddedBytes() {
+    return this.addedBytes;
+  }
+
+  /**
+   * The size of all removed mappings.
+   *
+   * @return the size of all removed mappings
+   */
+  @Units("bytes")
+  public long getRemovedBytes() {
+    return this.removedBytes;
+  }
+
+  /**
+   * The sum of the growth of all grown mappings.
+   *
+   * @return the growth of all grown mappings
+   */
+  @Units("bytes")
+  public long getGrownBytes() {
+    return this.grownBytes;
+  }
+
+  /**
+   * The sum of the shrinkage of all shrunk mappings.
+   *
+   * @return the shrinkage of all shrunk mappings
+   */
+  @Units("bytes")
+  public long getShrunkBytes() {
+    return this.shrunkBytes;
+  }
+
+  /**
+   * The change of the total mapped size, negative if mappings were
+   * removed or shrunk.
+   *
+   * @return the change of the total mapped size
+   */
+  @Units("bytes")
+  public long getNetBytes() {
+    return this.addedBytes + this.grownBytes - this.removedBytes - this.shrunkBytes;
+  }
+
+  /**
+   * All changed mappings in address order.
+   *
+   * @return the changed mappings
+   */
+  public List<MappingChange> getChanges() {
+    return this.changes;
+  }
+
+}
@@ -0,0 +1,136 @@
+package com.github.marschall.procmbean;
+
+import static com.github.marschall.procmbean.MappingVisitor.EXECUTE;
+import static com.github.marschall.procmbean.MappingVisitor.PRIVATE;
+import static com.github.marschall.procmbean.MappingVisitor.READ;
+import static com.github.marschall.procmbean.MappingVisitor.SHARED;
+import static com.github.marschall.procmbean.MappingVisitor.WRITE;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parses a line in the format of {@code /proc/[pid]/maps} without allocating.
+ *
+ * <p>The format of a line is</p>
+ * <pre><code>address           perms offset  dev   inode       pathname
+ *00400000-00452000 r-xp 00000000 08:02 173521      /usr/bin/dbus-daemon</code></pre>
+ *
+ * <p>The parsed fields are stored in the instance which is reused for
+ * every line, instances are therefore not thread safe. The pathname is
+ * copied so the fields stay valid when the buffer containing the line
+ * is reused.</p>
+ */
+final class MapsLineParser {
+
+  long start;
+  long end;
+  int permissions;
+  long offset;
+  int deviceMajor;
+  int deviceMinor;
+  long inode;
+  byte[] pathname = new byte[256];
+  int pathnameLength;
+
+  /**
+   * Parses a line, the fields of this object are updated.
+   *
+   * @param buffer the buffer containing the line
+   * @param lineStart the index of the first character of the line
+   * @param lineEnd the index after the last character of the line
+   */
+  void parse(byte[] buffer, int lineStart, int lineEnd) {
+    int position = lineStart;
+    int tokenEnd = Ascii.skipHex(buffer, position, lineEnd);
+    this.start = Ascii.parseHex(buffer, position, tokenEnd);
+    // skip '-'
+    position = tokenEnd + 1;
+    tokenEnd = Ascii.skipHex(buffer, position, lineEnd);
+    this.end = Ascii.parseHex(buffer, position, tokenEnd);
+
+    position = Ascii.skipBlanks(buffer, tokenEnd, lineEnd);
+    this.permissions = parsePermissions(buffer, position, lineEnd);
+    position = Ascii.skipBlanks(buffer, position + 4, lineEnd);
+
+    tokenEnd = Ascii.skipHex(buffer, position, lineEnd);
+    this.offset = Ascii.parseHex(buffer, position, tokenEnd);
+    position = Ascii.skipBlanks(buffer, tokenEnd, lineEnd);
+
+    tokenEnd = Ascii.skipHex(buffer, position, lineEnd);
+    this.deviceMajor = (int) Ascii.parseHex(buffer, position, tokenEnd);
+    // skip ':'
+    position = tokenEnd + 1;
+    tokenEnd = Ascii.skipHex(buffer, position, lineEnd);
+    this.deviceMinor = (int) Ascii.parseHex(buffer, position, tokenEnd);
+    position = Ascii.skipBlanks(buffer, tokenEnd, lineEnd);
+
+    this.inode = Ascii.parseLong(buffer, position, lineEnd);
+    while ((position < lineEnd) && Ascii.isDigit(buffer[position])) {
+      position += 1;
+    }
+    position = Ascii.skipBlanks(buffer, position, lineEnd);
+
+    // the pathname may contain spaces, eg. " (deleted)"
+    int pathEnd = lineEnd;
+    while ((pathEnd > position) && ((buffer[pathEnd - 1] == ' ') || (buffer[pathEnd - 1] == '\r'))) {
+      pathEnd -= 1;
+    }
+    this.pathnameLength = pathEnd - position;
+    if (this.pathnameLength > this.pathname.length) {
+      this.pathname = Arrays.copyOf(this.pathname, Math.max(this.pathname.length * 2, this.pathnameLength));
+    }
+    System.arraycopy(buffer, position, this.pathname, 0, this.pathnameLength);
+  }
+
+  private static int parsePermissions(byte[] buffer, int position, int lineEnd) {
+    if ((position + 4) > lineEnd) {
+      return 0;
+    }
+    int permissions = 0;
+    if (buffer[position] == 'r') {
+      permissions |= READ;
+    }
+    if (buffer[position + 1] == 'w') {
+      permissions |= WRITE;
+    }
+    if (buffer[position + 2] == 'x') {
+      permissions |= EXECUTE;
+    }
+    if (buffer[position + 3] == 's') {
+      permissions |= SHARED;
+    }
+    if (buffer[position + 3] == 'p') {
+      permissions |= PRIVATE;
+    }
+    return permissions;
+  }
+
+  /**
+   * Passes the fields of the current line to a visitor.
+   *
+   * @param visitor the visitor to call
+   */
+  void accept(MappingVisitor visitor) {
+    visitor.visitMapping(this.start, this.end, this.permissions, this.offset,
+            this.deviceMajor, this.deviceMinor, this.inode,
+            this.pathname, 0, this.pathnameLength);
+  }
+
+  boolean hasPathname() {
+    return this.pathnameLength > 0;
+  }
+
+  /**
+   * Creates a {@link String} from the pathname of the current line.
+   *
+   * @return the pathname, {@code null} for anonymous mappings
+   */
+  String pathname() {
+    if (!this.hasPathname()) {
+      return null;
+    }
+    return new String(this.pathname, 0, this.pathnameLength, StandardCharsets.UTF_8);
+  }
+
+}
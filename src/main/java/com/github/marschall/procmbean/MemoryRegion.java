@@ -0,0 +1,55 @@
+package com.github.marschall.procmbean;
+
+/**
+ * The categories mappings are attributed to by {@link MappingClassifier}.
+ */
+enum MemoryRegion {
+
+  /**
+   * The reserved range of the Java heap.
+   */
+  JAVA_HEAP,
+
+  /**
+   * Compiled code, either in the reserved range of the code cache or
+   * any anonymous executable mapping.
+   */
+  CODE_CACHE,
+
+  /**
+   * Anonymous mappings in the compressed class space, other metaspace
+   * can not be told apart from {@link #ANONYMOUS}.
+   */
+  METASPACE,
+
+  /**
+   * The class data sharing archive.
+   */
+  CDS_ARCHIVE,
+
+  /**
+   * Thread stacks including their guard pages.
+   */
+  THREAD_STACK,
+
+  /**
+   * The glibc main arena ({@code [heap]}) and the per thread arenas.
+   */
+  MALLOC_ARENA,
+
+  SHARED_LIBRARY,
+
+  MAPPED_FILE,
+
+  /**
+   * Anonymous mappings not attributed to any other region, eg. direct
+   * buffers, GC data structures, large malloc allocations.
+   */
+  ANONYMOUS,
+
+  /**
+   * Kernel provided mappings like {@code [vdso]}.
+   */
+  OTHER;
+
+}
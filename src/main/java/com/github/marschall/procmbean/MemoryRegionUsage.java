@@ -0,0 +1,74 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The memory attributed to a region like the Java heap or thread stacks.
+ */
+public final class MemoryRegionUsage {
+
+  private final String region;
+  private final int mappings;
+  private final long size;
+  private final long residentSet;
+  private final long swapped;
+
+  MemoryRegionUsage(String region, int mappings, long size, long residentSet, long swapped) {
+    this.region = region;
+    this.mappings = mappings;
+    this.size = size;
+    this.residentSet = residentSet;
+    this.swapped = swapped;
+  }
+
+  public static MemoryRegionUsage from(CompositeData compositeData) {
+    return new MemoryRegionUsage(
+            (String) compositeData.get("region"),
+            (Integer) compositeData.get("mappings"),
+            (Long) compositeData.get("size"),
+            (Long) compositeData.get("residentSet"),
+            (Long) compositeData.get("swapped"));
+  }
+
+  /**
+   * The name of the region, one of {@code JAVA_HEAP}, {@code CODE_CACHE},
+   * {@code METASPACE}, {@code CDS_ARCHIVE}, {@code THREAD_STACK},
+   * {@code MALLOC_ARENA}, {@code SHARED_LIBRARY}, {@code MAPPED_FILE},
+   * {@code ANONYMOUS} or {@code OTHER}.
+   *
+   * @return the name of the region
+   */
+  public String getRegion() {
+    return this.region;
+  }
+
+  /**
+   * The number of mappings attributed to the region.
+   *
+   * @return the number of mappings
+   */
+  public int getMappings() {
+    return this.mappings;
+  }
+
+  /**
+   * The virtual size including reserved but not committed memory.
+   *
+   * @return the virtual size
+   */
+  @Units("bytes")
+  public long getSize() {
+    return this.size;
+  }
+
+  @Units("bytes")
+  public long getResidentSet() {
+    return this.residentSet;
+  }
+
+  @Units("bytes")
+  public long getSwapped() {
+    return this.swapped;
+  }
+
+}
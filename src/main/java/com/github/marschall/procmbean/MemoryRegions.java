@@ -0,0 +1,86 @@
+package com.github.marschall.procmbean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Attributes the memory of the current process to JVM and native regions
+ * in a single pass over {@code /proc/self/smaps}.
+ *
+ * @see MappingClassifier
+ */
+public class MemoryRegions implements MemoryRegionsMXBean {
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=MemoryRegions";
+
+  private final Path smaps;
+
+  // null for the ranges of the current JVM
+  private final JvmAddressRanges ranges;
+
+  /**
+   * Constructs a new {@link MemoryRegions} for the current process.
+   */
+  public MemoryRegions() {
+    this(Paths.get("/proc/self/smaps"), null);
+  }
+
+  MemoryRegions(Path smaps, JvmAddressRanges ranges) {
+    this.smaps = smaps;
+    this.ranges = ranges;
+  }
+
+  @Override
+  public List<MemoryRegionUsage> getRegions() {
+    return classify(this.smaps, this.getRanges());
+  }
+
+  private JvmAddressRanges getRanges() {
+    return this.ranges != null ? this.ranges : JvmAddressRanges.current();
+  }
+
+  static List<MemoryRegionUsage> classify(Path smaps, JvmAddressRanges ranges) {
+    MappingClassifier classifier = new MappingClassifier(ranges);
+    try (LineReader reader = LineReader.open(smaps)) {
+      SmapsParser.parse(reader, (header, values) -> classifier.accept(header.start, header.end, header.permissions,
+              header.pathname, header.pathnameLength, values[SmapsParser.RSS], values[SmapsParser.SWAP]));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    classifier.finish();
+
+    MemoryRegion[] regions = MemoryRegion.values();
+    List<MemoryRegionUsage> usages = new ArrayList<>(regions.length);
+    for (MemoryRegion region : regions) {
+      usages.add(new MemoryRegionUsage(region.name(), classifier.mappings(region), classifier.size(region),
+              classifier.residentSet(region), classifier.swapped(region)));
+    }
+    return usages;
+  }
+
+  public static void install() throws JMException {
+    install(new MemoryRegions());
+  }
+
+  public static void install(MemoryRegionsMXBean mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.registerMBean(mxBean, mxBeanName);
+  }
+
+  public static void uninstall() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.unregisterMBean(mxBeanName);
+  }
+
+}
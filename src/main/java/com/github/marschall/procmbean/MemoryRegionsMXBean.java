@@ -0,0 +1,15 @@
+package com.github.marschall.procmbean;
+
+import java.util.List;
+
+public interface MemoryRegionsMXBean {
+
+  /**
+   * Attributes every mapping of the process to a region like the Java heap,
+   * the code cache, thread stacks or glibc arenas and sums them up.
+   *
+   * @return one entry for every region, including empty ones
+   */
+  List<MemoryRegionUsage> getRegions();
+
+}
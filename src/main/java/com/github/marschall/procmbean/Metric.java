@@ -0,0 +1,330 @@
+package com.github.marschall.procmbean;
+
+import static com.github.marschall.procmbean.Metric.Kind.COUNTER;
+import static com.github.marschall.procmbean.Metric.Kind.GAUGE;
+
+/**
+ * The numeric attributes of {@link ProcMXBean} that are sampled.
+ *
+ * <p>The name of a metric is the name of the MXBean attribute followed by
+ * the name of the item, eg. {@code Status.residentSet}. The one exception
+ * is {@code Status.residentSetPeak} which is exported without the typo of
+ * {@link ProcessStatus#getResidentSetPreak()}.</p>
+ */
+enum Metric {
+
+  STAT_MINOR_FAULTS("Stat.minorFaults", COUNTER, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.stat.getMinorFaults();
+    }
+  },
+  STAT_MAJOR_FAULTS("Stat.majorFaults", COUNTER, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.stat.getMajorFaults();
+    }
+  },
+  STAT_USER_TIME("Stat.userTime", COUNTER, "ticks") {
+    @Override
+    long get(Sample sample) {
+      return sample.stat.getUserTime();
+    }
+  },
+  STAT_KERNEL_TIME("Stat.kernelTime", COUNTER, "ticks") {
+    @Override
+    long get(Sample sample) {
+      return sample.stat.getKernelTime();
+    }
+  },
+  STAT_THREADS("Stat.threads", GAUGE, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.stat.getThreads();
+    }
+  },
+  STAT_VIRTUAL_MEMORY_SIZE("Stat.virtualMemorySize", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.stat.getVirtualMemorySize();
+    }
+  },
+  STAT_RESIDENT_SET_SIZE("Stat.residentSetSize", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.stat.getResidentSetSize();
+    }
+  },
+  STAT_SOFT_LIMIT("Stat.softLimit", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.stat.getSoftLimit();
+    }
+  },
+  STAT_PAGES_SWAPPED("Stat.pagesSwapped", COUNTER, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.stat.getPagesSwapped();
+    }
+  },
+  STAT_AGGREGATED_BLOCK_IO_DELAYS("Stat.aggregatedBlockIoDelays", COUNTER, "ticks") {
+    @Override
+    long get(Sample sample) {
+      return sample.stat.getAggregatedBlockIoDelays();
+    }
+  },
+  STAT_GUEST_TIME("Stat.guestTime", COUNTER, "ticks") {
+    @Override
+    long get(Sample sample) {
+      return sample.stat.getGuestTime();
+    }
+  },
+  STATUS_FILE_DESCRIPTOR_SLOTS_ALLOCATED("Status.fileDescriptorSlotsAllocated", GAUGE, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getFileDescriptorSlotsAllocated();
+    }
+  },
+  STATUS_VIRTUAL_MEMORY_PEAK("Status.virtualMemoryPeak", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getVirtualMemoryPeak();
+    }
+  },
+  STATUS_VIRTUAL_MEMORY("Status.virtualMemory", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getVirtualMemory();
+    }
+  },
+  STATUS_LOCKED_MEMORY("Status.lockedMemory", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getLockedMemory();
+    }
+  },
+  STATUS_PINNED_MEMORY("Status.pinnedMemory", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getPinnedMemory();
+    }
+  },
+  STATUS_RESIDENT_SET("Status.residentSet", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getResidentSet();
+    }
+  },
+  STATUS_RESIDENT_SET_PEAK("Status.residentSetPeak", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getResidentSetPreak();
+    }
+  },
+  STATUS_RESIDENT_SET_ANONYMOUS("Status.residentSetAnonymous", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getResidentSetAnonymous();
+    }
+  },
+  STATUS_RESIDENT_SET_FILE("Status.residentSetFile", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getResidentSetFile();
+    }
+  },
+  STATUS_RESIDENT_SET_SHARED("Status.residentSetShared", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getResidentSetShared();
+    }
+  },
+  STATUS_DATA("Status.data", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getData();
+    }
+  },
+  STATUS_TEXT("Status.text", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getText();
+    }
+  },
+  STATUS_STACK("Status.stack", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getStack();
+    }
+  },
+  STATUS_SHARED_LIBRARY_CODE("Status.sharedLibraryCode", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getSharedLibraryCode();
+    }
+  },
+  STATUS_SWAPPED("Status.swapped", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getSwapped();
+    }
+  },
+  STATUS_THREADS("Status.threads", GAUGE, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getThreads();
+    }
+  },
+  STATUS_CONTEXT_SWITCHES_INVOLUNTARY("Status.contextSwitchesInvoluntary", COUNTER, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getContextSwitchesInvoluntary();
+    }
+  },
+  STATUS_CONTEXT_SWITCHES_VOLUNTARY("Status.contextSwitchesVoluntary", COUNTER, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.status.getContextSwitchesVoluntary();
+    }
+  },
+  MEMORY_TOTAL_PROGRAM("MemoryUsageStatistics.totalProgram", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.memoryUsage.getTotalProgram();
+    }
+  },
+  MEMORY_RESIDENT_SET("MemoryUsageStatistics.residentSet", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.memoryUsage.getResidentSet();
+    }
+  },
+  MEMORY_RESIDENT_SHARED("MemoryUsageStatistics.residentShared", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.memoryUsage.getResidentShared();
+    }
+  },
+  MEMORY_TEXT("MemoryUsageStatistics.text", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.memoryUsage.getText();
+    }
+  },
+  MEMORY_DATA("MemoryUsageStatistics.data", GAUGE, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.memoryUsage.getData();
+    }
+  },
+  IO_CHARACTERS_READ("IoStatistics.charactersRead", COUNTER, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.io.getCharactersRead();
+    }
+  },
+  IO_CHARACTERS_WRITTEN("IoStatistics.charactersWritten", COUNTER, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.io.getCharactersWritten();
+    }
+  },
+  IO_READ_SYSCALLS("IoStatistics.readSyscalls", COUNTER, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.io.getReadSyscalls();
+    }
+  },
+  IO_WRITE_SYSCALLS("IoStatistics.writeSyscalls", COUNTER, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.io.getWriteSyscalls();
+    }
+  },
+  IO_BYTES_READ("IoStatistics.bytesRead", COUNTER, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.io.getBytesRead();
+    }
+  },
+  IO_BYTES_WRITTEN("IoStatistics.bytesWritten", COUNTER, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.io.getBytesWritten();
+    }
+  },
+  IO_CANCELLED_WRITE_BYTES("IoStatistics.cancelledWriteBytes", COUNTER, "bytes") {
+    @Override
+    long get(Sample sample) {
+      return sample.io.getCancelledWriteBytes();
+    }
+  },
+  OOM_SCORE("OomScore", GAUGE, null) {
+    @Override
+    long get(Sample sample) {
+      return sample.oomScore;
+    }
+  };
+
+  private final String attributeName;
+  private final Kind kind;
+  private final String unit;
+
+  Metric(String attributeName, Kind kind, String unit) {
+    this.attributeName = attributeName;
+    this.kind = kind;
+    this.unit = unit;
+  }
+
+  String getAttributeName() {
+    return this.attributeName;
+  }
+
+  Kind getKind() {
+    return this.kind;
+  }
+
+  /**
+   * Returns the unit of this metric.
+   *
+   * @return the unit, {@code null} for counts
+   */
+  String getUnit() {
+    return this.unit;
+  }
+
+  /**
+   * Extracts the value of this metric.
+   *
+   * @param sample the sample to extract from
+   * @return the value of this metric
+   */
+  abstract long get(Sample sample);
+
+  /**
+   * Looks up a metric by attribute name.
+   *
+   * @param attributeName the name of the attribute, eg. {@code Status.residentSet}
+   * @return the metric with the given name
+   * @throws IllegalArgumentException if there is no metric with the given name
+   */
+  static Metric forAttributeName(String attributeName) {
+    for (Metric metric : values()) {
+      if (metric.attributeName.equals(attributeName)) {
+        return metric;
+      }
+    }
+    throw new IllegalArgumentException("unknown metric: " + attributeName);
+  }
+
+  /**
+   * Whether a metric is a point in time value or a cumulative count.
+   */
+  enum Kind {
+
+    GAUGE,
+    COUNTER;
+
+  }
+
+}
@@ -0,0 +1,297 @@
+package com.github.marschall.procmbean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Reports on which NUMA nodes the memory of the current process is placed
+ * from {@code /proc/self/numa_maps}.
+ *
+ * <p>{@code numa_maps} has neither the end address nor the permissions of
+ * a mapping, it is therefore joined by start address with
+ * {@code /proc/self/maps} whose mappings are attributed to
+ * {@link MemoryRegion}s by {@link MappingClassifier}. Mappings created
+ * between reading the two files are only counted in the node totals.</p>
+ *
+ * <p>Like {@code smaps} reading {@code numa_maps} walks the page tables of
+ * the process, every attribute reads both files again.</p>
+ */
+public class Numa implements NumaMXBean {
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=Numa";
+
+  private static final MemoryRegion[] REGIONS = MemoryRegion.values();
+
+  private final Path maps;
+  private final Path numaMaps;
+  private final Path status;
+
+  // null for the ranges of the current JVM
+  private final JvmAddressRanges ranges;
+
+  /**
+   * Constructs a new {@link Numa} for the current process.
+   */
+  public Numa() {
+    this(Paths.get("/proc/self/maps"), Paths.get("/proc/self/numa_maps"), Paths.get("/proc/self/status"), null);
+  }
+
+  Numa(Path maps, Path numaMaps, Path status, JvmAddressRanges ranges) {
+    this.maps = maps;
+    this.numaMaps = numaMaps;
+    this.status = status;
+    this.ranges = ranges;
+  }
+
+  private JvmAddressRanges getRanges() {
+    return this.ranges != null ? this.ranges : JvmAddressRanges.current();
+  }
+
+  @Override
+  public List<NumaMapping> getMappings() {
+    return this.analyze(true).mappings;
+  }
+
+  @Override
+  public List<NumaRegionUsage> getRegions() {
+    Placement placement = this.analyze(false);
+    List<NumaRegionUsage> usages = new ArrayList<>(REGIONS.length);
+    for (MemoryRegion region : REGIONS) {
+      usages.add(new NumaRegionUsage(region.name(), placement.nodeBytes(region)));
+    }
+    return usages;
+  }
+
+  @Override
+  public long[] getNodeBytes() {
+    Placement placement = this.analyze(false);
+    return Arrays.copyOf(placement.totals, placement.nodeCount);
+  }
+
+  @Override
+  public long[] getJavaHeapNodeBytes() {
+    return this.analyze(false).nodeBytes(MemoryRegion.JAVA_HEAP);
+  }
+
+  @Override
+  public double getImbalance() {
+    int[] allowedNodes = parseList(this.getMemsAllowedList());
+    return imbalance(this.analyze(false), allowedNodes);
+  }
+
+  @Override
+  public String getCpusAllowedList() {
+    return Proc.getStatus(this.status).getCpusAllowedList();
+  }
+
+  @Override
+  public String getMemsAllowedList() {
+    return Proc.getStatus(this.status).getMemsAllowedList();
+  }
+
+  Placement analyze(boolean withMappings) {
+    MapsScan scan = MapsScan.read(this.maps, this.getRanges(), withMappings);
+    Placement placement = new Placement(withMappings);
+    NumaMapsLineParser parser = new NumaMapsLineParser();
+    try (LineReader reader = LineReader.open(this.numaMaps)) {
+      int index = 0;
+      while (reader.nextLine()) {
+        parser.parse(reader.buffer(), reader.lineStart(), reader.lineEnd());
+        // both files are in address order
+        while ((index < scan.size) && (Long.compareUnsigned(scan.starts[index], parser.start) < 0)) {
+          index += 1;
+        }
+        boolean found = (index < scan.size) && (scan.starts[index] == parser.start);
+        placement.add(parser, found ? scan : null, index);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return placement;
+  }
+
+  /**
+   * Computes the memory on the allowed node with the most memory relative to
+   * an even distribution over all allowed nodes.
+   */
+  static double imbalance(Placement placement, int[] allowedNodes) {
+    long total = 0L;
+    for (int node = 0; node < placement.nodeCount; node++) {
+      total += placement.totals[node];
+    }
+    if ((total == 0L) || (allowedNodes.length == 0)) {
+      return 0.0d;
+    }
+    long max = 0L;
+    for (int node : allowedNodes) {
+      if (node < placement.nodeCount) {
+        max = Math.max(max, placement.totals[node]);
+      }
+    }
+    return (double) max * allowedNodes.length / total;
+  }
+
+  /**
+   * Parses a list in the format of {@code Cpus_allowed_list} and
+   * {@code Mems_allowed_list}, eg. {@code 0-3,8,10-11}.
+   *
+   * @param list the list to parse, may be {@code null}
+   * @return the numbers in the list
+   */
+  static int[] parseList(String list) {
+    if ((list == null) || list.isEmpty()) {
+      return new int[0];
+    }
+    int[] numbers = new int[8];
+    int count = 0;
+    for (String range : list.split(",")) {
+      int dash = range.indexOf('-');
+      int from = Integer.parseInt(dash == -1 ? range : range.substring(0, dash));
+      int to = dash == -1 ? from : Integer.parseInt(range.substring(dash + 1));
+      for (int number = from; number <= to; number++) {
+        if (count == numbers.length) {
+          numbers = Arrays.copyOf(numbers, count * 2);
+        }
+        numbers[count++] = number;
+      }
+    }
+    return Arrays.copyOf(numbers, count);
+  }
+
+  public static void install() throws JMException {
+    install(new Numa());
+  }
+
+  public static void install(NumaMXBean mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.registerMBean(mxBean, mxBeanName);
+  }
+
+  public static void uninstall() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.unregisterMBean(mxBeanName);
+  }
+
+  /**
+   * The mappings of {@code /proc/self/maps} with their regions in parallel
+   * arrays in address order.
+   */
+  static final class MapsScan {
+
+    long[] starts;
+    long[] ends;
+    MemoryRegion[] regions;
+    String[] pathnames;
+    int size;
+
+    private MapsScan(boolean withPathnames) {
+      this.starts = new long[256];
+      this.ends = new long[256];
+      this.regions = new MemoryRegion[256];
+      this.pathnames = withPathnames ? new String[256] : null;
+    }
+
+    static MapsScan read(Path maps, JvmAddressRanges ranges, boolean withPathnames) {
+      MapsScan scan = new MapsScan(withPathnames);
+      MappingClassifier classifier = new MappingClassifier(ranges, (id, region) -> scan.regions[id] = region);
+      MapsLineParser parser = new MapsLineParser();
+      try (LineReader reader = LineReader.open(maps)) {
+        while (reader.nextLine()) {
+          parser.parse(reader.buffer(), reader.lineStart(), reader.lineEnd());
+          scan.add(parser);
+          classifier.accept(parser.start, parser.end, parser.permissions,
+                  parser.pathname, parser.pathnameLength, 0L, 0L, scan.size - 1);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      classifier.finish();
+      return scan;
+    }
+
+    private void add(MapsLineParser parser) {
+      if (this.size == this.starts.length) {
+        int capacity = this.size * 2;
+        this.starts = Arrays.copyOf(this.starts, capacity);
+        this.ends = Arrays.copyOf(this.ends, capacity);
+        this.regions = Arrays.copyOf(this.regions, capacity);
+        if (this.pathnames != null) {
+          this.pathnames = Arrays.copyOf(this.pathnames, capacity);
+        }
+      }
+      this.starts[this.size] = parser.start;
+      this.ends[this.size] = parser.end;
+      if (this.pathnames != null) {
+        this.pathnames[this.size] = parser.pathname();
+      }
+      this.size += 1;
+    }
+
+  }
+
+  /**
+   * The resident memory per node in total and per region.
+   */
+  static final class Placement {
+
+    final List<NumaMapping> mappings;
+    long[] totals;
+    long[][] regions;
+    int nodeCount;
+
+    Placement(boolean withMappings) {
+      this.mappings = withMappings ? new ArrayList<>() : null;
+      this.totals = new long[0];
+      this.regions = new long[REGIONS.length][0];
+    }
+
+    void add(NumaMapsLineParser parser, MapsScan scan, int index) {
+      if (parser.nodeCount == 0) {
+        // nothing resident
+        return;
+      }
+      this.ensureNodes(parser.nodeCount);
+      long[] regionBytes = scan != null ? this.regions[scan.regions[index].ordinal()] : null;
+      for (int node = 0; node < parser.nodeCount; node++) {
+        long bytes = parser.nodePages[node] * parser.pageSize;
+        this.totals[node] += bytes;
+        if (regionBytes != null) {
+          regionBytes[node] += bytes;
+        }
+      }
+      if ((this.mappings != null) && (scan != null)) {
+        this.mappings.add(new NumaMapping(parser.start, scan.ends[index], scan.pathnames[index],
+                scan.regions[index].name(), parser.policy(), parser.pageSize,
+                Arrays.copyOf(parser.nodePages, parser.nodeCount)));
+      }
+    }
+
+    private void ensureNodes(int count) {
+      if (count > this.nodeCount) {
+        this.totals = Arrays.copyOf(this.totals, count);
+        for (int i = 0; i < this.regions.length; i++) {
+          this.regions[i] = Arrays.copyOf(this.regions[i], count);
+        }
+        this.nodeCount = count;
+      }
+    }
+
+    long[] nodeBytes(MemoryRegion region) {
+      return Arrays.copyOf(this.regions[region.ordinal()], this.nodeCount);
+    }
+
+  }
+
+}
@@ -0,0 +1,63 @@
+package com.github.marschall.procmbean;
+
+import java.util.List;
+
+public interface NumaMXBean {
+
+  /**
+   * Reads the placement of every mapping with resident pages.
+   *
+   * @return the mappings with resident pages in address order
+   */
+  List<NumaMapping> getMappings();
+
+  /**
+   * Reads the placement of every mapping and sums it up per region.
+   *
+   * @return the memory of every region per node
+   */
+  List<NumaRegionUsage> getRegions();
+
+  /**
+   * The resident memory of the process on every NUMA node, indexed by node.
+   *
+   * @return the memory per node
+   */
+  @Units("bytes")
+  long[] getNodeBytes();
+
+  /**
+   * The resident memory of the Java heap on every NUMA node, indexed by
+   * node.
+   *
+   * @return the Java heap memory per node
+   */
+  @Units("bytes")
+  long[] getJavaHeapNodeBytes();
+
+  /**
+   * The memory on the node with the most memory relative to an even
+   * distribution over the allowed nodes. 1 means evenly spread, the number
+   * of allowed nodes means all memory is on a single node.
+   *
+   * @return the imbalance, 0 if there are no resident pages
+   */
+  double getImbalance();
+
+  /**
+   * The CPUs the process may run on, {@code Cpus_allowed_list} from
+   * {@code /proc/self/status}.
+   *
+   * @return the allowed CPUs, eg. {@code 0-15,32-47}
+   */
+  String getCpusAllowedList();
+
+  /**
+   * The NUMA nodes the process may allocate memory on,
+   * {@code Mems_allowed_list} from {@code /proc/self/status}.
+   *
+   * @return the allowed nodes, eg. {@code 0-1}
+   */
+  String getMemsAllowedList();
+
+}
@@ -0,0 +1,96 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The pages of a single mapping per NUMA node from
+ * {@code /proc/self/numa_maps} joined with {@code /proc/self/maps}.
+ */
+public final class NumaMapping {
+
+  private final long start;
+  private final long end;
+  private final String pathname;
+  private final String region;
+  private final String policy;
+  private final long pageSize;
+  private final long[] nodePages;
+
+  NumaMapping(long start, long end, String pathname, String region, String policy, long pageSize, long[] nodePages) {
+    this.start = start;
+    this.end = end;
+    this.pathname = pathname;
+    this.region = region;
+    this.policy = policy;
+    this.pageSize = pageSize;
+    this.nodePages = nodePages;
+  }
+
+  public static NumaMapping from(CompositeData compositeData) {
+    return new NumaMapping(
+            (Long) compositeData.get("start"),
+            (Long) compositeData.get("end"),
+            (String) compositeData.get("pathname"),
+            (String) compositeData.get("region"),
+            (String) compositeData.get("policy"),
+            (Long) compositeData.get("pageSize"),
+            (long[]) compositeData.get("nodePages"));
+  }
+
+  public long getStart() {
+    return this.start;
+  }
+
+  public long getEnd() {
+    return this.end;
+  }
+
+  /**
+   * The pathname of the mapping.
+   *
+   * @return the pathname, {@code null} for anonymous mappings
+   */
+  public String getPathname() {
+    return this.pathname;
+  }
+
+  /**
+   * The name of the {@link MemoryRegion} the mapping is attributed to, eg.
+   * {@code JAVA_HEAP}.
+   *
+   * @return the name of the region
+   */
+  public String getRegion() {
+    return this.region;
+  }
+
+  /**
+   * The memory policy of the mapping, eg. {@code default},
+   * {@code bind:1} or {@code interleave:0-1}.
+   *
+   * @return the memory policy
+   */
+  public String getPolicy() {
+    return this.policy;
+  }
+
+  /**
+   * The size of the pages of the mapping, larger for hugetlbfs mappings.
+   *
+   * @return the page size
+   */
+  @Units("bytes")
+  public long getPageSize() {
+    return this.pageSize;
+  }
+
+  /**
+   * The number of pages on every NUMA node, indexed by node.
+   *
+   * @return the pages per node
+   */
+  public long[] getNodePages() {
+    return this.nodePages.clone();
+  }
+
+}
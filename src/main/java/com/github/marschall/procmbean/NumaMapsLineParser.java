@@ -0,0 +1,101 @@
+package com.github.marschall.procmbean;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parses a line in the format of {@code /proc/[pid]/numa_maps} without
+ * allocating.
+ *
+ * <p>The format of a line is</p>
+ * <pre><code>7f3c4c000000 default anon=3072 dirty=3072 N0=1024 N1=2048 kernelpagesize_kB=4</code></pre>
+ *
+ * <p>The first field is the start address of the mapping, the second the
+ * memory policy. Of the remaining {@code key=value} fields only the pages
+ * per node {@code N[node]=[pages]} and the page size are parsed. The
+ * parsed fields are stored in the instance which is reused for every line,
+ * instances are therefore not thread safe.</p>
+ */
+final class NumaMapsLineParser {
+
+  private static final byte[] KERNEL_PAGE_SIZE = "kernelpagesize_kB=".getBytes(StandardCharsets.US_ASCII);
+
+  long start;
+  byte[] policy = new byte[32];
+  int policyLength;
+  long pageSize;
+  long[] nodePages = new long[8];
+  // the highest node with pages plus one
+  int nodeCount;
+
+  /**
+   * Parses a line, the fields of this object are updated.
+   *
+   * @param buffer the buffer containing the line
+   * @param lineStart the index of the first character of the line
+   * @param lineEnd the index after the last character of the line
+   */
+  void parse(byte[] buffer, int lineStart, int lineEnd) {
+    Arrays.fill(this.nodePages, 0, this.nodeCount, 0L);
+    this.nodeCount = 0;
+    this.pageSize = PageSize.pageSize();
+
+    int position = lineStart;
+    int tokenEnd = Ascii.skipHex(buffer, position, lineEnd);
+    this.start = Ascii.parseHex(buffer, position, tokenEnd);
+    position = Ascii.skipBlanks(buffer, tokenEnd, lineEnd);
+
+    tokenEnd = tokenEnd(buffer, position, lineEnd);
+    this.policyLength = tokenEnd - position;
+    if (this.policyLength > this.policy.length) {
+      this.policy = Arrays.copyOf(this.policy, Math.max(this.policy.length * 2, this.policyLength));
+    }
+    System.arraycopy(buffer, position, this.policy, 0, this.policyLength);
+    position = Ascii.skipBlanks(buffer, tokenEnd, lineEnd);
+
+    while (position < lineEnd) {
+      tokenEnd = tokenEnd(buffer, position, lineEnd);
+      this.parseField(buffer, position, tokenEnd);
+      position = Ascii.skipBlanks(buffer, tokenEnd, lineEnd);
+    }
+  }
+
+  private static int tokenEnd(byte[] buffer, int start, int lineEnd) {
+    int position = start;
+    while ((position < lineEnd) && (buffer[position] != ' ')) {
+      position += 1;
+    }
+    return position;
+  }
+
+  private void parseField(byte[] buffer, int start, int end) {
+    if ((buffer[start] == 'N') && ((start + 1) < end) && Ascii.isDigit(buffer[start + 1])) {
+      int position = start + 1;
+      int node = 0;
+      while ((position < end) && Ascii.isDigit(buffer[position])) {
+        node = node * 10 + (buffer[position] - '0');
+        position += 1;
+      }
+      if ((position < end) && (buffer[position] == '=')) {
+        if (node >= this.nodePages.length) {
+          this.nodePages = Arrays.copyOf(this.nodePages, Math.max(this.nodePages.length * 2, node + 1));
+        }
+        this.nodePages[node] = Ascii.parseLong(buffer, position + 1, end);
+        this.nodeCount = Math.max(this.nodeCount, node + 1);
+      }
+    } else if (((start + KERNEL_PAGE_SIZE.length) < end)
+            && Ascii.regionEquals(buffer, start, start + KERNEL_PAGE_SIZE.length, KERNEL_PAGE_SIZE)) {
+      this.pageSize = Ascii.parseLong(buffer, start + KERNEL_PAGE_SIZE.length, end) * 1024L;
+    }
+  }
+
+  /**
+   * Creates a {@link String} from the memory policy of the current line.
+   *
+   * @return the memory policy, eg. {@code default} or {@code interleave:0-1}
+   */
+  String policy() {
+    return new String(this.policy, 0, this.policyLength, StandardCharsets.US_ASCII);
+  }
+
+}
@@ -0,0 +1,44 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The memory of all mappings attributed to a {@link MemoryRegion} per
+ * NUMA node.
+ */
+public final class NumaRegionUsage {
+
+  private final String region;
+  private final long[] nodeBytes;
+
+  NumaRegionUsage(String region, long[] nodeBytes) {
+    this.region = region;
+    this.nodeBytes = nodeBytes;
+  }
+
+  public static NumaRegionUsage from(CompositeData compositeData) {
+    return new NumaRegionUsage(
+            (String) compositeData.get("region"),
+            (long[]) compositeData.get("nodeBytes"));
+  }
+
+  /**
+   * The name of the region, eg. {@code JAVA_HEAP}.
+   *
+   * @return the name of the region
+   */
+  public String getRegion() {
+    return this.region;
+  }
+
+  /**
+   * The memory of the region on every NUMA node, indexed by node.
+   *
+   * @return the memory per node
+   */
+  @Units("bytes")
+  public long[] getNodeBytes() {
+    return this.nodeBytes.clone();
+  }
+
+}
@@ -0,0 +1,443 @@
+package com.github.marschall.procmbean;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanServer;
+import javax.management.Notification;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.ObjectName;
+
+/**
+ * Reads the pressure stall information (PSI) of the system or of the cgroup
+ * of the current process.
+ *
+ * <p>The deltas are the stall time between the last two samples of a
+ * {@link Sampler} passed to {@link #trackStalls(Sampler)}, reading an
+ * attribute does not change them. Without a sampler they are 0.</p>
+ *
+ * <p>Triggers send a {@link #STALL} notification when the stall time in a
+ * window reaches a threshold, like the PSI triggers of the kernel. The
+ * kernel signals its triggers with {@code POLLPRI} which can not be waited
+ * for with a {@link java.nio.channels.FileChannel}, the triggers therefore
+ * check the total stall time eight times per window on a background
+ * thread. The user data of the notification is the stall time in the
+ * window in microseconds.</p>
+ */
+public class Pressure extends NotificationBroadcasterSupport implements PressureMXBean, Closeable {
+
+  /**
+   * The type of the notification sent when a trigger fires.
+   */
+  public static final String STALL = "com.github.marschall.procmbean.pressure.stall";
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=Pressure";
+
+  static final int SOME_AVERAGE_10 = 0;
+  static final int SOME_AVERAGE_60 = 1;
+  static final int SOME_AVERAGE_300 = 2;
+  static final int SOME_TOTAL = 3;
+  static final int FULL_OFFSET = 4;
+  static final int FIELDS = 8;
+
+  private static final byte[] SOME = "some".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] FULL = "full".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] AVERAGE_10 = "avg10".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] AVERAGE_60 = "avg60".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] AVERAGE_300 = "avg300".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] TOTAL = "total".getBytes(StandardCharsets.US_ASCII);
+
+  private static final long MIN_WINDOW = TimeUnit.MILLISECONDS.toMicros(500L);
+  private static final long MAX_WINDOW = TimeUnit.SECONDS.toMicros(10L);
+  static final int CHECKS_PER_WINDOW = 8;
+
+  private final String scope;
+  private final Resource cpu;
+  private final Resource memory;
+  private final Resource io;
+  private final AtomicLong sequenceNumber;
+
+  // guarded by this
+  private final List<ScheduledFuture<?>> triggers;
+  private ScheduledExecutorService executor;
+
+  private final SampleSubscription stalls;
+
+  /**
+   * Constructs a new {@link Pressure} for the whole system reading
+   * {@code /proc/pressure}.
+   */
+  public Pressure() {
+    this("system", Paths.get("/proc/pressure"), "cpu", "memory", "io");
+  }
+
+  /**
+   * Constructs a new {@link Pressure} for a cgroup reading
+   * {@code cpu.pressure}, {@code memory.pressure} and {@code io.pressure}.
+   *
+   * <p>With cgroup v1 the files of the cgroup in the v2 hierarchy are read,
+   * if it is mounted.</p>
+   *
+   * @param cgroup the cgroup
+   * @throws IllegalStateException if the cgroup has no pressure files
+   */
+  public Pressure(Cgroup cgroup) {
+    this("cgroup", pressureDirectory(cgroup), "cpu.pressure", "memory.pressure", "io.pressure");
+  }
+
+  Pressure(String scope, Path directory, String cpu, String memory, String io) {
+    super(new MBeanNotificationInfo(
+            new String[] {STALL},
+            Notification.class.getName(),
+            "sent when the stall time in a window reaches a threshold"));
+    this.scope = scope;
+    this.cpu = new Resource("cpu", directory.resolve(cpu));
+    this.memory = new Resource("memory", directory.resolve(memory));
+    this.io = new Resource("io", directory.resolve(io));
+    this.sequenceNumber = new AtomicLong();
+    this.triggers = new ArrayList<>();
+    this.stalls = new SampleSubscription();
+  }
+
+  private static Path pressureDirectory(Cgroup cgroup) {
+    Objects.requireNonNull(cgroup, "cgroup");
+    Path directory = cgroup.getLocation().unified;
+    if ((directory == null) || !Files.exists(directory.resolve("cpu.pressure"))) {
+      throw new IllegalStateException("cgroup has no pressure files");
+    }
+    return directory;
+  }
+
+  @Override
+  public PressureStatistics getCpu() {
+    return this.cpu.read();
+  }
+
+  @Override
+  public PressureStatistics getMemory() {
+    return this.memory.read();
+  }
+
+  @Override
+  public PressureStatistics getIo() {
+    return this.io.read();
+  }
+
+  /**
+   * Computes the stall time deltas on every sample of a sampler instead
+   * of reporting 0. Replaces a previously tracked sampler.
+   *
+   * @param sampler the sampler triggering the reads
+   */
+  public void trackStalls(Sampler sampler) {
+    this.stalls.subscribe(sampler, sample -> this.sampleStalls());
+  }
+
+  void sampleStalls() {
+    this.cpu.sample();
+    this.memory.sample();
+    this.io.sample();
+  }
+
+  @Override
+  public void addTrigger(String resource, String kind, long threshold, long window) {
+    if ((window < MIN_WINDOW) || (window > MAX_WINDOW)) {
+      throw new IllegalArgumentException("window must be between " + MIN_WINDOW + " and " + MAX_WINDOW + " us");
+    }
+    this.addTrigger(resource, kind, threshold, window, window / CHECKS_PER_WINDOW);
+  }
+
+  synchronized void addTrigger(String resource, String kind, long threshold, long window, long checkInterval) {
+    if ((threshold <= 0L) || (threshold > window)) {
+      throw new IllegalArgumentException("threshold must be positive and not larger than the window");
+    }
+    Trigger trigger = new Trigger(this.resource(resource), kindOffset(kind), kind, threshold, window);
+    if (this.executor == null) {
+      this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "proc-pressure-trigger");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    this.triggers.add(this.executor.scheduleAtFixedRate(trigger::check, 0L, checkInterval, TimeUnit.MICROSECONDS));
+  }
+
+  private Resource resource(String name) {
+    switch (name) {
+      case "cpu":
+        return this.cpu;
+      case "memory":
+        return this.memory;
+      case "io":
+        return this.io;
+      default:
+        throw new IllegalArgumentException("unknown resource: " + name);
+    }
+  }
+
+  private static int kindOffset(String kind) {
+    switch (kind) {
+      case "some":
+        return 0;
+      case "full":
+        return FULL_OFFSET;
+      default:
+        throw new IllegalArgumentException("unknown kind: " + kind);
+    }
+  }
+
+  @Override
+  public synchronized void removeTriggers() {
+    for (ScheduledFuture<?> trigger : this.triggers) {
+      trigger.cancel(false);
+    }
+    this.triggers.clear();
+  }
+
+  @Override
+  public synchronized int getTriggerCount() {
+    return this.triggers.size();
+  }
+
+  /**
+   * Stops all triggers and stops tracking the sampler.
+   */
+  @Override
+  public synchronized void close() {
+    this.stalls.cancel();
+    this.triggers.clear();
+    if (this.executor != null) {
+      this.executor.shutdownNow();
+      this.executor = null;
+    }
+  }
+
+  /**
+   * Parses the contents of a pressure file.
+   *
+   * <pre>some avg10=0.00 avg60=0.00 avg300=0.00 total=0
+   *full avg10=0.00 avg60=0.00 avg300=0.00 total=0</pre>
+   *
+   * @param buffer the buffer containing the file contents
+   * @param length the number of valid bytes in {@code buffer}
+   * @param values where to store the values, averages in hundredths of
+   *               a percent
+   */
+  static void parse(byte[] buffer, int length, long[] values) {
+    int position = 0;
+    while (position < length) {
+      int keyEnd = skipToken(buffer, position, length);
+      int offset;
+      if (Ascii.regionEquals(buffer, position, keyEnd, SOME)) {
+        offset = 0;
+      } else if (Ascii.regionEquals(buffer, position, keyEnd, FULL)) {
+        offset = FULL_OFFSET;
+      } else {
+        offset = -1;
+      }
+      position = Ascii.skipBlanks(buffer, keyEnd, length);
+      while ((offset != -1) && (position < length) && (buffer[position] != '\n')) {
+        int equals = position;
+        while ((equals < length) && (buffer[equals] != '=') && (buffer[equals] != ' ') && (buffer[equals] != '\n')) {
+          equals += 1;
+        }
+        int valueEnd = skipToken(buffer, equals, length);
+        if ((equals < length) && (buffer[equals] == '=')) {
+          if (Ascii.regionEquals(buffer, position, equals, AVERAGE_10)) {
+            values[offset + SOME_AVERAGE_10] = parseHundredths(buffer, equals + 1, valueEnd);
+          } else if (Ascii.regionEquals(buffer, position, equals, AVERAGE_60)) {
+            values[offset + SOME_AVERAGE_60] = parseHundredths(buffer, equals + 1, valueEnd);
+          } else if (Ascii.regionEquals(buffer, position, equals, AVERAGE_300)) {
+            values[offset + SOME_AVERAGE_300] = parseHundredths(buffer, equals + 1, valueEnd);
+          } else if (Ascii.regionEquals(buffer, position, equals, TOTAL)) {
+            values[offset + SOME_TOTAL] = Ascii.parseLong(buffer, equals + 1, valueEnd);
+          }
+        }
+        position = Ascii.skipBlanks(buffer, valueEnd, length);
+      }
+      position = Ascii.skipLine(buffer, position, length);
+    }
+  }
+
+  private static int skipToken(byte[] buffer, int start, int length) {
+    int position = start;
+    while ((position < length) && (buffer[position] != ' ') && (buffer[position] != '\n')) {
+      position += 1;
+    }
+    return position;
+  }
+
+  /**
+   * Parses a decimal number with two fraction digits like {@code 12.34}.
+   */
+  static long parseHundredths(byte[] buffer, int start, int end) {
+    int position = start;
+    long value = 0L;
+    while ((position < end) && Ascii.isDigit(buffer[position])) {
+      value = value * 10L + (buffer[position] - '0');
+      position += 1;
+    }
+    int fractionDigits = 0;
+    if ((position < end) && (buffer[position] == '.')) {
+      position += 1;
+      while ((position < end) && Ascii.isDigit(buffer[position]) && (fractionDigits < 2)) {
+        value = value * 10L + (buffer[position] - '0');
+        position += 1;
+        fractionDigits += 1;
+      }
+    }
+    for (int i = fractionDigits; i < 2; i++) {
+      value *= 10L;
+    }
+    return value;
+  }
+
+  public static void install(Pressure mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    server.registerMBean(mxBean, objectName(mxBean.scope));
+  }
+
+  public static void uninstall() throws JMException {
+    uninstall("system");
+    uninstall("cgroup");
+  }
+
+  private static void uninstall(String scope) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = objectName(scope);
+    if (server.isRegistered(mxBeanName)) {
+      server.unregisterMBean(mxBeanName);
+    }
+  }
+
+  private static ObjectName objectName(String scope) throws JMException {
+    return new ObjectName(OBJECT_NAME + ",scope=" + scope);
+  }
+
+  /**
+   * A pressure file and the deltas between its last two samples.
+   */
+  static final class Resource {
+
+    private final String name;
+    private final ProcFile file;
+
+    // guarded by this, only written on sampler ticks
+    private boolean sampled;
+    private long previousSome;
+    private long previousFull;
+    private volatile long someDelta;
+    private volatile long fullDelta;
+
+    Resource(String name, Path path) {
+      this.name = name;
+      this.file = ProcFile.reopening(path);
+    }
+
+    long[] parse() {
+      ReadBuffer buffer = Proc.read(this.file);
+      long[] values = buffer.values(FIELDS);
+      Pressure.parse(buffer.array(), buffer.length(), values);
+      return values;
+    }
+
+    synchronized void sample() {
+      long[] values;
+      try {
+        values = this.parse();
+      } catch (RuntimeException e) {
+        // eg. no io.pressure, keep the last deltas
+        return;
+      }
+      long some = values[SOME_TOTAL];
+      long full = values[FULL_OFFSET + SOME_TOTAL];
+      if (this.sampled) {
+        this.someDelta = RateCalculator.delta(some, this.previousSome);
+        this.fullDelta = RateCalculator.delta(full, this.previousFull);
+      }
+      this.sampled = true;
+      this.previousSome = some;
+      this.previousFull = full;
+    }
+
+    PressureStatistics read() {
+      long[] values = this.parse();
+      return new PressureStatistics(
+              values[SOME_AVERAGE_10] / 100.0d, values[SOME_AVERAGE_60] / 100.0d, values[SOME_AVERAGE_300] / 100.0d,
+              values[SOME_TOTAL], this.someDelta,
+              values[FULL_OFFSET + SOME_AVERAGE_10] / 100.0d, values[FULL_OFFSET + SOME_AVERAGE_60] / 100.0d,
+              values[FULL_OFFSET + SOME_AVERAGE_300] / 100.0d,
+              values[FULL_OFFSET + SOME_TOTAL], this.fullDelta);
+    }
+
+  }
+
+  /**
+   * Compares the current total stall time with the total one window ago.
+   * Only called by the trigger thread.
+   */
+  final class Trigger {
+
+    private final Resource resource;
+    private final int offset;
+    private final String kind;
+    private final long threshold;
+    private final long window;
+    // the totals of the last window, indexed by check
+    private final long[] totals;
+    private long checks;
+    private long lastFired;
+
+    Trigger(Resource resource, int offset, String kind, long threshold, long window) {
+      this.resource = resource;
+      this.offset = offset;
+      this.kind = kind;
+      this.threshold = threshold;
+      this.window = window;
+      this.totals = new long[CHECKS_PER_WINDOW + 1];
+      this.lastFired = -CHECKS_PER_WINDOW;
+    }
+
+    void check() {
+      long total;
+      try {
+        total = this.resource.parse()[this.offset + SOME_TOTAL];
+      } catch (RuntimeException e) {
+        // keep checking, an exception would cancel all further runs
+        return;
+      }
+      this.totals[(int) (this.checks % this.totals.length)] = total;
+      if (this.checks >= CHECKS_PER_WINDOW) {
+        long stall = total - this.totals[(int) ((this.checks - CHECKS_PER_WINDOW) % this.totals.length)];
+        if ((stall >= this.threshold) && ((this.checks - this.lastFired) >= CHECKS_PER_WINDOW)) {
+          this.lastFired = this.checks;
+          this.fire(stall);
+        }
+      }
+      this.checks += 1;
+    }
+
+    private void fire(long stall) {
+      Notification notification = new Notification(STALL, Pressure.this, Pressure.this.sequenceNumber.incrementAndGet(),
+              this.kind + ' ' + this.resource.name + " stall of " + stall + " us in a " + this.window + " us window");
+      notification.setUserData(stall);
+      Pressure.this.sendNotification(notification);
+    }
+
+  }
+
+}
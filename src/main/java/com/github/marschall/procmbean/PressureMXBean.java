@@ -0,0 +1,35 @@
+package com.github.marschall.procmbean;
+
+public interface PressureMXBean {
+
+  PressureStatistics getCpu();
+
+  PressureStatistics getMemory();
+
+  PressureStatistics getIo();
+
+  /**
+   * Adds a trigger that sends a notification when the stall time in a
+   * window reaches a threshold. At most one notification is sent per
+   * window.
+   *
+   * <p>Unlike a kernel PSI trigger this polls: every trigger re-reads the
+   * pressure file every {@code window / 8} on a background thread that is
+   * started with the first trigger.</p>
+   *
+   * @param resource {@code cpu}, {@code memory} or {@code io}
+   * @param kind {@code some} or {@code full}
+   * @param threshold the stall time in microseconds
+   * @param window the window in microseconds, between 500 ms and 10 s
+   */
+  void addTrigger(String resource, String kind, long threshold, long window);
+
+  /**
+   * Removes all triggers. The background thread keeps running until the
+   * bean is closed.
+   */
+  void removeTriggers();
+
+  int getTriggerCount();
+
+}
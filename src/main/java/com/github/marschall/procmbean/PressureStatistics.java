@@ -0,0 +1,127 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The pressure stall information of a resource, from
+ * {@code /proc/pressure/[resource]} or {@code [resource].pressure} of a
+ * cgroup.
+ *
+ * <p>{@code some} is the share of time in which at least one task was
+ * stalled on the resource, {@code full} the share of time in which all
+ * non-idle tasks were stalled at the same time. The averages are
+ * percentages over the last 10, 60 and 300 seconds. The deltas are
+ * computed from the difference to the previous read.</p>
+ */
+public final class PressureStatistics {
+
+  private final double someAverage10;
+  private final double someAverage60;
+  private final double someAverage300;
+  private final long someTotal;
+  private final long someDelta;
+  private final double fullAverage10;
+  private final double fullAverage60;
+  private final double fullAverage300;
+  private final long fullTotal;
+  private final long fullDelta;
+
+  PressureStatistics(double someAverage10, double someAverage60, double someAverage300, long someTotal, long someDelta,
+          double fullAverage10, double fullAverage60, double fullAverage300, long fullTotal, long fullDelta) {
+    this.someAverage10 = someAverage10;
+    this.someAverage60 = someAverage60;
+    this.someAverage300 = someAverage300;
+    this.someTotal = someTotal;
+    this.someDelta = someDelta;
+    this.fullAverage10 = fullAverage10;
+    this.fullAverage60 = fullAverage60;
+    this.fullAverage300 = fullAverage300;
+    this.fullTotal = fullTotal;
+    this.fullDelta = fullDelta;
+  }
+
+  public static PressureStatistics from(CompositeData compositeData) {
+    return new PressureStatistics(
+            (Double) compositeData.get("someAverage10"),
+            (Double) compositeData.get("someAverage60"),
+            (Double) compositeData.get("someAverage300"),
+            (Long) compositeData.get("someTotal"),
+            (Long) compositeData.get("someDelta"),
+            (Double) compositeData.get("fullAverage10"),
+            (Double) compositeData.get("fullAverage60"),
+            (Double) compositeData.get("fullAverage300"),
+            (Long) compositeData.get("fullTotal"),
+            (Long) compositeData.get("fullDelta"));
+  }
+
+  @Units("percent")
+  public double getSomeAverage10() {
+    return this.someAverage10;
+  }
+
+  @Units("percent")
+  public double getSomeAverage60() {
+    return this.someAverage60;
+  }
+
+  @Units("percent")
+  public double getSomeAverage300() {
+    return this.someAverage300;
+  }
+
+  /**
+   * The total time at least one task was stalled.
+   *
+   * @return the total stall time
+   */
+  @Units("microseconds")
+  public long getSomeTotal() {
+    return this.someTotal;
+  }
+
+  /**
+   * The time at least one task was stalled since the previous read.
+   *
+   * @return the stall time since the previous read, 0 for the first read
+   */
+  @Units("microseconds")
+  public long getSomeDelta() {
+    return this.someDelta;
+  }
+
+  @Units("percent")
+  public double getFullAverage10() {
+    return this.fullAverage10;
+  }
+
+  @Units("percent")
+  public double getFullAverage60() {
+    return this.fullAverage60;
+  }
+
+  @Units("percent")
+  public double getFullAverage300() {
+    return this.fullAverage300;
+  }
+
+  /**
+   * The total time all non-idle tasks were stalled.
+   *
+   * @return the total stall time, 0 for CPU on kernels before 5.13
+   */
+  @Units("microseconds")
+  public long getFullTotal() {
+    return this.fullTotal;
+  }
+
+  /**
+   * The time all non-idle tasks were stalled since the previous read.
+   *
+   * @return the stall time since the previous read, 0 for the first read
+   */
+  @Units("microseconds")
+  public long getFullDelta() {
+    return this.fullDelta;
+  }
+
+}
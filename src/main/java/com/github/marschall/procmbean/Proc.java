@@ -1,115 +1,297 @@
 package com.github.marschall.procmbean;
 
 import static com.github.marschall.procmbean.PageSize.pageSize;
-import static com.github.marschall.procmbean.Proc.Permission.EXECUTE;
-import static com.github.marschall.procmbean.Proc.Permission.PRIVATE;
-import static com.github.marschall.procmbean.Proc.Permission.READ;
-import static com.github.marschall.procmbean.Proc.Permission.SHARED;
-import static com.github.marschall.procmbean.Proc.Permission.WRITE;
-import static java.util.stream.Collectors.toList;
-
-import java.io.BufferedReader;
+
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.lang.management.ManagementFactory;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.EnumSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.management.JMException;
+import javax.management.ListenerNotFoundException;
+import javax.management.MBeanNotificationInfo;
 import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.Notification;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
 
-public class Proc implements ProcMXBean {
+public class Proc implements ProcMXBean, NotificationEmitter, Closeable {
 
   private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=Proc";
 
+  /**
+   * The type of the notification sent on the sampler thread after a
+   * sample of the sampler passed to {@link #trackMappings(Sampler)} when
+   * the mapped bytes grew faster than {@link #getMappingGrowthThreshold()}
+   * since the previous sample. The user data is the
+   * {@link MappingsDiff#getNetBytes() net bytes}.
+   */
+  public static final String MAPPING_GROWTH = "com.github.marschall.procmbean.mapping.growth";
+
+  private static final int IO_CHARACTERS_READ = 0;
+  private static final int IO_CHARACTERS_WRITTEN = 1;
+  private static final int IO_READ_SYSCALLS = 2;
+  private static final int IO_WRITE_SYSCALLS = 3;
+  private static final int IO_BYTES_READ = 4;
+  private static final int IO_BYTES_WRITTEN = 5;
+  private static final int IO_CANCELLED_WRITE_BYTES = 6;
+
+  static final KeyValueParser IO_PARSER = new KeyValueParser(
+          "rchar",
+          "wchar",
+          "syscr",
+          "syscw",
+          "read_bytes",
+          "write_bytes",
+          "cancelled_write_bytes");
+
+  private static final int STATUS_STATE = 0;
+  private static final int STATUS_FD_SIZE = 1;
+  private static final int STATUS_VM_PEAK = 2;
+  private static final int STATUS_VM_SIZE = 3;
+  private static final int STATUS_VM_LCK = 4;
+  private static final int STATUS_VM_PIN = 5;
+  private static final int STATUS_VM_HWM = 6;
+  private static final int STATUS_VM_RSS = 7;
+  private static final int STATUS_RSS_ANON = 8;
+  private static final int STATUS_RSS_FILE = 9;
+  private static final int STATUS_RSS_SHMEM = 10;
+  private static final int STATUS_VM_DATA = 11;
+  private static final int STATUS_VM_STK = 12;
+  private static final int STATUS_VM_EXE = 13;
+  private static final int STATUS_VM_LIB = 14;
+  private static final int STATUS_VM_SWAP = 15;
+  private static final int STATUS_THREADS = 16;
+  private static final int STATUS_VOLUNTARY_CTXT_SWITCHES = 17;
+  private static final int STATUS_NONVOLUNTARY_CTXT_SWITCHES = 18;
+
+  static final KeyValueParser STATUS_PARSER = new KeyValueParser(
+          "State",
+          "FDSize",
+          "VmPeak",
+          "VmSize",
+          "VmLck",
+          "VmPin",
+          "VmHWM",
+          "VmRSS",
+          "RssAnon",
+          "RssFile",
+          "RssShmem",
+          "VmData",
+          "VmStk",
+          "VmExe",
+          "VmLib",
+          "VmSwap",
+          "Threads",
+          "voluntary_ctxt_switches",
+          "nonvoluntary_ctxt_switches");
+
+  private static final byte[] CPUS_ALLOWED_LIST = "Cpus_allowed_list".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] MEMS_ALLOWED_LIST = "Mems_allowed_list".getBytes(StandardCharsets.US_ASCII);
+
+  private static final int STAT_FIELDS = 52;
+
+  private static final int STATM_FIELDS = 7;
+
   private final Path procSelf;
 
+  private final ProcFile io;
+  private final ProcFile oomScore;
+  private final ProcFile stat;
+  private final ProcFile statm;
+  private final ProcFile status;
+
+  private final NotificationBroadcasterSupport notifications;
+  private final AtomicLong sequenceNumber;
+  private volatile long mappingGrowthThreshold;
+  // guarded by this
+  private MappingIndex previousMappings;
+  private long previousMappingsNanos;
+  private volatile MappingsDiff lastMappingsDiff;
+  private final SampleSubscription mappings;
+
+  /**
+   * Constructs a new {@link Proc} for the current process that opens
+   * the proc files on every read.
+   */
   public Proc() {
-    this.procSelf = Paths.get("/proc/self");
+    this(Paths.get("/proc/self"), false);
   }
 
-  @Override
-  public IoStatistics getIoStatistics() {
-    return getIoStatistics(this.procSelf.resolve("io"));
+  /**
+   * Constructs a new {@link Proc} for an arbitrary process that opens
+   * the proc files on every read.
+   *
+   * <p>Some files, eg. {@code io}, can only be read for processes of the
+   * same user.</p>
+   *
+   * @param pid the id of the process
+   */
+  public Proc(int pid) {
+    this(procDirectory(pid), false);
   }
 
-  static IoStatistics getIoStatistics(Path path) {
-    try (InputStream input = Files.newInputStream(path);
-         Reader reader = new InputStreamReader(input, StandardCharsets.US_ASCII);
-         BufferedReader bufferedReader = new BufferedReader(reader, 32)) {
-
-      long charactersRead = 0L;
-      long charactersWritten = 0L;
-      long readSyscalls = 0L;
-      long writeSyscalls = 0L;
-      long bytesRead = 0L;
-      long bytesWritten = 0L;
-      long cancelledWriteBytes = 0L;
-      String line = bufferedReader.readLine();
-      while (line != null) {
-        // TODO more robust
-        String key = line.substring(0, line.indexOf(':'));
-        long value = Long.parseUnsignedLong(line.substring(line.indexOf(':') + 2));
-        switch (key) {
-          case "rchar":
-            charactersRead = value;
-            break;
-          case "wchar":
-            charactersWritten = value;
-            break;
-          case "syscr":
-            readSyscalls = value;
-            break;
-          case "syscw":
-            writeSyscalls = value;
-            break;
-          case "read_bytes":
-            bytesRead = value;
-            break;
-          case "write_bytes":
-            bytesWritten = value;
-            break;
-          case "cancelled_write_bytes":
-            cancelledWriteBytes = value;
-            break;
-          default:
-            // ignore
-            break;
-        }
+  Proc(Path procSelf, boolean persistentHandles) {
+    this.procSelf = procSelf;
+    this.notifications = new NotificationBroadcasterSupport(new MBeanNotificationInfo(
+            new String[] {MAPPING_GROWTH}, Notification.class.getName(), "mapped bytes grow too fast"));
+    this.sequenceNumber = new AtomicLong();
+    this.mappings = new SampleSubscription();
+    if (persistentHandles) {
+      List<ProcFile> opened = new ArrayList<>(5);
+      try {
+        opened.add(ProcFile.persistent(procSelf.resolve("io")));
+        opened.add(ProcFile.persistent(procSelf.resolve("oom_score")));
+        opened.add(ProcFile.persistent(procSelf.resolve("stat")));
+        opened.add(ProcFile.persistent(procSelf.resolve("statm")));
+        opened.add(ProcFile.persistent(procSelf.resolve("status")));
+      } catch (IOException e) {
+        closeAll(opened, e);
+        throw new UncheckedIOException(e);
+      }
+      this.io = opened.get(0);
+      this.oomScore = opened.get(1);
+      this.stat = opened.get(2);
+      this.statm = opened.get(3);
+      this.status = opened.get(4);
+    } else {
+      this.io = ProcFile.reopening(procSelf.resolve("io"));
+      this.oomScore = ProcFile.reopening(procSelf.resolve("oom_score"));
+      this.stat = ProcFile.reopening(procSelf.resolve("stat"));
+      this.statm = ProcFile.reopening(procSelf.resolve("statm"));
+      this.status = ProcFile.reopening(procSelf.resolve("status"));
+    }
+  }
+
+  /**
+   * Creates a new {@link Proc} for the current process that keeps the
+   * frequently polled proc files ({@code io}, {@code oom_score},
+   * {@code stat}, {@code statm} and {@code status}) open and re-reads
+   * them with positional reads. This avoids the open and close syscalls
+   * on every read.
+   *
+   * <p>The returned object has to be closed with {@link #close()}
+   * once it is no longer used.</p>
+   *
+   * @return the new {@link Proc}, never {@code null}
+   * @throws UncheckedIOException if a file can not be opened
+   */
+  public static Proc withPersistentHandles() {
+    return new Proc(Paths.get("/proc/self"), true);
+  }
+
+  /**
+   * Creates a new {@link Proc} for an arbitrary process that keeps the
+   * frequently polled proc files open.
+   *
+   * <p>The handles stay bound to the process, reads fail once the process
+   * has exited instead of reading a process that reused the pid.</p>
+   *
+   * @param pid the id of the process
+   * @return the new {@link Proc}, never {@code null}
+   * @throws UncheckedIOException if a file can not be opened
+   * @see #withPersistentHandles()
+   */
+  public static Proc withPersistentHandles(int pid) {
+    return new Proc(procDirectory(pid), true);
+  }
+
+  static Path procDirectory(int pid) {
+    return Paths.get("/proc", Integer.toString(pid));
+  }
 
-        line = bufferedReader.readLine();
+  private static void closeAll(List<ProcFile> files, IOException exception) {
+    for (ProcFile file : files) {
+      try {
+        file.close();
+      } catch (IOException e) {
+        exception.addSuppressed(e);
       }
-      return new IoStatistics(charactersRead, charactersWritten, readSyscalls, writeSyscalls, bytesRead, bytesWritten, cancelledWriteBytes);
+    }
+  }
+
+  static ReadBuffer read(ProcFile file) {
+    ReadBuffer buffer = ReadBuffer.get();
+    try {
+      file.read(buffer);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
+    return buffer;
+  }
+
+  /**
+   * Closes the proc files kept open by {@link #withPersistentHandles()}.
+   */
+  @Override
+  public void close() throws IOException {
+    this.mappings.cancel();
+    IOException exception = null;
+    for (ProcFile file : new ProcFile[] {this.io, this.oomScore, this.stat, this.statm, this.status}) {
+      try {
+        file.close();
+      } catch (IOException e) {
+        if (exception == null) {
+          exception = e;
+        } else {
+          exception.addSuppressed(e);
+        }
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  @Override
+  public IoStatistics getIoStatistics() {
+    return getIoStatistics(this.io);
+  }
+
+  static IoStatistics getIoStatistics(Path path) {
+    return getIoStatistics(ProcFile.reopening(path));
+  }
+
+  static IoStatistics getIoStatistics(ProcFile file) {
+    ReadBuffer buffer = read(file);
+    long[] values = buffer.values(IO_PARSER.size());
+    IO_PARSER.parse(buffer.array(), buffer.length(), values);
+    return new IoStatistics(
+            values[IO_CHARACTERS_READ],
+            values[IO_CHARACTERS_WRITTEN],
+            values[IO_READ_SYSCALLS],
+            values[IO_WRITE_SYSCALLS],
+            values[IO_BYTES_READ],
+            values[IO_BYTES_WRITTEN],
+            values[IO_CANCELLED_WRITE_BYTES]);
   }
 
   @Override
   public int getOomScore() {
-    return getOomScore(this.procSelf.resolve("oom_score"));
+    return getOomScore(this.oomScore);
   }
 
   static int getOomScore(Path path) {
-    try (InputStream input = Files.newInputStream(path);
-         Reader reader = new InputStreamReader(input, StandardCharsets.US_ASCII);
-         BufferedReader bufferedReader = new BufferedReader(reader, 9)) {
-      String line = bufferedReader.readLine();
-      return Integer.parseInt(line);
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
+    return getOomScore(ProcFile.reopening(path));
+  }
+
+  static int getOomScore(ProcFile file) {
+    ReadBuffer buffer = read(file);
+    return (int) Ascii.parseLong(buffer.array(), 0, buffer.length());
   }
 
   @Override
@@ -119,7 +301,10 @@ public class Proc implements ProcMXBean {
 
   @Override
   public String mappingsString(char separator) {
-    // TODO test
+    return mappingsString(this.procSelf.resolve("maps"), separator);
+  }
+
+  static String mappingsString(Path path, char separator) {
     StringBuilder buffer = new StringBuilder();
     buffer.append("size");
     buffer.append(separator);
@@ -135,376 +320,421 @@ public class Proc implements ProcMXBean {
     buffer.append(separator);
     buffer.append("pathname\n");
 
-    // TODO avoid building list
-    for (Mapping mapping : this.getMappings()) {
-      String pathname = mapping.getPathname();
-      if (pathname != null) {
-        buffer.append(Long.toUnsignedString(mapping.getSize()));
+    visitMappings(path, (start, end, permissions, offset, deviceMajor, deviceMinor, inode, pathname, pathnameOffset, pathnameLength) -> {
+      if (pathnameLength > 0) {
+        buffer.append(Long.toUnsignedString(end - start));
         buffer.append(separator);
-        buffer.append(Boolean.toString(mapping.isRead()));
+        buffer.append((permissions & MappingVisitor.READ) != 0);
         buffer.append(separator);
-        buffer.append(Boolean.toString(mapping.isWrite()));
+        buffer.append((permissions & MappingVisitor.WRITE) != 0);
         buffer.append(separator);
-        buffer.append(Boolean.toString(mapping.isExecute()));
+        buffer.append((permissions & MappingVisitor.EXECUTE) != 0);
         buffer.append(separator);
-        buffer.append(Boolean.toString(mapping.isShared()));
+        buffer.append((permissions & MappingVisitor.SHARED) != 0);
         buffer.append(separator);
-        buffer.append(Boolean.toString(mapping.isPrivate()));
+        buffer.append((permissions & MappingVisitor.PRIVATE) != 0);
         buffer.append(separator);
-        buffer.append(pathname);
+        appendUtf8(buffer, pathname, pathnameOffset, pathnameLength);
         buffer.append('\n');
       }
-    }
+    });
     return buffer.toString();
   }
 
-  static List<Mapping> getMappings(Path path) {
-    try (Stream<String> lines = Files.lines(path, StandardCharsets.US_ASCII)) {
-      return lines
-              .map(Proc::parseLine)
-              .map(Proc::convertToMapping)
-              .collect(toList());
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
+  private static void appendUtf8(StringBuilder buffer, byte[] bytes, int offset, int length) {
+    for (int i = offset; i < (offset + length); i++) {
+      if (bytes[i] < 0) {
+        // not ASCII, fall back to decoding
+        buffer.append(new String(bytes, offset, length, StandardCharsets.UTF_8));
+        return;
+      }
     }
-  }
-
-  static ParsedMapping parseLine(String line) {
-
-    String[] tokens = line.split("\\s+");
-    String address = tokens[0];
-    String permissions = tokens[1];
-    String offset = tokens[2];
-    String device = tokens[3];
-    String inode = tokens[4];
-    String pathname;
-    if (tokens.length > 5) {
-      pathname = tokens[5];
-    } else {
-      pathname = null;
+    for (int i = offset; i < (offset + length); i++) {
+      buffer.append((char) bytes[i]);
     }
+  }
 
-    long start = Long.parseUnsignedLong(address.substring(0, address.indexOf('-')), 16);
-    long end = Long.parseUnsignedLong(address.substring(address.indexOf('-') + 1), 16);
-
-    return new ParsedMapping(start, end,
-            Permission.parse(permissions),
-            Long.parseUnsignedLong(offset, 16),
-            Device.parse(device),
-            Integer.parseInt(inode),
-            pathname);
-  }
-
-  static Mapping convertToMapping(ParsedMapping parsed) {
-    return new Mapping(parsed.end - parsed.start,
-            parsed.permissions.contains(READ),
-            parsed.permissions.contains(WRITE),
-            parsed.permissions.contains(EXECUTE),
-            parsed.permissions.contains(SHARED),
-            parsed.permissions.contains(PRIVATE),
-            parsed.pathname);
-  }
-
-  static final class ParsedMapping {
-
-    final long start;
-    final long end;
-    final Set<Permission> permissions;
-    final long offset;
-    final Device device;
-    final long inode;
-    final String pathname;
-
-    ParsedMapping(long start, long end, Set<Permission> permissions, long offset,
-            Device device, long inode, String pathname) {
-      Objects.requireNonNull(permissions, "permissions");
-      Objects.requireNonNull(device, "device");
-      this.start = start;
-      this.end = end;
-      this.permissions = permissions;
-      this.offset = offset;
-      this.device = device;
-      this.inode = inode;
-      this.pathname = pathname;
-    }
+  /**
+   * Calls the visitor for every entry in {@code /proc/self/maps} without
+   * building intermediate objects.
+   *
+   * @param visitor the visitor to call, not {@code null}
+   * @throws UncheckedIOException if the file can not be read
+   */
+  public void visitMappings(MappingVisitor visitor) {
+    visitMappings(this.procSelf.resolve("maps"), visitor);
+  }
 
-    @Override
-    public String toString() {
-      StringBuilder builder = new StringBuilder();
-      builder.append(Long.toUnsignedString(this.start, 16));
-      builder.append('-');
-      builder.append(Long.toUnsignedString(this.end, 16));
+  /**
+   * Creates an index resolving addresses to the current mappings of the
+   * process.
+   *
+   * @return the index, never {@code null}
+   * @throws UncheckedIOException if the mappings can not be read
+   * @see MappingIndex#refresh()
+   */
+  public MappingIndex getMappingIndex() {
+    return MappingIndex.build(this.procSelf.resolve("maps"));
+  }
 
-      builder.append(' ');
-      builder.append(this.permissions);
+  /**
+   * Compares the mappings after every sample of a sampler with the mappings
+   * at the previous sample and checks the growth threshold. Replaces a
+   * previously tracked sampler, {@link #close()} stops tracking.
+   *
+   * <p>Reading the mappings is more expensive than taking a sample, the
+   * index of the previous sample is refreshed so only changed mappings are
+   * copied.</p>
+   *
+   * @param sampler the sampler triggering the comparison
+   * @see #diffMappings()
+   */
+  public void trackMappings(Sampler sampler) {
+    this.mappings.subscribe(sampler, sample -> this.sampleMappings());
+  }
 
-      builder.append(' ');
-      builder.append(this.offset);
+  @Override
+  public MappingsDiff diffMappings() {
+    MappingsDiff diff = this.lastMappingsDiff;
+    if (diff == null) {
+      return new MappingsDiff(0L, 0L, 0L, 0L, 0L, new ArrayList<>(0));
+    }
+    return diff;
+  }
 
-      builder.append(' ');
-      builder.append(this.device);
+  synchronized void sampleMappings() {
+    long now = System.nanoTime();
+    if (this.previousMappings == null) {
+      this.previousMappings = this.getMappingIndex();
+      this.previousMappingsNanos = now;
+      return;
+    }
+    MappingIndex current = this.previousMappings.refresh();
+    long elapsedNanos = now - this.previousMappingsNanos;
+    MappingsDiff diff = MappingDiffer.diff(this.previousMappings, current, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    this.previousMappings = current;
+    this.previousMappingsNanos = now;
+    this.lastMappingsDiff = diff;
+    this.checkMappingGrowth(diff, elapsedNanos);
+  }
 
-      builder.append(' ');
-      builder.append(this.inode);
+  private void checkMappingGrowth(MappingsDiff diff, long elapsedNanos) {
+    long threshold = this.mappingGrowthThreshold;
+    long netBytes = diff.getNetBytes();
+    if ((threshold <= 0L) || (netBytes <= 0L) || (elapsedNanos <= 0L)) {
+      return;
+    }
+    // bytes per second, in double to avoid overflow
+    double rate = netBytes * (double) TimeUnit.SECONDS.toNanos(1L) / elapsedNanos;
+    if (rate > threshold) {
+      Notification notification = new Notification(MAPPING_GROWTH, this, this.sequenceNumber.incrementAndGet(),
+              "mapped bytes grew by " + netBytes + " bytes in " + diff.getElapsed() + " ms");
+      notification.setUserData(netBytes);
+      this.notifications.sendNotification(notification);
+    }
+  }
 
-      if (this.pathname != null) {
-        builder.append(' ');
-        builder.append(this.pathname);
-      }
+  @Override
+  public long getMappingGrowthThreshold() {
+    return this.mappingGrowthThreshold;
+  }
 
-      return builder.toString();
+  @Override
+  public void setMappingGrowthThreshold(long threshold) {
+    if (threshold < 0L) {
+      throw new IllegalArgumentException("threshold must not be negative");
     }
+    this.mappingGrowthThreshold = threshold;
+  }
 
+  @Override
+  public void addNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) {
+    this.notifications.addNotificationListener(listener, filter, handback);
+  }
+
+  @Override
+  public void removeNotificationListener(NotificationListener listener) throws ListenerNotFoundException {
+    this.notifications.removeNotificationListener(listener);
   }
 
-  enum Permission {
+  @Override
+  public void removeNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback)
+          throws ListenerNotFoundException {
+    this.notifications.removeNotificationListener(listener, filter, handback);
+  }
 
-    READ,
-    WRITE,
-    EXECUTE,
-    SHARED,
-    PRIVATE;
+  @Override
+  public MBeanNotificationInfo[] getNotificationInfo() {
+    return this.notifications.getNotificationInfo();
+  }
 
-    static Set<Permission> parse(String s) {
-      EnumSet<Permission> permissions = EnumSet.noneOf(Permission.class);
-      if (s.charAt(0) == 'r') {
-        permissions.add(READ);
-      }
-      if (s.charAt(1) == 'w') {
-        permissions.add(WRITE);
-      }
-      if (s.charAt(2) == 'x') {
-        permissions.add(EXECUTE);
-      }
-      if (s.charAt(3) == 's') {
-        permissions.add(SHARED);
-      }
-      if (s.charAt(3) == 'p') {
-        permissions.add(PRIVATE);
+  static void visitMappings(Path path, MappingVisitor visitor) {
+    Objects.requireNonNull(visitor, "visitor");
+    MapsLineParser parser = new MapsLineParser();
+    try (LineReader reader = LineReader.open(path)) {
+      while (reader.nextLine()) {
+        if (reader.lineEnd() > reader.lineStart()) {
+          parser.parse(reader.buffer(), reader.lineStart(), reader.lineEnd());
+          parser.accept(visitor);
+        }
       }
-      return permissions;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
   }
 
-  static final class Device {
-
-    private final int major;
-    private final int minor;
-
-    Device(int major, int minor) {
-      this.major = major;
-      this.minor = minor;
-    }
+  static List<Mapping> getMappings(Path path) {
+    List<Mapping> mappings = new ArrayList<>();
+    visitMappings(path, (start, end, permissions, offset, deviceMajor, deviceMinor, inode, pathname, pathnameOffset, pathnameLength) -> {
+      mappings.add(new Mapping(end - start,
+              (permissions & MappingVisitor.READ) != 0,
+              (permissions & MappingVisitor.WRITE) != 0,
+              (permissions & MappingVisitor.EXECUTE) != 0,
+              (permissions & MappingVisitor.SHARED) != 0,
+              (permissions & MappingVisitor.PRIVATE) != 0,
+              pathnameLength > 0 ? new String(pathname, pathnameOffset, pathnameLength, StandardCharsets.UTF_8) : null));
+    });
+    return mappings;
+  }
 
-    static Device parse(String s) {
-      int major = Integer.parseInt(s.substring(0, s.indexOf(':')));
-      int minor = Integer.parseInt(s.substring(s.indexOf(':') + 1));
-      return new Device(major, minor);
-    }
+  @Override
+  public Smaps getSmaps() {
+    return getSmaps(this.procSelf.resolve("smaps"));
+  }
 
-    @Override
-    public String toString() {
-      return "" + this.major + ':' + this.minor;
+  static Smaps getSmaps(Path path) {
+    List<SmapsMapping> mappings = new ArrayList<>();
+    long[] totals = new long[SmapsParser.PARSER.size()];
+    try (LineReader reader = LineReader.open(path)) {
+      SmapsParser.parse(reader, (header, values) -> {
+        mappings.add(new SmapsMapping(header.pathname(),
+                values[SmapsParser.SIZE],
+                values[SmapsParser.RSS],
+                values[SmapsParser.PSS],
+                values[SmapsParser.SHARED_CLEAN] + values[SmapsParser.SHARED_DIRTY],
+                values[SmapsParser.PRIVATE_CLEAN] + values[SmapsParser.PRIVATE_DIRTY],
+                values[SmapsParser.SWAP],
+                values[SmapsParser.ANON_HUGE_PAGES],
+                values[SmapsParser.LOCKED]));
+        for (int i = 0; i < totals.length; i++) {
+          totals[i] += values[i];
+        }
+      });
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
-
+    return new Smaps(
+            totals[SmapsParser.SIZE],
+            totals[SmapsParser.RSS],
+            totals[SmapsParser.PSS],
+            totals[SmapsParser.SHARED_CLEAN] + totals[SmapsParser.SHARED_DIRTY],
+            totals[SmapsParser.PRIVATE_CLEAN] + totals[SmapsParser.PRIVATE_DIRTY],
+            totals[SmapsParser.SWAP],
+            totals[SmapsParser.ANON_HUGE_PAGES],
+            totals[SmapsParser.LOCKED],
+            mappings);
   }
 
   @Override
-  public String getSmaps() {
-    return smaps(this.procSelf.resolve("maps"));
+  public SmapsRollup getSmapsRollup() {
+    return getSmapsRollup(this.procSelf.resolve("smaps_rollup"), this.procSelf.resolve("smaps"));
+  }
+
+  static SmapsRollup getSmapsRollup(Path smapsRollup, Path smaps) {
+    // smaps_rollup was added in Linux 4.14
+    if (Files.exists(smapsRollup)) {
+      return getSmapsRollup(smapsRollup, "smaps_rollup");
+    } else {
+      return getSmapsRollup(smaps, "smaps");
+    }
   }
 
-  static String smaps(Path path) {
-    // TODO implement
-    return "smaps";
+  static SmapsRollup getSmapsRollup(Path path, String source) {
+    // smaps_rollup has a single mapping, smaps one per mapping
+    long[] totals = new long[SmapsParser.PARSER.size()];
+    try (LineReader reader = LineReader.open(path)) {
+      SmapsParser.parse(reader, (header, values) -> {
+        for (int i = 0; i < totals.length; i++) {
+          totals[i] += values[i];
+        }
+      });
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new SmapsRollup(source,
+            totals[SmapsParser.RSS],
+            totals[SmapsParser.PSS],
+            totals[SmapsParser.SHARED_CLEAN] + totals[SmapsParser.SHARED_DIRTY],
+            totals[SmapsParser.PRIVATE_CLEAN] + totals[SmapsParser.PRIVATE_DIRTY],
+            totals[SmapsParser.SWAP],
+            totals[SmapsParser.ANON_HUGE_PAGES],
+            totals[SmapsParser.LOCKED]);
   }
 
   @Override
   public ProcessStat getStat() {
-    return getStat(this.procSelf.resolve("stat"));
+    return getStat(this.stat);
   }
 
   static ProcessStat getStat(Path path) {
+    return getStat(ProcFile.reopening(path));
+  }
 
-    try (InputStream input = Files.newInputStream(path);
-         Reader reader = new InputStreamReader(input, StandardCharsets.US_ASCII);
-         BufferedReader bufferedReader = new BufferedReader(reader, 1024)) {
-
-      String line = bufferedReader.readLine();
-      String[] elements = line.split(" ");
-
-      int pageSize = pageSize();
-      int pid = Integer.parseUnsignedInt(elements[0]);
-      // TODO handle comm with spaces
-      char state = elements[2].charAt(0);
-      long minorFaults = Long.parseUnsignedLong(elements[9]);
-      long majorFaults = Long.parseUnsignedLong(elements[10]);
-      long userTime = Long.parseUnsignedLong(elements[13]);
-      long kernelTime = Long.parseUnsignedLong(elements[14]);
-      int threads = Integer.parseUnsignedInt(elements[19]);
-      long virtualMemorySize = Long.parseUnsignedLong(elements[22]);
-      long residentSetSize = Long.parseUnsignedLong(elements[23]) * pageSize;
-      long softLimit = Long.parseUnsignedLong(elements[24]);
-      long pagesSwapped = Long.parseUnsignedLong(elements[35]);
-      long aggregatedBlockIoDelays = Long.parseUnsignedLong(elements[41]);
-      long guestTime = Long.parseUnsignedLong(elements[42]);
-      return new ProcessStat(pid, state, minorFaults, majorFaults, userTime, kernelTime,
-              threads, virtualMemorySize, residentSetSize, softLimit, pagesSwapped,
-              aggregatedBlockIoDelays, guestTime);
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
+  static ProcessStat getStat(ProcFile file) {
+    return parseStat(read(file));
+  }
+
+  static ProcessStat parseStat(ReadBuffer buffer) {
+    byte[] array = buffer.array();
+    int length = buffer.length();
+    long[] values = buffer.values(STAT_FIELDS);
+
+    int pageSize = pageSize();
+    int pid = (int) Ascii.parseLong(array, 0, length);
+    // the command may contain spaces and parentheses, it ends at the last ')'
+    int commandEnd = length - 1;
+    while ((commandEnd > 0) && (array[commandEnd] != ')')) {
+      commandEnd -= 1;
     }
+    char state = (char) array[commandEnd + 2];
+    Ascii.parseFields(array, commandEnd + 4, length, values, 3);
+    long minorFaults = values[9];
+    long majorFaults = values[10];
+    long userTime = values[13];
+    long kernelTime = values[14];
+    int threads = (int) values[19];
+    long virtualMemorySize = values[22];
+    long residentSetSize = values[23] * pageSize;
+    long softLimit = values[24];
+    long pagesSwapped = values[35];
+    long aggregatedBlockIoDelays = values[41];
+    long guestTime = values[42];
+    return new ProcessStat(pid, state, minorFaults, majorFaults, userTime, kernelTime,
+            threads, virtualMemorySize, residentSetSize, softLimit, pagesSwapped,
+            aggregatedBlockIoDelays, guestTime);
   }
 
   @Override
   public MemoryUsageStatistics getMemoryUsageStatistics() {
-    return getMemoryUsageStatistics(this.procSelf.resolve("statm"));
+    return getMemoryUsageStatistics(this.statm);
   }
 
   static MemoryUsageStatistics getMemoryUsageStatistics(Path path) {
+    return getMemoryUsageStatistics(ProcFile.reopening(path));
+  }
 
-    try (InputStream input = Files.newInputStream(path);
-         Reader reader = new InputStreamReader(input, StandardCharsets.US_ASCII);
-         BufferedReader bufferedReader = new BufferedReader(reader, 64)) {
-
-      String line = bufferedReader.readLine();
-      String[] elements = line.split(" ");
-
-      int pageSize = pageSize();
-      long totalProgram = Long.parseUnsignedLong(elements[0]) * pageSize;
-      long residentSet = Long.parseUnsignedLong(elements[1]) * pageSize;
-      long residentShared = Long.parseUnsignedLong(elements[2]) * pageSize;
-      long text = Long.parseUnsignedLong(elements[3]) * pageSize;
-      long data = Long.parseUnsignedLong(elements[5]) * pageSize;
-      return new MemoryUsageStatistics(totalProgram, residentSet, residentShared, text, data);
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
+  static MemoryUsageStatistics getMemoryUsageStatistics(ProcFile file) {
+    ReadBuffer buffer = read(file);
+    long[] values = buffer.values(STATM_FIELDS);
+    Ascii.parseFields(buffer.array(), 0, buffer.length(), values, 0);
+
+    int pageSize = pageSize();
+    long totalProgram = values[0] * pageSize;
+    long residentSet = values[1] * pageSize;
+    long residentShared = values[2] * pageSize;
+    long text = values[3] * pageSize;
+    long data = values[5] * pageSize;
+    return new MemoryUsageStatistics(totalProgram, residentSet, residentShared, text, data);
   }
 
   @Override
   public ProcessStatus getStatus() {
-    return getStatus(this.procSelf.resolve("status"));
+    return getStatus(this.status);
   }
 
   static ProcessStatus getStatus(Path path) {
-    try (InputStream input = Files.newInputStream(path);
-         Reader reader = new InputStreamReader(input, StandardCharsets.US_ASCII);
-         BufferedReader bufferedReader = new BufferedReader(reader, 1024)) {
-
-      String state = "";
-      int fileDescriptorSlotsAllocated = 0;
-      long virtualMemoryPeak = 0L;
-      long virtualMemory = 0L;
-      long lockedMemory = 0L;
-      long pinnedMemory = 0L;
-      long residentSet = 0L;
-      long residentSetPreak = 0L;
-      long residentSetAnonymous = 0L;
-      long residentSetFile = 0L;
-      long residentSetShared = 0L;
-      long data = 0L;
-      long text = 0L;
-      long stack = 0L;
-      long sharedLibraryCode = 0L;
-      long swapped = 0L;
-      int threads = 0;
-      long contextSwitchesInvoluntary = 0L;
-      long contextSwitchesVoluntary = 0L;
-      String line = bufferedReader.readLine();
-      while (line != null) {
-        // TODO more robust
-        String key = line.substring(0, line.indexOf(':'));
-        String value = line.substring(line.indexOf(':') + 2);
-        switch (key) {
-          case "State":
-            state = value;
-            break;
-          case "FDSize":
-            fileDescriptorSlotsAllocated = Integer.parseUnsignedInt(value);
-            break;
-          case "VmPeak":
-            virtualMemoryPeak = parseMemory(value);
-            break;
-          case "VmSize":
-            virtualMemory = parseMemory(value);
-            break;
-          case "VmLck":
-            lockedMemory = parseMemory(value);
-            break;
-          case "VmPin":
-            pinnedMemory = parseMemory(value);
-            break;
-          case "VmHWM":
-            residentSetPreak = parseMemory(value);
-            break;
-          case "VmRSS":
-            residentSet = parseMemory(value);
-            break;
-          case "RssAnon":
-            residentSetAnonymous = parseMemory(value);
-            break;
-          case "RssFile":
-            residentSetFile = parseMemory(value);
-            break;
-          case "RssShmem":
-            residentSetShared = parseMemory(value);
-            break;
-          case "VmData":
-            data = parseMemory(value);
-            break;
-          case "VmStk":
-            stack = parseMemory(value);
-            break;
-          case "VmExe":
-            text = parseMemory(value);
-            break;
-          case "VmLib":
-            sharedLibraryCode = parseMemory(value);
-            break;
-          case "VmSwap":
-            swapped = parseMemory(value);
-            break;
-          case "Threads":
-            threads = Integer.parseUnsignedInt(value);
-            break;
-          case "voluntary_ctxt_switches":
-            contextSwitchesVoluntary = Long.parseUnsignedLong(value);
-            break;
-          case "nonvoluntary_ctxt_switches":
-            contextSwitchesInvoluntary = Long.parseUnsignedLong(value);
-            break;
-          default:
-            // ignore
-            break;
-        }
+    return getStatus(ProcFile.reopening(path));
+  }
 
-        line = bufferedReader.readLine();
+  static ProcessStatus getStatus(ProcFile file) {
+    ReadBuffer buffer = read(file);
+    long[] values = buffer.values(STATUS_PARSER.size());
+    STATUS_PARSER.parse(buffer.array(), buffer.length(), values);
+    return new ProcessStatus(
+            stateName((char) values[STATUS_STATE]),
+            (int) values[STATUS_FD_SIZE],
+            values[STATUS_VM_PEAK],
+            values[STATUS_VM_SIZE],
+            values[STATUS_VM_LCK],
+            values[STATUS_VM_PIN],
+            values[STATUS_VM_RSS],
+            values[STATUS_VM_HWM],
+            values[STATUS_RSS_ANON],
+            values[STATUS_RSS_FILE],
+            values[STATUS_RSS_SHMEM],
+            values[STATUS_VM_DATA],
+            values[STATUS_VM_EXE],
+            values[STATUS_VM_STK],
+            values[STATUS_VM_LIB],
+            values[STATUS_VM_SWAP],
+            (int) values[STATUS_THREADS],
+            values[STATUS_NONVOLUNTARY_CTXT_SWITCHES],
+            values[STATUS_VOLUNTARY_CTXT_SWITCHES],
+            stringValue(buffer.array(), buffer.length(), CPUS_ALLOWED_LIST),
+            stringValue(buffer.array(), buffer.length(), MEMS_ALLOWED_LIST));
+  }
+
+  /**
+   * Finds the value of a {@code key: value} line that is not a number.
+   *
+   * @return the value without leading blanks, {@code null} if there is no
+   *         line with the given key
+   */
+  static String stringValue(byte[] buffer, int length, byte[] key) {
+    int lineStart = 0;
+    while (lineStart < length) {
+      int keyEnd = lineStart + key.length;
+      if ((keyEnd < length) && (buffer[keyEnd] == ':') && Ascii.regionEquals(buffer, lineStart, keyEnd, key)) {
+        int valueStart = Ascii.skipBlanks(buffer, keyEnd + 1, length);
+        int valueEnd = valueStart;
+        while ((valueEnd < length) && (buffer[valueEnd] != '\n')) {
+          valueEnd += 1;
+        }
+        return new String(buffer, valueStart, valueEnd - valueStart, StandardCharsets.US_ASCII);
       }
-      return new ProcessStatus(state, fileDescriptorSlotsAllocated, virtualMemoryPeak, virtualMemory, lockedMemory, pinnedMemory,
-              residentSet, residentSetPreak, residentSetAnonymous, residentSetFile, residentSetShared, data, text, stack,
-              sharedLibraryCode, swapped, threads, contextSwitchesInvoluntary, contextSwitchesVoluntary);
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
+      lineStart = Ascii.skipLine(buffer, lineStart, length);
     }
+    return null;
   }
 
-  static long parseMemory(String s) {
-    if (s.equals("0 kB")) {
-      return 0L;
-    }
-    int start = 0;
-    while ((s.charAt(start) == ' ') || (s.charAt(start) == '\t')) {
-      start += 1;
+  /**
+   * Maps a task state character to the description the kernel uses
+   * in {@code /proc/[pid]/status}.
+   */
+  static String stateName(char state) {
+    switch (state) {
+      case 0:
+        return "";
+      case 'R':
+        return "R (running)";
+      case 'S':
+        return "S (sleeping)";
+      case 'D':
+        return "D (disk sleep)";
+      case 'T':
+        return "T (stopped)";
+      case 't':
+        return "t (tracing stop)";
+      case 'X':
+        return "X (dead)";
+      case 'Z':
+        return "Z (zombie)";
+      case 'P':
+        return "P (parked)";
+      case 'I':
+        return "I (idle)";
+      default:
+        return String.valueOf(state);
     }
-    long value = Long.parseUnsignedLong(s.substring(start, s.indexOf(' ', start + 1)));
-    return value * getMultiplier(s.substring(s.lastIndexOf(' ') + 1));
   }
 
   public static void install() throws JMException {
+    install(new Proc());
+  }
+
+  public static void install(ProcMXBean mxBean) throws JMException {
     MBeanServer server = ManagementFactory.getPlatformMBeanServer();
     ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
-    Proc mxBean = new Proc();
     server.registerMBean(mxBean, mxBeanName);
   }
 
@@ -514,20 +744,15 @@ public class Proc implements ProcMXBean {
     server.unregisterMBean(mxBeanName);
   }
 
-  static int getMultiplier(String unit) {
-    if ((unit == null) || unit.isEmpty()) {
-      return 1;
-    }
-    if (unit.equalsIgnoreCase("kb")) {
-      return 1024;
-    }
-    if (unit.equalsIgnoreCase("mb")) {
-      return 1024 * 1024;
-    }
-    if (unit.equalsIgnoreCase("gb")) {
-      return 1024 * 1024 * 1024;
-    }
-    throw new IllegalArgumentException("unknown unit:" + unit);
+  /**
+   * Returns the name a bean for another process is registered under.
+   *
+   * @param pid the id of the process
+   * @return the name including the pid
+   * @throws MalformedObjectNameException never
+   */
+  static ObjectName objectName(int pid) throws MalformedObjectNameException {
+    return new ObjectName(OBJECT_NAME + ",pid=" + pid);
   }
 
 }
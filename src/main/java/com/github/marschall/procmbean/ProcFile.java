@@ -0,0 +1,95 @@
+package com.github.marschall.procmbean;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * A proc file that is read repeatedly.
+ */
+abstract class ProcFile implements Closeable {
+
+  /**
+   * Reads the current contents of the file.
+   *
+   * @param buffer the buffer to read into
+   * @throws IOException if the file can not be read
+   */
+  abstract void read(ReadBuffer buffer) throws IOException;
+
+  /**
+   * Returns a file that is opened on every read.
+   *
+   * @param path the path of the file
+   * @return the file, never {@code null}
+   */
+  static ProcFile reopening(Path path) {
+    return new ReopeningProcFile(path);
+  }
+
+  /**
+   * Returns a file that is kept open and read with positional reads.
+   *
+   * <p>Positional reads do not modify the channel so a single handle
+   * can be shared between concurrent readers, each reader uses the
+   * buffers confined to its thread.</p>
+   *
+   * @param path the path of the file
+   * @return the file, never {@code null}
+   * @throws IOException if the file can not be opened
+   */
+  static ProcFile persistent(Path path) throws IOException {
+    return new PersistentProcFile(FileChannel.open(path, StandardOpenOption.READ));
+  }
+
+  static final class ReopeningProcFile extends ProcFile {
+
+    private final Path path;
+
+    ReopeningProcFile(Path path) {
+      Objects.requireNonNull(path, "path");
+      this.path = path;
+    }
+
+    @Override
+    void read(ReadBuffer buffer) throws IOException {
+      buffer.read(this.path);
+    }
+
+    @Override
+    public void close() {
+      // nothing to close
+    }
+
+    @Override
+    public String toString() {
+      return this.path.toString();
+    }
+
+  }
+
+  static final class PersistentProcFile extends ProcFile {
+
+    private final FileChannel channel;
+
+    PersistentProcFile(FileChannel channel) {
+      Objects.requireNonNull(channel, "channel");
+      this.channel = channel;
+    }
+
+    @Override
+    void read(ReadBuffer buffer) throws IOException {
+      buffer.read(this.channel);
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.channel.close();
+    }
+
+  }
+
+}
@@ -4,7 +4,9 @@ import java.util.List;
 
 public interface ProcMXBean {
 
-  String getSmaps();
+  Smaps getSmaps();
+
+  SmapsRollup getSmapsRollup();
 
   ProcessStat getStat();
 
@@ -20,4 +22,26 @@ public interface ProcMXBean {
 
   String mappingsString(char separator);
 
+  /**
+   * The changes of the mappings in the last sampled interval.
+   *
+   * <p>The mappings are only compared if {@link Proc#trackMappings(Sampler)}
+   * was called, after every sample the growth threshold is checked.</p>
+   *
+   * @return the changes between the last two samples, empty before the
+   *         second sample
+   */
+  MappingsDiff diffMappings();
+
+  /**
+   * The rate of growth of the mapped bytes above which a notification is
+   * sent when the mappings are compared.
+   *
+   * @return the threshold, 0 if disabled
+   */
+  @Units("bytes per second")
+  long getMappingGrowthThreshold();
+
+  void setMappingGrowthThreshold(long threshold);
+
 }
@@ -0,0 +1,74 @@
+package com.github.marschall.procmbean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The result of scanning all processes on the host.
+ */
+public final class ProcessScan {
+
+  private final int processes;
+  private final long duration;
+  private final List<ProcessUsage> largest;
+  private final List<ProcessUsage> busiest;
+
+  ProcessScan(int processes, long duration, List<ProcessUsage> largest, List<ProcessUsage> busiest) {
+    this.processes = processes;
+    this.duration = duration;
+    this.largest = largest;
+    this.busiest = busiest;
+  }
+
+  public static ProcessScan from(CompositeData compositeData) {
+    return new ProcessScan(
+            (Integer) compositeData.get("processes"),
+            (Long) compositeData.get("duration"),
+            toUsages((CompositeData[]) compositeData.get("largest")),
+            toUsages((CompositeData[]) compositeData.get("busiest")));
+  }
+
+  private static List<ProcessUsage> toUsages(CompositeData[] compositeData) {
+    List<ProcessUsage> usages = new ArrayList<>(compositeData.length);
+    for (CompositeData each : compositeData) {
+      usages.add(ProcessUsage.from(each));
+    }
+    return usages;
+  }
+
+  /**
+   * The number of processes read by the scan.
+   *
+   * @return the number of processes read
+   */
+  public int getProcesses() {
+    return this.processes;
+  }
+
+  @Units("nanoseconds")
+  public long getDuration() {
+    return this.duration;
+  }
+
+  /**
+   * The processes with the largest resident set, largest first.
+   *
+   * @return the processes with the largest resident set
+   */
+  public List<ProcessUsage> getLargest() {
+    return this.largest;
+  }
+
+  /**
+   * The processes that used the most CPU time since the previous scan,
+   * busiest first.
+   *
+   * @return the busiest processes
+   */
+  public List<ProcessUsage> getBusiest() {
+    return this.busiest;
+  }
+
+}
@@ -0,0 +1,311 @@
+package com.github.marschall.procmbean;
+
+import static com.github.marschall.procmbean.RateCalculator.CLOCK_TICKS_PER_SECOND;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Reports the processes on the host that use the most memory and
+ * CPU time.
+ *
+ * <p>Every scan lists {@code /proc/[pid]} and reads the {@code stat} file
+ * of every process on a fork-join pool. Only the indices of the largest
+ * and busiest processes are kept in two bounded heaps, the names are
+ * only read for those. Processes that exit during a scan are skipped.</p>
+ */
+public class ProcessScanner implements ProcessScannerMXBean, Closeable {
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=ProcessScanner";
+
+  /**
+   * The number of processes a single fork-join task reads without
+   * splitting further.
+   */
+  private static final int LEAF_SIZE = 128;
+
+  private final Path proc;
+  private final ForkJoinPool pool;
+
+  private int[] previousPids;
+  private long[] previousCpuTimes;
+  private long previousNanoTime;
+
+  /**
+   * Constructs a new scanner using up to four threads.
+   */
+  public ProcessScanner() {
+    this(Math.min(4, Runtime.getRuntime().availableProcessors()));
+  }
+
+  /**
+   * Constructs a new scanner.
+   *
+   * @param parallelism the number of threads reading in parallel
+   */
+  public ProcessScanner(int parallelism) {
+    this(Paths.get("/proc"), parallelism);
+  }
+
+  ProcessScanner(Path proc, int parallelism) {
+    this.proc = proc;
+    this.pool = new ForkJoinPool(parallelism);
+  }
+
+  @Override
+  public synchronized ProcessScan scan(int count) {
+    long start = System.nanoTime();
+    int[] pids = this.listPids();
+    Columns columns = new Columns(pids);
+    this.pool.invoke(new ReadAction(this.proc, columns, 0, pids.length));
+    long nanoTime = System.nanoTime();
+
+    boolean firstScan = this.previousPids == null;
+    long[] deltas = new long[pids.length];
+    int processes = 0;
+    for (int i = 0; i < pids.length; i++) {
+      if (columns.read[i]) {
+        processes += 1;
+        if (!firstScan) {
+          deltas[i] = this.cpuTimeSincePrevious(pids[i], columns.cpuTime(i));
+        }
+      }
+    }
+    // without a previous scan report the processes that used the most CPU time overall
+    long[] busiestKeys = firstScan ? columns.cpuTimes() : deltas;
+    TopN largest = new TopN(count, columns.residentSets);
+    TopN busiest = new TopN(count, busiestKeys);
+    for (int i = 0; i < pids.length; i++) {
+      if (columns.read[i]) {
+        largest.offer(i);
+        busiest.offer(i);
+      }
+    }
+    double elapsedSeconds = firstScan
+            ? 0.0d
+            : (double) (nanoTime - this.previousNanoTime) / TimeUnit.SECONDS.toNanos(1L);
+
+    List<ProcessUsage> largestUsages = this.usages(largest.drain(), columns, deltas, elapsedSeconds);
+    List<ProcessUsage> busiestUsages = this.usages(busiest.drain(), columns, deltas, elapsedSeconds);
+    this.rememberCpuTimes(columns, processes, nanoTime);
+    return new ProcessScan(processes, System.nanoTime() - start, largestUsages, busiestUsages);
+  }
+
+  private List<ProcessUsage> usages(int[] indices, Columns columns, long[] deltas, double elapsedSeconds) {
+    List<ProcessUsage> usages = new ArrayList<>(indices.length);
+    for (int index : indices) {
+      int pid = columns.pids[index];
+      double utilization = elapsedSeconds > 0.0d
+              ? (double) deltas[index] / CLOCK_TICKS_PER_SECOND / elapsedSeconds * 100.0d
+              : 0.0d;
+      usages.add(new ProcessUsage(pid, this.readName(pid), columns.residentSets[index],
+              columns.userTimes[index], columns.kernelTimes[index], deltas[index], utilization));
+    }
+    return usages;
+  }
+
+  private String readName(int pid) {
+    Path comm = this.proc.resolve(Integer.toString(pid)).resolve("comm");
+    ReadBuffer buffer = ReadBuffer.get();
+    if (!buffer.readListed(comm)) {
+      // exited since it was read
+      return null;
+    }
+    int length = buffer.length();
+    if ((length > 0) && (buffer.array()[length - 1] == '\n')) {
+      length -= 1;
+    }
+    return new String(buffer.array(), 0, length, StandardCharsets.UTF_8);
+  }
+
+  private long cpuTimeSincePrevious(int pid, long cpuTime) {
+    int index = Arrays.binarySearch(this.previousPids, pid);
+    if (index < 0) {
+      // started since the previous scan
+      return cpuTime;
+    }
+    return RateCalculator.delta(cpuTime, this.previousCpuTimes[index]);
+  }
+
+  private void rememberCpuTimes(Columns columns, int processes, long nanoTime) {
+    int[] pids = new int[processes];
+    long[] cpuTimes = new long[processes];
+    int next = 0;
+    for (int i = 0; i < columns.pids.length; i++) {
+      if (columns.read[i]) {
+        pids[next] = columns.pids[i];
+        cpuTimes[next] = columns.cpuTime(i);
+        next += 1;
+      }
+    }
+    this.previousPids = pids;
+    this.previousCpuTimes = cpuTimes;
+    this.previousNanoTime = nanoTime;
+  }
+
+  private int[] listPids() {
+    int[] pids = new int[512];
+    int count = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.proc)) {
+      for (Path directory : stream) {
+        int pid = parsePid(directory.getFileName().toString());
+        if (pid == -1) {
+          continue;
+        }
+        if (count == pids.length) {
+          pids = Arrays.copyOf(pids, count * 2);
+        }
+        pids[count++] = pid;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not list processes in: " + this.proc, e);
+    }
+    pids = Arrays.copyOf(pids, count);
+    // sorted for looking up the previous scan
+    Arrays.sort(pids);
+    return pids;
+  }
+
+  /**
+   * Parses the name of an entry in {@code /proc}.
+   *
+   * @return the pid, {@code -1} if the entry is not a process
+   */
+  static int parsePid(String name) {
+    if (name.isEmpty() || (name.length() > 10)) {
+      return -1;
+    }
+    long pid = 0L;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if ((c < '0') || (c > '9')) {
+        return -1;
+      }
+      pid = pid * 10L + (c - '0');
+    }
+    return pid <= Integer.MAX_VALUE ? (int) pid : -1;
+  }
+
+  @Override
+  public int getParallelism() {
+    return this.pool.getParallelism();
+  }
+
+  /**
+   * Stops the threads of the pool.
+   */
+  @Override
+  public void close() {
+    this.pool.shutdown();
+  }
+
+  public static void install(ProcessScanner mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.registerMBean(mxBean, mxBeanName);
+  }
+
+  public static void uninstall() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.unregisterMBean(mxBeanName);
+  }
+
+  /**
+   * The values read by a scan in parallel arrays sorted by pid. Tasks
+   * write disjoint ranges.
+   */
+  static final class Columns {
+
+    final int[] pids;
+    final boolean[] read;
+    final long[] residentSets;
+    final long[] userTimes;
+    final long[] kernelTimes;
+
+    Columns(int[] pids) {
+      this.pids = pids;
+      this.read = new boolean[pids.length];
+      this.residentSets = new long[pids.length];
+      this.userTimes = new long[pids.length];
+      this.kernelTimes = new long[pids.length];
+    }
+
+    long cpuTime(int index) {
+      return this.userTimes[index] + this.kernelTimes[index];
+    }
+
+    long[] cpuTimes() {
+      long[] cpuTimes = new long[this.pids.length];
+      for (int i = 0; i < cpuTimes.length; i++) {
+        cpuTimes[i] = this.cpuTime(i);
+      }
+      return cpuTimes;
+    }
+
+  }
+
+  static final class ReadAction extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Path proc;
+    private final Columns columns;
+    private final int from;
+    private final int to;
+
+    ReadAction(Path proc, Columns columns, int from, int to) {
+      this.proc = proc;
+      this.columns = columns;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if ((this.to - this.from) <= LEAF_SIZE) {
+        this.read();
+      } else {
+        int middle = (this.from + this.to) >>> 1;
+        invokeAll(new ReadAction(this.proc, this.columns, this.from, middle),
+                new ReadAction(this.proc, this.columns, middle, this.to));
+      }
+    }
+
+    private void read() {
+      Columns columns = this.columns;
+      for (int i = this.from; i < this.to; i++) {
+        Path stat = this.proc.resolve(Integer.toString(columns.pids[i])).resolve("stat");
+        ReadBuffer buffer = ReadBuffer.get();
+        if (!buffer.readListed(stat)) {
+          // exited since the directory was listed
+          continue;
+        }
+        ProcessStat processStat = Proc.parseStat(buffer);
+        columns.read[i] = true;
+        columns.residentSets[i] = processStat.getResidentSetSize();
+        columns.userTimes[i] = processStat.getUserTime();
+        columns.kernelTimes[i] = processStat.getKernelTime();
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,21 @@
+package com.github.marschall.procmbean;
+
+public interface ProcessScannerMXBean {
+
+  /**
+   * Reads all processes on the host and returns the largest and the
+   * busiest processes.
+   *
+   * @param count the maximum number of processes in each list
+   * @return the result of the scan
+   */
+  ProcessScan scan(int count);
+
+  /**
+   * The number of threads reading in parallel.
+   *
+   * @return the number of threads reading in parallel
+   */
+  int getParallelism();
+
+}
@@ -23,6 +23,8 @@ public final class ProcessStatus {
   private final int threads;
   private final long contextSwitchesInvoluntary;
   private final long contextSwitchesVoluntary;
+  private final String cpusAllowedList;
+  private final String memsAllowedList;
 
   ProcessStatus(
           String state,
@@ -43,7 +45,9 @@ public final class ProcessStatus {
           long swapped,
           int threads,
           long contextSwitchesInvoluntary,
-          long contextSwitchesVoluntary) {
+          long contextSwitchesVoluntary,
+          String cpusAllowedList,
+          String memsAllowedList) {
     this.state = state;
     this.fileDescriptorSlotsAllocated = fileDescriptorSlotsAllocated;
     this.virtualMemoryPeak = virtualMemoryPeak;
@@ -63,6 +67,8 @@ public final class ProcessStatus {
     this.threads = threads;
     this.contextSwitchesInvoluntary = contextSwitchesInvoluntary;
     this.contextSwitchesVoluntary = contextSwitchesVoluntary;
+    this.cpusAllowedList = cpusAllowedList;
+    this.memsAllowedList = memsAllowedList;
   }
 
   public static ProcessStatus from(CompositeData compositeData) {
@@ -85,7 +91,9 @@ public final class ProcessStatus {
             (Long) compositeData.get("swapped"),
             (Integer) compositeData.get("threads"),
             (Long) compositeData.get("contextSwitchesInvoluntary"),
-            (Long) compositeData.get("contextSwitchesVoluntary"));
+            (Long) compositeData.get("contextSwitchesVoluntary"),
+            (String) compositeData.get("cpusAllowedList"),
+            (String) compositeData.get("memsAllowedList"));
   }
 
   public String getState() {
@@ -178,4 +186,25 @@ public final class ProcessStatus {
     return this.contextSwitchesVoluntary;
   }
 
+  /**
+   * The CPUs the process may run on, {@code Cpus_allowed_list}, eg.
+   * {@code 0-3,8-11}.
+   *
+   * @return the allowed CPUs, {@code null} if not reported by the kernel
+   */
+  public String getCpusAllowedList() {
+    return this.cpusAllowedList;
+  }
+
+  /**
+   * The NUMA nodes the process may allocate memory on,
+   * {@code Mems_allowed_list}, eg. {@code 0-1}.
+   *
+   * @return the allowed NUMA nodes, {@code null} if not reported by the
+   *         kernel
+   */
+  public String getMemsAllowedList() {
+    return this.memsAllowedList;
+  }
+
 }
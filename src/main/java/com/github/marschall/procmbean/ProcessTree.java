@@ -0,0 +1,298 @@
+package com.github.marschall.procmbean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanRegistration;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Aggregates the resources used by a process and all its descendants,
+ * eg. native helpers spawned by the JVM.
+ *
+ * <p>The descendants are found by following the parent pids in
+ * {@code /proc/[pid]/stat} of all processes. Processes that exit during
+ * a walk are ignored, any failure to read the stat file of a listed
+ * process is taken as the process having exited.</p>
+ *
+ * <p>While registered with an {@link MBeanServer} a {@link Proc} is
+ * registered for every live descendant under
+ * {@code com.github.marschall.procmbean:type=Proc,pid=[pid]}. The
+ * registrations are updated whenever the tree is walked and removed when
+ * the tree is unregistered. A descendant that can not be registered,
+ * eg. because a {@link Proc} is already registered under its name, is
+ * skipped and tried again on the next walk.</p>
+ */
+public class ProcessTree implements ProcessTreeMXBean, MBeanRegistration {
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=ProcessTree";
+
+  private final Path proc;
+  private final int rootPid;
+
+  private MBeanServer server;
+  private final Set<Integer> registered;
+
+  /**
+   * Constructs a new tree rooted at the current process.
+   */
+  public ProcessTree() {
+    this(currentPid());
+  }
+
+  /**
+   * Constructs a new tree rooted at an arbitrary process.
+   *
+   * @param rootPid the id of the root process
+   */
+  public ProcessTree(int rootPid) {
+    this(Paths.get("/proc"), rootPid);
+  }
+
+  ProcessTree(Path proc, int rootPid) {
+    this.proc = proc;
+    this.rootPid = rootPid;
+    this.registered = new HashSet<>();
+  }
+
+  static int currentPid() {
+    try {
+      return Integer.parseInt(Files.readSymbolicLink(Paths.get("/proc/self")).toString());
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not read current pid", e);
+    }
+  }
+
+  @Override
+  public int getRootPid() {
+    return this.rootPid;
+  }
+
+  @Override
+  public ProcessTreeTotals getTotals() {
+    int[] descendants = this.descendants();
+    int processes = 0;
+    long residentSet = 0L;
+    long userTime = 0L;
+    long kernelTime = 0L;
+    long charactersRead = 0L;
+    long charactersWritten = 0L;
+    long bytesRead = 0L;
+    long bytesWritten = 0L;
+    for (int i = -1; i < descendants.length; i++) {
+      Path directory = this.proc.resolve(Integer.toString(i == -1 ? this.rootPid : descendants[i]));
+      ReadBuffer buffer = ReadBuffer.get();
+      if (!buffer.readListed(this.procFile(directory.resolve("stat")))) {
+        // exited since the walk
+        continue;
+      }
+      ProcessStat stat = Proc.parseStat(buffer);
+      processes += 1;
+      residentSet += stat.getResidentSetSize();
+      userTime += stat.getUserTime();
+      kernelTime += stat.getKernelTime();
+      IoStatistics io;
+      try {
+        io = Proc.getIoStatistics(this.procFile(directory.resolve("io")));
+      } catch (UncheckedIOException e) {
+        // processes of other users or exited since reading stat
+        continue;
+      }
+      charactersRead += io.getCharactersRead();
+      charactersWritten += io.getCharactersWritten();
+      bytesRead += io.getBytesRead();
+      bytesWritten += io.getBytesWritten();
+    }
+    this.updateRegistrations(descendants);
+    return new ProcessTreeTotals(processes, residentSet, userTime, kernelTime,
+            charactersRead, charactersWritten, bytesRead, bytesWritten);
+  }
+
+  @Override
+  public int[] getDescendants() {
+    int[] descendants = this.descendants();
+    this.updateRegistrations(descendants);
+    return descendants;
+  }
+
+  int[] descendants() {
+    int[] pids = new int[256];
+    int[] parents = new int[256];
+    int count = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.proc, ProcessTree::isPid)) {
+      for (Path directory : stream) {
+        int parent = parentPid(directory.resolve("stat"));
+        if (parent == -1) {
+          continue;
+        }
+        if (count == pids.length) {
+          pids = Arrays.copyOf(pids, count * 2);
+          parents = Arrays.copyOf(parents, count * 2);
+        }
+        pids[count] = Integer.parseInt(directory.getFileName().toString());
+        parents[count] = parent;
+        count += 1;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not list processes in: " + this.proc, e);
+    }
+
+    // breadth first walk, the descendants found so far are the queue
+    int[] descendants = new int[16];
+    int found = 0;
+    boolean[] added = new boolean[count];
+    int parent = this.rootPid;
+    int next = 0;
+    while (true) {
+      for (int i = 0; i < count; i++) {
+        if (!added[i] && (parents[i] == parent)) {
+          added[i] = true;
+          if (found == descendants.length) {
+            descendants = Arrays.copyOf(descendants, found * 2);
+          }
+          descendants[found++] = pids[i];
+        }
+      }
+      if (next == found) {
+        break;
+      }
+      parent = descendants[next++];
+    }
+    descendants = Arrays.copyOf(descendants, found);
+    Arrays.sort(descendants);
+    return descendants;
+  }
+
+  private static boolean isPid(Path path) {
+    String name = path.getFileName().toString();
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if ((c < '0') || (c > '9')) {
+        return false;
+      }
+    }
+    return !name.isEmpty();
+  }
+
+  /**
+   * Reads the parent pid from a stat file.
+   *
+   * @return the parent pid, {@code -1} if the process exited
+   */
+  private int parentPid(Path stat) {
+    ReadBuffer buffer = ReadBuffer.get();
+    if (!buffer.readListed(this.procFile(stat))) {
+      return -1;
+    }
+    return parentPid(buffer.array(), buffer.length());
+  }
+
+  /**
+   * Returns the file to read a file of a process from, overridden in tests.
+   *
+   * @param path the path of the file
+   * @return the file, never {@code null}
+   */
+  ProcFile procFile(Path path) {
+    return ProcFile.reopening(path);
+  }
+
+  static int parentPid(byte[] array, int length) {
+    // the command may contain spaces and parentheses, it ends at the last ')'
+    int commandEnd = length - 1;
+    while ((commandEnd > 0) && (array[commandEnd] != ')')) {
+      commandEnd -= 1;
+    }
+    if ((commandEnd + 4) > length) {
+      return -1;
+    }
+    return (int) Ascii.parseLong(array, commandEnd + 4, length);
+  }
+
+  private synchronized void updateRegistrations(int[] descendants) {
+    if (this.server == null) {
+      return;
+    }
+    Set<Integer> live = new HashSet<>(descendants.length * 2);
+    for (int pid : descendants) {
+      live.add(pid);
+      if (!this.registered.contains(pid)) {
+        try {
+          this.server.registerMBean(new Proc(pid), Proc.objectName(pid));
+          this.registered.add(pid);
+        } catch (JMException e) {
+          // eg. already registered by the user, retried on the next walk
+        }
+      }
+    }
+    for (Integer pid : this.registered.toArray(new Integer[0])) {
+      if (!live.contains(pid)) {
+        this.registered.remove(pid);
+        unregister(this.server, pid);
+      }
+    }
+  }
+
+  private static void unregister(MBeanServer server, int pid) {
+    try {
+      server.unregisterMBean(Proc.objectName(pid));
+    } catch (JMException e) {
+      // eg. already unregistered by the user
+    }
+  }
+
+  @Override
+  public synchronized ObjectName preRegister(MBeanServer server, ObjectName name) {
+    this.server = server;
+    return name;
+  }
+
+  @Override
+  public void postRegister(Boolean registrationDone) {
+    if (!registrationDone) {
+      this.clearServer();
+    }
+  }
+
+  @Override
+  public void preDeregister() throws JMException {
+    synchronized (this) {
+      for (Integer pid : this.registered) {
+        unregister(this.server, pid);
+      }
+      this.registered.clear();
+    }
+  }
+
+  @Override
+  public void postDeregister() {
+    this.clearServer();
+  }
+
+  private synchronized void clearServer() {
+    this.server = null;
+  }
+
+  public static void install(ProcessTree mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.registerMBean(mxBean, mxBeanName);
+  }
+
+  public static void uninstall() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.unregisterMBean(mxBeanName);
+  }
+
+}
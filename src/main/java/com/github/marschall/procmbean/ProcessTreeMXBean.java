@@ -0,0 +1,30 @@
+package com.github.marschall.procmbean;
+
+public interface ProcessTreeMXBean {
+
+  /**
+   * The id of the process at the root of the tree.
+   *
+   * @return the id of the root process
+   */
+  int getRootPid();
+
+  /**
+   * Sums the resources used by the root process and all its live
+   * descendants.
+   *
+   * <p>The CPU times and I/O counters do not include descendants that
+   * have already exited.</p>
+   *
+   * @return the totals of the tree
+   */
+  ProcessTreeTotals getTotals();
+
+  /**
+   * The ids of all live descendants of the root process.
+   *
+   * @return the ids of the descendants, sorted
+   */
+  int[] getDescendants();
+
+}
@@ -0,0 +1,94 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The resources used by a process and all its descendants.
+ */
+public final class ProcessTreeTotals {
+
+  private final int processes;
+  private final long residentSet;
+  private final long userTime;
+  private final long kernelTime;
+  private final long charactersRead;
+  private final long charactersWritten;
+  private final long bytesRead;
+  private final long bytesWritten;
+
+  ProcessTreeTotals(
+          int processes,
+          long residentSet,
+          long userTime,
+          long kernelTime,
+          long charactersRead,
+          long charactersWritten,
+          long bytesRead,
+          long bytesWritten) {
+    this.processes = processes;
+    this.residentSet = residentSet;
+    this.userTime = userTime;
+    this.kernelTime = kernelTime;
+    this.charactersRead = charactersRead;
+    this.charactersWritten = charactersWritten;
+    this.bytesRead = bytesRead;
+    this.bytesWritten = bytesWritten;
+  }
+
+  public static ProcessTreeTotals from(CompositeData compositeData) {
+    return new ProcessTreeTotals(
+            (Integer) compositeData.get("processes"),
+            (Long) compositeData.get("residentSet"),
+            (Long) compositeData.get("userTime"),
+            (Long) compositeData.get("kernelTime"),
+            (Long) compositeData.get("charactersRead"),
+            (Long) compositeData.get("charactersWritten"),
+            (Long) compositeData.get("bytesRead"),
+            (Long) compositeData.get("bytesWritten"));
+  }
+
+  /**
+   * The number of processes in the tree including the root.
+   *
+   * @return the number of processes in the tree
+   */
+  public int getProcesses() {
+    return this.processes;
+  }
+
+  @Units("bytes")
+  public long getResidentSet() {
+    return this.residentSet;
+  }
+
+  @Units("clock ticks")
+  public long getUserTime() {
+    return this.userTime;
+  }
+
+  @Units("clock ticks")
+  public long getKernelTime() {
+    return this.kernelTime;
+  }
+
+  @Units("bytes")
+  public long getCharactersRead() {
+    return this.charactersRead;
+  }
+
+  @Units("bytes")
+  public long getCharactersWritten() {
+    return this.charactersWritten;
+  }
+
+  @Units("bytes")
+  public long getBytesRead() {
+    return this.bytesRead;
+  }
+
+  @Units("bytes")
+  public long getBytesWritten() {
+    return this.bytesWritten;
+  }
+
+}
@@ -0,0 +1,96 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The memory and CPU time used by a process on the host.
+ */
+public final class ProcessUsage {
+
+  private final int pid;
+  private final String name;
+  private final long residentSet;
+  private final long userTime;
+  private final long kernelTime;
+  private final long cpuTimeDelta;
+  private final double cpuUtilization;
+
+  ProcessUsage(
+          int pid,
+          String name,
+          long residentSet,
+          long userTime,
+          long kernelTime,
+          long cpuTimeDelta,
+          double cpuUtilization) {
+    this.pid = pid;
+    this.name = name;
+    this.residentSet = residentSet;
+    this.userTime = userTime;
+    this.kernelTime = kernelTime;
+    this.cpuTimeDelta = cpuTimeDelta;
+    this.cpuUtilization = cpuUtilization;
+  }
+
+  public static ProcessUsage from(CompositeData compositeData) {
+    return new ProcessUsage(
+            (Integer) compositeData.get("pid"),
+            (String) compositeData.get("name"),
+            (Long) compositeData.get("residentSet"),
+            (Long) compositeData.get("userTime"),
+            (Long) compositeData.get("kernelTime"),
+            (Long) compositeData.get("cpuTimeDelta"),
+            (Double) compositeData.get("cpuUtilization"));
+  }
+
+  public int getPid() {
+    return this.pid;
+  }
+
+  /**
+   * The name of the executable, truncated to 15 bytes.
+   *
+   * @return the name of the executable, {@code null} if the process
+   *         exited during the scan
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  @Units("bytes")
+  public long getResidentSet() {
+    return this.residentSet;
+  }
+
+  @Units("clock ticks")
+  public long getUserTime() {
+    return this.userTime;
+  }
+
+  @Units("clock ticks")
+  public long getKernelTime() {
+    return this.kernelTime;
+  }
+
+  /**
+   * The user and kernel time used since the previous scan.
+   *
+   * @return the CPU time used since the previous scan, 0 on the first scan
+   */
+  @Units("clock ticks")
+  public long getCpuTimeDelta() {
+    return this.cpuTimeDelta;
+  }
+
+  /**
+   * The CPU time used since the previous scan relative to the elapsed
+   * time, {@code 100} means the process kept one CPU busy.
+   *
+   * @return the CPU utilization since the previous scan
+   */
+  @Units("percent")
+  public double getCpuUtilization() {
+    return this.cpuUtilization;
+  }
+
+}
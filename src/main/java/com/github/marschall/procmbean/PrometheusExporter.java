@@ -0,0 +1,128 @@
+package com.github.marschall.procmbean;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Exposes the numeric attributes of a {@link ProcMXBean} in the Prometheus
+ * text exposition format over HTTP without going through JMX.
+ *
+ * <p>Requests are handled by a small fixed size pool with a bounded queue,
+ * when the queue is full the request is handled on the dispatcher thread
+ * which slows down accepting new connections. Wrapping the bean in a
+ * {@link CachingProc} lets concurrent scrapes share a single read.</p>
+ */
+public final class PrometheusExporter implements Closeable {
+
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private final HttpServer server;
+  private final ThreadPoolExecutor executor;
+
+  private PrometheusExporter(HttpServer server, ThreadPoolExecutor executor) {
+    this.server = server;
+    this.executor = executor;
+  }
+
+  /**
+   * Starts a new exporter serving {@code /metrics} with two threads.
+   *
+   * @param proc the bean to export
+   * @param address the address to bind to
+   * @return the started exporter, never {@code null}
+   * @throws IOException if the server can not be bound
+   */
+  public static PrometheusExporter start(ProcMXBean proc, InetSocketAddress address) throws IOException {
+    return start(proc, address, 2, 64);
+  }
+
+  /**
+   * Starts a new exporter serving {@code /metrics}.
+   *
+   * @param proc the bean to export
+   * @param address the address to bind to
+   * @param threads the number of threads handling requests
+   * @param queueSize the number of requests that can wait for a thread
+   * @return the started exporter, never {@code null}
+   * @throws IOException if the server can not be bound
+   */
+  public static PrometheusExporter start(ProcMXBean proc, InetSocketAddress address, int threads, int queueSize) throws IOException {
+    Objects.requireNonNull(proc, "proc");
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            runnable -> {
+              Thread thread = new Thread(runnable, "proc-prometheus-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    HttpServer server = HttpServer.create(address, 0);
+    ThreadLocal<PrometheusWriter> writers = ThreadLocal.withInitial(PrometheusWriter::new);
+    server.createContext("/metrics", exchange -> handle(exchange, proc, writers.get()));
+    server.setExecutor(executor);
+    server.start();
+    return new PrometheusExporter(server, executor);
+  }
+
+  private static void handle(HttpExchange exchange, ProcMXBean proc, PrometheusWriter writer) throws IOException {
+    try {
+      String method = exchange.getRequestMethod();
+      if (!method.equals("GET") && !method.equals("HEAD")) {
+        exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+        exchange.sendResponseHeaders(405, -1L);
+        return;
+      }
+      Sample sample;
+      try {
+        sample = Sample.read(proc);
+      } catch (UncheckedIOException e) {
+        exchange.sendResponseHeaders(503, -1L);
+        return;
+      }
+      writer.reset();
+      writer.write(sample);
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      if (method.equals("HEAD")) {
+        exchange.sendResponseHeaders(200, -1L);
+        return;
+      }
+      exchange.sendResponseHeaders(200, writer.length());
+      try (OutputStream body = exchange.getResponseBody()) {
+        writer.writeTo(body);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /**
+   * Returns the address the server is bound to.
+   *
+   * @return the address the server is bound to
+   */
+  public InetSocketAddress getAddress() {
+    return this.server.getAddress();
+  }
+
+  /**
+   * Stops the server, requests in progress are given one second to complete.
+   */
+  @Override
+  public void close() {
+    this.server.stop(1);
+    this.executor.shutdown();
+  }
+
+}
@@ -0,0 +1,134 @@
+package com.github.marschall.procmbean;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes samples in the Prometheus text exposition format into a reusable
+ * byte buffer without creating a {@link String} per metric.
+ *
+ * <p>The names and {@code # TYPE} lines of all metrics are encoded once.
+ * Instances are not thread safe.</p>
+ */
+final class PrometheusWriter {
+
+  private static final Metric[] METRICS = Metric.values();
+
+  private static final byte[][] HEADERS;
+  private static final byte[][] NAMES;
+
+  static {
+    HEADERS = new byte[METRICS.length][];
+    NAMES = new byte[METRICS.length][];
+    for (Metric metric : METRICS) {
+      String name = metricName(metric);
+      String type = metric.getKind() == Metric.Kind.COUNTER ? "counter" : "gauge";
+      HEADERS[metric.ordinal()] = ("# TYPE " + name + ' ' + type + '\n').getBytes(StandardCharsets.US_ASCII);
+      NAMES[metric.ordinal()] = (name + ' ').getBytes(StandardCharsets.US_ASCII);
+    }
+  }
+
+  private byte[] buffer;
+  private int length;
+
+  PrometheusWriter() {
+    this.buffer = new byte[8192];
+  }
+
+  /**
+   * Converts the attribute name of a metric to a Prometheus metric name,
+   * eg. {@code Status.residentSet} to {@code proc_status_resident_set_bytes}.
+   */
+  static String metricName(Metric metric) {
+    String attributeName = metric.getAttributeName();
+    StringBuilder name = new StringBuilder("proc_");
+    for (int i = 0; i < attributeName.length(); i++) {
+      char c = attributeName.charAt(i);
+      if (c == '.') {
+        name.append('_');
+      } else if (Character.isUpperCase(c)) {
+        if ((i > 0) && (attributeName.charAt(i - 1) != '.')) {
+          name.append('_');
+        }
+        name.append(Character.toLowerCase(c));
+      } else {
+        name.append(c);
+      }
+    }
+    if (metric.getUnit() != null) {
+      name.append('_').append(metric.getUnit());
+    }
+    if (metric.getKind() == Metric.Kind.COUNTER) {
+      name.append("_total");
+    }
+    return name.toString();
+  }
+
+  void reset() {
+    this.length = 0;
+  }
+
+  void write(Sample sample) {
+    for (Metric metric : METRICS) {
+      this.write(HEADERS[metric.ordinal()]);
+      this.write(NAMES[metric.ordinal()]);
+      this.writeLong(metric.get(sample));
+      this.write((byte) '\n');
+    }
+  }
+
+  private void write(byte[] bytes) {
+    this.ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, this.buffer, this.length, bytes.length);
+    this.length += bytes.length;
+  }
+
+  private void write(byte b) {
+    this.ensureCapacity(1);
+    this.buffer[this.length++] = b;
+  }
+
+  /**
+   * Writes a long as an unsigned decimal number, values like the soft
+   * limit use the full 64 bits.
+   */
+  void writeLong(long value) {
+    // 2^64 - 1 has 20 digits
+    this.ensureCapacity(20);
+    if (value == 0L) {
+      this.buffer[this.length++] = '0';
+      return;
+    }
+    long remaining = value;
+    int start = this.length;
+    while (remaining != 0L) {
+      long quotient = Long.divideUnsigned(remaining, 10L);
+      int digit = (int) (remaining - quotient * 10L);
+      this.buffer[this.length++] = (byte) ('0' + digit);
+      remaining = quotient;
+    }
+    // digits were written least significant first
+    for (int i = start, j = this.length - 1; i < j; i++, j--) {
+      byte swap = this.buffer[i];
+      this.buffer[i] = this.buffer[j];
+      this.buffer[j] = swap;
+    }
+  }
+
+  private void ensureCapacity(int additional) {
+    if ((this.length + additional) > this.buffer.length) {
+      this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.length + additional));
+    }
+  }
+
+  int length() {
+    return this.length;
+  }
+
+  void writeTo(OutputStream output) throws IOException {
+    output.write(this.buffer, 0, this.length);
+  }
+
+}
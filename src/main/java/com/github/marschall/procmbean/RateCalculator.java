@@ -0,0 +1,182 @@
+package com.github.marschall.procmbean;
+
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Derives rates from the cumulative counters of the last two samples
+ * taken by a {@link Sampler}.
+ *
+ * <p>The last two samples are published together as an immutable pair
+ * through a volatile field so reading a rate does not need a lock.
+ * All rates are 0 until two samples have been taken. Decreasing counters
+ * result in a rate of 0.</p>
+ *
+ * <p>The CPU times in {@code /proc/[pid]/stat} are converted to seconds
+ * assuming 100 clock ticks per second, {@code sysconf(_SC_CLK_TCK)} can
+ * not be called from Java. This is {@code USER_HZ} on all architectures
+ * the JVM supports on Linux, on others the CPU utilization, and the
+ * utilization reported by {@link ThreadMonitor} and
+ * {@link ProcessScanner}, is off by the ratio of the actual value to
+ * 100.</p>
+ */
+public class RateCalculator implements RateCalculatorMXBean {
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=Rates";
+
+  /**
+   * USER_HZ, the unit of the times in {@code /proc/[pid]/stat}, assumed
+   * to be 100 as on x86, arm, aarch64, ppc64, s390x and riscv regardless
+   * of the kernel tick rate.
+   */
+  static final int CLOCK_TICKS_PER_SECOND = 100;
+
+  private final int availableProcessors;
+
+  private volatile SamplePair samples;
+
+  /**
+   * Constructs a new calculator and registers it with a sampler.
+   *
+   * @param sampler the sampler providing the samples
+   */
+  public RateCalculator(Sampler sampler) {
+    this(Runtime.getRuntime().availableProcessors());
+    Objects.requireNonNull(sampler, "sampler");
+    sampler.addListener(this::onSample);
+  }
+
+  RateCalculator(int availableProcessors) {
+    this.availableProcessors = availableProcessors;
+    this.samples = new SamplePair(null, null);
+  }
+
+  void onSample(Sample sample) {
+    // only called from the sampler thread
+    this.samples = new SamplePair(this.samples.current, sample);
+  }
+
+  @Override
+  public double getCpuUtilization() {
+    SamplePair pair = this.samples;
+    if (!pair.isComplete()) {
+      return 0.0d;
+    }
+    long ticks = delta(pair.current.stat.getUserTime() + pair.current.stat.getKernelTime(),
+            pair.previous.stat.getUserTime() + pair.previous.stat.getKernelTime());
+    double cpuSeconds = (double) ticks / CLOCK_TICKS_PER_SECOND;
+    return cpuSeconds / pair.elapsedSeconds() / this.availableProcessors * 100.0d;
+  }
+
+  @Override
+  public double getMinorFaultRate() {
+    SamplePair pair = this.samples;
+    if (!pair.isComplete()) {
+      return 0.0d;
+    }
+    return pair.rate(pair.current.stat.getMinorFaults(), pair.previous.stat.getMinorFaults());
+  }
+
+  @Override
+  public double getMajorFaultRate() {
+    SamplePair pair = this.samples;
+    if (!pair.isComplete()) {
+      return 0.0d;
+    }
+    return pair.rate(pair.current.stat.getMajorFaults(), pair.previous.stat.getMajorFaults());
+  }
+
+  @Override
+  public double getReadByteRate() {
+    SamplePair pair = this.samples;
+    if (!pair.isComplete()) {
+      return 0.0d;
+    }
+    return pair.rate(pair.current.io.getBytesRead(), pair.previous.io.getBytesRead());
+  }
+
+  @Override
+  public double getWriteByteRate() {
+    SamplePair pair = this.samples;
+    if (!pair.isComplete()) {
+      return 0.0d;
+    }
+    return pair.rate(pair.current.io.getBytesWritten(), pair.previous.io.getBytesWritten());
+  }
+
+  @Override
+  public double getReadSyscallRate() {
+    SamplePair pair = this.samples;
+    if (!pair.isComplete()) {
+      return 0.0d;
+    }
+    return pair.rate(pair.current.io.getReadSyscalls(), pair.previous.io.getReadSyscalls());
+  }
+
+  @Override
+  public double getWriteSyscallRate() {
+    SamplePair pair = this.samples;
+    if (!pair.isComplete()) {
+      return 0.0d;
+    }
+    return pair.rate(pair.current.io.getWriteSyscalls(), pair.previous.io.getWriteSyscalls());
+  }
+
+  @Override
+  public double getContextSwitchRate() {
+    SamplePair pair = this.samples;
+    if (!pair.isComplete()) {
+      return 0.0d;
+    }
+    ProcessStatus current = pair.current.status;
+    ProcessStatus previous = pair.previous.status;
+    return pair.rate(current.getContextSwitchesVoluntary() + current.getContextSwitchesInvoluntary(),
+            previous.getContextSwitchesVoluntary() + previous.getContextSwitchesInvoluntary());
+  }
+
+  static long delta(long current, long previous) {
+    return Math.max(0L, current - previous);
+  }
+
+  public static void install(RateCalculator mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.registerMBean(mxBean, mxBeanName);
+  }
+
+  public static void uninstall() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.unregisterMBean(mxBeanName);
+  }
+
+  static final class SamplePair {
+
+    final Sample previous;
+    final Sample current;
+
+    SamplePair(Sample previous, Sample current) {
+      this.previous = previous;
+      this.current = current;
+    }
+
+    boolean isComplete() {
+      return (this.previous != null) && (this.current.nanoTime > this.previous.nanoTime);
+    }
+
+    double elapsedSeconds() {
+      return (double) (this.current.nanoTime - this.previous.nanoTime) / TimeUnit.SECONDS.toNanos(1L);
+    }
+
+    double rate(long current, long previous) {
+      return delta(current, previous) / this.elapsedSeconds();
+    }
+
+  }
+
+}
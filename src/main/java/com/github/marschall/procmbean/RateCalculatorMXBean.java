@@ -0,0 +1,35 @@
+package com.github.marschall.procmbean;
+
+public interface RateCalculatorMXBean {
+
+  /**
+   * The CPU time used by the process relative to the CPU time available
+   * to the JVM, {@code 100} means all available CPUs are busy.
+   *
+   * @return the CPU utilization between the last two samples
+   */
+  @Units("percent")
+  double getCpuUtilization();
+
+  @Units("faults per second")
+  double getMinorFaultRate();
+
+  @Units("faults per second")
+  double getMajorFaultRate();
+
+  @Units("bytes per second")
+  double getReadByteRate();
+
+  @Units("bytes per second")
+  double getWriteByteRate();
+
+  @Units("syscalls per second")
+  double getReadSyscallRate();
+
+  @Units("syscalls per second")
+  double getWriteSyscallRate();
+
+  @Units("context switches per second")
+  double getContextSwitchRate();
+
+}
@@ -0,0 +1,168 @@
+package com.github.marschall.procmbean;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Thread confined buffer the contents of a proc file are read into.
+ *
+ * <p>Instances are reused across calls so that polling a proc file
+ * does not allocate once the buffer has grown to the size of the file.</p>
+ */
+final class ReadBuffer {
+
+  private static final ThreadLocal<ReadBuffer> BUFFERS = ThreadLocal.withInitial(ReadBuffer::new);
+
+  private static final int INITIAL_SIZE = 4096;
+
+  private static final int INITIAL_VALUES = 32;
+
+  private byte[] array;
+  private int length;
+  private long[] values;
+  private ByteBuffer directBuffer;
+
+  ReadBuffer() {
+    this.array = new byte[INITIAL_SIZE];
+    this.values = new long[INITIAL_VALUES];
+  }
+
+  /**
+   * Returns the buffer of the current thread.
+   *
+   * @return the buffer of the current thread, never {@code null}
+   */
+  static ReadBuffer get() {
+    return BUFFERS.get();
+  }
+
+  /**
+   * Reads the whole file into this buffer replacing the current contents.
+   *
+   * @param path the file to read
+   * @throws IOException if the file can not be read
+   */
+  void read(Path path) throws IOException {
+    try (InputStream input = Files.newInputStream(path)) {
+      int read = 0;
+      int count = input.read(this.array, read, this.array.length);
+      while (count != -1) {
+        read += count;
+        if (read == this.array.length) {
+          this.array = Arrays.copyOf(this.array, this.array.length * 2);
+        }
+        count = input.read(this.array, read, this.array.length - read);
+      }
+      this.length = read;
+    }
+  }
+
+  /**
+   * Reads the whole file into this buffer replacing the current contents
+   * using positional reads starting at offset 0.
+   *
+   * <p>The channel is not modified and can be shared between threads.
+   * A short read is treated as the end of the file, this holds for
+   * the single record proc files this is used for and saves the
+   * syscall for detecting the end of the file. The direct buffer is
+   * grown until the file fits so that a read needs a single syscall.</p>
+   *
+   * @param channel the file to read
+   * @throws IOException if the file can not be read
+   */
+  void read(FileChannel channel) throws IOException {
+    ByteBuffer direct = this.directBuffer;
+    if (direct == null) {
+      direct = ByteBuffer.allocateDirect(INITIAL_SIZE);
+      this.directBuffer = direct;
+    }
+    int read = 0;
+    boolean filled = true;
+    while (filled) {
+      direct.clear();
+      int count = channel.read(direct, read);
+      if (count == -1) {
+        break;
+      }
+      filled = !direct.hasRemaining();
+      direct.flip();
+      if ((read + count) > this.array.length) {
+        this.array = Arrays.copyOf(this.array, Math.max(this.array.length * 2, read + count));
+      }
+      direct.get(this.array, read, count);
+      read += count;
+    }
+    this.length = read;
+    if (read >= direct.capacity()) {
+      this.directBuffer = ByteBuffer.allocateDirect(Integer.highestOneBit(read) << 1);
+    }
+  }
+
+  /**
+   * Reads a file of a process or thread found by listing a directory.
+   *
+   * <p>The process or thread can exit at any time after the listing.
+   * Reading then fails with {@code ENOENT} once its directory is gone or
+   * with {@code ESRCH} while it is still listed, which the JDK reports as
+   * a plain {@link IOException} with the localized message of the error.
+   * Any failure is therefore taken as the process or thread having
+   * exited.</p>
+   *
+   * @param path the file to read
+   * @return whether the file was read, {@code false} if the process or
+   *         thread exited
+   */
+  boolean readListed(Path path) {
+    try {
+      this.read(path);
+    } catch (IOException e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Reads a file of a process or thread found by listing a directory.
+   *
+   * @param file the file to read
+   * @return whether the file was read, {@code false} if the process or
+   *         thread exited
+   * @see #readListed(Path)
+   */
+  boolean readListed(ProcFile file) {
+    try {
+      file.read(this);
+    } catch (IOException e) {
+      return false;
+    }
+    return true;
+  }
+
+  byte[] array() {
+    return this.array;
+  }
+
+  int length() {
+    return this.length;
+  }
+
+  /**
+   * Returns a scratch array for parsed values, all elements are reset to 0.
+   *
+   * @param count the number of values needed
+   * @return the scratch array, has at least {@code count} elements
+   */
+  long[] values(int count) {
+    if (count > this.values.length) {
+      this.values = new long[count];
+    }
+    Arrays.fill(this.values, 0, count, 0L);
+    return this.values;
+  }
+
+}
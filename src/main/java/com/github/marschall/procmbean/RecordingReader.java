@@ -0,0 +1,150 @@
+package com.github.marschall.procmbean;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Decodes a file written by {@link SampleRecorder} into CSV.
+ *
+ * <p>The first column is the timestamp in milliseconds since the epoch,
+ * the following columns are the metrics in the order they were recorded.
+ * The samples are written from the oldest to the newest.</p>
+ *
+ * <pre><code>java -cp procmbean.jar com.github.marschall.procmbean.RecordingReader recording.bin &gt; recording.csv</code></pre>
+ */
+public final class RecordingReader {
+
+  private RecordingReader() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Writes the CSV of a recording to standard out or to a file.
+   *
+   * @param args the recording and optionally the CSV file
+   * @throws IOException if the recording can not be read or the CSV not
+   *                     be written
+   */
+  public static void main(String[] args) throws IOException {
+    if ((args.length < 1) || (args.length > 2)) {
+      System.err.println("usage: RecordingReader recording [csv]");
+      System.exit(1);
+      return;
+    }
+    Path recording = Paths.get(args[0]);
+    if (args.length == 2) {
+      try (Writer writer = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+        writeCsv(recording, writer);
+      }
+    } else {
+      Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+      writeCsv(recording, writer);
+      writer.flush();
+    }
+  }
+
+  /**
+   * Decodes a recording into CSV.
+   *
+   * @param recording the file written by {@link SampleRecorder}
+   * @param out where to write the CSV to
+   * @throws IOException if the recording can not be read, is not a
+   *                     recording or the CSV can not be written
+   */
+  public static void writeCsv(Path recording, Appendable out) throws IOException {
+    ByteBuffer buffer = map(recording);
+    if ((buffer.limit() < 24) || (buffer.getLong(0) != SampleRecorder.MAGIC)) {
+      throw new IOException(recording + " is not a recording");
+    }
+    int version = buffer.getInt(8);
+    if (version != SampleRecorder.VERSION) {
+      throw new IOException("unsupported recording version: " + version);
+    }
+    int blockSize = buffer.getInt(12);
+    int blockCount = buffer.getInt(16);
+    int metricCount = buffer.getInt(20);
+    if (((long) blockCount + 1L) * blockSize > buffer.limit()) {
+      throw new IOException(recording + " is truncated");
+    }
+
+    out.append("timestamp");
+    int position = 24;
+    for (int i = 0; i < metricCount; i++) {
+      int length = buffer.getShort(position);
+      position += 2;
+      byte[] name = new byte[length];
+      for (int j = 0; j < length; j++) {
+        name[j] = buffer.get(position + j);
+      }
+      position += length;
+      out.append(',').append(new String(name, StandardCharsets.UTF_8));
+    }
+    out.append('\n');
+
+    // order the used blocks by sequence
+    List<Integer> blocks = new ArrayList<>(blockCount);
+    for (int i = 0; i < blockCount; i++) {
+      if (sequence(buffer, i, blockSize) > 0L) {
+        blocks.add(i);
+      }
+    }
+    blocks.sort(Comparator.comparingLong(block -> sequence(buffer, block, blockSize)));
+
+    long[] values = new long[metricCount + 1];
+    for (int block : blocks) {
+      int blockStart = blockStart(block, blockSize);
+      int recordCount = buffer.getInt(blockStart + SampleRecorder.RECORD_COUNT_OFFSET);
+      position = blockStart + SampleRecorder.BLOCK_HEADER_SIZE;
+      for (int record = 0; record < recordCount; record++) {
+        for (int j = 0; j < values.length; j++) {
+          long encoded = 0L;
+          int shift = 0;
+          byte b;
+          do {
+            b = buffer.get(position++);
+            encoded |= (b & 0x7FL) << shift;
+            shift += 7;
+          } while (b < 0);
+          long value = (encoded >>> 1) ^ -(encoded & 1L);
+          values[j] = (record == 0) ? value : values[j] + value;
+        }
+        for (int j = 0; j < values.length; j++) {
+          if (j > 0) {
+            out.append(',');
+          }
+          out.append(Long.toString(values[j]));
+        }
+        out.append('\n');
+      }
+    }
+  }
+
+  private static ByteBuffer map(Path recording) throws IOException {
+    try (FileChannel channel = FileChannel.open(recording, StandardOpenOption.READ)) {
+      return channel.map(MapMode.READ_ONLY, 0L, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  private static long sequence(ByteBuffer buffer, int block, int blockSize) {
+    return buffer.getLong(blockStart(block, blockSize) + SampleRecorder.SEQUENCE_OFFSET);
+  }
+
+  private static int blockStart(int block, int blockSize) {
+    return (block + 1) * blockSize;
+  }
+
+}
@@ -0,0 +1,38 @@
+package com.github.marschall.procmbean;
+
+/**
+ * The values of the sampled attributes read at one point in time.
+ */
+final class Sample {
+
+  final long timestamp;
+  final long nanoTime;
+  final ProcessStat stat;
+  final ProcessStatus status;
+  final MemoryUsageStatistics memoryUsage;
+  final IoStatistics io;
+  final int oomScore;
+
+  Sample(long timestamp, long nanoTime, ProcessStat stat, ProcessStatus status,
+          MemoryUsageStatistics memoryUsage, IoStatistics io, int oomScore) {
+    this.timestamp = timestamp;
+    this.nanoTime = nanoTime;
+    this.stat = stat;
+    this.status = status;
+    this.memoryUsage = memoryUsage;
+    this.io = io;
+    this.oomScore = oomScore;
+  }
+
+  /**
+   * Reads a new sample.
+   *
+   * @param proc the bean to read from
+   * @return the new sample
+   */
+  static Sample read(ProcMXBean proc) {
+    return new Sample(System.currentTimeMillis(), System.nanoTime(), proc.getStat(), proc.getStatus(),
+            proc.getMemoryUsageStatistics(), proc.getIoStatistics(), proc.getOomScore());
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.github.marschall.procmbean;
+
+/**
+ * Fixed size ring buffer of samples.
+ *
+ * <p>Samples are stored in parallel {@code long[]} columns, one for the
+ * timestamp and one for every {@link Metric}, instead of a list of
+ * objects. An hour of one second samples costs about
+ * {@code 3600 * 8 * (1 + Metric.values().length)} bytes.</p>
+ */
+final class SampleBuffer {
+
+  private static final Metric[] METRICS = Metric.values();
+
+  private final long[] timestamps;
+  private final long[][] columns;
+  private final int capacity;
+  private long written;
+
+  SampleBuffer(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.timestamps = new long[capacity];
+    this.columns = new long[METRICS.length][capacity];
+  }
+
+  int getCapacity() {
+    return this.capacity;
+  }
+
+  synchronized void append(Sample sample) {
+    int slot = (int) (this.written % this.capacity);
+    this.timestamps[slot] = sample.timestamp;
+    for (Metric metric : METRICS) {
+      this.columns[metric.ordinal()][slot] = metric.get(sample);
+    }
+    this.written += 1;
+  }
+
+  /**
+   * Returns the number of samples appended since creation, including
+   * the ones that have since been overwritten.
+   */
+  synchronized long getWritten() {
+    return this.written;
+  }
+
+  /**
+   * Returns the most recent timestamps, oldest first.
+   *
+   * @param count the maximum number of timestamps
+   * @return the most recent timestamps, at most {@code count}
+   */
+  synchronized long[] getTimestamps(int count) {
+    return this.copyLast(this.timestamps, count);
+  }
+
+  /**
+   * Returns the most recent values of a metric, oldest first.
+   *
+   * @param metric the metric
+   * @param count the maximum number of values
+   * @return the most recent values, at most {@code count}
+   */
+  synchronized long[] getValues(Metric metric, int count) {
+    return this.copyLast(this.columns[metric.ordinal()], count);
+  }
+
+  private long[] copyLast(long[] column, int count) {
+    int available = (int) Math.min(this.written, this.capacity);
+    int length = Math.max(0, Math.min(count, available));
+    long[] result = new long[length];
+    if (length == 0) {
+      return result;
+    }
+    int end = (int) (this.written % this.capacity);
+    int start = end - length;
+    if (start >= 0) {
+      System.arraycopy(column, start, result, 0, length);
+    } else {
+      // wraps around
+      int tail = -start;
+      System.arraycopy(column, this.capacity - tail, result, 0, tail);
+      System.arraycopy(column, 0, result, tail, end);
+    }
+    return result;
+  }
+
+}
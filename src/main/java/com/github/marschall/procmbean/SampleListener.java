@@ -0,0 +1,17 @@
+package com.github.marschall.procmbean;
+
+/**
+ * Callback invoked by {@link Sampler} on the sampler thread for every
+ * sample taken.
+ */
+@FunctionalInterface
+interface SampleListener {
+
+  /**
+   * Called after a sample has been taken.
+   *
+   * @param sample the sample, never {@code null}
+   */
+  void onSample(Sample sample);
+
+}
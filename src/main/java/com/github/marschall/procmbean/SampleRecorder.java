@@ -0,0 +1,218 @@
+package com.github.marschall.procmbean;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Records every sample taken by a {@link Sampler} in a memory mapped
+ * circular file so that the history survives the process, eg. when it
+ * is killed by the OOM killer.
+ *
+ * <p>Recording a sample only stores into the mapped region, the kernel
+ * writes the dirty pages back. The file is overwritten. Use
+ * {@link RecordingReader} to convert it to CSV.</p>
+ *
+ * <p>The file consists of a header block followed by data blocks of the
+ * same size, all values are little endian.</p>
+ * <pre>header: magic "PROCREC1", int version, int block size, int block count,
+ *        int metric count, for every metric: short length, UTF-8 name
+ *block:  long sequence, int record count, int used bytes, records</pre>
+ *
+ * <p>Every record consists of the timestamp in milliseconds since the
+ * epoch followed by the value of every metric, each as a zig-zag encoded
+ * variable length integer. The first record of a block holds the values,
+ * every following record the difference to the previous record. Blocks
+ * can therefore be decoded independently and are overwritten as a whole
+ * once the file is full. A block with the sequence 0 is unused. The
+ * record count and used bytes of a block are updated after the record
+ * was written so a block never contains a partial record.</p>
+ */
+public class SampleRecorder implements Closeable {
+
+  static final long MAGIC = 0x31434552434f5250L; // "PROCREC1" little endian
+  static final int VERSION = 1;
+  static final int DEFAULT_BLOCK_SIZE = 4096;
+  static final int BLOCK_HEADER_SIZE = 16;
+  static final int SEQUENCE_OFFSET = 0;
+  static final int RECORD_COUNT_OFFSET = 8;
+  static final int USED_BYTES_OFFSET = 12;
+
+  private static final int MAX_VARINT_LENGTH = 10;
+
+  private final Sampler sampler;
+  private final SampleListener listener;
+  private final MappedByteBuffer buffer;
+  private final Metric[] metrics;
+  private final int blockSize;
+  private final int blockCount;
+  private final long[] current;
+  private final long[] previous;
+  private final byte[] record;
+
+  private int block;
+  private long sequence;
+  private int recordCount;
+  private int usedBytes;
+  private boolean closed;
+
+  /**
+   * Constructs a new recorder that records every sample taken from now on.
+   *
+   * @param sampler the sampler taking the samples
+   * @param file the file to record to, is overwritten
+   * @param size the size of the file in bytes, rounded down to a multiple of
+   *             4 KB, the oldest samples are overwritten once it is full
+   * @throws UncheckedIOException if the file can not be created
+   */
+  public SampleRecorder(Sampler sampler, Path file, long size) {
+    this(sampler, file, size, DEFAULT_BLOCK_SIZE);
+  }
+
+  SampleRecorder(Sampler sampler, Path file, long size, int blockSize) {
+    Objects.requireNonNull(sampler, "sampler");
+    Objects.requireNonNull(file, "file");
+    long blocks = (size / blockSize) - 1L;
+    if (blocks < 2L) {
+      throw new IllegalArgumentException("size must be at least " + (3 * blockSize) + " bytes");
+    }
+    if (blocks > Integer.MAX_VALUE / blockSize) {
+      throw new IllegalArgumentException("size must be less than 2 GB");
+    }
+    this.metrics = Metric.values();
+    this.blockSize = blockSize;
+    this.blockCount = (int) blocks;
+    this.current = new long[this.metrics.length + 1];
+    this.previous = new long[this.current.length];
+    this.record = new byte[this.previous.length * MAX_VARINT_LENGTH];
+    this.buffer = map(file, (this.blockCount + 1L) * blockSize);
+    this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+    this.writeHeader();
+    this.block = -1;
+    this.sampler = sampler;
+    this.listener = this::onSample;
+    sampler.addListener(this.listener);
+  }
+
+  private static MappedByteBuffer map(Path file, long size) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      // the mapping stays valid after the channel is closed
+      return channel.map(MapMode.READ_WRITE, 0L, size);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void writeHeader() {
+    this.buffer.putLong(0, MAGIC);
+    this.buffer.putInt(8, VERSION);
+    this.buffer.putInt(12, this.blockSize);
+    this.buffer.putInt(16, this.blockCount);
+    this.buffer.putInt(20, this.metrics.length);
+    int position = 24;
+    for (Metric metric : this.metrics) {
+      byte[] name = metric.getAttributeName().getBytes(StandardCharsets.UTF_8);
+      if ((position + 2 + name.length) > this.blockSize) {
+        throw new IllegalArgumentException("block size too small for metric names");
+      }
+      this.buffer.putShort(position, (short) name.length);
+      position += 2;
+      for (byte b : name) {
+        this.buffer.put(position++, b);
+      }
+    }
+  }
+
+  synchronized void onSample(Sample sample) {
+    if (this.closed) {
+      return;
+    }
+    this.current[0] = sample.timestamp;
+    for (int i = 0; i < this.metrics.length; i++) {
+      this.current[i + 1] = this.metrics[i].get(sample);
+    }
+    int length = -1;
+    if (this.block != -1) {
+      length = this.encode(true);
+    }
+    if ((length == -1) || ((BLOCK_HEADER_SIZE + this.usedBytes + length) > this.blockSize)) {
+      this.nextBlock();
+      length = this.encode(false);
+    }
+    int blockStart = (this.block + 1) * this.blockSize;
+    int position = blockStart + BLOCK_HEADER_SIZE + this.usedBytes;
+    for (int i = 0; i < length; i++) {
+      this.buffer.put(position + i, this.record[i]);
+    }
+    this.usedBytes += length;
+    this.recordCount += 1;
+    // publish after the record is complete
+    this.buffer.putInt(blockStart + USED_BYTES_OFFSET, this.usedBytes);
+    this.buffer.putInt(blockStart + RECORD_COUNT_OFFSET, this.recordCount);
+    System.arraycopy(this.current, 0, this.previous, 0, this.current.length);
+  }
+
+  private void nextBlock() {
+    this.block = (this.block + 1) % this.blockCount;
+    this.sequence += 1L;
+    this.recordCount = 0;
+    this.usedBytes = 0;
+    int blockStart = (this.block + 1) * this.blockSize;
+    // invalidate before the counts are reset so the old records are never
+    // attributed to the new sequence
+    this.buffer.putLong(blockStart + SEQUENCE_OFFSET, 0L);
+    this.buffer.putInt(blockStart + RECORD_COUNT_OFFSET, 0);
+    this.buffer.putInt(blockStart + USED_BYTES_OFFSET, 0);
+    this.buffer.putLong(blockStart + SEQUENCE_OFFSET, this.sequence);
+  }
+
+  /**
+   * Encodes {@link #current} into {@link #record}.
+   *
+   * @param delta whether to encode the difference to {@link #previous}
+   * @return the length of the record
+   */
+  private int encode(boolean delta) {
+    int position = 0;
+    for (int i = 0; i < this.current.length; i++) {
+      long value = delta ? this.current[i] - this.previous[i] : this.current[i];
+      position = writeVarint(this.record, position, (value << 1) ^ (value >> 63));
+    }
+    return position;
+  }
+
+  static int writeVarint(byte[] buffer, int position, long value) {
+    long remaining = value;
+    int p = position;
+    while ((remaining & ~0x7FL) != 0L) {
+      buffer[p++] = (byte) ((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    buffer[p++] = (byte) remaining;
+    return p;
+  }
+
+  /**
+   * Stops recording and writes the mapped region back to the file.
+   */
+  @Override
+  public void close() {
+    this.sampler.removeListener(this.listener);
+    synchronized (this) {
+      if (!this.closed) {
+        this.closed = true;
+        this.buffer.force();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.github.marschall.procmbean;
+
+import java.util.Objects;
+
+/**
+ * The registration of a {@link SampleListener} with at most one
+ * {@link Sampler} at a time.
+ *
+ * <p>Subscribing again replaces the previous registration so that a
+ * listener never runs twice per sample.</p>
+ */
+final class SampleSubscription {
+
+  // guarded by this
+  private Sampler sampler;
+  private SampleListener listener;
+
+  /**
+   * Registers a listener with a sampler, replacing the previous
+   * registration.
+   *
+   * @param sampler the sampler to listen to
+   * @param listener the listener to register
+   */
+  synchronized void subscribe(Sampler sampler, SampleListener listener) {
+    Objects.requireNonNull(sampler, "sampler");
+    Objects.requireNonNull(listener, "listener");
+    this.cancel();
+    this.sampler = sampler;
+    this.listener = listener;
+    sampler.addListener(listener);
+  }
+
+  /**
+   * Removes the current registration, if any.
+   */
+  synchronized void cancel() {
+    if (this.sampler != null) {
+      this.sampler.removeListener(this.listener);
+      this.sampler = null;
+      this.listener = null;
+    }
+  }
+
+}
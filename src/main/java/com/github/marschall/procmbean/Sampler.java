@@ -0,0 +1,212 @@
+package com.github.marschall.procmbean;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Periodically samples a {@link ProcMXBean} in a background thread and
+ * keeps a fixed size history of the numeric attributes.
+ */
+public class Sampler implements SamplerMXBean, Closeable {
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=Sampler";
+
+  private final ProcMXBean proc;
+  private final SampleBuffer buffer;
+  private final ScheduledExecutorService executor;
+  private final List<SampleListener> listeners;
+  private ScheduledFuture<?> future;
+  private long period;
+
+  // only written by the sampler thread
+  private volatile long lastSampleDuration;
+  private volatile long totalSampleDuration;
+  private volatile long sampleCount;
+  private volatile long failedSampleCount;
+
+  /**
+   * Constructs a new sampler, sampling starts immediately.
+   *
+   * @param proc the bean to sample
+   * @param period the time between two samples in milliseconds
+   * @param capacity the number of samples to keep
+   */
+  public Sampler(ProcMXBean proc, long period, int capacity) {
+    this(proc, period, capacity, true);
+  }
+
+  /**
+   * Constructs a new sampler.
+   *
+   * @param proc the bean to sample
+   * @param period the time between two samples in milliseconds
+   * @param capacity the number of samples to keep
+   * @param start whether to start sampling, otherwise samples are only
+   *              taken when {@link #sample()} is called
+   */
+  Sampler(ProcMXBean proc, long period, int capacity, boolean start) {
+    Objects.requireNonNull(proc, "proc");
+    checkPeriod(period);
+    this.proc = proc;
+    this.buffer = new SampleBuffer(capacity);
+    this.listeners = new CopyOnWriteArrayList<>();
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "proc-sampler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.period = period;
+    if (start) {
+      this.schedule();
+    }
+  }
+
+  private static void checkPeriod(long period) {
+    if (period <= 0L) {
+      throw new IllegalArgumentException("period must be positive");
+    }
+  }
+
+  private void schedule() {
+    this.future = this.executor.scheduleAtFixedRate(this::sample, 0L, this.period, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public synchronized long getPeriod() {
+    return this.period;
+  }
+
+  @Override
+  public synchronized void setPeriod(long period) {
+    checkPeriod(period);
+    this.period = period;
+    if (this.future != null) {
+      // reschedule only if sampling has been started
+      this.future.cancel(false);
+      this.schedule();
+    }
+  }
+
+  void sample() {
+    long start = System.nanoTime();
+    Sample sample;
+    try {
+      sample = Sample.read(this.proc);
+    } catch (RuntimeException e) {
+      // keep sampling, an exception would cancel all further runs
+      this.failedSampleCount += 1;
+      return;
+    }
+    this.buffer.append(sample);
+    for (SampleListener listener : this.listeners) {
+      try {
+        listener.onSample(sample);
+      } catch (RuntimeException e) {
+        // a failing listener must not cancel further runs or other listeners
+      }
+    }
+    long duration = System.nanoTime() - start;
+    this.lastSampleDuration = duration;
+    this.totalSampleDuration += duration;
+    this.sampleCount += 1;
+  }
+
+  @Override
+  public int getCapacity() {
+    return this.buffer.getCapacity();
+  }
+
+  @Override
+  public long getSampleCount() {
+    return this.sampleCount;
+  }
+
+  @Override
+  public long getFailedSampleCount() {
+    return this.failedSampleCount;
+  }
+
+  @Override
+  public long getLastSampleDuration() {
+    return this.lastSampleDuration;
+  }
+
+  @Override
+  public long getAverageSampleDuration() {
+    long count = this.sampleCount;
+    if (count == 0L) {
+      return 0L;
+    }
+    return this.totalSampleDuration / count;
+  }
+
+  @Override
+  public double getOverhead() {
+    return (double) this.getAverageSampleDuration() / TimeUnit.MILLISECONDS.toNanos(this.getPeriod());
+  }
+
+  @Override
+  public String[] getMetrics() {
+    Metric[] metrics = Metric.values();
+    String[] names = new String[metrics.length];
+    for (int i = 0; i < metrics.length; i++) {
+      names[i] = metrics[i].getAttributeName();
+    }
+    return names;
+  }
+
+  @Override
+  public long[] lastTimestamps(int count) {
+    return this.buffer.getTimestamps(count);
+  }
+
+  @Override
+  public long[] lastValues(String metric, int count) {
+    return this.buffer.getValues(Metric.forAttributeName(metric), count);
+  }
+
+  void addListener(SampleListener listener) {
+    Objects.requireNonNull(listener, "listener");
+    this.listeners.add(listener);
+  }
+
+  void removeListener(SampleListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  SampleBuffer getBuffer() {
+    return this.buffer;
+  }
+
+  /**
+   * Stops sampling.
+   */
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+
+  public static void install(Sampler mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.registerMBean(mxBean, mxBeanName);
+  }
+
+  public static void uninstall() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.unregisterMBean(mxBeanName);
+  }
+
+}
@@ -0,0 +1,36 @@
+package com.github.marschall.procmbean;
+
+public interface SamplerMXBean {
+
+  @Units("milliseconds")
+  long getPeriod();
+
+  void setPeriod(long period);
+
+  int getCapacity();
+
+  long getSampleCount();
+
+  long getFailedSampleCount();
+
+  @Units("nanoseconds")
+  long getLastSampleDuration();
+
+  @Units("nanoseconds")
+  long getAverageSampleDuration();
+
+  /**
+   * The average time spent taking a sample relative to the period.
+   *
+   * @return the fraction of time spent sampling, between 0 and 1
+   */
+  double getOverhead();
+
+  String[] getMetrics();
+
+  @Units("milliseconds since the epoch")
+  long[] lastTimestamps(int count);
+
+  long[] lastValues(String metric, int count);
+
+}
@@ -0,0 +1,248 @@
+package com.github.marschall.procmbean;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Publishes the latest sample taken by a {@link Sampler} in a memory
+ * mapped file so that other processes can read it without JMX, similar to
+ * the {@code hsperfdata} files of HotSpot.
+ *
+ * <p>The default file is {@code /tmp/procmbean_[user]/[pid]}, it is
+ * deleted by {@link #close()}. All values are in the native byte order.
+ * </p>
+ *
+ * <p>Like HotSpot does for {@code hsperfdata} the default directory is
+ * created only accessible by the owner and rejected if it is a symbolic
+ * link, owned by another user or accessible by others. A stale file is
+ * deleted and the file is created anew without following symbolic links,
+ * only readable and writable by the owner.</p>
+ * <pre>offset size
+ *0      8    magic "PROCCNT\0"
+ *8      1    byte order, 0 big endian, 1 little endian
+ *9      3    reserved
+ *12     4    version, 1
+ *16     8    sequence
+ *24     8    timestamp of the sample in milliseconds since the epoch
+ *32     4    pid
+ *36     4    metric count
+ *40     4    offset of the values
+ *44     4    offset of the names
+ *48     16   reserved
+ *values      one 8 byte value per metric
+ *names       per metric a 2 byte length followed by the UTF-8 name</pre>
+ *
+ * <p>The sequence is a seqlock, it is odd while a sample is written.
+ * A reader reads the sequence, the timestamp and the values and then the
+ * sequence again. If the sequence is odd or changed the reader has to
+ * retry. The metrics, their order and the offsets never change while the
+ * file exists. See {@link SharedCountersReader}.</p>
+ */
+public class SharedCounters implements Closeable {
+
+  static final byte[] MAGIC = "PROCCNT\0".getBytes(StandardCharsets.US_ASCII);
+  static final int VERSION = 1;
+  static final int BYTE_ORDER_OFFSET = 8;
+  static final int VERSION_OFFSET = 12;
+  static final int SEQUENCE_OFFSET = 16;
+  static final int TIMESTAMP_OFFSET = 24;
+  static final int PID_OFFSET = 32;
+  static final int METRIC_COUNT_OFFSET = 36;
+  static final int VALUES_OFFSET_OFFSET = 40;
+  static final int NAMES_OFFSET_OFFSET = 44;
+  static final int HEADER_SIZE = 64;
+
+  private static final Set<PosixFilePermission> OWNER_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+  private static final Set<PosixFilePermission> OWNER_FILE = PosixFilePermissions.fromString("rw-------");
+
+  private final Sampler sampler;
+  private final SampleListener listener;
+  private final Path file;
+  private final MappedByteBuffer buffer;
+  private final Metric[] metrics;
+  private long sequence;
+  private boolean closed;
+
+  /**
+   * Constructs a new {@link SharedCounters} that publishes every sample
+   * taken from now on to {@code /tmp/procmbean_[user]/[pid]}.
+   *
+   * @param sampler the sampler taking the samples
+   * @throws UncheckedIOException if the file can not be created
+   */
+  public SharedCounters(Sampler sampler) {
+    this(sampler, privateDefaultFile(ProcessTree.currentPid()));
+  }
+
+  /**
+   * Constructs a new {@link SharedCounters} that publishes every sample
+   * taken from now on.
+   *
+   * @param sampler the sampler taking the samples
+   * @param file the file to publish to, is replaced
+   * @throws UncheckedIOException if the file can not be created
+   */
+  public SharedCounters(Sampler sampler, Path file) {
+    Objects.requireNonNull(sampler, "sampler");
+    Objects.requireNonNull(file, "file");
+    this.metrics = Metric.values();
+    byte[][] names = new byte[this.metrics.length][];
+    int namesSize = 0;
+    for (int i = 0; i < this.metrics.length; i++) {
+      names[i] = this.metrics[i].getAttributeName().getBytes(StandardCharsets.UTF_8);
+      namesSize += 2 + names[i].length;
+    }
+    int namesOffset = HEADER_SIZE + (this.metrics.length * 8);
+    this.file = file;
+    this.buffer = map(file, namesOffset + namesSize);
+    this.buffer.order(ByteOrder.nativeOrder());
+
+    for (int i = 0; i < MAGIC.length; i++) {
+      this.buffer.put(i, MAGIC[i]);
+    }
+    this.buffer.put(BYTE_ORDER_OFFSET, (byte) (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 1 : 0));
+    this.buffer.putInt(VERSION_OFFSET, VERSION);
+    this.buffer.putInt(PID_OFFSET, ProcessTree.currentPid());
+    this.buffer.putInt(METRIC_COUNT_OFFSET, this.metrics.length);
+    this.buffer.putInt(VALUES_OFFSET_OFFSET, HEADER_SIZE);
+    this.buffer.putInt(NAMES_OFFSET_OFFSET, namesOffset);
+    int position = namesOffset;
+    for (byte[] name : names) {
+      this.buffer.putShort(position, (short) name.length);
+      position += 2;
+      for (byte b : name) {
+        this.buffer.put(position++, b);
+      }
+    }
+
+    this.sampler = sampler;
+    this.listener = this::onSample;
+    sampler.addListener(this.listener);
+  }
+
+  static Path defaultFile(int pid) {
+    return Paths.get(System.getProperty("java.io.tmpdir"), "procmbean_" + System.getProperty("user.name"),
+            Integer.toString(pid));
+  }
+
+  private static Path privateDefaultFile(int pid) {
+    Path file = defaultFile(pid);
+    try {
+      createPrivateDirectory(file.getParent());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return file;
+  }
+
+  /**
+   * Creates a directory only accessible by the current user or checks
+   * that an existing one is.
+   *
+   * @param directory the directory to create
+   * @throws IOException if the directory can not be created or is not
+   *                     private to the current user
+   */
+  static void createPrivateDirectory(Path directory) throws IOException {
+    try {
+      // the permissions are reduced by the umask but never widened
+      Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(OWNER_DIRECTORY));
+    } catch (FileAlreadyExistsException e) {
+      // may have been created by someone else, checked below
+    }
+    PosixFileAttributes attributes = Files.readAttributes(directory, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    if (!attributes.isDirectory()) {
+      throw new IOException("not a directory or a symbolic link: " + directory);
+    }
+    UserPrincipal currentUser = FileSystems.getDefault().getUserPrincipalLookupService()
+            .lookupPrincipalByName(System.getProperty("user.name"));
+    if (!attributes.owner().equals(currentUser)) {
+      throw new IOException("owned by " + attributes.owner() + " instead of " + currentUser + ": " + directory);
+    }
+    if (!OWNER_DIRECTORY.containsAll(attributes.permissions())) {
+      throw new IOException("accessible by other users: " + directory);
+    }
+  }
+
+  private static MappedByteBuffer map(Path file, int size) {
+    try {
+      // a symbolic link is deleted, not its target
+      Files.deleteIfExists(file);
+      Set<OpenOption> options = new HashSet<>(Arrays.asList(StandardOpenOption.CREATE_NEW,
+              StandardOpenOption.READ, StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS));
+      try (FileChannel channel = FileChannel.open(file, options, PosixFilePermissions.asFileAttribute(OWNER_FILE))) {
+        // the mapping stays valid after the channel is closed
+        return channel.map(MapMode.READ_WRITE, 0L, size);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  synchronized void onSample(Sample sample) {
+    if (this.closed) {
+      return;
+    }
+    this.sequence += 1L;
+    this.buffer.putLong(SEQUENCE_OFFSET, this.sequence);
+    Fences.storeFence();
+    this.buffer.putLong(TIMESTAMP_OFFSET, sample.timestamp);
+    for (int i = 0; i < this.metrics.length; i++) {
+      this.buffer.putLong(HEADER_SIZE + (i * 8), this.metrics[i].get(sample));
+    }
+    Fences.storeFence();
+    this.sequence += 1L;
+    this.buffer.putLong(SEQUENCE_OFFSET, this.sequence);
+  }
+
+  /**
+   * The file the samples are published to.
+   *
+   * @return the file, never {@code null}
+   */
+  public Path getFile() {
+    return this.file;
+  }
+
+  /**
+   * Stops publishing and deletes the file.
+   */
+  @Override
+  public void close() {
+    this.sampler.removeListener(this.listener);
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+    }
+    try {
+      Files.deleteIfExists(this.file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
@@ -0,0 +1,164 @@
+package com.github.marschall.procmbean;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the samples published by {@link SharedCounters}, possibly from a
+ * different process.
+ *
+ * <p>Reading a sample does not make a syscall and does not allocate.
+ * Instances are not thread safe.</p>
+ *
+ * <pre><code>SharedCountersReader reader = SharedCountersReader.open(pid);
+ *long[] values = new long[reader.getMetrics().length];
+ *long timestamp = reader.read(values);</code></pre>
+ */
+public final class SharedCountersReader {
+
+  private static final int SPINS_BEFORE_DEADLINE = 1_000;
+
+  private static final long WRITER_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1L);
+
+  private final MappedByteBuffer buffer;
+  private final int pid;
+  private final int valuesOffset;
+  private final String[] metrics;
+
+  private SharedCountersReader(MappedByteBuffer buffer, int pid, int valuesOffset, String[] metrics) {
+    this.buffer = buffer;
+    this.pid = pid;
+    this.valuesOffset = valuesOffset;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Opens the default file of a process.
+   *
+   * @param pid the id of the process publishing the samples
+   * @return the reader, never {@code null}
+   * @throws IOException if the file can not be read or has an unknown format
+   */
+  public static SharedCountersReader open(int pid) throws IOException {
+    return open(SharedCounters.defaultFile(pid));
+  }
+
+  /**
+   * Opens a file.
+   *
+   * @param file the file the samples are published to
+   * @return the reader, never {@code null}
+   * @throws IOException if the file can not be read or has an unknown format
+   */
+  public static SharedCountersReader open(Path file) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(MapMode.READ_ONLY, 0L, channel.size());
+    }
+    if (buffer.limit() < SharedCounters.HEADER_SIZE) {
+      throw new IOException(file + " is truncated");
+    }
+    for (int i = 0; i < SharedCounters.MAGIC.length; i++) {
+      if (buffer.get(i) != SharedCounters.MAGIC[i]) {
+        throw new IOException(file + " does not contain counters");
+      }
+    }
+    buffer.order(buffer.get(SharedCounters.BYTE_ORDER_OFFSET) == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+    int version = buffer.getInt(SharedCounters.VERSION_OFFSET);
+    if (version != SharedCounters.VERSION) {
+      throw new IOException("unsupported counters version: " + version);
+    }
+    int metricCount = buffer.getInt(SharedCounters.METRIC_COUNT_OFFSET);
+    int valuesOffset = buffer.getInt(SharedCounters.VALUES_OFFSET_OFFSET);
+    int position = buffer.getInt(SharedCounters.NAMES_OFFSET_OFFSET);
+    String[] metrics = new String[metricCount];
+    for (int i = 0; i < metricCount; i++) {
+      int length = buffer.getShort(position);
+      position += 2;
+      byte[] name = new byte[length];
+      for (int j = 0; j < length; j++) {
+        name[j] = buffer.get(position + j);
+      }
+      position += length;
+      metrics[i] = new String(name, StandardCharsets.UTF_8);
+    }
+    return new SharedCountersReader(buffer, buffer.getInt(SharedCounters.PID_OFFSET), valuesOffset, metrics);
+  }
+
+  /**
+   * The id of the process publishing the samples.
+   *
+   * @return the id of the process
+   */
+  public int getPid() {
+    return this.pid;
+  }
+
+  /**
+   * The names of the metrics in the order of the values.
+   *
+   * @return the names of the metrics, eg. {@code Status.residentSet}
+   */
+  public String[] getMetrics() {
+    return this.metrics.clone();
+  }
+
+  /**
+   * The index of a metric in the values.
+   *
+   * @param metric the name of the metric
+   * @return the index of the metric, -1 if there is no such metric
+   */
+  public int indexOf(String metric) {
+    return Arrays.asList(this.metrics).indexOf(metric);
+  }
+
+  /**
+   * Reads a consistent snapshot of the latest sample.
+   *
+   * @param values where to store the values, at least as long as
+   *               {@link #getMetrics()}
+   * @return the timestamp of the sample in milliseconds since the epoch,
+   *         0 if no sample has been published yet
+   * @throws IllegalStateException if no consistent sample could be read
+   *                               within a second, eg. because the writer
+   *                               died while writing
+   */
+  public long read(long[] values) {
+    if (values.length < this.metrics.length) {
+      throw new IllegalArgumentException("values too short");
+    }
+    long deadline = 0L;
+    for (int attempt = 1; ; attempt++) {
+      if (attempt == SPINS_BEFORE_DEADLINE) {
+        deadline = System.nanoTime() + WRITER_TIMEOUT_NANOS;
+      } else if ((attempt > SPINS_BEFORE_DEADLINE) && ((System.nanoTime() - deadline) > 0L)) {
+        throw new IllegalStateException("no consistent sample within " + WRITER_TIMEOUT_NANOS + " ns");
+      }
+      long before = this.buffer.getLong(SharedCounters.SEQUENCE_OFFSET);
+      if ((before & 1L) != 0L) {
+        // write in progress
+        continue;
+      }
+      Fences.loadFence();
+      long timestamp = this.buffer.getLong(SharedCounters.TIMESTAMP_OFFSET);
+      for (int i = 0; i < this.metrics.length; i++) {
+        values[i] = this.buffer.getLong(this.valuesOffset + (i * 8));
+      }
+      Fences.loadFence();
+      long after = this.buffer.getLong(SharedCounters.SEQUENCE_OFFSET);
+      if (before == after) {
+        return timestamp;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+package com.github.marschall.procmbean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.openmbean.CompositeData;
+
+public final class Smaps {
+
+  private final long size;
+  private final long residentSet;
+  private final long proportionalSet;
+  private final long shared;
+  private final long _private;
+  private final long swapped;
+  private final long anonymousHugePages;
+  private final long locked;
+  private final List<SmapsMapping> mappings;
+
+  Smaps(
+          long size,
+          long residentSet,
+          long proportionalSet,
+          long shared,
+          long prvate,
+          long swapped,
+          long anonymousHugePages,
+          long locked,
+          List<SmapsMapping> mappings) {
+    this.size = size;
+    this.residentSet = residentSet;
+    this.proportionalSet = proportionalSet;
+    this.shared = shared;
+    this._private = prvate;
+    this.swapped = swapped;
+    this.anonymousHugePages = anonymousHugePages;
+    this.locked = locked;
+    this.mappings = mappings;
+  }
+
+  public static Smaps from(CompositeData compositeData) {
+    CompositeData[] mappingsData = (CompositeData[]) compositeData.get("mappings");
+    List<SmapsMapping> mappings = new ArrayList<>(mappingsData.length);
+    for (CompositeData mappingData : mappingsData) {
+      mappings.add(SmapsMapping.from(mappingData));
+    }
+    return new Smaps(
+            (Long) compositeData.get("size"),
+            (Long) compositeData.get("residentSet"),
+            (Long) compositeData.get("proportionalSet"),
+            (Long) compositeData.get("shared"),
+            (Long) compositeData.get("private"),
+            (Long) compositeData.get("swapped"),
+            (Long) compositeData.get("anonymousHugePages"),
+            (Long) compositeData.get("locked"),
+            mappings);
+  }
+
+  @Units("bytes")
+  public long getSize() {
+    return this.size;
+  }
+
+  @Units("bytes")
+  public long getResidentSet() {
+    return this.residentSet;
+  }
+
+  @Units("bytes")
+  public long getProportionalSet() {
+    return this.proportionalSet;
+  }
+
+  @Units("bytes")
+  public long getShared() {
+    return this.shared;
+  }
+
+  @Units("bytes")
+  public long getPrivate() {
+    return this._private;
+  }
+
+  @Units("bytes")
+  public long getSwapped() {
+    return this.swapped;
+  }
+
+  @Units("bytes")
+  public long getAnonymousHugePages() {
+    return this.anonymousHugePages;
+  }
+
+  @Units("bytes")
+  public long getLocked() {
+    return this.locked;
+  }
+
+  public List<SmapsMapping> getMappings() {
+    return Collections.unmodifiableList(this.mappings);
+  }
+
+}
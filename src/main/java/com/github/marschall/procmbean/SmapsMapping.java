@@ -0,0 +1,95 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+public final class SmapsMapping {
+
+  private final String pathname;
+  private final long size;
+  private final long residentSet;
+  private final long proportionalSet;
+  private final long shared;
+  private final long _private;
+  private final long swapped;
+  private final long anonymousHugePages;
+  private final long locked;
+
+  SmapsMapping(
+          String pathname,
+          long size,
+          long residentSet,
+          long proportionalSet,
+          long shared,
+          long prvate,
+          long swapped,
+          long anonymousHugePages,
+          long locked) {
+    this.pathname = pathname;
+    this.size = size;
+    this.residentSet = residentSet;
+    this.proportionalSet = proportionalSet;
+    this.shared = shared;
+    this._private = prvate;
+    this.swapped = swapped;
+    this.anonymousHugePages = anonymousHugePages;
+    this.locked = locked;
+  }
+
+  public static SmapsMapping from(CompositeData compositeData) {
+    return new SmapsMapping(
+            (String) compositeData.get("pathname"),
+            (Long) compositeData.get("size"),
+            (Long) compositeData.get("residentSet"),
+            (Long) compositeData.get("proportionalSet"),
+            (Long) compositeData.get("shared"),
+            (Long) compositeData.get("private"),
+            (Long) compositeData.get("swapped"),
+            (Long) compositeData.get("anonymousHugePages"),
+            (Long) compositeData.get("locked"));
+  }
+
+  public String getPathname() {
+    return this.pathname;
+  }
+
+  @Units("bytes")
+  public long getSize() {
+    return this.size;
+  }
+
+  @Units("bytes")
+  public long getResidentSet() {
+    return this.residentSet;
+  }
+
+  @Units("bytes")
+  public long getProportionalSet() {
+    return this.proportionalSet;
+  }
+
+  @Units("bytes")
+  public long getShared() {
+    return this.shared;
+  }
+
+  @Units("bytes")
+  public long getPrivate() {
+    return this._private;
+  }
+
+  @Units("bytes")
+  public long getSwapped() {
+    return this.swapped;
+  }
+
+  @Units("bytes")
+  public long getAnonymousHugePages() {
+    return this.anonymousHugePages;
+  }
+
+  @Units("bytes")
+  public long getLocked() {
+    return this.locked;
+  }
+
+}
@@ -0,0 +1,109 @@
+package com.github.marschall.procmbean;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Single pass streaming parser for {@code /proc/[pid]/smaps}.
+ *
+ * <p>Every mapping consists of a header line in the format of
+ * {@code /proc/[pid]/maps} followed by {@code key: value} lines. The values
+ * of a mapping are passed to a {@link MappingConsumer} once all its lines
+ * have been read. Neither the whole file nor a {@link String} per line is
+ * held in memory.</p>
+ */
+final class SmapsParser {
+
+  static final int SIZE = 0;
+  static final int RSS = 1;
+  static final int PSS = 2;
+  static final int SHARED_CLEAN = 3;
+  static final int SHARED_DIRTY = 4;
+  static final int PRIVATE_CLEAN = 5;
+  static final int PRIVATE_DIRTY = 6;
+  static final int SWAP = 7;
+  static final int ANON_HUGE_PAGES = 8;
+  static final int LOCKED = 9;
+
+  static final KeyValueParser PARSER = new KeyValueParser(
+          "Size",
+          "Rss",
+          "Pss",
+          "Shared_Clean",
+          "Shared_Dirty",
+          "Private_Clean",
+          "Private_Dirty",
+          "Swap",
+          "AnonHugePages",
+          "Locked");
+
+  private SmapsParser() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Callback for the parsed mappings.
+   */
+  @FunctionalInterface
+  interface MappingConsumer {
+
+    /**
+     * Called once for every mapping.
+     *
+     * @param header the parsed header line, only valid during the call
+     * @param values the parsed values indexed by the constants in
+     *               {@link SmapsParser}, only valid during the call
+     */
+    void accept(MapsLineParser header, long[] values);
+
+  }
+
+  /**
+   * Parses a smaps file.
+   *
+   * @param reader the reader to read from
+   * @param consumer the callback for every mapping
+   * @throws IOException if the file can not be read
+   */
+  static void parse(LineReader reader, MappingConsumer consumer) throws IOException {
+    MapsLineParser header = new MapsLineParser();
+    long[] values = new long[PARSER.size()];
+    boolean inMapping = false;
+    while (reader.nextLine()) {
+      byte[] buffer = reader.buffer();
+      int lineStart = reader.lineStart();
+      int lineEnd = reader.lineEnd();
+      if (isHeader(buffer, lineStart, lineEnd)) {
+        if (inMapping) {
+          consumer.accept(header, values);
+        }
+        header.parse(buffer, lineStart, lineEnd);
+        Arrays.fill(values, 0L);
+        inMapping = true;
+      } else {
+        PARSER.parseLine(buffer, lineStart, lineEnd, values);
+      }
+    }
+    if (inMapping) {
+      consumer.accept(header, values);
+    }
+  }
+
+  /**
+   * Value lines start with a {@code key:} token, header lines with an
+   * address range followed by a space.
+   */
+  static boolean isHeader(byte[] buffer, int lineStart, int lineEnd) {
+    for (int i = lineStart; i < lineEnd; i++) {
+      byte b = buffer[i];
+      if (b == ':') {
+        return false;
+      }
+      if ((b == ' ') || (b == '\t')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,92 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+public final class SmapsRollup {
+
+  private final String source;
+  private final long residentSet;
+  private final long proportionalSet;
+  private final long shared;
+  private final long _private;
+  private final long swapped;
+  private final long anonymousHugePages;
+  private final long locked;
+
+  SmapsRollup(
+          String source,
+          long residentSet,
+          long proportionalSet,
+          long shared,
+          long prvate,
+          long swapped,
+          long anonymousHugePages,
+          long locked) {
+    this.source = source;
+    this.residentSet = residentSet;
+    this.proportionalSet = proportionalSet;
+    this.shared = shared;
+    this._private = prvate;
+    this.swapped = swapped;
+    this.anonymousHugePages = anonymousHugePages;
+    this.locked = locked;
+  }
+
+  public static SmapsRollup from(CompositeData compositeData) {
+    return new SmapsRollup(
+            (String) compositeData.get("source"),
+            (Long) compositeData.get("residentSet"),
+            (Long) compositeData.get("proportionalSet"),
+            (Long) compositeData.get("shared"),
+            (Long) compositeData.get("private"),
+            (Long) compositeData.get("swapped"),
+            (Long) compositeData.get("anonymousHugePages"),
+            (Long) compositeData.get("locked"));
+  }
+
+  /**
+   * The file the values were read from, either {@code "smaps_rollup"}
+   * or {@code "smaps"} on kernels older than 4.14.
+   *
+   * @return the file the values were read from
+   */
+  public String getSource() {
+    return this.source;
+  }
+
+  @Units("bytes")
+  public long getResidentSet() {
+    return this.residentSet;
+  }
+
+  @Units("bytes")
+  public long getProportionalSet() {
+    return this.proportionalSet;
+  }
+
+  @Units("bytes")
+  public long getShared() {
+    return this.shared;
+  }
+
+  @Units("bytes")
+  public long getPrivate() {
+    return this._private;
+  }
+
+  @Units("bytes")
+  public long getSwapped() {
+    return this.swapped;
+  }
+
+  @Units("bytes")
+  public long getAnonymousHugePages() {
+    return this.anonymousHugePages;
+  }
+
+  @Units("bytes")
+  public long getLocked() {
+    return this.locked;
+  }
+
+}
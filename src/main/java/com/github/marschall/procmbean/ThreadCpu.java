@@ -0,0 +1,117 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The CPU time used by a single native thread.
+ */
+public final class ThreadCpu {
+
+  private final int tid;
+  private final String name;
+  private final String javaName;
+  private final char state;
+  private final long userTime;
+  private final long kernelTime;
+  private final long cpuTimeDelta;
+  private final double cpuUtilization;
+
+  ThreadCpu(
+          int tid,
+          String name,
+          String javaName,
+          char state,
+          long userTime,
+          long kernelTime,
+          long cpuTimeDelta,
+          double cpuUtilization) {
+    this.tid = tid;
+    this.name = name;
+    this.javaName = javaName;
+    this.state = state;
+    this.userTime = userTime;
+    this.kernelTime = kernelTime;
+    this.cpuTimeDelta = cpuTimeDelta;
+    this.cpuUtilization = cpuUtilization;
+  }
+
+  public static ThreadCpu from(CompositeData compositeData) {
+    return new ThreadCpu(
+            (Integer) compositeData.get("tid"),
+            (String) compositeData.get("name"),
+            (String) compositeData.get("javaName"),
+            (Character) compositeData.get("state"),
+            (Long) compositeData.get("userTime"),
+            (Long) compositeData.get("kernelTime"),
+            (Long) compositeData.get("cpuTimeDelta"),
+            (Double) compositeData.get("cpuUtilization"));
+  }
+
+  /**
+   * The native thread id, the same as the {@code nid} in a thread dump.
+   *
+   * @return the native thread id
+   */
+  public int getTid() {
+    return this.tid;
+  }
+
+  /**
+   * The name of the thread as seen by the kernel, truncated to 15 bytes.
+   *
+   * @return the native name of the thread
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * The name of the Java thread whose native name matches the native name
+   * of this thread.
+   *
+   * <p>Java 9 and later set the native name of a Java thread to its
+   * name truncated to 15 bytes. The Java name is only reported if a single
+   * live Java thread matches.</p>
+   *
+   * @return the name of the Java thread, {@code null} if unknown
+   */
+  public String getJavaName() {
+    return this.javaName;
+  }
+
+  public char getState() {
+    return this.state;
+  }
+
+  @Units("clock ticks")
+  public long getUserTime() {
+    return this.userTime;
+  }
+
+  @Units("clock ticks")
+  public long getKernelTime() {
+    return this.kernelTime;
+  }
+
+  /**
+   * The user and kernel time used since the previous scan.
+   *
+   * @return the CPU time used since the previous scan, 0 on the first scan
+   */
+  @Units("clock ticks")
+  public long getCpuTimeDelta() {
+    return this.cpuTimeDelta;
+  }
+
+  /**
+   * The CPU time used since the previous scan relative to the elapsed
+   * time, {@code 100} means the thread kept one CPU busy.
+   *
+   * @return the CPU utilization since the previous scan
+   */
+  @Units("percent")
+  public double getCpuUtilization() {
+    return this.cpuUtilization;
+  }
+
+}
@@ -0,0 +1,643 @@
+package com.github.marschall.procmbean;
+
+import static com.github.marschall.procmbean.RateCalculator.CLOCK_TICKS_PER_SECOND;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Reports the CPU time used by the individual threads of the current
+ * process from {@code /proc/self/task/[tid]/stat} and the time they
+ * waited for a CPU from {@code /proc/self/task/[tid]/schedstat}.
+ *
+ * <p>Every call to {@link #busiestThreads(int)} scans all threads and
+ * computes the CPU time used by every thread since the previous scan.
+ * The time spent waiting on a run queue is compared between the samples
+ * of a {@link Sampler}, see {@link #ThreadMonitor(Sampler)}. The files are
+ * read in parallel by a small fixed pool, the calling thread reads one
+ * share itself. Threads that exit during a scan are ignored.</p>
+ *
+ * <p>{@code /proc/self/schedstat} only covers the main thread, the run
+ * queue delay of the process is therefore the sum over all threads.</p>
+ */
+public class ThreadMonitor implements ThreadMonitorMXBean, Closeable {
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=Threads";
+
+  /**
+   * Splitting fewer threads than this between readers costs more in
+   * coordination than is saved.
+   */
+  private static final int MIN_TASKS_PER_READER = 64;
+
+  /**
+   * The maximum length of a thread name in bytes excluding the terminator.
+   */
+  private static final int TASK_COMM_LEN = 15;
+
+  private final Path taskDirectory;
+  private final int parallelism;
+  private final ExecutorService executor;
+
+  private final SampleSubscription schedules;
+
+  private TaskScan previous;
+  // guarded by this, only written on sampler ticks
+  private ScheduleScan previousSchedule;
+  private volatile ScheduleInterval lastSchedule;
+  private volatile int threadCount;
+  private volatile long lastScanDuration;
+  private volatile double runQueueDelay;
+
+  /**
+   * Constructs a new monitor for the current process using up to four
+   * threads for reading.
+   */
+  public ThreadMonitor() {
+    this(Math.min(4, Runtime.getRuntime().availableProcessors()));
+  }
+
+  /**
+   * Constructs a new monitor for the current process.
+   *
+   * @param parallelism the number of threads reading in parallel
+   *                    including the calling thread
+   */
+  public ThreadMonitor(int parallelism) {
+    this(Paths.get("/proc/self/task"), parallelism, null);
+  }
+
+  /**
+   * Constructs a new monitor for the current process using up to four
+   * threads for reading that additionally compares the time spent waiting
+   * on a run queue after every sample.
+   *
+   * <p>Every comparison reads {@code schedstat} of every thread which is
+   * more expensive than taking a sample.</p>
+   *
+   * @param sampler the sampler triggering the comparison
+   */
+  public ThreadMonitor(Sampler sampler) {
+    this(Paths.get("/proc/self/task"), Math.min(4, Runtime.getRuntime().availableProcessors()),
+            Objects.requireNonNull(sampler, "sampler"));
+  }
+
+  ThreadMonitor(Path taskDirectory, int parallelism) {
+    this(taskDirectory, parallelism, null);
+  }
+
+  ThreadMonitor(Path taskDirectory, int parallelism, Sampler sampler) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive");
+    }
+    this.taskDirectory = taskDirectory;
+    this.parallelism = parallelism;
+    if (parallelism > 1) {
+      AtomicInteger threadCount = new AtomicInteger();
+      this.executor = Executors.newFixedThreadPool(parallelism - 1, runnable -> {
+        Thread thread = new Thread(runnable, "proc-task-reader-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.executor = null;
+    }
+    this.schedules = new SampleSubscription();
+    if (sampler != null) {
+      this.schedules.subscribe(sampler, sample -> this.sampleSchedules());
+    }
+  }
+
+  @Override
+  public synchronized List<ThreadCpu> busiestThreads(int count) {
+    long start = System.nanoTime();
+    TaskScan current = this.scan();
+    TaskScan last = this.previous;
+    long[] deltas = new long[current.size];
+    for (int i = 0; i < current.size; i++) {
+      if (current.exists(i)) {
+        deltas[i] = last != null ? current.cpuTimeSince(i, last) : 0L;
+      }
+    }
+    int[] busiest = busiest(current, deltas, count);
+    double elapsedSeconds = last != null
+            ? (double) (current.nanoTime - last.nanoTime) / TimeUnit.SECONDS.toNanos(1L)
+            : 0.0d;
+
+    Map<String, String> javaNames = javaThreadNames();
+    List<ThreadCpu> result = new ArrayList<>(busiest.length);
+    for (int index : busiest) {
+      double utilization = elapsedSeconds > 0.0d
+              ? (double) deltas[index] / CLOCK_TICKS_PER_SECOND / elapsedSeconds * 100.0d
+              : 0.0d;
+      result.add(new ThreadCpu(current.tids[index], current.names[index], javaNames.get(current.names[index]),
+              current.states[index], current.userTimes[index], current.kernelTimes[index],
+              deltas[index], utilization));
+    }
+    this.previous = current;
+    this.threadCount = current.count();
+    this.lastScanDuration = System.nanoTime() - start;
+    return result;
+  }
+
+  /**
+   * Selects the indices of the threads with the largest deltas, ties are
+   * broken by the total CPU time so that the first scan reports the
+   * threads that used the most CPU time overall.
+   */
+  static int[] busiest(TaskScan scan, long[] deltas, int count) {
+    long[] totals = new long[scan.size];
+    for (int i = 0; i < scan.size; i++) {
+      totals[i] = scan.cpuTime(i);
+    }
+    return top(scan.size, scan::exists, deltas, totals, count);
+  }
+
+  /**
+   * Selects the indices with the largest deltas, ties are broken by the
+   * totals.
+   */
+  static int[] top(int size, IntPredicate exists, long[] deltas, long[] totals, int count) {
+    int existing = 0;
+    for (int i = 0; i < size; i++) {
+      if (exists.test(i)) {
+        existing += 1;
+      }
+    }
+    int[] top = new int[Math.max(0, Math.min(count, existing))];
+    int found = 0;
+    for (int i = 0; i < size; i++) {
+      if (!exists.test(i)) {
+        continue;
+      }
+      int position = found;
+      while ((position > 0) && isLarger(deltas, totals, i, top[position - 1])) {
+        if (position < top.length) {
+          top[position] = top[position - 1];
+        }
+        position -= 1;
+      }
+      if (position < top.length) {
+        top[position] = i;
+        found = Math.min(found + 1, top.length);
+      }
+    }
+    return top;
+  }
+
+  private static boolean isLarger(long[] deltas, long[] totals, int left, int right) {
+    if (deltas[left] != deltas[right]) {
+      return deltas[left] > deltas[right];
+    }
+    return totals[left] > totals[right];
+  }
+
+  @Override
+  public List<ThreadSchedule> mostDelayedThreads(int count) {
+    ScheduleInterval interval = this.lastSchedule;
+    if (interval == null) {
+      // not sampled (yet), order by the total wait time
+      ScheduleScan scan = this.scanSchedules();
+      interval = new ScheduleInterval(scan, new long[scan.size], 0.0d);
+    }
+    ScheduleScan scan = interval.scan;
+    long[] deltas = interval.deltas;
+    int[] worst = top(scan.size, index -> scan.found[index], deltas, scan.waitTimes, count);
+
+    Map<String, String> javaNames = javaThreadNames();
+    List<ThreadSchedule> result = new ArrayList<>(worst.length);
+    for (int index : worst) {
+      // only the names of the reported threads are read
+      String name = this.readName(scan.tids[index]);
+      double delay = interval.elapsedMillis > 0.0d ? delayPerSecond(deltas[index], interval.elapsedMillis) : 0.0d;
+      result.add(new ThreadSchedule(scan.tids[index], name, name != null ? javaNames.get(name) : null,
+              scan.runTimes[index], scan.waitTimes[index], scan.timeslices[index],
+              deltas[index], delay));
+    }
+    return result;
+  }
+
+  /**
+   * Scans the schedule of all threads and compares it with the previous
+   * sample, called on sampler ticks.
+   */
+  synchronized void sampleSchedules() {
+    long start = System.nanoTime();
+    ScheduleScan current = this.scanSchedules();
+    ScheduleScan last = this.previousSchedule;
+    this.previousSchedule = current;
+    this.threadCount = current.count();
+    if (last != null) {
+      long[] deltas = new long[current.size];
+      long totalDelta = 0L;
+      for (int i = 0; i < current.size; i++) {
+        if (current.found[i]) {
+          deltas[i] = current.waitTimeSince(i, last);
+          totalDelta += deltas[i];
+        }
+      }
+      double elapsedMillis = (double) (current.nanoTime - last.nanoTime) / TimeUnit.MILLISECONDS.toNanos(1L);
+      this.lastSchedule = new ScheduleInterval(current, deltas, elapsedMillis);
+      this.runQueueDelay = elapsedMillis > 0.0d ? delayPerSecond(totalDelta, elapsedMillis) : 0.0d;
+    }
+    this.lastScanDuration = System.nanoTime() - start;
+  }
+
+  private ScheduleScan scanSchedules() {
+    int[] tids = this.listTids();
+    ScheduleScan scan = new ScheduleScan(tids);
+    this.inParallel(tids.length, (from, to) -> this.readSchedules(scan, from, to));
+    scan.nanoTime = System.nanoTime();
+    return scan;
+  }
+
+  /**
+   * Converts a wait time in nanoseconds to milliseconds waited per second.
+   */
+  private static double delayPerSecond(long waitTime, double elapsedMillis) {
+    return (double) waitTime / TimeUnit.MILLISECONDS.toNanos(1L) / elapsedMillis * 1000.0d;
+  }
+
+  private TaskScan scan() {
+    int[] tids = this.listTids();
+    TaskScan scan = new TaskScan(tids);
+    this.inParallel(tids.length, (from, to) -> this.read(scan, from, to));
+    scan.nanoTime = System.nanoTime();
+    return scan;
+  }
+
+  /**
+   * Splits a range of tasks between the reader threads and the calling
+   * thread and waits until all of them are read.
+   */
+  private void inParallel(int size, RangeReader reader) {
+    int readers = Math.min(this.parallelism, Math.max(1, size / MIN_TASKS_PER_READER));
+    if (readers == 1) {
+      reader.read(0, size);
+      return;
+    }
+    int share = (size + readers - 1) / readers;
+    List<Future<?>> futures = new ArrayList<>(readers - 1);
+    for (int i = 1; i < readers; i++) {
+      int from = i * share;
+      int to = Math.min(from + share, size);
+      futures.add(this.executor.submit(() -> reader.read(from, to)));
+    }
+    reader.read(0, share);
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("interrupted while reading tasks", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new IllegalStateException("could not read tasks", cause);
+      }
+    }
+  }
+
+  /**
+   * Reads the tasks in a range of a scan.
+   */
+  @FunctionalInterface
+  interface RangeReader {
+
+    void read(int from, int to);
+
+  }
+
+  private int[] listTids() {
+    int[] tids = new int[64];
+    int count = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.taskDirectory)) {
+      for (Path task : stream) {
+        if (count == tids.length) {
+          tids = Arrays.copyOf(tids, count * 2);
+        }
+        tids[count++] = Integer.parseInt(task.getFileName().toString());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not list tasks in: " + this.taskDirectory, e);
+    }
+    tids = Arrays.copyOf(tids, count);
+    // sorted for looking up the previous scan
+    Arrays.sort(tids);
+    return tids;
+  }
+
+  private void read(TaskScan scan, int from, int to) {
+    ReadBuffer buffer = ReadBuffer.get();
+    for (int i = from; i < to; i++) {
+      Path stat = this.taskDirectory.resolve(Integer.toString(scan.tids[i])).resolve("stat");
+      if (!buffer.readListed(stat)) {
+        // the thread exited since the directory was listed
+        continue;
+      }
+      parseTaskStat(buffer, scan, i);
+    }
+  }
+
+  private void readSchedules(ScheduleScan scan, int from, int to) {
+    ReadBuffer buffer = ReadBuffer.get();
+    for (int i = from; i < to; i++) {
+      Path schedstat = this.taskDirectory.resolve(Integer.toString(scan.tids[i])).resolve("schedstat");
+      if (!buffer.readListed(schedstat)) {
+        // the thread exited since the directory was listed
+        continue;
+      }
+      parseSchedstat(buffer, scan, i);
+    }
+  }
+
+  /**
+   * Parses {@code schedstat}, the time spent on the CPU in nanoseconds,
+   * the time spent waiting on a run queue in nanoseconds and the number of
+   * timeslices run.
+   */
+  static void parseSchedstat(ReadBuffer buffer, ScheduleScan scan, int index) {
+    if (buffer.length() == 0) {
+      // the thread exited while it was read
+      return;
+    }
+    long[] values = buffer.values(3);
+    Ascii.parseFields(buffer.array(), 0, buffer.length(), values, 0);
+    scan.runTimes[index] = values[0];
+    scan.waitTimes[index] = values[1];
+    scan.timeslices[index] = values[2];
+    scan.found[index] = true;
+  }
+
+  private String readName(int tid) {
+    Path comm = this.taskDirectory.resolve(Integer.toString(tid)).resolve("comm");
+    ReadBuffer buffer = ReadBuffer.get();
+    if (!buffer.readListed(comm)) {
+      // the thread exited since it was scanned
+      return null;
+    }
+    int length = buffer.length();
+    if ((length > 0) && (buffer.array()[length - 1] == '\n')) {
+      length -= 1;
+    }
+    return new String(buffer.array(), 0, length, StandardCharsets.UTF_8);
+  }
+
+  static void parseTaskStat(ReadBuffer buffer, TaskScan scan, int index) {
+    byte[] array = buffer.array();
+    int length = buffer.length();
+    int commandStart = 0;
+    while ((commandStart < length) && (array[commandStart] != '(')) {
+      commandStart += 1;
+    }
+    // the command may contain spaces and parentheses, it ends at the last ')'
+    int commandEnd = length - 1;
+    while ((commandEnd > commandStart) && (array[commandEnd] != ')')) {
+      commandEnd -= 1;
+    }
+    if ((commandEnd + 4) > length) {
+      // empty file, the thread exited while it was read
+      return;
+    }
+    long[] values = buffer.values(15);
+    Ascii.parseFields(array, commandEnd + 4, length, values, 3);
+    scan.names[index] = new String(array, commandStart + 1, commandEnd - commandStart - 1, StandardCharsets.UTF_8);
+    scan.states[index] = (char) array[commandEnd + 2];
+    scan.userTimes[index] = values[13];
+    scan.kernelTimes[index] = values[14];
+  }
+
+  /**
+   * Maps the native names of the live Java threads to their Java names,
+   * names that match more than one Java thread map to {@code null}.
+   */
+  static Map<String, String> javaThreadNames() {
+    ThreadGroup root = Thread.currentThread().getThreadGroup();
+    while (root.getParent() != null) {
+      root = root.getParent();
+    }
+    Thread[] threads = new Thread[root.activeCount() * 2 + 16];
+    int count = root.enumerate(threads, true);
+    Map<String, String> javaNames = new HashMap<>(count * 2);
+    for (int i = 0; i < count; i++) {
+      String javaName = threads[i].getName();
+      String nativeName = nativeName(javaName);
+      if (javaNames.containsKey(nativeName)) {
+        javaNames.put(nativeName, null);
+      } else {
+        javaNames.put(nativeName, javaName);
+      }
+    }
+    return javaNames;
+  }
+
+  /**
+   * Truncates a thread name to the length the kernel stores.
+   */
+  static String nativeName(String javaName) {
+    int bytes = 0;
+    for (int i = 0; i < javaName.length(); i++) {
+      char c = javaName.charAt(i);
+      int length = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isSurrogate(c) ? 2 : 3;
+      if ((bytes + length) > TASK_COMM_LEN) {
+        return javaName.substring(0, i);
+      }
+      bytes += length;
+    }
+    return javaName;
+  }
+
+  @Override
+  public int getThreadCount() {
+    return this.threadCount;
+  }
+
+  @Override
+  public long getLastScanDuration() {
+    return this.lastScanDuration;
+  }
+
+  @Override
+  public double getRunQueueDelay() {
+    return this.runQueueDelay;
+  }
+
+  @Override
+  public int getParallelism() {
+    return this.parallelism;
+  }
+
+  /**
+   * Stops the reader threads.
+   */
+  @Override
+  public void close() {
+    this.schedules.cancel();
+    if (this.executor != null) {
+      this.executor.shutdown();
+    }
+  }
+
+  public static void install(ThreadMonitor mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.registerMBean(mxBean, mxBeanName);
+  }
+
+  public static void uninstall() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.unregisterMBean(mxBeanName);
+  }
+
+  /**
+   * The values of all threads found by a scan in parallel arrays sorted
+   * by tid. Readers write disjoint ranges.
+   */
+  static final class TaskScan {
+
+    final int[] tids;
+    final String[] names;
+    final char[] states;
+    final long[] userTimes;
+    final long[] kernelTimes;
+    final int size;
+    long nanoTime;
+
+    TaskScan(int[] tids) {
+      this.tids = tids;
+      this.size = tids.length;
+      this.names = new String[this.size];
+      this.states = new char[this.size];
+      this.userTimes = new long[this.size];
+      this.kernelTimes = new long[this.size];
+    }
+
+    /**
+     * Whether the thread at an index was read, threads that exited
+     * during the scan were not.
+     */
+    boolean exists(int index) {
+      return this.names[index] != null;
+    }
+
+    int count() {
+      int count = 0;
+      for (int i = 0; i < this.size; i++) {
+        if (this.exists(i)) {
+          count += 1;
+        }
+      }
+      return count;
+    }
+
+    long cpuTime(int index) {
+      return this.userTimes[index] + this.kernelTimes[index];
+    }
+
+    /**
+     * The CPU time used by a thread since a previous scan, threads not in
+     * the previous scan started since and used all their CPU time since.
+     */
+    long cpuTimeSince(int index, TaskScan previous) {
+      int previousIndex = Arrays.binarySearch(previous.tids, this.tids[index]);
+      if ((previousIndex < 0) || !previous.exists(previousIndex)) {
+        return this.cpuTime(index);
+      }
+      return RateCalculator.delta(this.cpuTime(index), previous.cpuTime(previousIndex));
+    }
+
+  }
+
+  /**
+   * The scheduler statistics of a sample together with the wait time of
+   * every thread since the previous sample. Immutable once published.
+   */
+  static final class ScheduleInterval {
+
+    final ScheduleScan scan;
+    final long[] deltas;
+    final double elapsedMillis;
+
+    ScheduleInterval(ScheduleScan scan, long[] deltas, double elapsedMillis) {
+      this.scan = scan;
+      this.deltas = deltas;
+      this.elapsedMillis = elapsedMillis;
+    }
+
+  }
+
+  /**
+   * The scheduler statistics of all threads found by a scan in parallel
+   * arrays sorted by tid. Readers write disjoint ranges.
+   */
+  static final class ScheduleScan {
+
+    final int[] tids;
+    final boolean[] found;
+    final long[] runTimes;
+    final long[] waitTimes;
+    final long[] timeslices;
+    final int size;
+    long nanoTime;
+
+    ScheduleScan(int[] tids) {
+      this.tids = tids;
+      this.size = tids.length;
+      this.found = new boolean[this.size];
+      this.runTimes = new long[this.size];
+      this.waitTimes = new long[this.size];
+      this.timeslices = new long[this.size];
+    }
+
+    int count() {
+      int count = 0;
+      for (int i = 0; i < this.size; i++) {
+        if (this.found[i]) {
+          count += 1;
+        }
+      }
+      return count;
+    }
+
+    /**
+     * The time a thread waited on a run queue since a previous scan,
+     * threads not in the previous scan started since.
+     */
+    long waitTimeSince(int index, ScheduleScan previous) {
+      int previousIndex = Arrays.binarySearch(previous.tids, this.tids[index]);
+      if ((previousIndex < 0) || !previous.found[previousIndex]) {
+        return this.waitTimes[index];
+      }
+      return RateCalculator.delta(this.waitTimes[index], previous.waitTimes[previousIndex]);
+    }
+
+  }
+
+}
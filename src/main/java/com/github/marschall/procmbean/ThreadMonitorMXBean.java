@@ -0,0 +1,54 @@
+package com.github.marschall.procmbean;
+
+import java.util.List;
+
+public interface ThreadMonitorMXBean {
+
+  /**
+   * Scans all threads of the process and returns the threads that used the
+   * most CPU time since the previous scan.
+   *
+   * @param count the maximum number of threads to return
+   * @return the busiest threads, busiest first
+   */
+  List<ThreadCpu> busiestThreads(int count);
+
+  /**
+   * Returns the threads that waited the longest for a CPU between the last
+   * two samples. Without a sampler the threads that waited the longest in
+   * total are returned.
+   *
+   * @param count the maximum number of threads to return
+   * @return the most delayed threads, most delayed first
+   * @see ThreadMonitor#ThreadMonitor(Sampler)
+   */
+  List<ThreadSchedule> mostDelayedThreads(int count);
+
+  /**
+   * The time all threads of the process together waited for a CPU per
+   * second between the last two samples.
+   *
+   * @return the run queue delay of the process, 0 without a sampler
+   * @see ThreadMonitor#ThreadMonitor(Sampler)
+   */
+  @Units("milliseconds per second")
+  double getRunQueueDelay();
+
+  /**
+   * The number of threads found by the last scan.
+   *
+   * @return the number of threads found by the last scan
+   */
+  int getThreadCount();
+
+  @Units("nanoseconds")
+  long getLastScanDuration();
+
+  /**
+   * The number of threads reading the task directories in parallel.
+   *
+   * @return the number of reader threads
+   */
+  int getParallelism();
+
+}
@@ -0,0 +1,131 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The scheduler statistics of a single native thread from
+ * {@code /proc/self/task/[tid]/schedstat}.
+ */
+public final class ThreadSchedule {
+
+  private final int tid;
+  private final String name;
+  private final String javaName;
+  private final long runTime;
+  private final long waitTime;
+  private final long timeslices;
+  private final long waitTimeDelta;
+  private final double runQueueDelay;
+
+  ThreadSchedule(
+          int tid,
+          String name,
+          String javaName,
+          long runTime,
+          long waitTime,
+          long timeslices,
+          long waitTimeDelta,
+          double runQueueDelay) {
+    this.tid = tid;
+    this.name = name;
+    this.javaName = javaName;
+    this.runTime = runTime;
+    this.waitTime = waitTime;
+    this.timeslices = timeslices;
+    this.waitTimeDelta = waitTimeDelta;
+    this.runQueueDelay = runQueueDelay;
+  }
+
+  public static ThreadSchedule from(CompositeData compositeData) {
+    return new ThreadSchedule(
+            (Integer) compositeData.get("tid"),
+            (String) compositeData.get("name"),
+            (String) compositeData.get("javaName"),
+            (Long) compositeData.get("runTime"),
+            (Long) compositeData.get("waitTime"),
+            (Long) compositeData.get("timeslices"),
+            (Long) compositeData.get("waitTimeDelta"),
+            (Double) compositeData.get("runQueueDelay"));
+  }
+
+  /**
+   * The native thread id, the same as the {@code nid} in a thread dump.
+   *
+   * @return the native thread id
+   */
+  public int getTid() {
+    return this.tid;
+  }
+
+  /**
+   * The name of the thread as seen by the kernel, truncated to 15 bytes.
+   *
+   * @return the native name of the thread, {@code null} if the thread
+   *         exited during the scan
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * The name of the Java thread whose native name matches the native name
+   * of this thread.
+   *
+   * @return the name of the Java thread, {@code null} if unknown
+   * @see ThreadCpu#getJavaName()
+   */
+  public String getJavaName() {
+    return this.javaName;
+  }
+
+  /**
+   * The time spent on a CPU.
+   *
+   * @return the time spent on a CPU
+   */
+  @Units("nanoseconds")
+  public long getRunTime() {
+    return this.runTime;
+  }
+
+  /**
+   * The time spent runnable waiting on a run queue.
+   *
+   * @return the time spent waiting for a CPU
+   */
+  @Units("nanoseconds")
+  public long getWaitTime() {
+    return this.waitTime;
+  }
+
+  /**
+   * The number of timeslices run on a CPU.
+   *
+   * @return the number of timeslices
+   */
+  public long getTimeslices() {
+    return this.timeslices;
+  }
+
+  /**
+   * The time spent waiting for a CPU since the previous scan.
+   *
+   * @return the time spent waiting since the previous scan, 0 on the first
+   *         scan
+   */
+  @Units("nanoseconds")
+  public long getWaitTimeDelta() {
+    return this.waitTimeDelta;
+  }
+
+  /**
+   * The time spent waiting for a CPU per second since the previous scan.
+   *
+   * @return the run queue delay of this thread
+   */
+  @Units("milliseconds per second")
+  public double getRunQueueDelay() {
+    return this.runQueueDelay;
+  }
+
+}
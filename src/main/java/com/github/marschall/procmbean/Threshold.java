@@ -0,0 +1,80 @@
+package com.github.marschall.procmbean;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * A high and a low watermark on a sampled metric and its current state.
+ */
+public final class Threshold {
+
+  private final String metric;
+  private final long high;
+  private final long low;
+  private final boolean exceeded;
+  private final long value;
+
+  Threshold(String metric, long high, long low, boolean exceeded, long value) {
+    this.metric = metric;
+    this.high = high;
+    this.low = low;
+    this.exceeded = exceeded;
+    this.value = value;
+  }
+
+  public static Threshold from(CompositeData compositeData) {
+    return new Threshold(
+            (String) compositeData.get("metric"),
+            (Long) compositeData.get("high"),
+            (Long) compositeData.get("low"),
+            (Boolean) compositeData.get("exceeded"),
+            (Long) compositeData.get("value"));
+  }
+
+  /**
+   * The name of the metric, eg. {@code Status.residentSet}.
+   *
+   * @return the name of the metric
+   * @see SamplerMXBean#getMetrics()
+   */
+  public String getMetric() {
+    return this.metric;
+  }
+
+  /**
+   * The value at or above which the threshold is exceeded.
+   *
+   * @return the high watermark
+   */
+  public long getHigh() {
+    return this.high;
+  }
+
+  /**
+   * The value at or below which an exceeded threshold is cleared again.
+   *
+   * @return the low watermark
+   */
+  public long getLow() {
+    return this.low;
+  }
+
+  /**
+   * Whether the high watermark has been reached and the value has not
+   * dropped to the low watermark since.
+   *
+   * @return whether the threshold is exceeded
+   */
+  public boolean isExceeded() {
+    return this.exceeded;
+  }
+
+  /**
+   * The value of the metric in the last sample.
+   *
+   * @return the last value, 0 if no sample has been taken yet
+   */
+  public long getValue() {
+    return this.value;
+  }
+
+}
@@ -0,0 +1,199 @@
+package com.github.marschall.procmbean;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanServer;
+import javax.management.Notification;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.ObjectName;
+
+/**
+ * Checks high and low watermarks on the metrics of every sample taken by
+ * a {@link Sampler}.
+ *
+ * <p>A {@link #THRESHOLD_EXCEEDED} notification is sent when a value
+ * reaches the high watermark. Only once the value dropped to the low
+ * watermark a {@link #THRESHOLD_CLEARED} notification is sent and the
+ * threshold can be exceeded again. The gap between the watermarks keeps a
+ * value oscillating around a single limit from flooding the listeners.
+ * The user data of both notifications is the value of the metric as a
+ * {@link Long}.</p>
+ *
+ * <p>The thresholds are checked on the sampler thread, listeners
+ * registered directly with this object are called on the sampler thread
+ * right after the sample was taken. Such listeners should return quickly
+ * as they delay the next sample.</p>
+ *
+ * <p>The values of counters are compared as they are, not as rates.</p>
+ */
+public class ThresholdMonitor extends NotificationBroadcasterSupport implements ThresholdMonitorMXBean {
+
+  /**
+   * The type of the notification sent when a value reaches the high
+   * watermark.
+   */
+  public static final String THRESHOLD_EXCEEDED = "com.github.marschall.procmbean.threshold.exceeded";
+
+  /**
+   * The type of the notification sent when a value drops to the low
+   * watermark after it exceeded the high watermark.
+   */
+  public static final String THRESHOLD_CLEARED = "com.github.marschall.procmbean.threshold.cleared";
+
+  private static final String OBJECT_NAME = "com.github.marschall.procmbean:type=ThresholdMonitor";
+
+  private static final Watermark[] NO_WATERMARKS = new Watermark[0];
+
+  private final AtomicLong sequenceNumber;
+
+  // copy on write, sorted by metric
+  private volatile Watermark[] watermarks;
+  private volatile long exceededCount;
+
+  /**
+   * Constructs a new {@link ThresholdMonitor} that checks the thresholds
+   * after every sample.
+   *
+   * @param sampler the sampler taking the samples
+   */
+  public ThresholdMonitor(Sampler sampler) {
+    this();
+    Objects.requireNonNull(sampler, "sampler");
+    sampler.addListener(this::onSample);
+  }
+
+  ThresholdMonitor() {
+    super(new MBeanNotificationInfo(
+            new String[] {THRESHOLD_EXCEEDED, THRESHOLD_CLEARED},
+            Notification.class.getName(),
+            "sent when a metric reaches its high or low watermark"));
+    this.sequenceNumber = new AtomicLong();
+    this.watermarks = NO_WATERMARKS;
+  }
+
+  void onSample(Sample sample) {
+    for (Watermark watermark : this.watermarks) {
+      long value = watermark.metric.get(sample);
+      watermark.value = value;
+      if (!watermark.exceeded) {
+        if (value >= watermark.high) {
+          watermark.exceeded = true;
+          this.exceededCount += 1;
+          this.sendThresholdNotification(THRESHOLD_EXCEEDED, sample, watermark, value,
+                  " reached high watermark " + watermark.high);
+        }
+      } else if (value <= watermark.low) {
+        watermark.exceeded = false;
+        this.sendThresholdNotification(THRESHOLD_CLEARED, sample, watermark, value,
+                " dropped to low watermark " + watermark.low);
+      }
+    }
+  }
+
+  private void sendThresholdNotification(String type, Sample sample, Watermark watermark, long value, String message) {
+    Notification notification = new Notification(type, this, this.sequenceNumber.incrementAndGet(), sample.timestamp,
+            watermark.metric.getAttributeName() + ' ' + value + message);
+    notification.setUserData(value);
+    this.sendNotification(notification);
+  }
+
+  @Override
+  public List<Threshold> getThresholds() {
+    Watermark[] current = this.watermarks;
+    List<Threshold> thresholds = new ArrayList<>(current.length);
+    for (Watermark watermark : current) {
+      thresholds.add(new Threshold(watermark.metric.getAttributeName(), watermark.high, watermark.low,
+              watermark.exceeded, watermark.value));
+    }
+    return thresholds;
+  }
+
+  @Override
+  public synchronized void setThreshold(String metric, long high, long low) {
+    if (low > high) {
+      throw new IllegalArgumentException("low watermark must not be larger than high watermark");
+    }
+    Watermark watermark = new Watermark(Metric.forAttributeName(metric), high, low);
+    Watermark[] current = this.watermarks;
+    int index = this.indexOf(watermark.metric);
+    Watermark[] updated;
+    if (index >= 0) {
+      updated = current.clone();
+    } else {
+      updated = Arrays.copyOf(current, current.length + 1);
+      index = current.length;
+    }
+    updated[index] = watermark;
+    Arrays.sort(updated, (a, b) -> a.metric.compareTo(b.metric));
+    this.watermarks = updated;
+  }
+
+  @Override
+  public synchronized boolean removeThreshold(String metric) {
+    int index = this.indexOf(Metric.forAttributeName(metric));
+    if (index < 0) {
+      return false;
+    }
+    Watermark[] current = this.watermarks;
+    Watermark[] updated = new Watermark[current.length - 1];
+    System.arraycopy(current, 0, updated, 0, index);
+    System.arraycopy(current, index + 1, updated, index, updated.length - index);
+    this.watermarks = updated;
+    return true;
+  }
+
+  private int indexOf(Metric metric) {
+    Watermark[] current = this.watermarks;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i].metric == metric) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public long getExceededCount() {
+    return this.exceededCount;
+  }
+
+  public static void install(ThresholdMonitor mxBean) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.registerMBean(mxBean, mxBeanName);
+  }
+
+  public static void uninstall() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName mxBeanName = new ObjectName(OBJECT_NAME);
+    server.unregisterMBean(mxBeanName);
+  }
+
+  /**
+   * The watermarks of a metric, the state is only written by the sampler
+   * thread.
+   */
+  static final class Watermark {
+
+    final Metric metric;
+    final long high;
+    final long low;
+    volatile boolean exceeded;
+    volatile long value;
+
+    Watermark(Metric metric, long high, long low) {
+      this.metric = metric;
+      this.high = high;
+      this.low = low;
+    }
+
+  }
+
+}
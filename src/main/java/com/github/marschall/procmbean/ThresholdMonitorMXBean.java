@@ -0,0 +1,41 @@
+package com.github.marschall.procmbean;
+
+import java.util.List;
+
+public interface ThresholdMonitorMXBean {
+
+  /**
+   * All configured thresholds with their current state.
+   *
+   * @return the thresholds in the order of {@link SamplerMXBean#getMetrics()}
+   */
+  List<Threshold> getThresholds();
+
+  /**
+   * Adds or replaces the threshold of a metric.
+   *
+   * <p>A notification is sent when the value reaches {@code high}, no
+   * further notification is sent until the value dropped to {@code low}.</p>
+   *
+   * @param metric the name of the metric, eg. {@code Status.residentSet}
+   * @param high the high watermark
+   * @param low the low watermark, must not be larger than {@code high}
+   */
+  void setThreshold(String metric, long high, long low);
+
+  /**
+   * Removes the threshold of a metric.
+   *
+   * @param metric the name of the metric
+   * @return whether there was a threshold for the metric
+   */
+  boolean removeThreshold(String metric);
+
+  /**
+   * The number of times any threshold was exceeded.
+   *
+   * @return the number of exceeded notifications sent
+   */
+  long getExceededCount();
+
+}
@@ -0,0 +1,96 @@
+package com.github.marschall.procmbean;
+
+/**
+ * Keeps the indices of the {@code n} largest keys seen so far in a
+ * bounded min-heap.
+ *
+ * <p>Offering an index is O(log n) and does not allocate. Instances are
+ * not thread safe.</p>
+ */
+final class TopN {
+
+  private final long[] keys;
+  private final int[] heap;
+  private int size;
+
+  /**
+   * Constructs a new heap.
+   *
+   * @param capacity the maximum number of indices kept
+   * @param keys the keys the offered indices refer to
+   */
+  TopN(int capacity, long[] keys) {
+    this.keys = keys;
+    this.heap = new int[Math.max(0, capacity)];
+  }
+
+  /**
+   * Offers an index, it is kept if its key is among the largest keys
+   * offered so far.
+   *
+   * @param index the index into the keys
+   */
+  void offer(int index) {
+    if (this.size < this.heap.length) {
+      this.heap[this.size] = index;
+      this.siftUp(this.size);
+      this.size += 1;
+    } else if ((this.size > 0) && (this.keys[index] > this.keys[this.heap[0]])) {
+      this.heap[0] = index;
+      this.siftDown(0);
+    }
+  }
+
+  private void siftUp(int position) {
+    int index = this.heap[position];
+    int current = position;
+    while (current > 0) {
+      int parent = (current - 1) >>> 1;
+      if (this.keys[this.heap[parent]] <= this.keys[index]) {
+        break;
+      }
+      this.heap[current] = this.heap[parent];
+      current = parent;
+    }
+    this.heap[current] = index;
+  }
+
+  private void siftDown(int position) {
+    int index = this.heap[position];
+    int current = position;
+    int half = this.size >>> 1;
+    while (current < half) {
+      int child = (current << 1) + 1;
+      int right = child + 1;
+      if ((right < this.size) && (this.keys[this.heap[right]] < this.keys[this.heap[child]])) {
+        child = right;
+      }
+      if (this.keys[index] <= this.keys[this.heap[child]]) {
+        break;
+      }
+      this.heap[current] = this.heap[child];
+      current = child;
+    }
+    this.heap[current] = index;
+  }
+
+  /**
+   * Returns the kept indices, the index with the largest key first.
+   * The heap is empty afterwards.
+   *
+   * @return the kept indices
+   */
+  int[] drain() {
+    int[] sorted = new int[this.size];
+    for (int i = sorted.length - 1; i >= 0; i--) {
+      sorted[i] = this.heap[0];
+      this.size -= 1;
+      if (this.size > 0) {
+        this.heap[0] = this.heap[this.size];
+        this.siftDown(0);
+      }
+    }
+    return sorted;
+  }
+
+}
@@ -3,6 +3,8 @@ module com.github.marschall.procmbean {
   requires transitive java.management;
   // for Unsafe.
   requires static jdk.unsupported;
+  // for PrometheusExporter.
+  requires static jdk.httpserver;
 
   exports com.github.marschall.procmbean;
 
@@ -0,0 +1,149 @@
+package com.github.marschall.procmbean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
+
+import org.junit.jupiter.api.Test;
+
+class CachingProcTest {
+
+  private static ProcessStat stat(int pid) {
+    return new ProcessStat(pid, 'S', 0L, 0L, 0L, 0L, 1, 0L, 0L, 0L, 0L, 0L, 0L);
+  }
+
+  @Test
+  void hitsAndMisses() {
+    AtomicInteger reads = new AtomicInteger();
+    Proc proc = new Proc() {
+
+      @Override
+      public ProcessStat getStat() {
+        return stat(reads.incrementAndGet());
+      }
+
+    };
+    CachingProc cache = new CachingProc(proc, TimeUnit.HOURS.toMillis(1L));
+    ProcessStat first = cache.getStat();
+    assertSame(first, cache.getStat());
+    assertEquals(1, reads.get());
+    assertEquals(1L, cache.getCacheMisses());
+    assertEquals(1L, cache.getCacheHits());
+
+    cache.setMaxAge(0L);
+    assertEquals(2, cache.getStat().getPid());
+    assertEquals(2L, cache.getCacheMisses());
+  }
+
+  @Test
+  void forwardNotifications() {
+    List<NotificationListener> delegateListeners = new ArrayList<>();
+    Proc proc = new Proc() {
+
+      @Override
+      public void addNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) {
+        delegateListeners.add(listener);
+        super.addNotificationListener(listener, filter, handback);
+      }
+
+    };
+    CachingProc cache = new CachingProc(proc, TimeUnit.HOURS.toMillis(1L));
+    List<Notification> forwarded = new ArrayList<>();
+    cache.addNotificationListener((notification, handback) -> forwarded.add(notification), null, null);
+
+    Notification notification = new Notification(Proc.MAPPING_GROWTH, proc, 7L, 1234L, "grown");
+    notification.setUserData("data");
+    delegateListeners.get(0).handleNotification(notification, null);
+
+    assertSame(proc, notification.getSource());
+    assertEquals(1, forwarded.size());
+    Notification copy = forwarded.get(0);
+    assertNotSame(notification, copy);
+    assertSame(cache, copy.getSource());
+    assertEquals(Proc.MAPPING_GROWTH, copy.getType());
+    assertEquals(7L, copy.getSequenceNumber());
+    assertEquals(1234L, copy.getTimeStamp());
+    assertEquals("grown", copy.getMessage());
+    assertEquals("data", copy.getUserData());
+
+    cache.close();
+    // the forwarding listener is no longer registered
+    assertThrows(ListenerNotFoundException.class, () -> proc.removeNotificationListener(delegateListeners.get(0)));
+  }
+
+  @Test
+  void failedReadIsNotCached() {
+    AtomicInteger reads = new AtomicInteger();
+    Proc proc = new Proc() {
+
+      @Override
+      public ProcessStat getStat() {
+        if (reads.incrementAndGet() == 1) {
+          throw new UncheckedIOException(new IOException("failed"));
+        }
+        return stat(reads.get());
+      }
+
+    };
+    CachingProc cache = new CachingProc(proc, TimeUnit.HOURS.toMillis(1L));
+    assertThrows(UncheckedIOException.class, cache::getStat);
+    assertEquals(2, cache.getStat().getPid());
+  }
+
+  @Test
+  void coalescing() throws InterruptedException, ExecutionException {
+    CountDownLatch reading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger reads = new AtomicInteger();
+    Proc proc = new Proc() {
+
+      @Override
+      public ProcessStat getStat() {
+        reading.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return stat(reads.incrementAndGet());
+      }
+
+    };
+    CachingProc cache = new CachingProc(proc, TimeUnit.HOURS.toMillis(1L));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<ProcessStat> first = executor.submit(cache::getStat);
+      reading.await();
+      Future<ProcessStat> second = executor.submit(cache::getStat);
+      while (cache.getCoalescedReads() == 0L) {
+        Thread.sleep(1L);
+      }
+      release.countDown();
+      assertSame(first.get(), second.get());
+      assertEquals(1, reads.get());
+      assertEquals(1L, cache.getCacheMisses());
+      assertEquals(1L, cache.getCoalescedReads());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+package com.github.marschall.procmbean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CgroupTest {
+
+  private Path root;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    this.root = Files.createTempDirectory("cgroup");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    TestFiles.delete(this.root);
+  }
+
+  private Path write(String fileName, String contents) throws IOException {
+    Path file = this.root.resolve(fileName);
+    Files.createDirectories(file.getParent());
+    Files.write(file, contents.getBytes(US_ASCII));
+    return file;
+  }
+
+  @Test
+  void version2() throws IOException {
+    Path cgroup = this.write("proc/cgroup", "0::/system.slice/docker-1234.scope\n");
+    Path mountinfo = this.write("proc/mountinfo",
+            "24 1 0:22 / / rw,relatime - ext4 /dev/sda1 rw\n"
+            + "30 24 0:26 / /sys/fs/cgroup rw,nosuid,nodev,noexec,relatime shared:4 - cgroup2 cgroup2 rw,nsdelegate\n");
+    String directory = "sys/fs/cgroup/system.slice/docker-1234.scope/";
+    this.write(directory + "memory.current", "104857600\n");
+    this.write(directory + "memory.max", "max\n");
+    this.write(directory + "memory.stat", "anon 1000\nfile 2000\nkernel_stack 16384\nslab 3000\nsock 4000\n");
+    this.write(directory + "cpu.stat", "usage_usec 5000000\nuser_usec 4000000\nsystem_usec 1000000\n"
+            + "nr_periods 100\nnr_throttled 25\nthrottled_usec 200000\n");
+
+    Cgroup group = new Cgroup(Cgroup.locate(cgroup, mountinfo, this.root));
+    assertEquals(2, group.getVersion());
+    assertEquals("/system.slice/docker-1234.scope", group.getPath());
+
+    CgroupMemory memory = group.getMemory();
+    assertEquals(104857600L, memory.getCurrent());
+    assertEquals(-1L, memory.getLimit());
+    assertEquals(-1L, memory.getHeadroom());
+    assertEquals(1000L, memory.getAnonymous());
+    assertEquals(2000L, memory.getFile());
+    assertEquals(3000L, memory.getSlab());
+    assertEquals(4000L, memory.getSocket());
+
+    this.write(directory + "memory.max", "209715200\n");
+    assertEquals(104857600L, group.getMemory().getHeadroom());
+
+    CgroupCpu cpu = group.getCpu();
+    assertEquals(5000000L, cpu.getUsage());
+    assertEquals(100L, cpu.getPeriods());
+    assertEquals(25L, cpu.getThrottledPeriods());
+    assertEquals(200000L, cpu.getThrottledTime());
+    assertEquals(0.0d, cpu.getThrottledPeriodRatio());
+
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false)) {
+      group.trackThrottling(sampler);
+      sampler.sample();
+      this.write(directory + "cpu.stat", "usage_usec 6000000\nnr_periods 200\nnr_throttled 75\nthrottled_usec 300000\n");
+      // reads do not move the baseline
+      assertEquals(0.0d, group.getCpu().getThrottledPeriodRatio());
+      sampler.sample();
+
+      this.write(directory + "cpu.stat", "usage_usec 7000000\nnr_periods 300\nnr_throttled 75\nthrottled_usec 300000\n");
+      cpu = group.getCpu();
+      assertEquals(300L, cpu.getPeriods());
+      assertEquals(0.5d, cpu.getThrottledPeriodRatio());
+      assertThat(cpu.getThrottledTimeRatio()).isPositive();
+      assertEquals(0.5d, group.getCpu().getThrottledPeriodRatio());
+      group.close();
+    }
+  }
+
+  @Test
+  void version1() throws IOException {
+    // docker without a cgroup namespace, the mount root is the cgroup
+    Path cgroup = this.write("proc/cgroup", "12:memory:/docker/abcd\n"
+            + "4:cpu,cpuacct:/docker/abcd\n"
+            + "0::/docker/abcd\n");
+    Path mountinfo = this.write("proc/mountinfo",
+            "40 33 0:36 /docker/abcd /sys/fs/cgroup/memory ro,nosuid - cgroup cgroup rw,memory\n"
+            + "41 33 0:37 /docker/abcd /sys/fs/cgroup/cpu,cpuacct ro,nosuid - cgroup cgroup rw,cpu,cpuacct\n"
+            + "42 33 0:38 / /sys/fs/cgroup/unified rw - cgroup2 cgroup2 rw\n");
+    this.write("sys/fs/cgroup/memory/memory.usage_in_bytes", "4096\n");
+    this.write("sys/fs/cgroup/memory/memory.limit_in_bytes", "9223372036854771712\n");
+    this.write("sys/fs/cgroup/memory/memory.kmem.tcp.usage_in_bytes", "512\n");
+    this.write("sys/fs/cgroup/memory/memory.stat", "cache 1\nrss 2\n"
+            + "hierarchical_memory_limit 1048576\n"
+            + "total_cache 1024\ntotal_rss 2048\n");
+    this.write("sys/fs/cgroup/cpu,cpuacct/cpu.stat", "nr_periods 10\nnr_throttled 1\nthrottled_time 5000000\n");
+    this.write("sys/fs/cgroup/cpu,cpuacct/cpuacct.usage", "7000000000\n");
+
+    Cgroup group = new Cgroup(Cgroup.locate(cgroup, mountinfo, this.root));
+    assertEquals(1, group.getVersion());
+    assertEquals("/docker/abcd", group.getPath());
+
+    CgroupMemory memory = group.getMemory();
+    assertEquals(4096L, memory.getCurrent());
+    // the limit of the parent
+    assertEquals(1048576L, memory.getLimit());
+    assertEquals(1048576L - 4096L, memory.getHeadroom());
+    assertEquals(2048L, memory.getAnonymous());
+    assertEquals(1024L, memory.getFile());
+    assertEquals(0L, memory.getSlab());
+    assertEquals(512L, memory.getSocket());
+
+    CgroupCpu cpu = group.getCpu();
+    assertEquals(7000000L, cpu.getUsage());
+    assertEquals(10L, cpu.getPeriods());
+    assertEquals(1L, cpu.getThrottledPeriods());
+    assertEquals(5000L, cpu.getThrottledTime());
+  }
+
+  @Test
+  void live() {
+    Cgroup group = new Cgroup();
+    assertThat(group.getVersion()).isBetween(1, 2);
+    assertThat(group.getMemory().getCurrent()).isPositive();
+    assertThat(group.getCpu().getUsage()).isNotNegative();
+  }
+
+}
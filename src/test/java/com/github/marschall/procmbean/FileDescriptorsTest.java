@@ -0,0 +1,138 @@
+package com.github.marschall.procmbean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FileDescriptorsTest {
+
+  private static final String LIMITS = "Limit                     Soft Limit           Hard Limit           Units     \n"
+          + "Max cpu time              unlimited            unlimited            seconds   \n"
+          + "Max processes             63471                63471                processes \n"
+          + "Max open files            1024                 524288               files     \n"
+          + "Max locked memory         8388608              8388608              bytes     \n";
+
+  private Path directory;
+  private Path fdDirectory;
+  private Path limits;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    this.directory = Files.createTempDirectory("fd");
+    this.fdDirectory = Files.createDirectory(this.directory.resolve("fd"));
+    this.limits = this.directory.resolve("limits");
+    Files.write(this.limits, LIMITS.getBytes(US_ASCII));
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    TestFiles.delete(this.directory);
+  }
+
+  private void link(int fd, String target) throws IOException {
+    Files.createSymbolicLink(this.fdDirectory.resolve(Integer.toString(fd)), Paths.get(target));
+  }
+
+  @Test
+  void classify() {
+    assertEquals(FileDescriptors.SOCKET, FileDescriptors.classify("socket:[61274]"));
+    assertEquals(FileDescriptors.PIPE, FileDescriptors.classify("pipe:[61275]"));
+    assertEquals(FileDescriptors.ANONYMOUS_INODE, FileDescriptors.classify("anon_inode:[eventpoll]"));
+    assertEquals(FileDescriptors.ANONYMOUS_INODE, FileDescriptors.classify("anon_inode:inotify"));
+    assertEquals(FileDescriptors.FILE, FileDescriptors.classify("/usr/lib/jvm/lib/modules"));
+    assertEquals(FileDescriptors.DELETED_FILE, FileDescriptors.classify("/tmp/upload.tmp (deleted)"));
+    assertEquals(FileDescriptors.OTHER, FileDescriptors.classify("net:[4026531840]"));
+  }
+
+  @Test
+  void limits() {
+    FileDescriptors descriptors = new FileDescriptors(this.fdDirectory, this.limits);
+    assertEquals(1024L, descriptors.getSoftLimit());
+    assertEquals(524288L, descriptors.getHardLimit());
+  }
+
+  @Test
+  void unlimited() {
+    byte[] limits = "Max open files            unlimited            unlimited            files     \n".getBytes(US_ASCII);
+    long[] values = new long[2];
+    FileDescriptors.parseOpenFilesLimits(limits, limits.length, values);
+    assertEquals(-1L, values[0]);
+    assertEquals(-1L, values[1]);
+  }
+
+  @Test
+  void inventory() throws IOException {
+    this.link(0, "/dev/null");
+    this.link(1, "pipe:[61275]");
+    this.link(2, "pipe:[61275]");
+    this.link(3, "socket:[61274]");
+    this.link(4, "anon_inode:[eventfd]");
+    this.link(5, "/tmp/upload.tmp (deleted)");
+    FileDescriptors descriptors = new FileDescriptors(this.fdDirectory, this.limits);
+
+    assertEquals(6, descriptors.getOpenCount());
+    assertEquals(1018L, descriptors.getHeadroom());
+
+    FileDescriptorInventory inventory = descriptors.getInventory();
+    assertEquals(6, inventory.getOpen());
+    assertEquals(6, inventory.getInspected());
+    assertFalse(inventory.isSampled());
+    assertEquals(1, inventory.getFiles());
+    assertEquals(2, inventory.getPipes());
+    assertEquals(1, inventory.getSockets());
+    assertEquals(1, inventory.getAnonymousInodes());
+    assertEquals(1, inventory.getDeletedFiles());
+    assertEquals(0, inventory.getOther());
+  }
+
+  @Test
+  void sampledInventory() throws IOException {
+    for (int fd = 0; fd < 400; fd++) {
+      this.link(fd, (fd % 4) == 0 ? "pipe:[" + fd + "]" : "socket:[" + fd + "]");
+    }
+    FileDescriptors descriptors = new FileDescriptors(this.fdDirectory, this.limits);
+    descriptors.setSampleSize(100);
+
+    FileDescriptorInventory inventory = descriptors.getInventory();
+    assertEquals(400, inventory.getOpen());
+    assertEquals(100, inventory.getInspected());
+    assertTrue(inventory.isSampled());
+    assertEquals(400, inventory.getPipes() + inventory.getSockets());
+    assertThat(inventory.getSockets()).isBetween(200, 400);
+
+    // every third entry
+    descriptors.setSampleSize(150);
+    inventory = descriptors.getInventory();
+    assertEquals(400, inventory.getOpen());
+    assertEquals(134, inventory.getInspected());
+  }
+
+  @Test
+  void stride() {
+    assertEquals(1, FileDescriptors.stride(0, 1024));
+    assertEquals(1, FileDescriptors.stride(1024, 1024));
+    assertEquals(2, FileDescriptors.stride(1025, 1024));
+    assertEquals(98, FileDescriptors.stride(100_000, 1024));
+  }
+
+  @Test
+  void live() {
+    FileDescriptors descriptors = new FileDescriptors();
+    assertThat(descriptors.getOpenCount()).isGreaterThanOrEqualTo(3);
+    FileDescriptorInventory inventory = descriptors.getInventory();
+    assertThat(inventory.getFiles()).isPositive();
+    assertThat(descriptors.getSoftLimit()).isNotZero();
+  }
+
+}
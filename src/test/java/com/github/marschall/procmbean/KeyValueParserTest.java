@@ -0,0 +1,142 @@
+package com.github.marschall.procmbean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+class KeyValueParserTest {
+
+  private static Path getSampleFile(String fileName) {
+    return Paths.get("src", "test", "resources", fileName);
+  }
+
+  @Test
+  void parseIo() throws IOException {
+    byte[] buffer = Files.readAllBytes(getSampleFile("io-sample-input.txt"));
+    KeyValueParser parser = new KeyValueParser("syscw", "rchar", "unknown");
+    long[] values = new long[] {-1L, -1L, -1L};
+    parser.parse(buffer, buffer.length, values);
+    assertEquals(389953L, values[0]);
+    assertEquals(469225655L, values[1]);
+    assertEquals(-1L, values[2]);
+  }
+
+  @Test
+  void parseSpaceSeparated() {
+    byte[] buffer = "anon 1000\nfile 2000\nslab_reclaimable 5\nslab 3000\n".getBytes(StandardCharsets.US_ASCII);
+    KeyValueParser parser = new KeyValueParser((byte) ' ', "slab", "anon", "file");
+    long[] values = new long[3];
+    parser.parse(buffer, buffer.length, values);
+    assertEquals(3000L, values[0]);
+    assertEquals(1000L, values[1]);
+    assertEquals(2000L, values[2]);
+  }
+
+  @Test
+  void parseStatus() throws IOException {
+    byte[] buffer = Files.readAllBytes(getSampleFile("status-sample-input.txt"));
+    KeyValueParser parser = new KeyValueParser("State", "VmHWM", "Threads", "Cpus_allowed_list");
+    long[] values = new long[4];
+    parser.parse(buffer, buffer.length, values);
+    assertEquals('S', values[0]);
+    assertEquals(1003180L * 1024L, values[1]);
+    assertEquals(49L, values[2]);
+    assertEquals(0L, values[3]);
+  }
+
+  @Test
+  void parseMemory() {
+    byte[] buffer = "VmLck:\t       0 kB\nVmHWM:\t 1003180 kB\n".getBytes(StandardCharsets.US_ASCII);
+    KeyValueParser parser = new KeyValueParser("VmLck", "VmHWM");
+    long[] values = new long[] {-1L, -1L};
+    parser.parse(buffer, buffer.length, values);
+    assertEquals(0L, values[0]);
+    assertEquals(1003180L * 1024L, values[1]);
+  }
+
+  @Test
+  void parseWithoutTrailingNewline() {
+    byte[] buffer = "a: 1\nb:\t2 kB".getBytes();
+    KeyValueParser parser = new KeyValueParser("a", "b");
+    long[] values = new long[2];
+    parser.parse(buffer, buffer.length, values);
+    assertEquals(1L, values[0]);
+    assertEquals(2048L, values[1]);
+  }
+
+  /**
+   * Measures only the parsers, the files are read once up front. The
+   * reads are covered by {@link #readWithoutAllocation()}.
+   */
+  @Test
+  void parseWithoutAllocation() throws IOException {
+    byte[] status = Files.readAllBytes(getSampleFile("status-sample-input.txt"));
+    byte[] io = Files.readAllBytes(getSampleFile("io-sample-input.txt"));
+    long[] values = new long[Proc.STATUS_PARSER.size()];
+
+    assertNoAllocation(() -> {
+      Proc.STATUS_PARSER.parse(status, status.length, values);
+      Proc.IO_PARSER.parse(io, io.length, values);
+    });
+  }
+
+  /**
+   * Measures {@link Proc#getStatus()} and {@link Proc#getIoStatistics()}
+   * with persistent handles up to the parsed values, reading through
+   * {@link ProcFile} into the {@link ReadBuffer} included. Only the
+   * returned objects are left out.
+   */
+  @Test
+  void readWithoutAllocation() throws IOException {
+    Path procSelf = Paths.get("/proc/self");
+    assumeTrue(Files.isReadable(procSelf.resolve("io")));
+    try (ProcFile status = ProcFile.persistent(procSelf.resolve("status"));
+         ProcFile io = ProcFile.persistent(procSelf.resolve("io"))) {
+
+      assertNoAllocation(() -> {
+        ReadBuffer buffer = Proc.read(status);
+        long[] values = buffer.values(Proc.STATUS_PARSER.size());
+        Proc.STATUS_PARSER.parse(buffer.array(), buffer.length(), values);
+
+        buffer = Proc.read(io);
+        values = buffer.values(Proc.IO_PARSER.size());
+        Proc.IO_PARSER.parse(buffer.array(), buffer.length(), values);
+      });
+    }
+  }
+
+  private static void assertNoAllocation(Runnable action) {
+    java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+    assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+    allocationBean.setThreadAllocatedMemoryEnabled(true);
+    long threadId = Thread.currentThread().getId();
+
+    // warm up
+    for (int i = 0; i < 20_000; i++) {
+      action.run();
+    }
+
+    // calibrate the overhead of measuring itself
+    long before = allocationBean.getThreadAllocatedBytes(threadId);
+    long after = allocationBean.getThreadAllocatedBytes(threadId);
+    long overhead = after - before;
+
+    before = allocationBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < 1_000; i++) {
+      action.run();
+    }
+    after = allocationBean.getThreadAllocatedBytes(threadId);
+    assertEquals(0L, after - before - overhead, "bytes allocated");
+  }
+
+}
@@ -0,0 +1,125 @@
+package com.github.marschall.procmbean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.AttributeChangeNotification;
+import javax.management.Notification;
+
+import org.junit.jupiter.api.Test;
+
+class MallocArenasTest {
+
+  private static final long MB = 1024L * 1024L;
+
+  private static String mapping(long start, long end, String permissions, String pathname, long rssKb) {
+    return Long.toHexString(start) + '-' + Long.toHexString(end) + ' ' + permissions + " 00000000 00:00 0 "
+            + pathname + "\nSize: " + ((end - start) / 1024L) + " kB\nRss: " + rssKb + " kB\n";
+  }
+
+  private static String smaps(int threadArenas) {
+    StringBuilder smaps = new StringBuilder();
+    smaps.append(mapping(0x01000000L, 0x01100000L, "rw-p", "[heap]", 512L));
+    long start = 0x7f0000000000L;
+    for (int i = 0; i < threadArenas; i++) {
+      smaps.append(mapping(start, start + 2L * MB, "rw-p", "", 1024L));
+      smaps.append(mapping(start + 2L * MB, start + 64L * MB, "---p", "", 0L));
+      start += 64L * MB;
+    }
+    // not an arena, misaligned
+    smaps.append(mapping(0x7f1000001000L, 0x7f1000002000L, "rw-p", "", 4L));
+    // fully committed arena at the end
+    smaps.append(mapping(0x7f2000000000L, 0x7f2004000000L, "rw-p", "", 2048L));
+    return smaps.toString();
+  }
+
+  @Test
+  void findArenas() throws IOException {
+    Path smaps = Files.createTempFile("smaps", ".txt");
+    try {
+      Files.write(smaps, smaps(2).getBytes(US_ASCII));
+      List<MallocArena> arenas = MallocArenas.findArenas(smaps, JvmAddressRanges.EMPTY);
+      assertThat(arenas).hasSize(4);
+      assertTrue(arenas.get(0).isMain());
+      assertEquals(MB, arenas.get(0).getCommitted());
+      assertFalse(arenas.get(1).isMain());
+      assertEquals(2L * MB, arenas.get(1).getCommitted());
+      assertEquals(64L * MB, arenas.get(1).getReserved());
+      assertEquals(MB, arenas.get(1).getResidentSet());
+      assertEquals(64L * MB, arenas.get(3).getCommitted());
+    } finally {
+      Files.delete(smaps);
+    }
+  }
+
+  @Test
+  void ignoresJvmRanges() throws IOException {
+    Path smaps = Files.createTempFile("smaps", ".txt");
+    try {
+      Files.write(smaps, smaps(1).getBytes(US_ASCII));
+      JvmAddressRanges ranges = new JvmAddressRanges.Builder()
+              .add(0x7f0000000000L, 0x7f0004000000L, MemoryRegion.JAVA_HEAP)
+              .build();
+      assertThat(MallocArenas.findArenas(smaps, ranges)).hasSize(2);
+    } finally {
+      Files.delete(smaps);
+    }
+  }
+
+  @Test
+  void thresholds() throws IOException {
+    Path smaps = Files.createTempFile("smaps", ".txt");
+    try {
+      MallocArenas mallocArenas = new MallocArenas(smaps, JvmAddressRanges.EMPTY);
+      List<Notification> notifications = new ArrayList<>();
+      mallocArenas.addNotificationListener((notification, handback) -> notifications.add(notification), null, null);
+      mallocArenas.setArenaCountThreshold(4);
+
+      Files.write(smaps, smaps(1).getBytes(US_ASCII));
+      mallocArenas.getArenas();
+      assertEquals(3, mallocArenas.getArenaCount());
+      assertThat(notifications).isEmpty();
+
+      Files.write(smaps, smaps(3).getBytes(US_ASCII));
+      mallocArenas.getArenas();
+      assertEquals(5, mallocArenas.getArenaCount());
+      assertThat(notifications).hasSize(1);
+      AttributeChangeNotification notification = (AttributeChangeNotification) notifications.get(0);
+      assertEquals("ArenaCount", notification.getAttributeName());
+      assertEquals(5, notification.getNewValue());
+
+      // no repeated notification while above the threshold
+      mallocArenas.getArenas();
+      assertThat(notifications).hasSize(1);
+
+      Files.write(smaps, smaps(1).getBytes(US_ASCII));
+      mallocArenas.getArenas();
+      Files.write(smaps, smaps(2).getBytes(US_ASCII));
+      mallocArenas.getArenas();
+      assertThat(notifications).hasSize(2);
+
+      mallocArenas.setResidentSetThreshold(4L * MB);
+      mallocArenas.getArenas();
+      assertThat(notifications).hasSize(3);
+      assertEquals("ResidentSet", ((AttributeChangeNotification) notifications.get(2)).getAttributeName());
+    } finally {
+      Files.delete(smaps);
+    }
+  }
+
+  @Test
+  void liveArenas() {
+    List<MallocArena> arenas = new MallocArenas().getArenas();
+    assertThat(arenas).isNotEmpty();
+  }
+
+}
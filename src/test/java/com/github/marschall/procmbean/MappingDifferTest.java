@@ -0,0 +1,150 @@
+package com.github.marschall.procmbean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.management.Notification;
+
+import org.junit.jupiter.api.Test;
+
+class MappingDifferTest {
+
+  private static final String BEFORE = "00400000-00401000 r-xp 00000000 08:12 42337235 /usr/bin/java\n"
+          + "02547000-02568000 rw-p 00000000 00:00 0 [heap]\n"
+          + "3d2400000-3fc300000 rw-p 00000000 00:00 0 \n"
+          + "7f0000000000-7f0000010000 r-xp 00000000 08:12 12 /usr/lib/libc.so.6\n"
+          + "ffffffffff600000-ffffffffff601000 r-xp 00000000 00:00 0 [vsyscall]\n";
+
+  private static final String AFTER = "00400000-00401000 r-xp 00000000 08:12 42337235 /usr/bin/java\n"
+          // grown
+          + "02547000-02569000 rw-p 00000000 00:00 0 [heap]\n"
+          // shrunk
+          + "3d2400000-3d2500000 rw-p 00000000 00:00 0 \n"
+          // added
+          + "7e0000000000-7e0000002000 rw-p 00000000 00:00 0 \n"
+          // replaced by a different file
+          + "7f0000000000-7f0000010000 r-xp 00000000 08:12 13 /usr/lib/libz.so.1\n"
+          + "ffffffffff600000-ffffffffff601000 r-xp 00000000 00:00 0 [vsyscall]\n";
+
+  @Test
+  void diff() throws IOException {
+    Path maps = Files.createTempFile("maps", ".txt");
+    try {
+      Files.write(maps, BEFORE.getBytes(US_ASCII));
+      MappingIndex before = MappingIndex.build(maps);
+      Files.write(maps, AFTER.getBytes(US_ASCII));
+      MappingIndex after = before.refresh();
+
+      MappingsDiff diff = MappingDiffer.diff(before, after, 1000L);
+      List<String> kinds = diff.getChanges().stream()
+              .map(MappingChange::getKind)
+              .collect(Collectors.toList());
+      assertThat(kinds).containsExactly(MappingChange.GROWN, MappingChange.SHRUNK, MappingChange.ADDED,
+              MappingChange.REMOVED, MappingChange.ADDED);
+
+      MappingChange heap = diff.getChanges().get(0);
+      assertEquals("[heap]", heap.getPathname());
+      assertEquals(0x21000L, heap.getPreviousSize());
+      assertEquals(0x22000L, heap.getSize());
+
+      MappingChange removed = diff.getChanges().get(3);
+      assertEquals("/usr/lib/libc.so.6", removed.getPathname());
+      assertEquals(0x7f0000000000L, removed.getStart());
+
+      assertEquals(0x2000L + 0x10000L, diff.getAddedBytes());
+      assertEquals(0x10000L, diff.getRemovedBytes());
+      assertEquals(0x1000L, diff.getGrownBytes());
+      assertEquals(0x29e00000L, diff.getShrunkBytes());
+      assertEquals(0x2000L + 0x1000L - 0x29e00000L, diff.getNetBytes());
+    } finally {
+      Files.delete(maps);
+    }
+  }
+
+  @Test
+  void unchanged() throws IOException {
+    Path maps = Files.createTempFile("maps", ".txt");
+    try {
+      Files.write(maps, BEFORE.getBytes(US_ASCII));
+      MappingIndex index = MappingIndex.build(maps);
+      MappingsDiff diff = MappingDiffer.diff(index, index, 0L);
+      assertThat(diff.getChanges()).isEmpty();
+      assertEquals(0L, diff.getNetBytes());
+    } finally {
+      Files.delete(maps);
+    }
+  }
+
+  @Test
+  void growthNotification() throws IOException {
+    Path procSelf = Files.createTempDirectory("proc");
+    Path maps = procSelf.resolve("maps");
+    try {
+      Files.write(maps, BEFORE.getBytes(US_ASCII));
+      Proc proc = new Proc(procSelf, false);
+      proc.setMappingGrowthThreshold(1L);
+      List<Notification> notifications = new ArrayList<>();
+      proc.addNotificationListener((notification, handback) -> notifications.add(notification), null, null);
+
+      proc.sampleMappings();
+      assertThat(proc.diffMappings().getChanges()).isEmpty();
+
+      // only grows
+      Files.write(maps, BEFORE.replace("02547000-02568000", "02547000-02600000").getBytes(US_ASCII));
+      proc.sampleMappings();
+      MappingsDiff diff = proc.diffMappings();
+      assertThat(diff.getChanges()).hasSize(1);
+      assertTrue(diff.getNetBytes() > 0L);
+      assertThat(notifications).hasSize(1);
+      Notification notification = notifications.get(0);
+      assertEquals(Proc.MAPPING_GROWTH, notification.getType());
+      assertEquals(diff.getNetBytes(), notification.getUserData());
+
+      // reading the diff again does not compare again
+      assertSame(diff, proc.diffMappings());
+
+      // no change, no notification
+      proc.sampleMappings();
+      assertThat(proc.diffMappings().getChanges()).isEmpty();
+      assertThat(notifications).hasSize(1);
+    } finally {
+      Files.delete(maps);
+      Files.delete(procSelf);
+    }
+  }
+
+  @Test
+  void trackMappings() throws IOException {
+    Proc proc = new Proc();
+    try (Sampler sampler = new Sampler(proc, TimeUnit.HOURS.toMillis(1L), 16, false)) {
+      proc.trackMappings(sampler);
+      // replaces the first registration
+      proc.trackMappings(sampler);
+      sampler.sample();
+      // the first sample is the baseline
+      MappingsDiff empty = proc.diffMappings();
+      assertThat(empty.getChanges()).isEmpty();
+      sampler.sample();
+      MappingsDiff diff = proc.diffMappings();
+      assertNotSame(empty, diff);
+      assertSame(diff, proc.diffMappings());
+
+      proc.close();
+      sampler.sample();
+      assertSame(diff, proc.diffMappings());
+    }
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.github.marschall.procmbean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+class MappingIndexTest {
+
+  private static final String MAPS = "00400000-00401000 r-xp 00000000 08:12 42337235 /usr/bin/java\n"
+          + "00600000-00601000 rw-p 00000000 08:12 42337235 /usr/bin/java\n"
+          + "02547000-02568000 rw-p 00000000 00:00 0 [heap]\n"
+          + "3d2400000-3fc300000 rw-p 00000000 00:00 0 \n"
+          + "7f0000000000-7f0000010000 r-xp 00000000 08:12 12 /usr/lib/libc.so.6\n";
+
+  @Test
+  void resolve() {
+    MappingIndex index = MappingIndex.build(Paths.get("src", "test", "resources", "maps-sample-input.txt"));
+    assertEquals(190, index.size());
+    int mapping = index.resolve(0x00400010L);
+    assertEquals(0, mapping);
+    assertEquals(0x00400000L, index.getStart(mapping));
+    assertEquals("/home/marschall/bin/java/jdk1.8.0_162/bin/java", index.getPathname(mapping));
+    assertEquals(MappingVisitor.READ | MappingVisitor.EXECUTE | MappingVisitor.PRIVATE, index.getPermissions(mapping));
+
+    assertEquals(MappingIndex.NOT_FOUND, index.resolve(0x00401000L));
+    assertEquals(MappingIndex.NOT_FOUND, index.resolve(0L));
+    assertEquals(MappingIndex.NOT_FOUND, index.resolve(Long.MAX_VALUE));
+    assertEquals("[vsyscall]", index.getPathname(index.resolve(0xffffffffff600000L)));
+    assertEquals("[heap]", index.getPathname(index.resolve(0x02567fffL)));
+    assertNull(index.getPathname(index.resolve(0x3d2400000L)));
+  }
+
+  @Test
+  void resolveBatch() {
+    MappingIndex index = MappingIndex.build(Paths.get("src", "test", "resources", "maps-sample-input.txt"));
+    long[] addresses = {0x00400000L, 0x00600000L, 0x02547000L, 0x00400fffL, 0x3fc300000L, 0x1L};
+    int[] indices = new int[addresses.length];
+    index.resolve(addresses, indices);
+    assertThat(indices).containsExactly(0, 1, 2, 0, 4, MappingIndex.NOT_FOUND);
+  }
+
+  @Test
+  void refresh() throws IOException {
+    Path maps = Files.createTempFile("maps", ".txt");
+    try {
+      Files.write(maps, MAPS.getBytes(US_ASCII));
+      MappingIndex index = MappingIndex.build(maps);
+      assertSame(index, index.refresh());
+
+      // the heap grew
+      Files.write(maps, MAPS.replace("02547000-02568000", "02547000-02600000").getBytes(US_ASCII));
+      MappingIndex refreshed = index.refresh();
+      assertNotSame(index, refreshed);
+      assertEquals(2, refreshed.resolve(0x025fffffL));
+      // unchanged pathnames are reused
+      assertSame(index.getPathname(4), refreshed.getPathname(4));
+
+      Files.write(maps, MAPS.replace("00600000-00601000 rw-p 00000000 08:12 42337235 /usr/bin/java\n", "")
+              .getBytes(US_ASCII));
+      MappingIndex removed = refreshed.refresh();
+      assertEquals(4, removed.size());
+      assertEquals(MappingIndex.NOT_FOUND, removed.resolve(0x00600000L));
+      assertEquals("/usr/lib/libc.so.6", removed.getPathname(removed.resolve(0x7f0000000000L)));
+    } finally {
+      Files.delete(maps);
+    }
+  }
+
+  @Test
+  void liveMappings() {
+    MappingIndex index = new Proc().getMappingIndex();
+    assertThat(index.size()).isPositive();
+    int last = index.size() - 1;
+    assertEquals(last, index.resolve(index.getEnd(last) - 1L));
+  }
+
+}
@@ -0,0 +1,116 @@
+package com.github.marschall.procmbean;
+
+import static com.github.marschall.procmbean.MappingVisitor.EXECUTE;
+import static com.github.marschall.procmbean.MappingVisitor.PRIVATE;
+import static com.github.marschall.procmbean.MappingVisitor.READ;
+import static com.github.marschall.procmbean.MappingVisitor.WRITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MemoryRegionsTest {
+
+  private static final String HEAP_INFO = " PSYoungGen      total 28160K, used 3932K [0x00000000e0b00000, 0x00000000e2a00000, 0x0000000100000000)\n"
+          + "  eden space 24576K, 16% used [0x00000000e0b00000,0x00000000e0ed7150,0x00000000e2300000)\n"
+          + " ParOldGen       total 64512K, used 0K [0x00000000a2000000, 0x00000000a5f00000, 0x00000000e0b00000)\n"
+          + " Metaspace       used 2923K, committed 3072K, reserved 1114112K\n"
+          + "  class space    used 322K, committed 384K, reserved 1048576K\n";
+
+  private static final String CODE_CACHE = "CodeHeap 'non-profiled nmethods': size=120036Kb used=141Kb max_used=141Kb free=119894Kb\n"
+          + " bounds [0x00007f4cd8ec7000, 0x00007f4cd9137000, 0x00007f4ce0400000]\n"
+          + "CodeHeap 'profiled nmethods': size=120032Kb used=662Kb max_used=662Kb free=119369Kb\n"
+          + " bounds [0x00007f4cd1400000, 0x00007f4cd1670000, 0x00007f4cd8938000]\n"
+          + " total_blobs=895 nmethods=497 adapters=314\n";
+
+  private static final String VM_INFO = "CDS archive(s) mapped at: [0x00007f4c88000000-0x00007f4c88bc6000-0x00007f4c88bc6000), size 12345344\n"
+          + "Narrow klass base: 0x00007f4c88000000, Narrow klass shift: 0, Narrow klass range: 0x100000000\n";
+
+  private static final long MB = 1024L * 1024L;
+
+  private static JvmAddressRanges ranges() {
+    return JvmAddressRanges.parse(HEAP_INFO, CODE_CACHE, VM_INFO, 1024L * MB);
+  }
+
+  private static void accept(MappingClassifier classifier, long start, long end, int permissions, String pathname) {
+    byte[] bytes = pathname.getBytes(UTF_8);
+    classifier.accept(start, end, permissions, bytes, bytes.length, end - start, 0L);
+  }
+
+  @Test
+  void parseRanges() {
+    JvmAddressRanges ranges = ranges();
+    assertEquals(MemoryRegion.JAVA_HEAP, ranges.lookup(0xa2000000L));
+    assertEquals(MemoryRegion.JAVA_HEAP, ranges.lookup(0xe2a00000L));
+    assertNull(ranges.lookup(0x100000000L));
+    assertEquals(MemoryRegion.CODE_CACHE, ranges.lookup(0x00007f4cd1400000L));
+    assertEquals(MemoryRegion.CODE_CACHE, ranges.lookup(0x00007f4cd9000000L));
+    // between the two code heaps
+    assertNull(ranges.lookup(0x00007f4cd8938000L));
+    assertNull(ranges.lookup(0x00007f4c88000000L));
+    assertEquals(MemoryRegion.METASPACE, ranges.lookup(0x00007f4c88bc6000L));
+    assertNull(ranges.lookup(0x00007f4c88bc6000L + 1024L * MB));
+  }
+
+  @Test
+  void parseRangesWithoutOutput() {
+    JvmAddressRanges ranges = JvmAddressRanges.parse("", "", "", 0L);
+    assertNull(ranges.lookup(0xa2000000L));
+  }
+
+  @Test
+  void classify() {
+    MappingClassifier classifier = new MappingClassifier(ranges());
+    int rw = READ | WRITE | PRIVATE;
+    accept(classifier, 0x00400000L, 0x00452000L, READ | EXECUTE | PRIVATE, "/usr/bin/java");
+    accept(classifier, 0x01000000L, 0x01100000L, rw, "[heap]");
+    accept(classifier, 0xa2000000L, 0xa5f00000L, rw, "");
+    accept(classifier, 0xa5f00000L, 0xe0b00000L, PRIVATE, "");
+    // arena with a reservation
+    accept(classifier, 0x7f0000000000L, 0x7f0000000000L + 2L * MB, rw, "");
+    accept(classifier, 0x7f0000000000L + 2L * MB, 0x7f0000000000L + 64L * MB, PRIVATE, "");
+    // fully committed arena
+    accept(classifier, 0x7f0004000000L, 0x7f0008000000L, rw, "");
+    // thread stack
+    accept(classifier, 0x7f1000000000L, 0x7f1000004000L, PRIVATE, "");
+    accept(classifier, 0x7f1000004000L, 0x7f1000100000L, rw, "");
+    accept(classifier, 0x7f2000000000L, 0x7f2000100000L, rw, "");
+    accept(classifier, 0x7f4c88000000L, 0x7f4c88bc6000L, rw, "/usr/lib/jvm/lib/server/classes.jsa");
+    accept(classifier, 0x7f4c88bc6000L, 0x7f4c88c00000L, rw, "");
+    accept(classifier, 0x7f4cd1400000L, 0x7f4cd1670000L, rw | EXECUTE, "");
+    accept(classifier, 0x7f5000000000L, 0x7f5000010000L, READ | EXECUTE | PRIVATE, "/usr/lib/libc.so.6");
+    accept(classifier, 0x7f5000010000L, 0x7f5000020000L, READ | PRIVATE, "/usr/lib/libjvm.so");
+    accept(classifier, 0x7f6000000000L, 0x7f6000010000L, READ | PRIVATE, "/tmp/data.bin");
+    accept(classifier, 0x7ffc00000000L, 0x7ffc00021000L, rw, "[stack]");
+    accept(classifier, 0x7ffd00000000L, 0x7ffd00002000L, READ | EXECUTE | PRIVATE, "[vdso]");
+    classifier.finish();
+
+    assertEquals(2, classifier.mappings(MemoryRegion.JAVA_HEAP));
+    assertEquals(0xe0b00000L - 0xa2000000L, classifier.size(MemoryRegion.JAVA_HEAP));
+    assertEquals(4, classifier.mappings(MemoryRegion.MALLOC_ARENA));
+    assertEquals(2L * 64L * MB + MB, classifier.size(MemoryRegion.MALLOC_ARENA));
+    assertEquals(3, classifier.mappings(MemoryRegion.THREAD_STACK));
+    assertEquals(1, classifier.mappings(MemoryRegion.ANONYMOUS));
+    assertEquals(MB, classifier.residentSet(MemoryRegion.ANONYMOUS));
+    assertEquals(1, classifier.mappings(MemoryRegion.CDS_ARCHIVE));
+    assertEquals(1, classifier.mappings(MemoryRegion.METASPACE));
+    assertEquals(1, classifier.mappings(MemoryRegion.CODE_CACHE));
+    assertEquals(2, classifier.mappings(MemoryRegion.SHARED_LIBRARY));
+    assertEquals(2, classifier.mappings(MemoryRegion.MAPPED_FILE));
+    assertEquals(1, classifier.mappings(MemoryRegion.OTHER));
+  }
+
+  @Test
+  void liveRegions() {
+    List<MemoryRegionUsage> regions = new MemoryRegions().getRegions();
+    assertThat(regions).hasSize(MemoryRegion.values().length);
+    assertThat(regions)
+      .filteredOn(region -> region.getRegion().equals("SHARED_LIBRARY"))
+      .allMatch(region -> region.getResidentSet() > 0L);
+  }
+
+}
@@ -0,0 +1,153 @@
+package com.github.marschall.procmbean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NumaTest {
+
+  private static final String HEAP_INFO = " garbage-first heap   total 1531904K, used 0K [0x00000000a2000000, 0x0000000100000000)\n";
+
+  private static final String MAPS = "a2000000-100000000 rw-p 00000000 00:00 0 \n"
+          + "5602cb5c8000-5602cb5ca000 r--p 00000000 08:02 173521                     /usr/bin/java\n"
+          + "7f4c4c000000-7f4c50000000 rw-p 00000000 00:00 0 \n"
+          + "7ffd00000000-7ffd00021000 rw-p 00000000 00:00 0                          [stack]\n";
+
+  private static final String NUMA_MAPS = "a2000000 default anon=3072 dirty=3072 N0=1024 N1=2048 kernelpagesize_kB=4\n"
+          + "5602cb5c8000 default file=/usr/bin/java mapped=2 N0=2 kernelpagesize_kB=4\n"
+          + "7f4c4c000000 interleave:0-1 anon=100 dirty=100 N0=50 N1=50 kernelpagesize_kB=4\n"
+          // mapped after maps was read
+          + "7f4c60000000 default anon=1 dirty=1 N1=1 kernelpagesize_kB=4\n"
+          + "7f4c70000000 default\n"
+          + "7ffd00000000 default stack anon=3 dirty=3 N0=3 kernelpagesize_kB=4\n";
+
+  private static final String STATUS = "Name:\tjava\n"
+          + "State:\tS (sleeping)\n"
+          + "Cpus_allowed:\tff\n"
+          + "Cpus_allowed_list:\t0-7\n"
+          + "Mems_allowed:\t00000000,00000003\n"
+          + "Mems_allowed_list:\t0-1\n";
+
+  private static final long PAGE = 4096L;
+
+  private Path directory;
+  private Numa numa;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    this.directory = Files.createTempDirectory("numa");
+    Path maps = Files.write(this.directory.resolve("maps"), MAPS.getBytes(US_ASCII));
+    Path numaMaps = Files.write(this.directory.resolve("numa_maps"), NUMA_MAPS.getBytes(US_ASCII));
+    Path status = Files.write(this.directory.resolve("status"), STATUS.getBytes(US_ASCII));
+    this.numa = new Numa(maps, numaMaps, status, JvmAddressRanges.parse(HEAP_INFO, "", "", 0L));
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    TestFiles.delete(this.directory);
+  }
+
+  @Test
+  void nodeBytes() {
+    assertArrayEquals(new long[] {1079L * PAGE, 2099L * PAGE}, this.numa.getNodeBytes());
+    assertArrayEquals(new long[] {1024L * PAGE, 2048L * PAGE}, this.numa.getJavaHeapNodeBytes());
+    assertEquals(2099.0d * 2.0d / 3178.0d, this.numa.getImbalance(), 0.000001d);
+  }
+
+  @Test
+  void regions() {
+    List<NumaRegionUsage> regions = this.numa.getRegions();
+    assertThat(regions).hasSize(MemoryRegion.values().length);
+    for (NumaRegionUsage usage : regions) {
+      switch (usage.getRegion()) {
+        case "JAVA_HEAP":
+          assertArrayEquals(new long[] {1024L * PAGE, 2048L * PAGE}, usage.getNodeBytes());
+          break;
+        case "MALLOC_ARENA":
+          assertArrayEquals(new long[] {50L * PAGE, 50L * PAGE}, usage.getNodeBytes());
+          break;
+        case "MAPPED_FILE":
+          assertArrayEquals(new long[] {2L * PAGE, 0L}, usage.getNodeBytes());
+          break;
+        case "THREAD_STACK":
+          assertArrayEquals(new long[] {3L * PAGE, 0L}, usage.getNodeBytes());
+          break;
+        default:
+          assertArrayEquals(new long[] {0L, 0L}, usage.getNodeBytes(), usage.getRegion());
+      }
+    }
+  }
+
+  @Test
+  void mappings() {
+    List<NumaMapping> mappings = this.numa.getMappings();
+    assertThat(mappings).extracting(NumaMapping::getStart)
+      .containsExactly(0xa2000000L, 0x5602cb5c8000L, 0x7f4c4c000000L, 0x7ffd00000000L);
+
+    NumaMapping heap = mappings.get(0);
+    assertEquals(0x100000000L, heap.getEnd());
+    assertNull(heap.getPathname());
+    assertEquals("JAVA_HEAP", heap.getRegion());
+    assertEquals(PAGE, heap.getPageSize());
+    assertArrayEquals(new long[] {1024L, 2048L}, heap.getNodePages());
+
+    NumaMapping arena = mappings.get(2);
+    assertEquals("interleave:0-1", arena.getPolicy());
+    assertEquals("MALLOC_ARENA", arena.getRegion());
+
+    assertEquals("/usr/bin/java", mappings.get(1).getPathname());
+  }
+
+  @Test
+  void allowedLists() {
+    assertEquals("0-7", this.numa.getCpusAllowedList());
+    assertEquals("0-1", this.numa.getMemsAllowedList());
+  }
+
+  @Test
+  void parseList() {
+    assertArrayEquals(new int[0], Numa.parseList(""));
+    assertArrayEquals(new int[] {0}, Numa.parseList("0"));
+    assertArrayEquals(new int[] {0, 1, 2, 3, 8, 10, 11}, Numa.parseList("0-3,8,10-11"));
+  }
+
+  @Test
+  void parseLine() {
+    byte[] line = "7f1c00000000 bind:1 file=/dev/hugepages/x huge dirty=2 N1=2 N12=1 kernelpagesize_kB=2048".getBytes(US_ASCII);
+    NumaMapsLineParser parser = new NumaMapsLineParser();
+    parser.parse(line, 0, line.length);
+    assertEquals(0x7f1c00000000L, parser.start);
+    assertEquals("bind:1", parser.policy());
+    assertEquals(2048L * 1024L, parser.pageSize);
+    assertEquals(13, parser.nodeCount);
+    assertEquals(2L, parser.nodePages[1]);
+    assertEquals(1L, parser.nodePages[12]);
+    assertEquals(0L, parser.nodePages[0]);
+  }
+
+  @Test
+  void live() {
+    // kernels without CONFIG_NUMA have no numa_maps
+    assumeTrue(Files.exists(Paths.get("/proc/self/numa_maps")));
+    Numa live = new Numa();
+    long[] nodeBytes = live.getNodeBytes();
+    assertThat(nodeBytes).isNotEmpty();
+    assertThat(live.getImbalance()).isGreaterThanOrEqualTo(1.0d);
+    assertThat(live.getMappings()).isNotEmpty();
+    assertThat(live.getMemsAllowedList()).isNotEmpty();
+  }
+
+}
@@ -0,0 +1,125 @@
+package com.github.marschall.procmbean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Notification;
+
+import org.junit.jupiter.api.Test;
+
+class PressureTest {
+
+  private static String pressure(long someTotal, long fullTotal) {
+    return "some avg10=23.47 avg60=47.3 avg300=34 total=" + someTotal + "\n"
+            + "full avg10=0.00 avg60=0.05 avg300=100.00 total=" + fullTotal + "\n";
+  }
+
+  @Test
+  void parse() {
+    byte[] buffer = pressure(746589294L, 1695561L).getBytes(US_ASCII);
+    long[] values = new long[Pressure.FIELDS];
+    Pressure.parse(buffer, buffer.length, values);
+    assertEquals(2347L, values[Pressure.SOME_AVERAGE_10]);
+    assertEquals(4730L, values[Pressure.SOME_AVERAGE_60]);
+    assertEquals(3400L, values[Pressure.SOME_AVERAGE_300]);
+    assertEquals(746589294L, values[Pressure.SOME_TOTAL]);
+    assertEquals(0L, values[Pressure.FULL_OFFSET + Pressure.SOME_AVERAGE_10]);
+    assertEquals(5L, values[Pressure.FULL_OFFSET + Pressure.SOME_AVERAGE_60]);
+    assertEquals(10000L, values[Pressure.FULL_OFFSET + Pressure.SOME_AVERAGE_300]);
+    assertEquals(1695561L, values[Pressure.FULL_OFFSET + Pressure.SOME_TOTAL]);
+  }
+
+  @Test
+  void deltas() throws IOException {
+    Path directory = Files.createTempDirectory("pressure");
+    Path cpu = directory.resolve("cpu");
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false);
+         Pressure pressure = new Pressure("system", directory, "cpu", "memory", "io")) {
+      Files.write(cpu, pressure(1000L, 10L).getBytes(US_ASCII));
+      PressureStatistics statistics = pressure.getCpu();
+      assertEquals(23.47d, statistics.getSomeAverage10());
+      assertEquals(100.0d, statistics.getFullAverage300());
+      assertEquals(0L, statistics.getSomeDelta());
+
+      pressure.trackStalls(sampler);
+      sampler.sample();
+      Files.write(cpu, pressure(1500L, 30L).getBytes(US_ASCII));
+      // reads do not move the baseline
+      assertEquals(0L, pressure.getCpu().getSomeDelta());
+      sampler.sample();
+
+      Files.write(cpu, pressure(1800L, 30L).getBytes(US_ASCII));
+      statistics = pressure.getCpu();
+      assertEquals(1800L, statistics.getSomeTotal());
+      assertEquals(500L, statistics.getSomeDelta());
+      assertEquals(20L, statistics.getFullDelta());
+      assertEquals(500L, pressure.getCpu().getSomeDelta());
+
+      pressure.close();
+      sampler.sample();
+      assertEquals(500L, pressure.getCpu().getSomeDelta());
+    } finally {
+      Files.delete(cpu);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  void trigger() throws IOException, InterruptedException {
+    Path directory = Files.createTempDirectory("pressure");
+    Path memory = directory.resolve("memory");
+    try (Pressure pressure = new Pressure("system", directory, "cpu", "memory", "io")) {
+      BlockingQueue<Notification> notifications = new ArrayBlockingQueue<>(16);
+      pressure.addNotificationListener((notification, handback) -> notifications.add(notification), null, null);
+      Files.write(memory, pressure(1000L, 0L).getBytes(US_ASCII));
+      pressure.addTrigger("memory", "some", 150_000L, 1_000_000L, 5_000L);
+      assertEquals(1, pressure.getTriggerCount());
+
+      // let the trigger record the initial total
+      Thread.sleep(100L);
+      Files.write(memory, pressure(201_000L, 0L).getBytes(US_ASCII));
+
+      Notification notification = notifications.poll(5L, TimeUnit.SECONDS);
+      assertEquals(Pressure.STALL, notification.getType());
+      assertEquals(200_000L, notification.getUserData());
+
+      pressure.removeTriggers();
+      assertEquals(0, pressure.getTriggerCount());
+    } finally {
+      Files.delete(memory);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  void invalidTrigger() {
+    try (Pressure pressure = new Pressure()) {
+      assertThrows(IllegalArgumentException.class, () -> pressure.addTrigger("cpu", "some", 100_000L, 100_000L));
+      assertThrows(IllegalArgumentException.class, () -> pressure.addTrigger("disk", "some", 100_000L, 1_000_000L));
+      assertThrows(IllegalArgumentException.class, () -> pressure.addTrigger("cpu", "most", 100_000L, 1_000_000L));
+      assertThrows(IllegalArgumentException.class, () -> pressure.addTrigger("cpu", "some", 2_000_000L, 1_000_000L));
+    }
+  }
+
+  @Test
+  void live() {
+    assumeTrue(Files.exists(Paths.get("/proc/pressure/cpu")), "PSI not enabled");
+    try (Pressure pressure = new Pressure()) {
+      assertTrue(pressure.getCpu().getSomeTotal() >= 0L);
+      assertTrue(pressure.getMemory().getSomeAverage300() >= 0.0d);
+      assertTrue(pressure.getIo().getFullTotal() >= 0L);
+    }
+  }
+
+}
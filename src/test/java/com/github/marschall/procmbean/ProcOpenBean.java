@@ -1,10 +1,10 @@
 package com.github.marschall.procmbean;
 
-import static com.github.marschall.procmbean.Proc.Permission.EXECUTE;
-import static com.github.marschall.procmbean.Proc.Permission.PRIVATE;
-import static com.github.marschall.procmbean.Proc.Permission.READ;
-import static com.github.marschall.procmbean.Proc.Permission.SHARED;
-import static com.github.marschall.procmbean.Proc.Permission.WRITE;
+import static com.github.marschall.procmbean.ProcOpenBean.Permission.EXECUTE;
+import static com.github.marschall.procmbean.ProcOpenBean.Permission.PRIVATE;
+import static com.github.marschall.procmbean.ProcOpenBean.Permission.READ;
+import static com.github.marschall.procmbean.ProcOpenBean.Permission.SHARED;
+import static com.github.marschall.procmbean.ProcOpenBean.Permission.WRITE;
 import static java.util.stream.Collectors.toList;
 
 import java.io.IOException;
@@ -164,8 +164,8 @@ public class ProcOpenBean implements DynamicMBean {
   static List<Mapping> parse(Path path) {
     try (Stream<String> lines = Files.lines(path, StandardCharsets.US_ASCII)) {
       return lines
-              .map(Proc::parseLine)
-              .map(Proc::convertToMapping)
+              .map(ProcOpenBean::parseLine)
+              .map(ProcOpenBean::convertToMapping)
               .collect(toList());
     } catch (IOException e) {
       throw new UncheckedIOException(e);
@@ -1,10 +1,19 @@
 package com.github.marschall.procmbean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -30,12 +39,94 @@ class ProcTest {
   @Test
   void getMappings() {
     List<Mapping> mappings = Proc.getMappings(getSampleFile("maps-sample-input.txt"));
-    assertThat(mappings).isNotEmpty();
+    assertThat(mappings).hasSize(190);
+
+    Mapping heap = mappings.get(2);
+    assertEquals(0x02568000L - 0x02547000L, heap.getSize());
+    assertTrue(heap.isRead());
+    assertTrue(heap.isWrite());
+    assertFalse(heap.isExecute());
+    assertFalse(heap.isShared());
+    assertTrue(heap.isPrivate());
+    assertEquals("[heap]", heap.getPathname());
+
+    Mapping anonymous = mappings.get(3);
+    assertNull(anonymous.getPathname());
+  }
+
+  @Test
+  void visitMappings() {
+    List<String> lines = new ArrayList<>();
+    Proc.visitMappings(getSampleFile("maps-sample-input.txt"), (start, end, permissions, offset, deviceMajor, deviceMinor, inode, pathname, pathnameOffset, pathnameLength) -> {
+      String path = pathnameLength > 0 ? new String(pathname, pathnameOffset, pathnameLength, StandardCharsets.UTF_8) : null;
+      lines.add(Long.toHexString(start) + '-' + Long.toHexString(end)
+              + ' ' + permissions + ' ' + offset + ' ' + deviceMajor + ':' + deviceMinor + ' ' + inode + ' ' + path);
+    });
+    assertThat(lines).hasSize(190);
+    assertEquals("400000-401000 21 0 8:18 42337235 /home/marschall/bin/java/jdk1.8.0_162/bin/java", lines.get(0));
+    assertEquals("3d2400000-3fc300000 19 0 0:0 0 null", lines.get(3));
+  }
+
+  @Test
+  void mappingsString() {
+    String[] lines = Proc.mappingsString(getSampleFile("maps-sample-input.txt"), ',').split("\n");
+    // anonymous mappings are skipped
+    assertThat(lines).hasSize(1 + 80);
+    assertEquals("size,read,write,execute,shared,private,pathname", lines[0]);
+    assertEquals("4096,true,false,true,false,true,/home/marschall/bin/java/jdk1.8.0_162/bin/java", lines[1]);
+    assertEquals("135168,true,true,false,false,true,[heap]", lines[3]);
+  }
+
+  @Test
+  void getSmaps() {
+    Smaps smaps = Proc.getSmaps(getSampleFile("smaps-sample-input.txt"));
+    assertEquals(8177512L * 1024L, smaps.getSize());
+    assertEquals(910648L * 1024L, smaps.getResidentSet());
+    assertEquals(862473L * 1024L, smaps.getProportionalSet());
+    assertEquals((54704L + 1964L) * 1024L, smaps.getShared());
+    assertEquals((28376L + 825604L) * 1024L, smaps.getPrivate());
+    assertEquals(0L, smaps.getSwapped());
+    assertEquals(0L, smaps.getAnonymousHugePages());
+    assertEquals(0L, smaps.getLocked());
+
+    List<SmapsMapping> mappings = smaps.getMappings();
+    assertThat(mappings).hasSize(1170);
+
+    SmapsMapping first = mappings.get(0);
+    assertEquals("/home/marschall/bin/java/jdk1.8.0_162/bin/java", first.getPathname());
+    assertEquals(4L * 1024L, first.getSize());
+    assertEquals(4L * 1024L, first.getPrivate());
+
+    SmapsMapping deleted = mappings.get(534);
+    assertEquals("/SYSV00000000 (deleted)", deleted.getPathname());
+    assertEquals(8192L * 1024L, deleted.getSize());
+    assertEquals(3412L * 1024L, deleted.getResidentSet());
+    assertEquals(2430L * 1024L, deleted.getProportionalSet());
+    assertEquals(1964L * 1024L, deleted.getShared());
   }
 
   @Test
-  void smaps() {
-    Proc.smaps(getSampleFile("smaps-sample-input.txt"));
+  void getSmapsRollup() {
+    SmapsRollup rollup = Proc.getSmapsRollup(getSampleFile("smaps_rollup-sample-input.txt"), getSampleFile("smaps-sample-input.txt"));
+    assertEquals("smaps_rollup", rollup.getSource());
+    assertSmapsRollupSample(rollup);
+  }
+
+  @Test
+  void getSmapsRollupFallback() {
+    SmapsRollup rollup = Proc.getSmapsRollup(getSampleFile("missing"), getSampleFile("smaps-sample-input.txt"));
+    assertEquals("smaps", rollup.getSource());
+    assertSmapsRollupSample(rollup);
+  }
+
+  private static void assertSmapsRollupSample(SmapsRollup rollup) {
+    assertEquals(910648L * 1024L, rollup.getResidentSet());
+    assertEquals(862473L * 1024L, rollup.getProportionalSet());
+    assertEquals((54704L + 1964L) * 1024L, rollup.getShared());
+    assertEquals((28376L + 825604L) * 1024L, rollup.getPrivate());
+    assertEquals(0L, rollup.getSwapped());
+    assertEquals(0L, rollup.getAnonymousHugePages());
+    assertEquals(0L, rollup.getLocked());
   }
 
   @Test
@@ -57,6 +148,37 @@ class ProcTest {
     assertEquals(0L, stat.getGuestTime());
   }
 
+  @Test
+  void getStatPersistent() throws IOException {
+    try (ProcFile file = ProcFile.persistent(getSampleFile("stat-sample-input.txt"))) {
+      for (int i = 0; i < 2; i++) {
+        ProcessStat stat = Proc.getStat(file);
+        assertEquals(3335, stat.getPid());
+        assertEquals(0L, stat.getGuestTime());
+      }
+    }
+  }
+
+  @Test
+  void readLargeFilePersistent() throws IOException {
+    Path path = getSampleFile("smaps-sample-input.txt");
+    try (ProcFile file = ProcFile.persistent(path)) {
+      ReadBuffer buffer = Proc.read(file);
+      assertArrayEquals(Files.readAllBytes(path), Arrays.copyOf(buffer.array(), buffer.length()));
+    }
+  }
+
+  @Test
+  void withPersistentHandles() throws IOException {
+    try (Proc proc = Proc.withPersistentHandles()) {
+      int pid = new Proc().getStat().getPid();
+      assertEquals(pid, proc.getStat().getPid());
+      assertEquals(pid, proc.getStat().getPid());
+      assertThat(proc.getStatus().getResidentSet()).isPositive();
+      assertThat(proc.getMemoryUsageStatistics().getResidentSet()).isPositive();
+    }
+  }
+
   @Test
   void getMemoryUsageStatistics() {
     MemoryUsageStatistics memoryUsage = Proc.getMemoryUsageStatistics(getSampleFile("statm-sample-input.txt"));
@@ -90,6 +212,8 @@ class ProcTest {
     assertEquals(49L, status.getThreads());
     assertEquals(4L, status.getContextSwitchesVoluntary());
     assertEquals(1L, status.getContextSwitchesInvoluntary());
+    assertEquals("0-7", status.getCpusAllowedList());
+    assertEquals("0", status.getMemsAllowedList());
   }
 
   @Test
@@ -99,9 +223,12 @@ class ProcTest {
   }
 
   @Test
-  void parseMemory() {
-    assertEquals(0L, Proc.parseMemory("0 kB"));
-    assertEquals(1003180L * 1024L, Proc.parseMemory("1003180 kB"));
+  void otherPid() throws IOException {
+    int pid = ProcessTree.currentPid();
+    try (Proc proc = Proc.withPersistentHandles(pid)) {
+      assertEquals(pid, proc.getStat().getPid());
+    }
+    assertEquals(pid, new Proc(pid).getStat().getPid());
   }
 
 }
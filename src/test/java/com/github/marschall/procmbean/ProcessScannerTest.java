@@ -0,0 +1,60 @@
+package com.github.marschall.procmbean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+class ProcessScannerTest {
+
+  @Test
+  void parsePid() {
+    assertEquals(1234, ProcessScanner.parsePid("1234"));
+    assertEquals(-1, ProcessScanner.parsePid("self"));
+    assertEquals(-1, ProcessScanner.parsePid(""));
+    assertEquals(-1, ProcessScanner.parsePid("99999999999"));
+  }
+
+  @Test
+  void scan() throws IOException {
+    Path proc = Files.createTempDirectory("proc");
+    try (ProcessScanner scanner = new ProcessScanner(proc, 2)) {
+      for (int pid = 1; pid <= 500; pid++) {
+        TestFiles.writeProcess(proc, pid, 1, "p" + pid, pid, 1000L - pid);
+      }
+      Files.createDirectories(proc.resolve("sys"));
+
+      ProcessScan first = scanner.scan(2);
+      assertEquals(500, first.getProcesses());
+      assertThat(first.getLargest()).extracting(ProcessUsage::getPid).containsExactly(1, 2);
+      assertEquals(999L * PageSize.pageSize(), first.getLargest().get(0).getResidentSet());
+      assertEquals("p1", first.getLargest().get(0).getName());
+      assertThat(first.getBusiest()).extracting(ProcessUsage::getPid).containsExactly(500, 499);
+
+      TestFiles.writeProcess(proc, 7, 1, "p7", 7L + 1000L, 1L);
+      TestFiles.delete(proc.resolve("1"));
+
+      ProcessScan second = scanner.scan(1);
+      assertEquals(499, second.getProcesses());
+      assertThat(second.getBusiest()).extracting(ProcessUsage::getPid).containsExactly(7);
+      assertEquals(1000L, second.getBusiest().get(0).getCpuTimeDelta());
+      assertThat(second.getLargest()).extracting(ProcessUsage::getPid).containsExactly(2);
+    } finally {
+      TestFiles.delete(proc);
+    }
+  }
+
+  @Test
+  void liveScan() {
+    try (ProcessScanner scanner = new ProcessScanner()) {
+      ProcessScan scan = scanner.scan(5);
+      assertThat(scan.getProcesses()).isPositive();
+      assertThat(scan.getLargest()).isNotEmpty();
+    }
+  }
+
+}
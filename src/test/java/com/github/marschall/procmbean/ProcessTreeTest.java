@@ -0,0 +1,165 @@
+package com.github.marschall.procmbean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+
+import org.junit.jupiter.api.Test;
+
+class ProcessTreeTest {
+
+  @Test
+  void parentPid() {
+    byte[] stat = "3335 (a) b) S 3311 3310\n".getBytes(US_ASCII);
+    assertEquals(3311, ProcessTree.parentPid(stat, stat.length));
+  }
+
+  @Test
+  void totals() throws IOException {
+    Path proc = Files.createTempDirectory("proc");
+    try {
+      TestFiles.writeProcess(proc, 1, 0, "sh", 1000L, 10L);
+      TestFiles.writeProcess(proc, 100, 1, "sh", 10L, 1L);
+      TestFiles.writeProcess(proc, 101, 100, "sh", 20L, 2L);
+      TestFiles.writeProcess(proc, 102, 101, "sh", 30L, 3L);
+      TestFiles.writeProcess(proc, 103, 1, "sh", 40L, 4L);
+      Files.createDirectories(proc.resolve("self"));
+
+      ProcessTree tree = new ProcessTree(proc, 100);
+      assertThat(tree.getDescendants()).containsExactly(101, 102);
+
+      ProcessTreeTotals totals = tree.getTotals();
+      assertEquals(3, totals.getProcesses());
+      assertEquals(60L, totals.getUserTime());
+      assertEquals(6L * PageSize.pageSize(), totals.getResidentSet());
+      assertEquals(30L, totals.getCharactersRead());
+      assertEquals(3L * 8192L, totals.getBytesWritten());
+    } finally {
+      TestFiles.delete(proc);
+    }
+  }
+
+  @Test
+  void exitedAfterListing() throws IOException {
+    Path proc = Files.createTempDirectory("proc");
+    try {
+      TestFiles.writeProcess(proc, 1, 0, "sh", 1000L, 10L);
+      TestFiles.writeProcess(proc, 100, 1, "sh", 10L, 1L);
+      TestFiles.writeProcess(proc, 101, 100, "sh", 20L, 2L);
+      TestFiles.writeProcess(proc, 102, 100, "sh", 30L, 3L);
+      Set<Path> exited = new HashSet<>();
+      ProcessTree tree = new ProcessTree(proc, 100) {
+
+        @Override
+        ProcFile procFile(Path path) {
+          if (!exited.contains(path.getParent())) {
+            return super.procFile(path);
+          }
+          return new ProcFile() {
+
+            @Override
+            void read(ReadBuffer buffer) throws IOException {
+              // ESRCH with LC_MESSAGES=de_DE
+              throw new IOException("Kein passender Prozess gefunden");
+            }
+
+            @Override
+            public void close() {
+            }
+
+          };
+        }
+
+      };
+
+      exited.add(proc.resolve("102"));
+      assertThat(tree.getDescendants()).containsExactly(101);
+
+      exited.clear();
+      assertThat(tree.getDescendants()).containsExactly(101, 102);
+      exited.add(proc.resolve("101"));
+      ProcessTreeTotals totals = tree.getTotals();
+      assertEquals(2, totals.getProcesses());
+      assertEquals(40L, totals.getUserTime());
+    } finally {
+      TestFiles.delete(proc);
+    }
+  }
+
+  @Test
+  void alreadyRegistered() throws IOException, InterruptedException, JMException {
+    Process child = new ProcessBuilder("sleep", "30").start();
+    try {
+      ProcessTree tree = new ProcessTree();
+      int pid = sleepPid(tree);
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      Proc registeredByUser = new Proc(pid);
+      server.registerMBean(registeredByUser, Proc.objectName(pid));
+      ProcessTree.install(tree);
+      try {
+        // the conflicting registration does not fail the read
+        assertThat(tree.getDescendants()).contains(pid);
+        assertThat(tree.getTotals().getProcesses()).isGreaterThanOrEqualTo(2);
+
+        server.unregisterMBean(Proc.objectName(pid));
+        tree.getDescendants();
+        assertTrue(server.isRegistered(Proc.objectName(pid)));
+      } finally {
+        ProcessTree.uninstall();
+      }
+      assertFalse(server.isRegistered(Proc.objectName(pid)));
+    } finally {
+      child.destroy();
+      child.waitFor();
+    }
+  }
+
+  private static int sleepPid(ProcessTree tree) throws IOException {
+    // Process#pid() needs Java 9
+    int pid = -1;
+    for (int descendant : tree.getDescendants()) {
+      Path comm = Proc.procDirectory(descendant).resolve("comm");
+      if (new String(Files.readAllBytes(comm), US_ASCII).equals("sleep\n")) {
+        pid = descendant;
+      }
+    }
+    assertThat(pid).isPositive();
+    return pid;
+  }
+
+  @Test
+  void childRegistrations() throws IOException, InterruptedException, JMException {
+    Process child = new ProcessBuilder("sleep", "30").start();
+    try {
+      ProcessTree tree = new ProcessTree();
+      int pid = sleepPid(tree);
+      assertThat(tree.getTotals().getProcesses()).isGreaterThanOrEqualTo(2);
+
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ProcessTree.install(tree);
+      try {
+        tree.getDescendants();
+        assertTrue(server.isRegistered(Proc.objectName(pid)));
+      } finally {
+        ProcessTree.uninstall();
+      }
+      assertFalse(server.isRegistered(Proc.objectName(pid)));
+    } finally {
+      child.destroy();
+      child.waitFor();
+    }
+  }
+
+}
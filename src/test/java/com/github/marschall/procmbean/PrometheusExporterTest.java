@@ -0,0 +1,77 @@
+package com.github.marschall.procmbean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class PrometheusExporterTest {
+
+  private static String write(long value) throws IOException {
+    PrometheusWriter writer = new PrometheusWriter();
+    writer.writeLong(value);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    writer.writeTo(output);
+    return new String(output.toByteArray(), StandardCharsets.US_ASCII);
+  }
+
+  @Test
+  void writeLong() throws IOException {
+    assertEquals("0", write(0L));
+    assertEquals("7", write(7L));
+    assertEquals("1234567890", write(1234567890L));
+    assertEquals(Long.toString(Long.MAX_VALUE), write(Long.MAX_VALUE));
+    // RLIM_INFINITY
+    assertEquals("18446744073709551615", write(-1L));
+  }
+
+  @Test
+  void metricNames() {
+    assertEquals("proc_status_resident_set_bytes", PrometheusWriter.metricName(Metric.STATUS_RESIDENT_SET));
+    assertEquals("proc_status_resident_set_peak_bytes", PrometheusWriter.metricName(Metric.STATUS_RESIDENT_SET_PEAK));
+    assertEquals("proc_stat_user_time_ticks_total", PrometheusWriter.metricName(Metric.STAT_USER_TIME));
+    assertEquals("proc_io_statistics_read_syscalls_total", PrometheusWriter.metricName(Metric.IO_READ_SYSCALLS));
+    assertEquals("proc_oom_score", PrometheusWriter.metricName(Metric.OOM_SCORE));
+  }
+
+  @Test
+  void scrape() throws IOException {
+    InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    try (PrometheusExporter exporter = PrometheusExporter.start(new Proc(), address)) {
+      URL url = new URL("http", "localhost", exporter.getAddress().getPort(), "/metrics");
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      try {
+        assertEquals(200, connection.getResponseCode());
+        assertThat(connection.getContentType()).startsWith("text/plain; version=0.0.4");
+        String body;
+        try (InputStream input = connection.getInputStream()) {
+          ByteArrayOutputStream output = new ByteArrayOutputStream();
+          byte[] buffer = new byte[4096];
+          int read;
+          while ((read = input.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+          }
+          body = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+        assertEquals(body.length(), connection.getContentLength());
+        assertThat(body)
+          .contains("# TYPE proc_status_resident_set_bytes gauge\n")
+          .contains("# TYPE proc_stat_minor_faults_total counter\n")
+          .containsPattern("\nproc_status_threads [1-9][0-9]*\n");
+        assertEquals(Metric.values().length * 2, body.split("\n").length);
+      } finally {
+        connection.disconnect();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,64 @@
+package com.github.marschall.procmbean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class RateCalculatorTest {
+
+  private static final double DELTA = 0.0001d;
+
+  private static Sample sample(long seconds, long ticks, long faults, long bytes, long syscalls, long contextSwitches) {
+    ProcessStat stat = new ProcessStat(1, 'S', faults, faults / 2, ticks, ticks, 1, 0L, 0L, 0L, 0L, 0L, 0L);
+    ProcessStatus status = new ProcessStatus("S (sleeping)", 64, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 1,
+            contextSwitches, contextSwitches, null, null);
+    MemoryUsageStatistics memoryUsage = new MemoryUsageStatistics(0L, 0L, 0L, 0L, 0L);
+    IoStatistics io = new IoStatistics(0L, 0L, syscalls, syscalls * 2, bytes, bytes * 2, 0L);
+    return new Sample(TimeUnit.SECONDS.toMillis(seconds), TimeUnit.SECONDS.toNanos(seconds), stat, status, memoryUsage, io, 0);
+  }
+
+  @Test
+  void noSamples() {
+    RateCalculator calculator = new RateCalculator(4);
+    assertEquals(0.0d, calculator.getCpuUtilization(), DELTA);
+    calculator.onSample(sample(1L, 0L, 0L, 0L, 0L, 0L));
+    assertEquals(0.0d, calculator.getMinorFaultRate(), DELTA);
+  }
+
+  @Test
+  void rates() {
+    RateCalculator calculator = new RateCalculator(4);
+    calculator.onSample(sample(10L, 1000L, 100L, 4096L, 10L, 5L));
+    calculator.onSample(sample(12L, 1100L, 300L, 8192L, 30L, 15L));
+
+    // 200 ticks = 2 CPU seconds in 2 seconds on 4 CPUs
+    assertEquals(25.0d, calculator.getCpuUtilization(), DELTA);
+    assertEquals(100.0d, calculator.getMinorFaultRate(), DELTA);
+    assertEquals(50.0d, calculator.getMajorFaultRate(), DELTA);
+    assertEquals(2048.0d, calculator.getReadByteRate(), DELTA);
+    assertEquals(4096.0d, calculator.getWriteByteRate(), DELTA);
+    assertEquals(10.0d, calculator.getReadSyscallRate(), DELTA);
+    assertEquals(20.0d, calculator.getWriteSyscallRate(), DELTA);
+    assertEquals(10.0d, calculator.getContextSwitchRate(), DELTA);
+  }
+
+  @Test
+  void onlyLastTwoSamples() {
+    RateCalculator calculator = new RateCalculator(1);
+    calculator.onSample(sample(1L, 0L, 0L, 0L, 0L, 0L));
+    calculator.onSample(sample(2L, 0L, 1000L, 0L, 0L, 0L));
+    calculator.onSample(sample(3L, 0L, 1010L, 0L, 0L, 0L));
+    assertEquals(10.0d, calculator.getMinorFaultRate(), DELTA);
+  }
+
+  @Test
+  void decreasingCounter() {
+    RateCalculator calculator = new RateCalculator(1);
+    calculator.onSample(sample(1L, 0L, 1000L, 0L, 0L, 0L));
+    calculator.onSample(sample(2L, 0L, 10L, 0L, 0L, 0L));
+    assertEquals(0.0d, calculator.getMinorFaultRate(), DELTA);
+  }
+
+}
@@ -0,0 +1,46 @@
+package com.github.marschall.procmbean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class SampleBufferTest {
+
+  private static Sample sample(long timestamp) {
+    ProcessStat stat = new ProcessStat(1, 'S', timestamp, 0L, 0L, 0L, 1, 0L, 0L, 0L, 0L, 0L, 0L);
+    ProcessStatus status = new ProcessStatus("S (sleeping)", 64, 0L, 0L, 0L, 0L, timestamp * 2, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 1, 0L, 0L, null, null);
+    MemoryUsageStatistics memoryUsage = new MemoryUsageStatistics(0L, 0L, 0L, 0L, 0L);
+    IoStatistics io = new IoStatistics(0L, 0L, 0L, 0L, 0L, 0L, 0L);
+    return new Sample(timestamp, timestamp * 1_000_000L, stat, status, memoryUsage, io, 0);
+  }
+
+  @Test
+  void empty() {
+    SampleBuffer buffer = new SampleBuffer(4);
+    assertArrayEquals(new long[0], buffer.getTimestamps(2));
+    assertEquals(0L, buffer.getWritten());
+  }
+
+  @Test
+  void partiallyFilled() {
+    SampleBuffer buffer = new SampleBuffer(4);
+    buffer.append(sample(1L));
+    buffer.append(sample(2L));
+    assertArrayEquals(new long[] {1L, 2L}, buffer.getTimestamps(10));
+    assertArrayEquals(new long[] {2L}, buffer.getTimestamps(1));
+    assertArrayEquals(new long[] {2L, 4L}, buffer.getValues(Metric.STATUS_RESIDENT_SET, 2));
+  }
+
+  @Test
+  void wrapAround() {
+    SampleBuffer buffer = new SampleBuffer(4);
+    for (long i = 1L; i <= 6L; i++) {
+      buffer.append(sample(i));
+    }
+    assertEquals(6L, buffer.getWritten());
+    assertArrayEquals(new long[] {3L, 4L, 5L, 6L}, buffer.getTimestamps(10));
+    assertArrayEquals(new long[] {5L, 6L}, buffer.getValues(Metric.STAT_MINOR_FAULTS, 2));
+  }
+
+}
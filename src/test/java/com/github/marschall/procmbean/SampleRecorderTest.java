@@ -0,0 +1,107 @@
+package com.github.marschall.procmbean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class SampleRecorderTest {
+
+  private static final int BLOCK_SIZE = 2048;
+
+  private static String[] readCsv(Path file) throws IOException {
+    StringBuilder csv = new StringBuilder();
+    RecordingReader.writeCsv(file, csv);
+    return csv.toString().split("\n");
+  }
+
+  @Test
+  void roundTrip() throws IOException {
+    Path file = Files.createTempFile("recording", ".bin");
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false)) {
+      Sample template = Sample.read(new Proc());
+      SampleRecorder recorder = new SampleRecorder(sampler, file, 4 * BLOCK_SIZE, BLOCK_SIZE);
+      recorder.onSample(Samples.sample(template, 1000L, 10));
+      recorder.onSample(Samples.sample(template, 2000L, 5));
+      recorder.onSample(Samples.sample(template, 3500L, 7));
+      recorder.close();
+
+      String[] lines = readCsv(file);
+      assertThat(lines).hasSize(4);
+      String[] header = lines[0].split(",");
+      assertEquals("timestamp", header[0]);
+      assertEquals(Metric.values().length + 1, header.length);
+      int oomScoreColumn = header.length - 1;
+      assertEquals("OomScore", header[oomScoreColumn]);
+      assertEquals("1000", lines[1].split(",")[0]);
+      assertEquals("10", lines[1].split(",")[oomScoreColumn]);
+      assertEquals("5", lines[2].split(",")[oomScoreColumn]);
+      assertEquals("3500", lines[3].split(",")[0]);
+      assertEquals("7", lines[3].split(",")[oomScoreColumn]);
+      int residentSetColumn = Arrays.asList(header).indexOf("Status.residentSet");
+      assertEquals(Long.toString(template.status.getResidentSet()), lines[3].split(",")[residentSetColumn]);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void wrapAround() throws IOException {
+    Path file = Files.createTempFile("recording", ".bin");
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false)) {
+      Sample template = Sample.read(new Proc());
+      SampleRecorder recorder = new SampleRecorder(sampler, file, 3 * BLOCK_SIZE, BLOCK_SIZE);
+      for (int i = 0; i < 1000; i++) {
+        recorder.onSample(Samples.sample(template, 1000L * i, i % 100));
+      }
+      recorder.close();
+
+      String[] lines = readCsv(file);
+      // two blocks are kept, the newest samples are last
+      assertThat(lines.length).isBetween(3, 1000);
+      long previous = -1L;
+      for (int i = 1; i < lines.length; i++) {
+        long timestamp = Long.parseLong(lines[i].split(",")[0]);
+        assertEquals(previous == -1L ? timestamp : previous + 1000L, timestamp);
+        previous = timestamp;
+      }
+      assertEquals(999_000L, previous);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void sampler() throws IOException {
+    Path file = Files.createTempFile("recording", ".bin");
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false);
+         SampleRecorder recorder = new SampleRecorder(sampler, file, 64 * 1024)) {
+      sampler.sample();
+      sampler.sample();
+      recorder.close();
+      assertThat(readCsv(file)).hasSize(3);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void notARecording() throws IOException {
+    Path file = Files.createTempFile("recording", ".bin");
+    try {
+      Files.write(file, "timestamp,OomScore\n1000,5\n".getBytes(US_ASCII));
+      assertThrows(IOException.class, () -> readCsv(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+}
@@ -0,0 +1,54 @@
+package com.github.marschall.procmbean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SamplerTest {
+
+  @Test
+  void sample() {
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false)) {
+      sampler.sample();
+      sampler.sample();
+      assertEquals(2L, sampler.getSampleCount());
+      assertEquals(0L, sampler.getFailedSampleCount());
+      assertThat(sampler.lastTimestamps(2)).hasSize(2);
+      long[] residentSet = sampler.lastValues("Status.residentSet", 2);
+      assertThat(residentSet).hasSize(2);
+      assertThat(residentSet[1]).isPositive();
+      assertThat(sampler.getAverageSampleDuration()).isPositive();
+      assertThat(sampler.getMetrics()).contains("OomScore", "IoStatistics.bytesRead");
+    }
+  }
+
+  @Test
+  void unknownMetric() {
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16)) {
+      assertThrows(IllegalArgumentException.class, () -> sampler.lastValues("Status.unknown", 1));
+    }
+  }
+
+  @Test
+  void subscription() {
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false)) {
+      AtomicInteger first = new AtomicInteger();
+      AtomicInteger second = new AtomicInteger();
+      SampleSubscription subscription = new SampleSubscription();
+      subscription.subscribe(sampler, sample -> first.incrementAndGet());
+      sampler.sample();
+      subscription.subscribe(sampler, sample -> second.incrementAndGet());
+      sampler.sample();
+      subscription.cancel();
+      sampler.sample();
+      assertEquals(1, first.get());
+      assertEquals(1, second.get());
+    }
+  }
+
+}
@@ -0,0 +1,20 @@
+package com.github.marschall.procmbean;
+
+/**
+ * Creates samples with chosen values for tests.
+ */
+final class Samples {
+
+  private Samples() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Copies a sample with a different timestamp and OOM score.
+   */
+  static Sample sample(Sample template, long timestamp, int oomScore) {
+    return new Sample(timestamp, template.nanoTime, template.stat, template.status,
+            template.memoryUsage, template.io, oomScore);
+  }
+
+}
@@ -0,0 +1,135 @@
+package com.github.marschall.procmbean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class SharedCountersTest {
+
+  @Test
+  void publish() throws IOException {
+    Path file = Files.createTempDirectory("counters").resolve("counters");
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false);
+         SharedCounters counters = new SharedCounters(sampler, file)) {
+      Sample template = Sample.read(new Proc());
+      counters.onSample(Samples.sample(template, 1234L, 42));
+
+      SharedCountersReader reader = SharedCountersReader.open(file);
+      assertEquals(ProcessTree.currentPid(), reader.getPid());
+      assertThat(reader.getMetrics()).hasSize(Metric.values().length);
+      long[] values = new long[reader.getMetrics().length];
+      assertEquals(1234L, reader.read(values));
+      assertEquals(42L, values[reader.indexOf("OomScore")]);
+      assertEquals(template.status.getResidentSet(), values[reader.indexOf("Status.residentSet")]);
+      assertEquals(-1, reader.indexOf("Status.unknown"));
+
+      counters.close();
+      assertFalse(Files.exists(file));
+    } finally {
+      Files.deleteIfExists(file);
+      Files.delete(file.getParent());
+    }
+  }
+
+  @Test
+  void replaceSymbolicLink() throws IOException {
+    Path directory = Files.createTempDirectory("counters");
+    Path target = directory.resolve("target");
+    Path file = directory.resolve("counters");
+    try {
+      Files.write(target, new byte[] {1, 2, 3});
+      Files.createSymbolicLink(file, target);
+      try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false);
+           SharedCounters counters = new SharedCounters(sampler, file)) {
+        assertFalse(Files.isSymbolicLink(file));
+        assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(target));
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(file));
+      }
+    } finally {
+      Files.deleteIfExists(file);
+      Files.delete(target);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  void privateDirectory() throws IOException {
+    Path parent = Files.createTempDirectory("counters");
+    Path directory = parent.resolve("procmbean_test");
+    Path link = parent.resolve("link");
+    try {
+      SharedCounters.createPrivateDirectory(directory);
+      assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(directory));
+      // existing private directories are reused
+      SharedCounters.createPrivateDirectory(directory);
+
+      Files.createSymbolicLink(link, directory);
+      assertThrows(IOException.class, () -> SharedCounters.createPrivateDirectory(link));
+
+      Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("rwxrwxrwx"));
+      assertThrows(IOException.class, () -> SharedCounters.createPrivateDirectory(directory));
+    } finally {
+      Files.deleteIfExists(link);
+      Files.deleteIfExists(directory);
+      Files.delete(parent);
+    }
+  }
+
+  @Test
+  void consistentSnapshots() throws IOException, InterruptedException {
+    Path file = Files.createTempDirectory("counters").resolve("counters");
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false);
+         SharedCounters counters = new SharedCounters(sampler, file)) {
+      Sample template = Sample.read(new Proc());
+      AtomicBoolean running = new AtomicBoolean(true);
+      Thread writer = new Thread(() -> {
+        int i = 0;
+        while (running.get()) {
+          // timestamp and oom score always match
+          counters.onSample(Samples.sample(template, i, i));
+          i += 1;
+          Thread.yield();
+        }
+      });
+      writer.start();
+      try {
+        SharedCountersReader reader = SharedCountersReader.open(file);
+        int oomScore = reader.indexOf("OomScore");
+        long[] values = new long[reader.getMetrics().length];
+        for (int i = 0; i < 100_000; i++) {
+          long timestamp = reader.read(values);
+          assertEquals(timestamp, values[oomScore]);
+        }
+      } finally {
+        running.set(false);
+        writer.join();
+      }
+    } finally {
+      Files.deleteIfExists(file);
+      Files.delete(file.getParent());
+    }
+  }
+
+  @Test
+  void notCounters() throws IOException {
+    Path file = Files.createTempFile("counters", ".bin");
+    try {
+      Files.write(file, new byte[128]);
+      assertThrows(IOException.class, () -> SharedCountersReader.open(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+}
@@ -0,0 +1,49 @@
+package com.github.marschall.procmbean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Creates and deletes fake proc files for tests.
+ */
+final class TestFiles {
+
+  private TestFiles() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Deletes a directory and everything in it, symbolic links are not
+   * followed.
+   */
+  static void delete(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      Iterator<Path> iterator = paths.sorted(Comparator.reverseOrder()).iterator();
+      while (iterator.hasNext()) {
+        Files.delete(iterator.next());
+      }
+    }
+  }
+
+  /**
+   * Writes {@code stat}, {@code comm} and {@code io} of a process to a
+   * fake {@code /proc}.
+   */
+  static void writeProcess(Path proc, int pid, int parent, String name, long userTime, long rssPages) throws IOException {
+    Path directory = proc.resolve(Integer.toString(pid));
+    Files.createDirectories(directory);
+    String stat = pid + " (" + name + ") S " + parent + " 3310 3300 34817 3310 1077936128 1476957 2643 390 14 "
+            + userTime + " 0 0 22 20 0 1 0 535568 8370806784 " + rssPages + " 18446744073709551615\n";
+    Files.write(directory.resolve("stat"), stat.getBytes(US_ASCII));
+    Files.write(directory.resolve("comm"), (name + '\n').getBytes(US_ASCII));
+    String io = "rchar: 10\nwchar: 20\nsyscr: 1\nsyscw: 2\nread_bytes: 4096\nwrite_bytes: 8192\ncancelled_write_bytes: 0\n";
+    Files.write(directory.resolve("io"), io.getBytes(US_ASCII));
+  }
+
+}
@@ -0,0 +1,188 @@
+package com.github.marschall.procmbean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class ThreadMonitorTest {
+
+  private static void writeStat(Path taskDirectory, int tid, String name, long userTime, long kernelTime) throws IOException {
+    Path task = taskDirectory.resolve(Integer.toString(tid));
+    Files.createDirectories(task);
+    String stat = tid + " (" + name + ") S 3311 3310 3300 34817 3310 1077936128 1476957 2643 390 14 "
+            + userTime + ' ' + kernelTime + " 0 22 20 0 48 0 535568 8370806784 226096\n";
+    Files.write(task.resolve("stat"), stat.getBytes(US_ASCII));
+  }
+
+  private static void writeSchedstat(Path taskDirectory, int tid, String name, long runTime, long waitTime, long timeslices) throws IOException {
+    Path task = taskDirectory.resolve(Integer.toString(tid));
+    Files.createDirectories(task);
+    Files.write(task.resolve("schedstat"), (runTime + " " + waitTime + " " + timeslices + "\n").getBytes(US_ASCII));
+    Files.write(task.resolve("comm"), (name + "\n").getBytes(US_ASCII));
+  }
+
+  @Test
+  void unreadableStat() throws IOException {
+    Path taskDirectory = Files.createTempDirectory("task");
+    try (ThreadMonitor monitor = new ThreadMonitor(taskDirectory, 1)) {
+      writeStat(taskDirectory, 10, "java", 100L, 50L);
+      // still listed but failing to read, like a thread exiting with ESRCH
+      Files.createDirectories(taskDirectory.resolve("11").resolve("stat"));
+
+      assertThat(monitor.busiestThreads(10)).extracting(ThreadCpu::getTid).containsExactly(10);
+
+      writeSchedstat(taskDirectory, 10, "java", 1000L, 2000L, 1L);
+      Files.createDirectories(taskDirectory.resolve("11").resolve("schedstat"));
+      monitor.sampleSchedules();
+      assertThat(monitor.mostDelayedThreads(10)).extracting(ThreadSchedule::getTid).containsExactly(10);
+      assertEquals(1, monitor.getThreadCount());
+    } finally {
+      TestFiles.delete(taskDirectory);
+    }
+  }
+
+  @Test
+  void deltas() throws IOException {
+    Path taskDirectory = Files.createTempDirectory("task");
+    try (ThreadMonitor monitor = new ThreadMonitor(taskDirectory, 1)) {
+      writeStat(taskDirectory, 10, "java", 100L, 50L);
+      writeStat(taskDirectory, 11, "GC Thread#0", 10L, 5L);
+      writeStat(taskDirectory, 12, "worker (1)", 20L, 0L);
+
+      // first scan is ordered by total CPU time
+      List<ThreadCpu> first = monitor.busiestThreads(2);
+      assertThat(first).extracting(ThreadCpu::getTid).containsExactly(10, 12);
+      assertEquals(0L, first.get(0).getCpuTimeDelta());
+      assertEquals("worker (1)", first.get(1).getName());
+      assertEquals(3, monitor.getThreadCount());
+
+      writeStat(taskDirectory, 11, "GC Thread#0", 40L, 15L);
+      writeStat(taskDirectory, 12, "worker (1)", 25L, 0L);
+      TestFiles.delete(taskDirectory.resolve("10"));
+      writeStat(taskDirectory, 13, "new", 1L, 1L);
+
+      List<ThreadCpu> second = monitor.busiestThreads(10);
+      assertThat(second).extracting(ThreadCpu::getTid).containsExactly(11, 12, 13);
+      assertThat(second).extracting(ThreadCpu::getCpuTimeDelta).containsExactly(40L, 5L, 2L);
+      assertEquals('S', second.get(0).getState());
+      assertEquals(3, monitor.getThreadCount());
+    } finally {
+      TestFiles.delete(taskDirectory);
+    }
+  }
+
+  @Test
+  void parallelScan() throws IOException {
+    Path taskDirectory = Files.createTempDirectory("task");
+    try (ThreadMonitor monitor = new ThreadMonitor(taskDirectory, 4)) {
+      for (int tid = 1; tid <= 1000; tid++) {
+        writeStat(taskDirectory, tid, "thread-" + tid, tid, 0L);
+      }
+      List<ThreadCpu> busiest = monitor.busiestThreads(3);
+      assertThat(busiest).extracting(ThreadCpu::getTid).containsExactly(1000, 999, 998);
+      assertEquals(1000, monitor.getThreadCount());
+    } finally {
+      TestFiles.delete(taskDirectory);
+    }
+  }
+
+  @Test
+  void scheduleDeltas() throws IOException {
+    Path taskDirectory = Files.createTempDirectory("task");
+    try (ThreadMonitor monitor = new ThreadMonitor(taskDirectory, 1)) {
+      writeSchedstat(taskDirectory, 10, "java", 286125L, 114945L, 2L);
+      writeSchedstat(taskDirectory, 11, "GC Thread#0", 1000L, 500000L, 10L);
+      writeSchedstat(taskDirectory, 12, "worker", 5000L, 200000L, 20L);
+
+      // without samples ordered by total wait time
+      List<ThreadSchedule> unsampled = monitor.mostDelayedThreads(2);
+      assertThat(unsampled).extracting(ThreadSchedule::getTid).containsExactly(11, 12);
+      assertEquals("GC Thread#0", unsampled.get(0).getName());
+      assertEquals(0L, unsampled.get(0).getWaitTimeDelta());
+      assertEquals(10L, unsampled.get(0).getTimeslices());
+
+      monitor.sampleSchedules();
+      assertEquals(0.0d, monitor.getRunQueueDelay());
+      assertEquals(3, monitor.getThreadCount());
+
+      writeSchedstat(taskDirectory, 10, "java", 286125L, 1114945L, 3L);
+      writeSchedstat(taskDirectory, 12, "worker", 9000L, 300000L, 25L);
+      TestFiles.delete(taskDirectory.resolve("11"));
+      monitor.sampleSchedules();
+
+      List<ThreadSchedule> sampled = monitor.mostDelayedThreads(10);
+      assertThat(sampled).extracting(ThreadSchedule::getTid).containsExactly(10, 12);
+      assertThat(sampled).extracting(ThreadSchedule::getWaitTimeDelta).containsExactly(1000000L, 100000L);
+      assertEquals(1114945L, sampled.get(0).getWaitTime());
+      assertThat(sampled.get(0).getRunQueueDelay()).isPositive();
+      assertThat(monitor.getRunQueueDelay()).isPositive();
+      assertEquals(2, monitor.getThreadCount());
+
+      // the operation does not move the baseline
+      writeSchedstat(taskDirectory, 12, "worker", 9000L, 900000L, 25L);
+      assertThat(monitor.mostDelayedThreads(10)).extracting(ThreadSchedule::getWaitTimeDelta)
+        .containsExactly(1000000L, 100000L);
+    } finally {
+      TestFiles.delete(taskDirectory);
+    }
+  }
+
+  @Test
+  void liveSchedule() {
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false);
+         ThreadMonitor monitor = new ThreadMonitor(sampler)) {
+      sampler.sample();
+      sampler.sample();
+      List<ThreadSchedule> delayed = monitor.mostDelayedThreads(3);
+      assertThat(delayed).hasSize(3);
+      assertThat(monitor.getRunQueueDelay()).isNotNegative();
+      assertThat(monitor.getThreadCount()).isPositive();
+    }
+  }
+
+  @Test
+  void nativeName() {
+    assertEquals("main", ThreadMonitor.nativeName("main"));
+    assertEquals("C2 CompilerThre", ThreadMonitor.nativeName("C2 CompilerThread0"));
+    assertEquals("äääääää", ThreadMonitor.nativeName("ääääääää"));
+  }
+
+  @Test
+  void liveThreads() throws InterruptedException {
+    // Java 8 does not set the native names of Java threads
+    assumeFalse(System.getProperty("java.specification.version").equals("1.8"));
+    CountDownLatch stop = new CountDownLatch(1);
+    Thread spinner = new Thread(() -> {
+      long counter = 0L;
+      while (stop.getCount() > 0L) {
+        counter += 1L;
+      }
+      assertThat(counter).isPositive();
+    }, "busy-spinner");
+    try (ThreadMonitor monitor = new ThreadMonitor()) {
+      spinner.start();
+      monitor.busiestThreads(1);
+      TimeUnit.MILLISECONDS.sleep(300L);
+      // the JIT threads compiling the loop may be busier
+      List<ThreadCpu> busiest = monitor.busiestThreads(5);
+      assertThat(busiest)
+        .filteredOn(thread -> "busy-spinner".equals(thread.getJavaName()))
+        .hasSize(1)
+        .allMatch(thread -> thread.getCpuUtilization() > 10.0d);
+    } finally {
+      stop.countDown();
+      spinner.join();
+    }
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.github.marschall.procmbean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Notification;
+
+import org.junit.jupiter.api.Test;
+
+class ThresholdMonitorTest {
+
+  private static Sample sampleWithOomScore(Sample template, int oomScore) {
+    return new Sample(template.timestamp, template.nanoTime, template.stat, template.status,
+            template.memoryUsage, template.io, oomScore);
+  }
+
+  @Test
+  void hysteresis() {
+    ThresholdMonitor monitor = new ThresholdMonitor();
+    List<Notification> notifications = new ArrayList<>();
+    monitor.addNotificationListener((notification, handback) -> notifications.add(notification), null, null);
+    monitor.setThreshold("OomScore", 800L, 600L);
+
+    Sample template = Sample.read(new Proc());
+    monitor.onSample(sampleWithOomScore(template, 500));
+    assertThat(notifications).isEmpty();
+
+    monitor.onSample(sampleWithOomScore(template, 800));
+    assertThat(notifications).hasSize(1);
+    assertEquals(ThresholdMonitor.THRESHOLD_EXCEEDED, notifications.get(0).getType());
+    assertEquals(800L, notifications.get(0).getUserData());
+
+    // between the watermarks or above, still exceeded
+    monitor.onSample(sampleWithOomScore(template, 700));
+    monitor.onSample(sampleWithOomScore(template, 900));
+    assertThat(notifications).hasSize(1);
+    Threshold threshold = monitor.getThresholds().get(0);
+    assertTrue(threshold.isExceeded());
+    assertEquals(900L, threshold.getValue());
+
+    monitor.onSample(sampleWithOomScore(template, 600));
+    assertThat(notifications).hasSize(2);
+    assertEquals(ThresholdMonitor.THRESHOLD_CLEARED, notifications.get(1).getType());
+    assertFalse(monitor.getThresholds().get(0).isExceeded());
+
+    monitor.onSample(sampleWithOomScore(template, 850));
+    assertThat(notifications).hasSize(3);
+    assertEquals(2L, monitor.getExceededCount());
+  }
+
+  @Test
+  void sampler() {
+    try (Sampler sampler = new Sampler(new Proc(), TimeUnit.HOURS.toMillis(1L), 16, false)) {
+      ThresholdMonitor monitor = new ThresholdMonitor(sampler);
+      List<Notification> notifications = new ArrayList<>();
+      monitor.addNotificationListener((notification, handback) -> notifications.add(notification), null, null);
+      monitor.setThreshold("Status.residentSet", 1L, 0L);
+      monitor.setThreshold("Status.swapped", Long.MAX_VALUE, 0L);
+      sampler.sample();
+      assertThat(notifications).hasSize(1);
+      assertEquals("Status.residentSet", monitor.getThresholds().get(0).getMetric());
+      assertEquals(2, monitor.getThresholds().size());
+    }
+  }
+
+  @Test
+  void setAndRemove() {
+    ThresholdMonitor monitor = new ThresholdMonitor();
+    monitor.setThreshold("Status.swapped", 100L, 50L);
+    monitor.setThreshold("Status.swapped", 200L, 100L);
+    assertThat(monitor.getThresholds()).hasSize(1);
+    assertEquals(200L, monitor.getThresholds().get(0).getHigh());
+    assertTrue(monitor.removeThreshold("Status.swapped"));
+    assertFalse(monitor.removeThreshold("Status.swapped"));
+    assertThat(monitor.getThresholds()).isEmpty();
+    assertThrows(IllegalArgumentException.class, () -> monitor.setThreshold("Status.swapped", 1L, 2L));
+    assertThrows(IllegalArgumentException.class, () -> monitor.setThreshold("Status.unknown", 2L, 1L));
+  }
+
+}
@@ -0,0 +1,39 @@
+package com.github.marschall.procmbean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TopNTest {
+
+  @Test
+  void largest() {
+    long[] keys = {5L, 1L, 9L, 3L, 7L, 9L, 0L, 8L};
+    TopN top = new TopN(3, keys);
+    for (int i = 0; i < keys.length; i++) {
+      top.offer(i);
+    }
+    int[] indices = top.drain();
+    assertThat(indices).hasSize(3);
+    assertThat(keys[indices[0]]).isEqualTo(9L);
+    assertThat(keys[indices[1]]).isEqualTo(9L);
+    assertThat(keys[indices[2]]).isEqualTo(8L);
+  }
+
+  @Test
+  void fewerThanCapacity() {
+    long[] keys = {2L, 4L};
+    TopN top = new TopN(5, keys);
+    top.offer(0);
+    top.offer(1);
+    assertThat(top.drain()).containsExactly(1, 0);
+  }
+
+  @Test
+  void zeroCapacity() {
+    TopN top = new TopN(0, new long[] {1L});
+    top.offer(0);
+    assertThat(top.drain()).isEmpty();
+  }
+
+}